@@ -0,0 +1,24 @@
+package io.piotrjastrzebski.playground.benchmarks;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+
+/**
+ * Some of the benchmarked code logs through {@link Gdx#app}, this sets up a silent headless one
+ */
+public class Headless {
+	private Headless () {
+	}
+
+	public static synchronized void init () {
+		if (Gdx.app != null) return;
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		// we dont need the loop, just Gdx.app
+		config.renderInterval = 1;
+		new HeadlessApplication(new ApplicationAdapter() {}, config);
+		Gdx.app.setLogLevel(Application.LOG_NONE);
+	}
+}
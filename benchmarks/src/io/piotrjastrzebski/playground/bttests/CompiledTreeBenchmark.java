@@ -0,0 +1,118 @@
+package io.piotrjastrzebski.playground.bttests;
+
+import com.badlogic.gdx.ai.btree.BehaviorTree;
+import com.badlogic.gdx.ai.btree.LeafTask;
+import com.badlogic.gdx.ai.btree.Task;
+import com.badlogic.gdx.ai.btree.annotation.TaskAttribute;
+import com.badlogic.gdx.ai.btree.branch.Parallel;
+import com.badlogic.gdx.ai.btree.branch.Selector;
+import com.badlogic.gdx.ai.btree.branch.Sequence;
+import com.badlogic.gdx.ai.btree.decorator.Invert;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stepping 10k agents with a cloned {@link BehaviorTree} each against one shared {@link CompiledTree}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompiledTreeBenchmark {
+	private static final int AGENTS = 10000;
+
+	BehaviorTree<?>[] trees;
+	Agent[] agents;
+	CompiledTree<Agent> compiled;
+	int[][] states;
+
+	@Setup(Level.Trial)
+	public void setup () {
+		Task<Agent> root = newRoot();
+		compiled = CompiledTree.compile(root);
+		trees = new BehaviorTree<?>[AGENTS];
+		agents = new Agent[AGENTS];
+		states = new int[AGENTS][];
+		for (int i = 0; i < AGENTS; i++) {
+			agents[i] = new Agent(i);
+			trees[i] = new BehaviorTree<>(root.cloneTask(), agents[i]);
+			states[i] = compiled.newState();
+		}
+	}
+
+	/**
+	 * Built with addChild, varargs branch constructors would make a generic array
+	 */
+	private static Task<Agent> newRoot () {
+		Parallel<Agent> parallel = new Parallel<>();
+		parallel.addChild(new Tick(2));
+		parallel.addChild(new Tick(4));
+		Sequence<Agent> first = new Sequence<>();
+		first.addChild(new Tick(3));
+		first.addChild(new Invert<>(new Tick(5)));
+		first.addChild(parallel);
+		Sequence<Agent> second = new Sequence<>();
+		second.addChild(new Tick(7));
+		second.addChild(new Tick(1));
+		Selector<Agent> root = new Selector<>();
+		root.addChild(first);
+		root.addChild(second);
+		root.addChild(new Tick(1));
+		return root;
+	}
+
+	@Benchmark
+	public int tree () {
+		int sum = 0;
+		for (int i = 0; i < AGENTS; i++) {
+			trees[i].step();
+			sum += agents[i].ticks;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int compiled () {
+		int sum = 0;
+		for (int i = 0; i < AGENTS; i++) {
+			compiled.step(agents[i], states[i]);
+			sum += agents[i].ticks;
+		}
+		return sum;
+	}
+
+	public static class Agent {
+		int ticks;
+
+		Agent (int ticks) {
+			this.ticks = ticks;
+		}
+	}
+
+	/**
+	 * Succeeds every {@code period} ticks of the agent, runs otherwise
+	 */
+	public static class Tick extends LeafTask<Agent> {
+		@TaskAttribute public int period;
+
+		public Tick () {
+		}
+
+		Tick (int period) {
+			this.period = period;
+		}
+
+		@Override public Status execute () {
+			Agent agent = getObject();
+			return ++agent.ticks % period == 0? Status.SUCCEEDED : Status.RUNNING;
+		}
+
+		@Override protected Task<Agent> copyTo (Task<Agent> task) {
+			((Tick)task).period = period;
+			return task;
+		}
+	}
+}
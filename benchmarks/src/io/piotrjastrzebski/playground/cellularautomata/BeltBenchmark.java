@@ -0,0 +1,107 @@
+package io.piotrjastrzebski.playground.cellularautomata;
+
+import io.piotrjastrzebski.playground.cellularautomata.Transport5Test.Belt;
+import io.piotrjastrzebski.playground.cellularautomata.Transport5Test.GameMap;
+import io.piotrjastrzebski.playground.cellularautomata.Transport5Test.Item;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single tick of {@link Transport5Test} belts, {@link GameMap#tick()} with {@link Belt#tick(int)} vs {@link BeltLines#tick()}
+ *
+ * Maps are filled with 3x3 belt loops, with an item on each belt, same layout for both models
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeltBenchmark {
+	@Param({"10000", "100000"})
+	public int belts;
+
+	@Param({"belt", "lines", "linesParallel"})
+	public String model;
+
+	GameMap[] maps;
+	BeltLines lines;
+	ForkJoinPool pool;
+
+	@Setup(Level.Trial)
+	public void setup () {
+		int cells = Transport5Test.WIDTH * Transport5Test.HEIGHT;
+		int perMap = (Transport5Test.WIDTH / 3) * (Transport5Test.HEIGHT / 3) * 8;
+		int mapCount = (belts + perMap - 1) / perMap;
+		maps = new GameMap[mapCount];
+		for (int m = 0; m < mapCount; m++) {
+			GameMap map = maps[m] = new GameMap();
+			for (int y = 0; y + 3 <= Transport5Test.HEIGHT; y += 3) {
+				for (int x = 0; x + 3 <= Transport5Test.WIDTH; x += 3) {
+					createLoop(map, x, y);
+				}
+			}
+		}
+		if ("belt".equals(model)) {
+			for (GameMap map : maps) {
+				for (Belt belt : map.belts) {
+					if (belt != null) belt.enqueue(new Item(belt.x, belt.y));
+				}
+				// puts queued items on belts
+				map.tick();
+			}
+			return;
+		}
+		pool = "linesParallel".equals(model)? new ForkJoinPool(4) : null;
+		lines = new BeltLines(Item.ITEM_SIZE, pool);
+		int[] slots = new int[cells * mapCount];
+		int[] next = new int[cells * mapCount];
+		for (int m = 0; m < mapCount; m++) {
+			GameMap map = maps[m];
+			int offset = m * cells;
+			for (int i = 0; i < cells; i++) {
+				Belt belt = map.belts[i];
+				next[offset + i] = BeltLines.NONE;
+				if (belt == null) continue;
+				slots[offset + i] = belt.slots.length;
+				Belt nextBelt = map.getNext(belt);
+				if (nextBelt != null) next[offset + i] = offset + nextBelt.index;
+			}
+		}
+		lines.setBelts(slots, next);
+		int item = 0;
+		for (int i = 0; i < slots.length; i++) {
+			if (slots[i] > 0) lines.addItem(i, item++);
+		}
+	}
+
+	private static void createLoop (GameMap map, int x, int y) {
+		map.setBelt(x + 0, y + 0, 3, 2);
+		map.setBelt(x + 1, y + 0, 1, 2);
+		map.setBelt(x + 2, y + 0, 3, 1);
+		map.setBelt(x + 0, y + 1, 1, 3);
+		map.setBelt(x + 2, y + 1, 1, 1);
+		map.setBelt(x + 0, y + 2, 3, 3);
+		map.setBelt(x + 1, y + 2, 1, 4);
+		map.setBelt(x + 2, y + 2, 3, 4);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown () {
+		if (pool != null) pool.shutdown();
+	}
+
+	@Benchmark
+	public int tick () {
+		if (lines != null) {
+			lines.tick();
+			return lines.getItemCount();
+		}
+		for (GameMap map : maps) {
+			map.tick();
+		}
+		return maps.length;
+	}
+}
@@ -0,0 +1,79 @@
+package io.piotrjastrzebski.playground.cellularautomata;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single {@link WaterSimulation#step(float)} on maps much larger than {@link WaterTest}
+ *
+ * active wakes all chunks every tick, drip has a settled shallow pool with a single water source,
+ * deep water doesn't settle, the rule keeps oscillating under pressure
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaterSimulationBenchmark {
+	@Param({"256", "1024"})
+	public int size;
+
+	/** 0 for serial */
+	@Param({"0", "4"})
+	public int threads;
+
+	@Param({"active", "drip"})
+	public String scenario;
+
+	ForkJoinPool pool;
+	WaterSimulation simulation;
+	boolean active;
+
+	@Setup(Level.Trial)
+	public void setup () {
+		pool = threads > 0? new ForkJoinPool(threads) : null;
+		simulation = new WaterSimulation(size, size, WaterSimulation.DEFAULT_CHUNK_SIZE, pool);
+		for (int i = 0; i < size; i++) {
+			simulation.setBlock(i, 0);
+			simulation.setBlock(0, i);
+			simulation.setBlock(size - 1, i);
+		}
+		Random random = new Random(1337);
+		for (int i = 0; i < size * size / 64; i++) {
+			simulation.setBlock(1 + random.nextInt(size - 2), 1 + random.nextInt(size - 2));
+		}
+		active = "active".equals(scenario);
+		int depth = active? size / 4 : 4;
+		for (int y = 1; y < depth; y++) {
+			for (int x = 1; x < size - 1; x++) {
+				simulation.addWater(x, y, 1);
+			}
+		}
+		if (!active) {
+			// let it settle
+			for (int i = 0; i < 5000 && simulation.getActiveChunks() > 0; i++) {
+				simulation.step(1 / 60f);
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown () {
+		if (pool != null) pool.shutdown();
+	}
+
+	@Benchmark
+	public int step () {
+		if (active) {
+			simulation.wakeAll();
+		} else {
+			simulation.addWater(size / 2, size - 2, .1f);
+		}
+		simulation.step(1 / 60f);
+		return simulation.getActiveChunks();
+	}
+}
@@ -0,0 +1,90 @@
+package io.piotrjastrzebski.playground.ecs.aijobs;
+
+import com.badlogic.gdx.ai.btree.BehaviorTree;
+import com.badlogic.gdx.ai.btree.LeafTask;
+import com.badlogic.gdx.ai.btree.Task;
+import com.badlogic.gdx.ai.btree.branch.Selector;
+import com.badlogic.gdx.ai.btree.branch.Sequence;
+import io.piotrjastrzebski.playground.ecs.aijobs.components.Worker;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single tick of {@link AIScheduler} with 10k workers, with trees shaped like worker.tree
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AISchedulerBenchmark {
+	private static final int WORKERS = 10000;
+
+	@Param({"1", "4"})
+	public int interval;
+
+	@Param({"0", "2"})
+	public int threads;
+
+	AIScheduler scheduler;
+
+	@Setup(Level.Trial)
+	public void setup () {
+		scheduler = new AIScheduler(threads);
+		for (int i = 0; i < WORKERS; i++) {
+			Worker worker = new Worker();
+			worker.eid = i;
+			worker.ai = new BehaviorTree<>(tree(), worker);
+			scheduler.add(worker, interval);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown () {
+		scheduler.dispose();
+	}
+
+	/**
+	 * Built with addChild, varargs branch constructors would make a generic array
+	 */
+	private static Task<Worker> tree () {
+		Sequence<Worker> sequence = new Sequence<>();
+		sequence.addChild(new Work());
+		sequence.addChild(new Work());
+		sequence.addChild(new Work(true));
+		Selector<Worker> selector = new Selector<>();
+		selector.addChild(sequence);
+		selector.addChild(new Work());
+		return selector;
+	}
+
+	@Benchmark
+	public int tick () {
+		scheduler.tick(1 / 60f);
+		return scheduler.getStepped();
+	}
+
+	private static class Work extends LeafTask<Worker> {
+		final boolean fail;
+
+		Work () {
+			this(false);
+		}
+
+		Work (boolean fail) {
+			this.fail = fail;
+		}
+
+		@Override public Status execute () {
+			Blackhole.consumeCPU(32);
+			return fail? Status.FAILED : Status.SUCCEEDED;
+		}
+
+		@Override protected Task<Worker> copyTo (Task<Worker> task) {
+			return task;
+		}
+	}
+}
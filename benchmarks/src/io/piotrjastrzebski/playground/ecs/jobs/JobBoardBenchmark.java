@@ -0,0 +1,79 @@
+package io.piotrjastrzebski.playground.ecs.jobs;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Claiming nearest ready job from {@link JobBoard} against linear scan of all jobs, like Jobs used to do
+ *
+ * Each claimed job is released right away, so the number of ready jobs stays the same
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JobBoardBenchmark {
+	@Param({"1000", "10000"})
+	public int jobs;
+
+	private static final int POINTS = 1024;
+
+	JobBoard board;
+	float[] xs, ys;
+	boolean[] claimed;
+	float[] points = new float[POINTS * 2];
+	int next;
+
+	@Setup(Level.Trial)
+	public void setup () {
+		Random random = new Random(7);
+		float size = (float)Math.sqrt(jobs) * 4;
+		board = new JobBoard(4);
+		xs = new float[jobs];
+		ys = new float[jobs];
+		claimed = new boolean[jobs];
+		for (int i = 0; i < jobs; i++) {
+			xs[i] = random.nextFloat() * size;
+			ys[i] = random.nextFloat() * size;
+			board.add(i, random.nextInt(3), xs[i], ys[i]);
+		}
+		for (int i = 0; i < points.length; i++) {
+			points[i] = random.nextFloat() * size;
+		}
+	}
+
+	@Benchmark
+	public int board () {
+		int i = next();
+		int id = board.claimNearest(points[i], points[i + 1]);
+		board.release(id);
+		return id;
+	}
+
+	@Benchmark
+	public int linear () {
+		int i = next();
+		float x = points[i];
+		float y = points[i + 1];
+		int best = JobBoard.NULL_ID;
+		float bestDst = Float.MAX_VALUE;
+		for (int j = 0; j < jobs; j++) {
+			if (claimed[j]) continue;
+			float dst = (xs[j] - x) * (xs[j] - x) + (ys[j] - y) * (ys[j] - y);
+			if (dst < bestDst) {
+				bestDst = dst;
+				best = j;
+			}
+		}
+		return best;
+	}
+
+	private int next () {
+		next = (next + 2) % points.length;
+		return next;
+	}
+}
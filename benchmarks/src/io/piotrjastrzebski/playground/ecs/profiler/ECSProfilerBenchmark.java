@@ -0,0 +1,140 @@
+package io.piotrjastrzebski.playground.ecs.profiler;
+
+import com.artemis.World;
+import com.artemis.WorldConfiguration;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.viewport.ExtendViewport;
+import io.piotrjastrzebski.playground.benchmarks.Headless;
+import io.piotrjastrzebski.playground.ecs.profilerv2.lib.ProfilerReport;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Steps worlds of {@link ECSShapeProfilerTest} and {@link ECSPolyProfilerTest} without GL, at fixed delta,
+ * and prints per system timings collected by {@link SystemProfiler}
+ *
+ * Not a jmh benchmark, we want timings of each system in a real world, not of a single method
+ *
+ * run with: gradlew benchmarks:ecsProfiler -Pargs="scenario=shape ticks=1200 csv=build/shape.csv"
+ */
+public class ECSProfilerBenchmark {
+	public enum Scenario {
+		SHAPE(ProfilerWorlds.SHAPE_ENTITIES), POLY(ProfilerWorlds.POLY_ENTITIES);
+
+		public final int entities;
+
+		Scenario (int entities) {
+			this.entities = entities;
+		}
+	}
+
+	public Scenario scenario = Scenario.SHAPE;
+	public int entities = -1;
+	public int warmup = 300;
+	public int ticks = 600;
+	public float delta = 1 / 60f;
+	public long seed = 1;
+
+	/**
+	 * Run the scenario, profilers of previous runs are discarded
+	 * @return profilers with samples of measured ticks, first one is for whole frame
+	 */
+	public Array<SystemProfiler> run () {
+		Headless.init();
+		SystemProfiler.dispose();
+		// keep all measured samples
+		SystemProfiler.SAMPLES = ticks;
+		MathUtils.random.setSeed(seed);
+
+		WorldConfiguration config = new WorldConfiguration();
+		config.register(new ExtendViewport(16, 16));
+		ProfilerWorlds.setSimulationSystems(config);
+		config.setInvocationStrategy(new ECSShapeProfilerTest.ProfilerIS());
+		World world = new World(config);
+		ProfilerWorlds.createEntities(world, entities > 0 ? entities : scenario.entities);
+
+		world.delta = delta;
+		SystemProfiler.pause();
+		for (int i = 0; i < warmup; i++) {
+			world.process();
+		}
+		SystemProfiler.resume();
+		for (int i = 0; i < ticks; i++) {
+			world.process();
+		}
+		SystemProfiler.pause();
+		world.dispose();
+		return new Array<>(SystemProfiler.get());
+	}
+
+	/**
+	 * Write one line per profiler, times in microseconds
+	 */
+	public static void write (Array<SystemProfiler> profilers, PrintWriter out, boolean csv) {
+		if (csv) {
+			out.println("system,samples,mean_us,p50_us,p95_us,p99_us,max_us");
+		} else {
+			out.println(String.format(Locale.US, "%-26s %8s %10s %10s %10s %10s %10s", "system", "samples", "mean us", "p50 us", "p95 us", "p99 us", "max us"));
+		}
+		String format = csv ? "%s,%d,%.1f,%.1f,%.1f,%.1f,%.1f" : "%-26s %8d %10.1f %10.1f %10.1f %10.1f %10.1f";
+		for (SystemProfiler profiler : profilers) {
+			int count = Math.min(profiler.samples, profiler.times.length);
+			long[] sorted = Arrays.copyOf(profiler.times, count);
+			Arrays.sort(sorted);
+			long total = 0;
+			for (long time : sorted) total += time;
+			out.println(String.format(Locale.US, format, profiler.getName(), count,
+				count == 0 ? 0 : total / 1000f / count,
+				percentile(sorted, .50f), percentile(sorted, .95f), percentile(sorted, .99f),
+				count == 0 ? 0 : sorted[count - 1] / 1000f));
+		}
+		out.flush();
+	}
+
+	private static float percentile (long[] sorted, float percentile) {
+		if (sorted.length == 0) return 0;
+		return ProfilerReport.percentile(sorted, sorted.length, percentile) / 1000f;
+	}
+
+	/**
+	 * Arguments as key=value, scenario=shape|poly, entities, warmup, ticks, delta, seed, csv=path
+	 */
+	public static void main (String[] args) throws IOException {
+		ECSProfilerBenchmark benchmark = new ECSProfilerBenchmark();
+		String csv = null;
+		for (String arg : args) {
+			int split = arg.indexOf('=');
+			if (split < 0) throw new IllegalArgumentException("Expected key=value, got " + arg);
+			String key = arg.substring(0, split);
+			String value = arg.substring(split + 1);
+			switch (key) {
+			case "scenario": benchmark.scenario = Scenario.valueOf(value.toUpperCase(Locale.US)); break;
+			case "entities": benchmark.entities = Integer.parseInt(value); break;
+			case "warmup": benchmark.warmup = Integer.parseInt(value); break;
+			case "ticks": benchmark.ticks = Integer.parseInt(value); break;
+			case "delta": benchmark.delta = Float.parseFloat(value); break;
+			case "seed": benchmark.seed = Long.parseLong(value); break;
+			case "csv": csv = value; break;
+			default: throw new IllegalArgumentException("Unknown argument " + key);
+			}
+		}
+		Array<SystemProfiler> profilers = benchmark.run();
+		System.out.println(benchmark.scenario + ", " + (benchmark.entities > 0 ? benchmark.entities : benchmark.scenario.entities)
+			+ " entities, " + benchmark.ticks + " ticks at " + benchmark.delta + "s, seed " + benchmark.seed);
+		write(profilers, new PrintWriter(System.out), false);
+		if (csv != null) {
+			PrintWriter out = new PrintWriter(new FileWriter(csv));
+			try {
+				write(profilers, out, true);
+			} finally {
+				out.close();
+			}
+		}
+		System.exit(0);
+	}
+}
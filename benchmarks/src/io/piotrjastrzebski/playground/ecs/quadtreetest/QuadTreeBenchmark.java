@@ -0,0 +1,174 @@
+package io.piotrjastrzebski.playground.ecs.quadtreetest;
+
+import com.artemis.utils.IntBag;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert, update and query costs of {@link QuadTree} and {@link FlatQuadTree}
+ *
+ * Each invocation processes all entities, or {@link #QUERIES} queries
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuadTreeBenchmark {
+	public final static float WIDTH = 1000;
+	public final static float HEIGHT = 1000;
+	public final static int QUERIES = 256;
+
+	@Param({"1000", "10000", "50000", "200000"})
+	public int count;
+
+	@Param({"uniform", "clustered"})
+	public String distribution;
+
+	@Param({"QuadTree", "FlatQuadTree"})
+	public String impl;
+
+	float[] bounds;
+	float[] moved;
+	float[] queries;
+	IntBag ids;
+	IntBag fill;
+	QuadTree quadTree;
+	FlatQuadTree flatTree;
+
+	@Setup(Level.Trial)
+	public void setup () {
+		Random random = new Random(1337);
+		bounds = new float[count * 4];
+		moved = new float[count * 4];
+		ids = new IntBag(count);
+		boolean clustered = "clustered".equals(distribution);
+		float[] clusters = new float[16 * 2];
+		for (int i = 0; i < clusters.length; i += 2) {
+			clusters[i] = random.nextFloat() * WIDTH;
+			clusters[i + 1] = random.nextFloat() * HEIGHT;
+		}
+		for (int i = 0; i < count; i++) {
+			float width = .5f + random.nextFloat() * 2;
+			float height = .5f + random.nextFloat() * 2;
+			float x;
+			float y;
+			if (clustered) {
+				int cluster = random.nextInt(clusters.length / 2) * 2;
+				x = clusters[cluster] + (float)random.nextGaussian() * WIDTH / 50;
+				y = clusters[cluster + 1] + (float)random.nextGaussian() * HEIGHT / 50;
+			} else {
+				x = random.nextFloat() * WIDTH;
+				y = random.nextFloat() * HEIGHT;
+			}
+			x = clamp(x, 0, WIDTH - width - 1);
+			y = clamp(y, 0, HEIGHT - height - 1);
+			set(bounds, i, x, y, width, height);
+			set(moved, i, clamp(x + random.nextFloat() * 2 - 1, 0, WIDTH - width - 1),
+				clamp(y + random.nextFloat() * 2 - 1, 0, HEIGHT - height - 1), width, height);
+			ids.add(i);
+		}
+		queries = new float[QUERIES * 4];
+		for (int i = 0; i < QUERIES; i++) {
+			// queries follow the distribution, so clustered maps hit crowded areas
+			int target = random.nextInt(count);
+			set(queries, i, bounds[target * 4] - 10, bounds[target * 4 + 1] - 10, 20, 20);
+		}
+		fill = new IntBag(count);
+		if ("QuadTree".equals(impl)) {
+			quadTree = new QuadTree(0, 0, WIDTH, HEIGHT);
+		} else {
+			flatTree = new FlatQuadTree(0, 0, WIDTH, HEIGHT, QuadTree.MAX_IN_BUCKET, QuadTree.MAX_DEPTH, count);
+		}
+		insertAll(bounds);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown () {
+		if (quadTree != null) quadTree.dispose();
+		if (flatTree != null) flatTree.dispose();
+	}
+
+	private static float clamp (float value, float min, float max) {
+		return value < min ? min : value > max ? max : value;
+	}
+
+	private static void set (float[] data, int index, float x, float y, float width, float height) {
+		data[index * 4] = x;
+		data[index * 4 + 1] = y;
+		data[index * 4 + 2] = width;
+		data[index * 4 + 3] = height;
+	}
+
+	private void insertAll (float[] data) {
+		if (quadTree != null) {
+			quadTree.reset();
+			for (int i = 0; i < count; i++) {
+				quadTree.insert(i, data[i * 4], data[i * 4 + 1], data[i * 4 + 2], data[i * 4 + 3]);
+			}
+		} else {
+			flatTree.reset();
+			for (int i = 0; i < count; i++) {
+				flatTree.insert(i, data[i * 4], data[i * 4 + 1], data[i * 4 + 2], data[i * 4 + 3]);
+			}
+		}
+	}
+
+	@Benchmark
+	public void insert () {
+		insertAll(bounds);
+	}
+
+	/**
+	 * Moves every entity back and forth by a small amount
+	 */
+	@Benchmark
+	public void update () {
+		float[] data = moved;
+		moved = bounds;
+		bounds = data;
+		if (quadTree != null) {
+			for (int i = 0; i < count; i++) {
+				quadTree.update(i, data[i * 4], data[i * 4 + 1], data[i * 4 + 2], data[i * 4 + 3]);
+			}
+		} else {
+			for (int i = 0; i < count; i++) {
+				flatTree.update(i, data[i * 4], data[i * 4 + 1], data[i * 4 + 2], data[i * 4 + 3]);
+			}
+		}
+	}
+
+	/**
+	 * Same as {@link #update()}, but via {@link FlatQuadTree#rebuild(IntBag, float[])}
+	 * {@link QuadTree} has no bulk rebuild, so it is reset and everything is inserted again
+	 */
+	@Benchmark
+	public void rebuild () {
+		float[] data = moved;
+		moved = bounds;
+		bounds = data;
+		if (quadTree != null) {
+			insertAll(data);
+		} else {
+			flatTree.rebuild(ids, data);
+		}
+	}
+
+	@Benchmark
+	public void queryExact (Blackhole bh) {
+		float[] queries = this.queries;
+		for (int i = 0; i < QUERIES; i++) {
+			fill.setSize(0);
+			if (quadTree != null) {
+				quadTree.getExact(fill, queries[i * 4], queries[i * 4 + 1], queries[i * 4 + 2], queries[i * 4 + 3]);
+			} else {
+				flatTree.getExact(fill, queries[i * 4], queries[i * 4 + 1], queries[i * 4 + 2], queries[i * 4 + 3]);
+			}
+			bh.consume(fill.size());
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package io.piotrjastrzebski.playground.ecs.sat.processors;
+
+import com.artemis.EntityEdit;
+import com.artemis.World;
+import com.artemis.WorldConfiguration;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.math.MathUtils;
+import io.piotrjastrzebski.playground.ecs.sat.components.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frame of {@link Collision} without debug drawing, {@link #moving} part of colliders move a bit every frame
+ *
+ * Colliders are spread so each overlaps few others, {@link Counters} report pairs from broadphase, full SAT tests,
+ * pairs reused from the pair cache and contacts in a frame
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+	@Param({"1000", "5000", "20000"})
+	public int colliders;
+
+	@Param({"true", "false"})
+	public boolean broadphase;
+
+	@Param({"true", "false"})
+	public boolean pairCache;
+
+	@Param({"1", "0.05"})
+	public float moving;
+
+	World world;
+	Collision collision;
+	Transform[] transforms;
+	Random random = new Random(11);
+
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class Counters {
+		public long pairs;
+		public long satTests;
+		public long cacheHits;
+		public long contacts;
+	}
+
+	@Setup(Level.Trial)
+	public void setup () {
+		WorldConfiguration config = new WorldConfiguration();
+		config.setSystem(new PolygonUpdater());
+		config.setSystem(new CircleUpdater());
+		collision = new Collision();
+		collision.debug = false;
+		collision.broadphase = broadphase;
+		collision.pairCache = pairCache;
+		config.setSystem(collision);
+		world = new World(config);
+
+		float size = (float)Math.sqrt(colliders) * 4;
+		transforms = new Transform[colliders];
+		for (int i = 0; i < colliders; i++) {
+			EntityEdit ee = world.createEntity().edit();
+			if (i % 2 == 0) {
+				ee.create(Circle.class).radius = .5f + random.nextFloat();
+			} else {
+				float w = .5f + random.nextFloat();
+				float h = .5f + random.nextFloat();
+				ee.create(Polygon.class).polygon.setVertices(new float[] {-w, -h, w, -h, w, h, -w, h});
+			}
+			Transform transform = ee.create(Transform.class);
+			transform.pos.set(random.nextFloat() * size, random.nextFloat() * size);
+			transform.rot = random.nextFloat() * 360;
+			ee.create(Collider.class);
+			ee.create(AABB.class);
+			transforms[i] = transform;
+		}
+		world.process();
+	}
+
+	@Benchmark
+	public int frame (Counters counters) {
+		for (int i = 0, n = (int)(transforms.length * moving); i < n; i++) {
+			Transform transform = transforms[i];
+			transform.pos.add(MathUtils.random(-.05f, .05f), MathUtils.random(-.05f, .05f));
+			transform.rot += 1;
+		}
+		world.process();
+		counters.pairs = collision.getPairsTested();
+		counters.satTests = collision.getSatTests();
+		counters.cacheHits = collision.getStaticHits() + collision.getAxisHits();
+		counters.contacts = collision.getContacts().size;
+		return collision.getContacts().size;
+	}
+}
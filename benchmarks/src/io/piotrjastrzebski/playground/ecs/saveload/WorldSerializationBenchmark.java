@@ -0,0 +1,116 @@
+package io.piotrjastrzebski.playground.ecs.saveload;
+
+import com.artemis.*;
+import com.artemis.io.JsonArtemisSerializer;
+import com.artemis.io.SaveFileFormat;
+import com.artemis.managers.WorldSerializationManager;
+import com.artemis.utils.IntBag;
+import io.piotrjastrzebski.playground.benchmarks.Headless;
+import io.piotrjastrzebski.playground.ecs.worldiotest.ECSWorldIOTest.ComponentRef;
+import io.piotrjastrzebski.playground.ecs.worldiotest.ECSWorldIOTest.ComponentX;
+import io.piotrjastrzebski.playground.ecs.worldiotest.ECSWorldIOTest.ComponentY;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Save and load of a world with components from {@link io.piotrjastrzebski.playground.ecs.worldiotest.ECSWorldIOTest},
+ * json as in {@link ECSSaveLoad} vs {@link KryoWorldSerializer}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldSerializationBenchmark {
+	@Param({"1000", "100000"})
+	public int count;
+
+	@Param({"json", "kryo"})
+	public String format;
+
+	World world;
+	IntBag entities;
+	ByteArrayOutputStream out;
+	byte[] saved;
+
+	World target;
+
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class Counters {
+		public long bytes;
+	}
+
+	@Setup(Level.Trial)
+	public void setup () {
+		Headless.init();
+		world = createWorld();
+		for (int i = 0; i < count; i++) {
+			EntityEdit edit = world.createEntity().edit();
+			edit.create(ComponentX.class).text = "hello" + i;
+			edit.create(ComponentY.class).text = "whatever" + i;
+		}
+		world.process();
+		entities = world.getAspectSubscriptionManager().get(Aspect.all()).getEntities();
+		// each entity references the next one
+		ComponentMapper<ComponentRef> mRef = world.getMapper(ComponentRef.class);
+		for (int i = 0; i < entities.size(); i++) {
+			int next = entities.get((i + 1) % entities.size());
+			ComponentRef ref = mRef.create(entities.get(i));
+			ref.id = next;
+			ref.e = world.getEntity(next);
+		}
+		world.process();
+		out = new ByteArrayOutputStream(count * 64);
+		write();
+		saved = out.toByteArray();
+	}
+
+	private World createWorld () {
+		WorldConfiguration config = new WorldConfiguration();
+		config.setSystem(new WorldSerializationManager());
+		World world = new World(config);
+		JsonArtemisSerializer serializer = new JsonArtemisSerializer(world);
+		serializer.prettyPrint(true);
+		serializer.setUsePrototypes(false);
+		world.getSystem(WorldSerializationManager.class).setSerializer(serializer);
+		return world;
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation () {
+		out.reset();
+		target = createWorld();
+	}
+
+	@Benchmark
+	public int save (Counters counters) {
+		write();
+		counters.bytes = out.size();
+		return out.size();
+	}
+
+	private void write () {
+		if ("json".equals(format)) {
+			world.getSystem(WorldSerializationManager.class).save(out, new SaveFileFormat(entities));
+		} else {
+			new KryoWorldSerializer(world).save(entities, out);
+		}
+	}
+
+	@Benchmark
+	public int load () {
+		ByteArrayInputStream is = new ByteArrayInputStream(saved);
+		if ("json".equals(format)) {
+			target.getSystem(WorldSerializationManager.class).load(is, SaveFileFormat.class);
+		} else {
+			new KryoWorldSerializer(target).load(is);
+		}
+		target.process();
+		return target.getAspectSubscriptionManager().get(Aspect.all()).getEntities().size();
+	}
+}
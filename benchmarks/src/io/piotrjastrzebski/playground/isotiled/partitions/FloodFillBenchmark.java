@@ -0,0 +1,57 @@
+package io.piotrjastrzebski.playground.isotiled.partitions;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FloodFiller#floodFill(int, int, TileMap, IntArray)} over whole map and per region
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FloodFillBenchmark {
+	@Param({"64", "256", "1024"})
+	public int size;
+
+	@Param({"open", "rooms"})
+	public String layout;
+
+	TileMap tileMap;
+	FloodFiller filler;
+	IntArray out;
+	int startX;
+	int startY;
+
+	@Setup(Level.Trial)
+	public void setup () {
+		int[] map = "open".equals(layout)? PartitionMaps.open(size, size) : PartitionMaps.rooms(size, size, 1337);
+		// no rebuild, flood fill only needs tiles
+		tileMap = new TileMap(map, size, size, PartitionMaps.REGION_SIZE);
+		Tile start = tileMap.getTile(PartitionMaps.firstFloor(tileMap));
+		startX = start.x;
+		startY = start.y;
+		filler = new FloodFiller();
+		out = new IntArray(size * size);
+	}
+
+	@Benchmark
+	public int floodFillMap () {
+		filler.floodFill(startX, startY, tileMap, out);
+		return out.size;
+	}
+
+	@Benchmark
+	public int floodFillRegions () {
+		int total = 0;
+		for (MapRegion region : tileMap.regions) {
+			filler.floodFill(region.x, region.y, region, tileMap, out);
+			total += out.size;
+		}
+		return total;
+	}
+}
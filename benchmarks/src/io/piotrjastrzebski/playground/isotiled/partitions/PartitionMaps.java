@@ -0,0 +1,58 @@
+package io.piotrjastrzebski.playground.isotiled.partitions;
+
+import java.util.Random;
+
+/**
+ * Generates maps for {@link TileMap} benchmarks, 0 - floor, 1 - wall, 2 - door
+ */
+class PartitionMaps {
+	public final static int REGION_SIZE = 8;
+	public final static int ROOM_SIZE = 16;
+
+	private PartitionMaps () {
+	}
+
+	/**
+	 * Grid of rooms separated by walls with doors, with some random wall pieces inside
+	 *
+	 * Rows are flipped like in {@link TiledPartitionV2Test#map}, first row is the top of the map
+	 */
+	public static int[] rooms (int width, int height, long seed) {
+		Random random = new Random(seed);
+		int[] map = new int[width * height];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int type = 0;
+				boolean wallX = x % ROOM_SIZE == ROOM_SIZE - 1;
+				boolean wallY = y % ROOM_SIZE == ROOM_SIZE - 1;
+				if (wallX || wallY) {
+					type = 1;
+					// door in the middle of each wall segment
+					if (wallX && !wallY && y % ROOM_SIZE == ROOM_SIZE / 2) type = 2;
+					if (wallY && !wallX && x % ROOM_SIZE == ROOM_SIZE / 2) type = 2;
+				} else if (random.nextFloat() < .05f) {
+					type = 1;
+				}
+				map[x + y * width] = type;
+			}
+		}
+		return map;
+	}
+
+	/**
+	 * Single open area, worst case for flood fill
+	 */
+	public static int[] open (int width, int height) {
+		return new int[width * height];
+	}
+
+	/**
+	 * @return index of first floor tile in map tile coordinates, x + y * width
+	 */
+	public static int firstFloor (TileMap tileMap) {
+		for (Tile tile : tileMap.tiles) {
+			if (tile.type == 0) return tile.id;
+		}
+		throw new AssertionError("No floor tiles!");
+	}
+}
@@ -0,0 +1,78 @@
+package io.piotrjastrzebski.playground.isotiled.partitions;
+
+import com.badlogic.gdx.utils.IntArray;
+import io.piotrjastrzebski.playground.benchmarks.Headless;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RegionPathFinder} against plain tile A* on a map of rooms, between random floor tiles
+ *
+ * {@link #cached()} uses a small set of start and goal points, like many agents going to few places
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegionPathFinderBenchmark {
+	@Param({"256", "1024"})
+	public int size;
+
+	private static final int PAIRS = 256;
+	private static final int CACHED_PAIRS = 16;
+
+	TileMap tileMap;
+	RegionPathFinder finder;
+	int[] points = new int[PAIRS * 4];
+	int next;
+	IntArray path = new IntArray();
+
+	@Setup(Level.Trial)
+	public void setup () {
+		Headless.init();
+		tileMap = new TileMap(PartitionMaps.rooms(size, size, 1337), size, size, PartitionMaps.REGION_SIZE);
+		tileMap.rebuild();
+		finder = new RegionPathFinder(tileMap);
+		Random random = new Random(7);
+		for (int i = 0; i < points.length; i += 2) {
+			int x, y;
+			do {
+				x = random.nextInt(size);
+				y = random.nextInt(size);
+			} while (tileMap.getTileAt(x, y).type != 0);
+			points[i] = x;
+			points[i + 1] = y;
+		}
+	}
+
+	@Benchmark
+	public int tile () {
+		int i = next();
+		finder.findTilePath(points[i], points[i + 1], points[i + 2], points[i + 3], path);
+		return path.size;
+	}
+
+	@Benchmark
+	public int uncached () {
+		int i = next();
+		finder.clearCache();
+		finder.findPath(points[i], points[i + 1], points[i + 2], points[i + 3], path);
+		return path.size;
+	}
+
+	@Benchmark
+	public int cached () {
+		int i = next() % (CACHED_PAIRS * 4);
+		finder.findPath(points[i], points[i + 1], points[i + 2], points[i + 3], path);
+		return path.size;
+	}
+
+	private int next () {
+		next = (next + 4) % points.length;
+		return next;
+	}
+}
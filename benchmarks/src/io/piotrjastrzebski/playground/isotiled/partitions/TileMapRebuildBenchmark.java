@@ -0,0 +1,90 @@
+package io.piotrjastrzebski.playground.isotiled.partitions;
+
+import io.piotrjastrzebski.playground.benchmarks.Headless;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TileMap#rebuild(int, int)} after a single tile edit, like the edit mode in {@link TiledPartitionV2Test}
+ *
+ * Each invocation toggles a wall at next position in a fixed walk over the map, so edits are spread over all regions
+ * {@link #coalesced()} schedules a burst of edits in one spot and rebuilds them once, like painting walls with the mouse
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TileMapRebuildBenchmark {
+	@Param({"64", "128", "256"})
+	public int size;
+
+	TileMap tileMap;
+	int step;
+
+	@Setup(Level.Trial)
+	public void setup () {
+		Headless.init();
+		tileMap = new TileMap(PartitionMaps.rooms(size, size, 1337), size, size, PartitionMaps.REGION_SIZE);
+		tileMap.rebuild();
+	}
+
+	@Benchmark
+	public int rebuild () {
+		Tile tile = toggleNext();
+		tileMap.rebuild(tile.x, tile.y);
+		return tileMap.rooms.size;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BURST)
+	public int immediate () {
+		// burst toggles start itself at i == 0
+		Tile start = nextTile();
+		for (int i = 0; i < BURST; i++) {
+			Tile tile = toggle(start.x + i % 4, start.y + i / 4);
+			if (tile != null) tileMap.rebuild(tile.x, tile.y);
+		}
+		return tileMap.rooms.size;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BURST)
+	public int coalesced () {
+		// burst toggles start itself at i == 0
+		Tile start = nextTile();
+		for (int i = 0; i < BURST; i++) {
+			Tile tile = toggle(start.x + i % 4, start.y + i / 4);
+			if (tile != null) tileMap.scheduleRebuild(tile.x, tile.y);
+		}
+		tileMap.finishRebuild();
+		return tileMap.rooms.size;
+	}
+
+	private static final int BURST = 16;
+
+	private Tile toggleNext () {
+		Tile tile = nextTile();
+		return toggle(tile.x, tile.y);
+	}
+
+	private Tile nextTile () {
+		// large prime stride so we dont hit same regions in a row
+		step = (step + 7919) % (size * size);
+		return tileMap.getTile(step);
+	}
+
+	private Tile toggle (int x, int y) {
+		Tile tile = tileMap.getTileAt(x, y);
+		if (tile == null) return null;
+		// leave doors alone, so rooms stay connected
+		if (tile.type == 0) {
+			tile.setType(1);
+		} else if (tile.type == 1) {
+			tile.setType(0);
+		}
+		return tile;
+	}
+}
@@ -0,0 +1,53 @@
+package io.piotrjastrzebski.playground.tiledgentest;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 256x256 region of {@link OpenNoise}, per point getNoise calls
+ *
+ * 4D is here mostly to keep an eye on OpenSimplexNoise#eval size, it is split so it stays under JIT huge method limit
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenNoiseBenchmark {
+	static final int SIZE = 256;
+
+	@Param({"2", "3", "4"})
+	public int dimensions;
+
+	OpenNoise noise;
+	float[] out;
+
+	@Setup(Level.Trial)
+	public void setup () {
+		noise = new OpenNoise(256, 0.55f, 42);
+		out = new float[SIZE * SIZE];
+	}
+
+	@Benchmark
+	public float[] perPoint () {
+		for (int y = 0; y < SIZE; y++) {
+			for (int x = 0; x < SIZE; x++) {
+				double value;
+				switch (dimensions) {
+				case 2:
+					value = noise.getNoise(x, y);
+					break;
+				case 3:
+					value = noise.getNoise(x, y, 0.5);
+					break;
+				default:
+					value = noise.getNoise(x, y, 0.5, 0.5);
+				}
+				out[x + y * SIZE] = (float)value;
+			}
+		}
+		return out;
+	}
+}
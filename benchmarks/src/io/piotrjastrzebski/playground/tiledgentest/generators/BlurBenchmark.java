@@ -0,0 +1,90 @@
+package io.piotrjastrzebski.playground.tiledgentest.generators;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RainGen} tent blur, full window per tile as it was before vs {@link SeparableBlur} running sums
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlurBenchmark {
+	@Param({"1024"})
+	public int size;
+
+	@Param({"2", "8", "32", "97"})
+	public int radius;
+
+	@Param({"window", "sliding", "slidingParallel"})
+	public String model;
+
+	float[] source;
+	float[] data;
+	float[] scratch;
+	SeparableBlur blur;
+	ForkJoinPool pool;
+
+	@Setup(Level.Trial)
+	public void setup () {
+		source = new float[size * size];
+		data = new float[size * size];
+		scratch = new float[size * size];
+		Random random = new Random(0);
+		for (int i = 0; i < data.length; i++) {
+			source[i] = random.nextBoolean()? 1 : 0;
+		}
+		pool = "slidingParallel".equals(model)? new ForkJoinPool() : null;
+		blur = new SeparableBlur(pool);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown () {
+		if (pool != null) pool.shutdown();
+	}
+
+	@Benchmark
+	public float[] blur () {
+		// blurred values grow each pass, start from same data
+		System.arraycopy(source, 0, data, 0, data.length);
+		if ("window".equals(model)) {
+			window(data, scratch, size, size, radius);
+		} else {
+			blur.tent(data, scratch, size, size, radius);
+		}
+		return data;
+	}
+
+	private static void window (float[] data, float[] scratch, int width, int height, int dst) {
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				float sum = 0;
+				for (int ox = -dst; ox <= dst; ox++) {
+					if (ox == 0) continue;
+					int mx = x + ox;
+					if (mx < 0 || mx >= width) continue;
+					sum += data[mx + y * width] * (1 - (Math.abs(ox) / (1.1f * dst)));
+				}
+				scratch[x + y * width] = data[x + y * width] + sum;
+			}
+		}
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				float sum = 0;
+				for (int oy = -dst; oy <= dst; oy++) {
+					if (oy == 0) continue;
+					int my = y + oy;
+					if (my < 0 || my >= height) continue;
+					sum += scratch[x + my * width] * (1 - (Math.abs(oy) / (1.1f * dst)));
+				}
+				data[x + y * width] = scratch[x + y * width] + sum;
+			}
+		}
+	}
+}
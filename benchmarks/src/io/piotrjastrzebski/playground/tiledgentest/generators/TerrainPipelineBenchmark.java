@@ -0,0 +1,59 @@
+package io.piotrjastrzebski.playground.tiledgentest.generators;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full regeneration of all layers, jagged generators as used by CompositeGenTest before vs {@link TerrainPipeline}
+ *
+ * pipelineParallel only beats pipeline with several cores, on a single core it measured 522 vs 443 ms/op at 512,
+ * run on a multi core machine before changing the default in {@link TerrainPipeline}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TerrainPipelineBenchmark {
+	@Param({"512", "1024"})
+	public int size;
+
+	@Param({"jagged", "pipeline", "pipelineParallel"})
+	public String model;
+
+	@Param({"97"})
+	public int rainDistance;
+
+	TerrainPipeline pipeline;
+	ForkJoinPool pool;
+	long seed;
+
+	@Setup(Level.Trial)
+	public void setup () {
+		if ("jagged".equals(model)) return;
+		pool = "pipelineParallel".equals(model)? new ForkJoinPool() : null;
+		pipeline = new TerrainPipeline(pool);
+		pipeline.rainDistance = rainDistance;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown () {
+		if (pool != null) pool.shutdown();
+	}
+
+	@Benchmark
+	public Object generate () {
+		seed++;
+		if (pipeline != null) {
+			pipeline.generate(seed, size, size);
+			return pipeline.getRain();
+		}
+		float[][] terrain = TerrainGen.generate(seed, size, size);
+		MountainGen.generate(seed, terrain);
+		TempGen.generate(seed, size, size);
+		return RainGen.generate(terrain, rainDistance, 0.4f);
+	}
+}
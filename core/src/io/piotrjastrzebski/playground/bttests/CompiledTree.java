@@ -0,0 +1,253 @@
+package io.piotrjastrzebski.playground.bttests;
+
+import com.badlogic.gdx.ai.btree.BehaviorTree;
+import com.badlogic.gdx.ai.btree.LeafTask;
+import com.badlogic.gdx.ai.btree.Task;
+import com.badlogic.gdx.ai.btree.annotation.TaskAttribute;
+import com.badlogic.gdx.ai.btree.branch.Parallel;
+import com.badlogic.gdx.ai.btree.branch.Selector;
+import com.badlogic.gdx.ai.btree.branch.Sequence;
+import com.badlogic.gdx.ai.btree.decorator.AlwaysFail;
+import com.badlogic.gdx.ai.btree.decorator.AlwaysSucceed;
+import com.badlogic.gdx.ai.btree.decorator.Invert;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Immutable, flat version of a behavior tree, shared by any number of agents
+ *
+ * Nodes are stored in arrays in breadth first order, so children of a node are next to each other
+ * Each agent only needs state from {@link #newState()}, single int per node with its status and running child
+ * Leaves are cloned once from the source tree and shared, they must keep their state in the blackboard object, not in fields
+ * Only leaves whose instance fields are all final or {@link TaskAttribute}s are accepted, so stock leaves like
+ * {@link com.badlogic.gdx.ai.btree.leaf.Success} can be shared while {@link com.badlogic.gdx.ai.btree.leaf.Wait}, that keeps its timer in fields, is rejected
+ * Stepping is not thread safe, as leaves get their object from a shared tree
+ *
+ * Supports {@link Sequence}, {@link Selector}, {@link Parallel}, {@link Invert}, {@link AlwaysSucceed}, {@link AlwaysFail} and leaves
+ */
+public class CompiledTree<E> {
+	static final int LEAF = 0;
+	static final int SEQUENCE = 1;
+	static final int SELECTOR = 2;
+	static final int PARALLEL_SEQUENCE = 3;
+	static final int PARALLEL_SELECTOR = 4;
+	static final int INVERT = 5;
+	static final int ALWAYS_SUCCEED = 6;
+	static final int ALWAYS_FAIL = 7;
+
+	// same order as Task.Status
+	static final int FRESH = 0;
+	static final int RUNNING = 1;
+	static final int FAILED = 2;
+	static final int SUCCEEDED = 3;
+	static final int CANCELLED = 4;
+	private static final Task.Status[] STATUSES = Task.Status.values();
+	private static final int STATUS_BITS = 3;
+	private static final int STATUS_MASK = (1 << STATUS_BITS) - 1;
+
+	private final int[] types;
+	private final int[] firstChild;
+	private final int[] childCount;
+	private final LeafTask<E>[] leaves;
+	// leaves get their object from here
+	private final BehaviorTree<E> context = new BehaviorTree<>();
+
+	@SuppressWarnings("unchecked")
+	private CompiledTree (Array<Task<E>> tasks, IntArray firstChild) {
+		int count = tasks.size;
+		types = new int[count];
+		this.firstChild = firstChild.toArray();
+		childCount = new int[count];
+		leaves = (LeafTask<E>[])new LeafTask<?>[count];
+		for (int i = 0; i < count; i++) {
+			Task<E> task = tasks.get(i);
+			types[i] = typeOf(task);
+			childCount[i] = task.getChildCount();
+			if (types[i] == LEAF) {
+				LeafTask<E> leaf = (LeafTask<E>)task.cloneTask();
+				leaf.setControl(context);
+				leaves[i] = leaf;
+			}
+		}
+	}
+
+	/**
+	 * @param root root task of the tree, not the {@link BehaviorTree} itself
+	 * @throws IllegalArgumentException if tree contains guards, unsupported tasks or leaves with state
+	 */
+	public static <E> CompiledTree<E> compile (Task<E> root) {
+		if (root instanceof BehaviorTree) root = root.getChild(0);
+		Array<Task<E>> tasks = new Array<>();
+		IntArray firstChild = new IntArray();
+		tasks.add(root);
+		for (int i = 0; i < tasks.size; i++) {
+			Task<E> task = tasks.get(i);
+			if (task.getGuard() != null)
+				throw new IllegalArgumentException("Guards are not supported, " + task);
+			if (typeOf(task) == LEAF) checkShareable(task);
+			firstChild.add(tasks.size);
+			for (int j = 0; j < task.getChildCount(); j++) {
+				tasks.add(task.getChild(j));
+			}
+		}
+		return new CompiledTree<>(tasks, firstChild);
+	}
+
+	private static int typeOf (Task<?> task) {
+		if (task instanceof LeafTask) return LEAF;
+		// exact types, subclasses may do their own thing
+		Class<?> type = task.getClass();
+		if (type == Sequence.class) return SEQUENCE;
+		if (type == Selector.class) return SELECTOR;
+		if (type == Parallel.class) {
+			return ((Parallel<?>)task).policy == Parallel.Policy.Sequence? PARALLEL_SEQUENCE : PARALLEL_SELECTOR;
+		}
+		if (type == Invert.class) return INVERT;
+		if (type == AlwaysSucceed.class) return ALWAYS_SUCCEED;
+		if (type == AlwaysFail.class) return ALWAYS_FAIL;
+		throw new IllegalArgumentException("Unsupported task " + task);
+	}
+
+	/**
+	 * Leaves are shared by all agents, so fields that change when leaf runs would leak between them
+	 */
+	private static void checkShareable (Task<?> leaf) {
+		for (Class<?> type = leaf.getClass(); type != LeafTask.class; type = type.getSuperclass()) {
+			for (Field field : type.getDeclaredFields()) {
+				int modifiers = field.getModifiers();
+				if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) continue;
+				if (field.isAnnotationPresent(TaskAttribute.class)) continue;
+				throw new IllegalArgumentException("Leaf " + leaf + " keeps state in " + type.getSimpleName() + "." + field.getName()
+					+ ", mark it final or @TaskAttribute if it is configuration");
+			}
+		}
+	}
+
+	/**
+	 * @return new state for an agent, all nodes fresh
+	 */
+	public int[] newState () {
+		return new int[types.length];
+	}
+
+	/**
+	 * Step the tree for given agent, like {@link BehaviorTree#step()}
+	 *
+	 * @return status of the root
+	 */
+	public Task.Status step (E object, int[] state) {
+		context.setObject(object);
+		int status = run(0, state);
+		context.setObject(null);
+		return STATUSES[status];
+	}
+
+	/**
+	 * Cancel running nodes and mark all as fresh
+	 */
+	public void reset (E object, int[] state) {
+		context.setObject(object);
+		cancel(0, state);
+		context.setObject(null);
+		for (int i = 0; i < state.length; i++) {
+			state[i] = FRESH;
+		}
+	}
+
+	public Task.Status getStatus (int[] state, int node) {
+		return STATUSES[state[node] & STATUS_MASK];
+	}
+
+	public int getNodeCount () {
+		return types.length;
+	}
+
+	private int run (int node, int[] state) {
+		int status;
+		switch (types[node]) {
+		case LEAF: {
+			LeafTask<E> leaf = leaves[node];
+			if ((state[node] & STATUS_MASK) != RUNNING) leaf.start();
+			Task.Status result = leaf.execute();
+			if (result == null) throw new IllegalStateException("Invalid status 'null' returned by the execute method");
+			status = result.ordinal();
+			if (status != RUNNING) leaf.end();
+			state[node] = status;
+			return status;
+		}
+		case SEQUENCE:
+		case SELECTOR: {
+			// sequence goes on while children succeed, selector while they fail
+			int next = types[node] == SEQUENCE? SUCCEEDED : FAILED;
+			int first = firstChild[node];
+			int count = childCount[node];
+			int index = (state[node] & STATUS_MASK) == RUNNING? state[node] >>> STATUS_BITS : 0;
+			status = next;
+			while (index < count) {
+				status = run(first + index, state);
+				if (status != next) break;
+				index++;
+			}
+			state[node] = status == RUNNING? RUNNING | index << STATUS_BITS : status;
+			return status;
+		}
+		case PARALLEL_SEQUENCE:
+		case PARALLEL_SELECTOR: {
+			// all children run each step, sequence fails on first fail, selector succeeds on first success
+			int end = types[node] == PARALLEL_SEQUENCE? FAILED : SUCCEEDED;
+			int first = firstChild[node];
+			int count = childCount[node];
+			boolean running = false;
+			status = end == FAILED? SUCCEEDED : FAILED;
+			for (int i = 0; i < count; i++) {
+				int childStatus = run(first + i, state);
+				if (childStatus == end) {
+					status = end;
+					break;
+				}
+				if (childStatus == RUNNING) running = true;
+			}
+			if (status == end) {
+				for (int i = 0; i < count; i++) {
+					cancel(first + i, state);
+				}
+			} else if (running) {
+				status = RUNNING;
+			}
+			state[node] = status;
+			return status;
+		}
+		case INVERT: {
+			status = run(firstChild[node], state);
+			if (status == SUCCEEDED) {
+				status = FAILED;
+			} else if (status == FAILED) {
+				status = SUCCEEDED;
+			}
+			state[node] = status;
+			return status;
+		}
+		case ALWAYS_SUCCEED:
+		case ALWAYS_FAIL: {
+			status = run(firstChild[node], state);
+			if (status != RUNNING) status = types[node] == ALWAYS_SUCCEED? SUCCEEDED : FAILED;
+			state[node] = status;
+			return status;
+		}
+		}
+		throw new IllegalStateException("Invalid node type " + types[node]);
+	}
+
+	private void cancel (int node, int[] state) {
+		if ((state[node] & STATUS_MASK) != RUNNING) return;
+		int first = firstChild[node];
+		for (int i = 0; i < childCount[node]; i++) {
+			cancel(first + i, state);
+		}
+		if (types[node] == LEAF) leaves[node].end();
+		state[node] = CANCELLED;
+	}
+}
@@ -5,6 +5,7 @@ import com.badlogic.gdx.ai.btree.BehaviorTree;
 import com.badlogic.gdx.ai.btree.Task;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Pool;
+import io.piotrjastrzebski.playground.bttests.CompiledTree;
 
 /**
  * Model that represents {@link BehaviorTree} so it can be edited
@@ -240,6 +241,19 @@ public class BTModel<E> implements Pool.Poolable, BTTaskPool<E>, BehaviorTree.Li
 			'}';
 	}
 
+	/**
+	 * Compile current state of the tree, so it can be shared by many agents
+	 *
+	 * @return compiled tree or null if model is not valid
+	 */
+	public CompiledTree<E> compile () {
+		if (!validate()) {
+			error(TAG, "Cannot compile invalid model");
+			return null;
+		}
+		return CompiledTree.compile(root.getTask());
+	}
+
 	public TaskLibrary<E> getTaskLibrary () {
 		return taskLibrary;
 	}
@@ -0,0 +1,295 @@
+package io.piotrjastrzebski.playground.cellularautomata;
+
+import java.util.Arrays;
+
+/**
+ * Tracks which square regions of a cellular automata grid need to be processed, so work is proportional to activity instead of map area
+ *
+ * Region size of 1 tracks single cells, larger sizes track chunks. A tick looks like this:
+ * <pre>
+ * int count = regions.begin();
+ * for (int i = 0; i < count; i++) process(regions.getActive(i)); // cells read neighbours, write into them
+ * int touched = regions.touch();
+ * for (int i = 0; i < touched; i++) if (settle(regions.getTouched(i))) regions.markChanged(regions.getTouched(i));
+ * regions.end();
+ * </pre>
+ * Regions that changed in a tick are active in the next one, along with their 4 neighbours, as their neighbourhood changed.
+ * Everything else sleeps until woken with {@link #wake(int, int)}, usually after an edit.
+ *
+ * {@link #markChanged(int)} can be called from multiple threads for different regions, everything else must be called from a single thread.
+ */
+public class ActiveRegions {
+	private final int width;
+	private final int height;
+	private final int regionSize;
+	private final int regionsX;
+	private final int regionsY;
+
+	private int[] active;
+	private boolean[] inActive;
+	private int activeCount;
+	private int[] next;
+	private boolean[] inNext;
+	private int nextCount;
+	private int[] touched;
+	private boolean[] inTouched;
+	private int touchedCount;
+	private boolean[] changed;
+
+	private int activeCells;
+	private int touchedCells;
+
+	/**
+	 * @param regionSize size of region in cells, 1 to track single cells
+	 */
+	public ActiveRegions (int width, int height, int regionSize) {
+		if (regionSize < 1) throw new IllegalArgumentException("regionSize must be at least 1, got " + regionSize);
+		this.width = width;
+		this.height = height;
+		this.regionSize = regionSize;
+		regionsX = (width + regionSize - 1) / regionSize;
+		regionsY = (height + regionSize - 1) / regionSize;
+		int regions = regionsX * regionsY;
+		active = new int[regions];
+		inActive = new boolean[regions];
+		next = new int[regions];
+		inNext = new boolean[regions];
+		touched = new int[regions];
+		inTouched = new boolean[regions];
+		changed = new boolean[regions];
+	}
+
+	/**
+	 * Start a tick, regions woken since last tick become active
+	 * @return count of active regions, sorted by index
+	 */
+	public int begin () {
+		for (int i = 0; i < activeCount; i++) {
+			inActive[active[i]] = false;
+		}
+		int[] tmp = active;
+		active = next;
+		next = tmp;
+		boolean[] tmpIn = inActive;
+		inActive = inNext;
+		inNext = tmpIn;
+		activeCount = nextCount;
+		nextCount = 0;
+		touchedCount = 0;
+		// keep row major order, so results don't depend on order regions were woken in
+		Arrays.sort(active, 0, activeCount);
+		activeCells = 0;
+		touchedCells = 0;
+		for (int i = 0; i < activeCount; i++) {
+			activeCells += cellCount(active[i]);
+		}
+		return activeCount;
+	}
+
+	/**
+	 * Collect regions processing of active regions could have written to, active regions and their 4 neighbours
+	 * @return count of touched regions, sorted by index
+	 */
+	public int touch () {
+		int count = 0;
+		for (int i = 0; i < activeCount; i++) {
+			int region = active[i];
+			int rx = region % regionsX;
+			int ry = region / regionsX;
+			count = addTouched(region, count);
+			if (rx > 0) count = addTouched(region - 1, count);
+			if (rx < regionsX - 1) count = addTouched(region + 1, count);
+			if (ry > 0) count = addTouched(region - regionsX, count);
+			if (ry < regionsY - 1) count = addTouched(region + regionsX, count);
+		}
+		Arrays.sort(touched, 0, count);
+		touchedCount = count;
+		touchedCells = 0;
+		for (int i = 0; i < count; i++) {
+			touchedCells += cellCount(touched[i]);
+		}
+		return count;
+	}
+
+	private int addTouched (int region, int count) {
+		if (inTouched[region]) return count;
+		inTouched[region] = true;
+		touched[count] = region;
+		return count + 1;
+	}
+
+	/**
+	 * Mark touched region as changed in this tick, it and its neighbours will be active in next one
+	 */
+	public void markChanged (int region) {
+		changed[region] = true;
+	}
+
+	/**
+	 * Finish a tick, wake regions marked as changed
+	 */
+	public void end () {
+		for (int i = 0; i < touchedCount; i++) {
+			int region = touched[i];
+			inTouched[region] = false;
+			if (changed[region]) {
+				changed[region] = false;
+				wakeRegion(region);
+			}
+		}
+	}
+
+	/**
+	 * Wake region containing given cell and its neighbours for next tick
+	 */
+	public void wake (int x, int y) {
+		wakeRegion(x / regionSize + (y / regionSize) * regionsX);
+	}
+
+	/**
+	 * Wake given region and its neighbours for next tick
+	 */
+	public void wakeRegion (int region) {
+		int rx = region % regionsX;
+		int ry = region / regionsX;
+		addNext(region);
+		if (rx > 0) addNext(region - 1);
+		if (rx < regionsX - 1) addNext(region + 1);
+		if (ry > 0) addNext(region - regionsX);
+		if (ry < regionsY - 1) addNext(region + regionsX);
+	}
+
+	private void addNext (int region) {
+		if (inNext[region]) return;
+		inNext[region] = true;
+		next[nextCount++] = region;
+	}
+
+	/**
+	 * Wake all regions for next tick
+	 */
+	public void wakeAll () {
+		for (int i = 0, n = regionsX * regionsY; i < n; i++) {
+			addNext(i);
+		}
+	}
+
+	/**
+	 * @return region at given index in active regions of current tick
+	 */
+	public int getActive (int index) {
+		return active[index];
+	}
+
+	/**
+	 * @return region at given index in touched regions of current tick
+	 */
+	public int getTouched (int index) {
+		return touched[index];
+	}
+
+	/**
+	 * @return if region is active in current tick
+	 */
+	public boolean isActive (int region) {
+		return inActive[region];
+	}
+
+	/**
+	 * @return if region will be active in next tick
+	 */
+	public boolean isAwake (int region) {
+		return inNext[region];
+	}
+
+	public int getRegionX (int region) {
+		return region % regionsX;
+	}
+
+	public int getRegionY (int region) {
+		return region / regionsX;
+	}
+
+	/**
+	 * @return first cell x of given region
+	 */
+	public int getStartX (int region) {
+		return (region % regionsX) * regionSize;
+	}
+
+	/**
+	 * @return first cell y of given region
+	 */
+	public int getStartY (int region) {
+		return (region / regionsX) * regionSize;
+	}
+
+	/**
+	 * @return cell x past the end of given region
+	 */
+	public int getEndX (int region) {
+		return Math.min(getStartX(region) + regionSize, width);
+	}
+
+	/**
+	 * @return cell y past the end of given region
+	 */
+	public int getEndY (int region) {
+		return Math.min(getStartY(region) + regionSize, height);
+	}
+
+	private int cellCount (int region) {
+		return (getEndX(region) - getStartX(region)) * (getEndY(region) - getStartY(region));
+	}
+
+	/**
+	 * @return count of regions active in current tick
+	 */
+	public int getActiveCount () {
+		return activeCount;
+	}
+
+	/**
+	 * @return count of regions touched in current tick
+	 */
+	public int getTouchedCount () {
+		return touchedCount;
+	}
+
+	/**
+	 * @return count of cells in regions active in current tick
+	 */
+	public int getActiveCells () {
+		return activeCells;
+	}
+
+	/**
+	 * @return count of cells in regions touched in current tick
+	 */
+	public int getTouchedCells () {
+		return touchedCells;
+	}
+
+	/**
+	 * @return count of cells that were not processed in current tick
+	 */
+	public int getSkippedCells () {
+		return width * height - activeCells;
+	}
+
+	public int getRegionCount () {
+		return regionsX * regionsY;
+	}
+
+	public int getRegionSize () {
+		return regionSize;
+	}
+
+	public int getRegionsX () {
+		return regionsX;
+	}
+
+	public int getRegionsY () {
+		return regionsY;
+	}
+}
@@ -0,0 +1,423 @@
+package io.piotrjastrzebski.playground.cellularautomata;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Belt simulation from {@link Transport5Test}, with contiguous belts merged into segments stored in primitive arrays
+ *
+ * Items take {@link #getItemSize()} slots and move a slot per tick. Each segment keeps its items front to back in a ring,
+ * with position of the front item and gaps between the rest. When the front item moves everything behind it moves along,
+ * so gaps don't change. When it is blocked only the first non zero gap shrinks. A tick is O(1) per segment instead of touching every slot.
+ *
+ * A segment is a whole line, from a belt without input to a belt without output, or a whole loop. Segments never exchange items,
+ * so they can be ticked in parallel and results are the same regardless of thread count.
+ * In a loop front item wraps around to the back, its rear can hang over the end of the segment.
+ *
+ * Unlike {@link Transport5Test.Belt}, blocked items queue up instead of losing slots, items stop at the end of a line.
+ */
+public class BeltLines {
+	public final static int NONE = -1;
+
+	private final int itemSize;
+	private final ForkJoinPool pool;
+	/**
+	 * Min amount of segments for a tick to run in parallel
+	 */
+	public int parallelThreshold = 64;
+	/**
+	 * Segments per fork join task
+	 */
+	public int segmentsPerTask = 256;
+
+	private int[] beltSlots = new int[0];
+	private int[] beltSegment = new int[0];
+	/** position of first slot of the belt in its segment */
+	private int[] beltOffset = new int[0];
+
+	private int segmentCount;
+	private int[] segmentLength = new int[0];
+	private boolean[] segmentLoop = new boolean[0];
+	/** belts of segment s are in segmentBelts[segmentBeltStart[s], segmentBeltStart[s + 1]) */
+	private int[] segmentBeltStart = new int[1];
+	private int[] segmentBelts = new int[0];
+
+	/** items of segment s are in a ring at [itemStart[s], itemStart[s] + itemCapacity[s]) */
+	private int[] itemStart = new int[0];
+	private int[] itemCapacity = new int[0];
+	private int[] itemHead = new int[0];
+	private int[] itemCount = new int[0];
+	/** position of front slot of the front item */
+	private int[] frontPos = new int[0];
+	/** position of front slot of the last item */
+	private int[] tailPos = new int[0];
+	/** items before this index are packed against the front item */
+	private int[] firstGap = new int[0];
+
+	private int[] items = new int[0];
+	/** free slots between the item and the one in front of it, unused for front item */
+	private int[] gaps = new int[0];
+	private int totalItems;
+
+	/**
+	 * Serial simulation
+	 */
+	public BeltLines (int itemSize) {
+		this(itemSize, null);
+	}
+
+	/**
+	 * @param itemSize slots taken by single item
+	 * @param pool to tick segments on, or null to tick them on calling thread
+	 */
+	public BeltLines (int itemSize, ForkJoinPool pool) {
+		if (itemSize < 1) throw new IllegalArgumentException("itemSize must be at least 1, got " + itemSize);
+		this.itemSize = itemSize;
+		this.pool = pool;
+	}
+
+	/**
+	 * Rebuild segments from given belts, all items are removed
+	 *
+	 * @param slots slot count of each belt, 0 if there is no belt at that index
+	 * @param next index of the belt each belt moves items to, or {@link #NONE}
+	 */
+	public void setBelts (int[] slots, int[] next) {
+		if (slots.length != next.length) throw new IllegalArgumentException("slots and next must have the same length");
+		int count = slots.length;
+		beltSlots = Arrays.copyOf(slots, count);
+		beltSegment = new int[count];
+		beltOffset = new int[count];
+		Arrays.fill(beltSegment, NONE);
+		int[] prev = new int[count];
+		Arrays.fill(prev, NONE);
+		for (int i = 0; i < count; i++) {
+			if (slots[i] == 0) continue;
+			if (slots[i] < itemSize) throw new IllegalArgumentException("belt " + i + " is shorter than an item");
+			int n = next[i];
+			if (n == NONE) continue;
+			if (slots[n] == 0) throw new IllegalArgumentException("belt " + i + " moves items to missing belt " + n);
+			if (prev[n] != NONE) throw new IllegalArgumentException("belt " + n + " has multiple inputs");
+			prev[n] = i;
+		}
+
+		segmentCount = 0;
+		segmentLength = new int[16];
+		segmentLoop = new boolean[16];
+		segmentBeltStart = new int[17];
+		segmentBelts = new int[count];
+		int added = 0;
+		// lines first, they start at belts without input
+		for (int i = 0; i < count; i++) {
+			if (slots[i] == 0 || prev[i] != NONE) continue;
+			added = addLine(i, next, added);
+		}
+		// whatever is left are loops
+		for (int i = 0; i < count; i++) {
+			if (slots[i] == 0 || beltSegment[i] != NONE) continue;
+			added = addLine(i, next, added);
+		}
+		for (int s = 0; s < segmentCount; s++) {
+			segmentLoop[s] = next[segmentBelts[segmentBeltStart[s + 1] - 1]] != NONE;
+		}
+
+		itemStart = new int[segmentCount];
+		itemCapacity = new int[segmentCount];
+		itemHead = new int[segmentCount];
+		itemCount = new int[segmentCount];
+		frontPos = new int[segmentCount];
+		tailPos = new int[segmentCount];
+		firstGap = new int[segmentCount];
+		int capacity = 0;
+		for (int s = 0; s < segmentCount; s++) {
+			itemStart[s] = capacity;
+			// fronts are at least itemSize apart
+			itemCapacity[s] = segmentLength[s] / itemSize + 1;
+			capacity += itemCapacity[s];
+		}
+		items = new int[capacity];
+		gaps = new int[capacity];
+		clearItems();
+	}
+
+	/**
+	 * Add segment for line starting at given belt, until it ends or loops back
+	 */
+	private int addLine (int belt, int[] next, int added) {
+		if (segmentCount == segmentLength.length) {
+			int capacity = segmentCount * 2;
+			segmentLength = Arrays.copyOf(segmentLength, capacity);
+			segmentLoop = Arrays.copyOf(segmentLoop, capacity);
+			segmentBeltStart = Arrays.copyOf(segmentBeltStart, capacity + 1);
+		}
+		int segment = segmentCount++;
+		segmentLength[segment] = 0;
+		segmentBeltStart[segment] = added;
+		while (belt != NONE && beltSegment[belt] == NONE) {
+			beltSegment[belt] = segment;
+			beltOffset[belt] = segmentLength[segment];
+			segmentLength[segment] += beltSlots[belt];
+			segmentBelts[added++] = belt;
+			belt = next[belt];
+		}
+		segmentBeltStart[segment + 1] = added;
+		return added;
+	}
+
+	/**
+	 * Remove all items, belts are retained
+	 */
+	public void clearItems () {
+		for (int s = 0; s < segmentCount; s++) {
+			itemHead[s] = 0;
+			itemCount[s] = 0;
+			firstGap[s] = 1;
+		}
+		totalItems = 0;
+	}
+
+	/**
+	 * Add item fully on given belt, as close to its start as possible
+	 * @return if there was space for the item
+	 */
+	public boolean addItem (int belt, int item) {
+		int segment = beltSegment[belt];
+		if (segment == NONE) return false;
+		int count = itemCount[segment];
+		if (count == itemCapacity[segment]) return false;
+		int min = beltOffset[belt] + itemSize - 1;
+		int max = beltOffset[belt] + beltSlots[belt] - 1;
+		// find last free range between items that fits on the belt, walking from the front
+		int upper = frontLimit(segment, segmentLoop[segment] && count > 0? tailPos[segment] : Integer.MAX_VALUE);
+		int aheadPos = Integer.MAX_VALUE;
+		int found = NONE;
+		int foundFront = 0;
+		int foundAhead = 0;
+		int pos = 0;
+		for (int i = 0; i <= count; i++) {
+			int lower = min;
+			if (i < count) {
+				pos = i == 0? frontPos[segment] : pos - itemSize - gaps[ring(segment, i)];
+				lower = Math.max(pos + itemSize, min);
+			}
+			if (lower <= Math.min(upper, max)) {
+				found = i;
+				foundFront = lower;
+				foundAhead = aheadPos;
+			}
+			if (i < count) {
+				aheadPos = pos;
+				upper = pos - itemSize;
+			}
+		}
+		if (found == NONE) return false;
+		insert(segment, found, foundFront, foundAhead, item);
+		return true;
+	}
+
+	private void insert (int segment, int index, int front, int aheadPos, int item) {
+		int count = itemCount[segment];
+		if (index < count) {
+			// item that will be behind the new one
+			int behindPos = index == 0? frontPos[segment] : aheadPos - itemSize - gaps[ring(segment, index)];
+			for (int i = count; i > index; i--) {
+				int to = ring(segment, i);
+				int from = ring(segment, i - 1);
+				items[to] = items[from];
+				gaps[to] = gaps[from];
+			}
+			gaps[ring(segment, index + 1)] = front - itemSize - behindPos;
+		} else {
+			tailPos[segment] = front;
+		}
+		int at = ring(segment, index);
+		items[at] = item;
+		if (index == 0) {
+			frontPos[segment] = front;
+		} else {
+			gaps[at] = aheadPos - itemSize - front;
+		}
+		itemCount[segment] = count + 1;
+		firstGap[segment] = 1;
+		totalItems++;
+	}
+
+	/**
+	 * Advance all items by a single slot, if they are not blocked
+	 */
+	public void tick () {
+		if (segmentCount == 0) return;
+		if (pool == null || segmentCount < parallelThreshold) {
+			for (int s = 0; s < segmentCount; s++) {
+				move(s);
+			}
+		} else {
+			pool.invoke(new SegmentTask(this, 0, segmentCount));
+		}
+	}
+
+	/**
+	 * Move items of given segment, if the front one moves everything moves along
+	 */
+	private void move (int segment) {
+		int count = itemCount[segment];
+		if (count == 0) return;
+		int front = frontPos[segment];
+		boolean loop = segmentLoop[segment];
+		// in a loop last item moves along with the front one, its rear can hang over our end
+		int tail = loop && count > 1? tailPos[segment] + 1 : Integer.MAX_VALUE;
+		if (front < frontLimit(segment, tail)) {
+			frontPos[segment] = front + 1;
+			tailPos[segment]++;
+			return;
+		}
+		if (loop && front == segmentLength[segment] - 1 && tail >= itemSize) {
+			// wrap front item to the back, everything behind it moves along
+			if (count == 1) {
+				frontPos[segment] = 0;
+				tailPos[segment] = 0;
+				return;
+			}
+			int item = items[ring(segment, 0)];
+			itemHead[segment] = (itemHead[segment] + 1) % itemCapacity[segment];
+			frontPos[segment] = front - itemSize - gaps[ring(segment, 0)] + 1;
+			int at = ring(segment, count - 1);
+			items[at] = item;
+			gaps[at] = tail - itemSize;
+			tailPos[segment] = 0;
+			firstGap[segment] = Math.max(firstGap[segment] - 1, 1);
+			return;
+		}
+		// front is blocked, items behind first gap move
+		int index = firstGap[segment];
+		while (index < count && gaps[ring(segment, index)] == 0) {
+			index++;
+		}
+		firstGap[segment] = index;
+		if (index < count) {
+			gaps[ring(segment, index)]--;
+			tailPos[segment]++;
+		}
+	}
+
+	/**
+	 * @return max front position of front item of given segment, when last item of the loop is at given position
+	 */
+	private int frontLimit (int segment, int tail) {
+		// rear of that item can hang over our end
+		if (tail < itemSize - 1) {
+			return segmentLength[segment] - itemSize + tail;
+		}
+		return segmentLength[segment] - 1;
+	}
+
+	private int ring (int segment, int index) {
+		return itemStart[segment] + (itemHead[segment] + index) % itemCapacity[segment];
+	}
+
+	/**
+	 * Visit all items, with belt and slot their center is at
+	 */
+	public void visitItems (ItemVisitor visitor) {
+		int center = (itemSize - 1) / 2;
+		for (int s = 0; s < segmentCount; s++) {
+			int pos = 0;
+			for (int i = 0, n = itemCount[s]; i < n; i++) {
+				pos = i == 0? frontPos[s] : pos - itemSize - gaps[ring(s, i)];
+				int at = pos - center;
+				// center can hang over the end of a loop
+				if (at < 0) at = segmentLoop[s]? at + segmentLength[s] : 0;
+				int belt = beltAt(s, at);
+				visitor.visit(items[ring(s, i)], belt, at - beltOffset[belt]);
+			}
+		}
+	}
+
+	private int beltAt (int segment, int pos) {
+		int lo = segmentBeltStart[segment];
+		int hi = segmentBeltStart[segment + 1] - 1;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (beltOffset[segmentBelts[mid]] <= pos) {
+				lo = mid;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		return segmentBelts[lo];
+	}
+
+	/**
+	 * @return segment given belt is part of, or {@link #NONE}
+	 */
+	public int getSegment (int belt) {
+		return beltSegment[belt];
+	}
+
+	/**
+	 * @return length of given segment in slots
+	 */
+	public int getSegmentLength (int segment) {
+		return segmentLength[segment];
+	}
+
+	/**
+	 * @return if given segment is a loop
+	 */
+	public boolean isLoop (int segment) {
+		return segmentLoop[segment];
+	}
+
+	public int getSegmentCount () {
+		return segmentCount;
+	}
+
+	/**
+	 * @return count of items with front on given segment
+	 */
+	public int getItemCount (int segment) {
+		return itemCount[segment];
+	}
+
+	public int getItemCount () {
+		return totalItems;
+	}
+
+	public int getItemSize () {
+		return itemSize;
+	}
+
+	public interface ItemVisitor {
+		/**
+		 * @param item id of the item
+		 * @param belt belt center of the item is on
+		 * @param slot slot on the belt
+		 */
+		void visit (int item, int belt, int slot);
+	}
+
+	@SuppressWarnings("serial")
+	private static class SegmentTask extends RecursiveAction {
+		private final BeltLines lines;
+		private final int from;
+		private final int to;
+
+		public SegmentTask (BeltLines lines, int from, int to) {
+			this.lines = lines;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override protected void compute () {
+			if (to - from <= Math.max(lines.segmentsPerTask, 1)) {
+				for (int s = from; s < to; s++) {
+					lines.move(s);
+				}
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new SegmentTask(lines, from, mid), new SegmentTask(lines, mid, to));
+		}
+	}
+}
@@ -9,6 +9,7 @@ import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.kotcrab.vis.ui.VisUI;
+import com.kotcrab.vis.ui.widget.VisLabel;
 import io.piotrjastrzebski.playground.BaseScreen;
 import io.piotrjastrzebski.playground.GameReset;
 import io.piotrjastrzebski.playground.PlaygroundGame;
@@ -36,12 +37,18 @@ public class Energy2Test extends BaseScreen {
 	public final static float MAX_DRAW_VALUE = 1.1f;
 	public final static float TYPE_TO_VALUE[] = {0, 0, MAX_VALUE, 0};
 	public final static float TYPE_TO_EXTRA[] = {0, -.01f, MAX_VALUE, -MAX_VALUE/3f};
+	/**
+	 * Max change of a cell in a tick for it to fall asleep
+	 */
+	public final static float SETTLE_EPSILON = 0.0001f;
 
 	public static int[] types;
 	public static int[] ticks;
 	public static float[] values;
 	public static float[] nextValues;
 	public static float[] extraValues;
+	private ActiveRegions regions;
+	private VisLabel statsLabel;
 	private boolean drawText;
 	private boolean simEnabled = true;
 
@@ -58,6 +65,8 @@ public class Energy2Test extends BaseScreen {
 		values = new float[WIDTH * HEIGHT];
 		nextValues = new float[WIDTH * HEIGHT];
 		extraValues = new float[WIDTH * HEIGHT];
+		regions = new ActiveRegions(WIDTH, HEIGHT, 1);
+		root.top().left().add(statsLabel = new VisLabel("Active cells: 0, skipped: 0"));
 		for (int x = 10; x <= 20; x++) {
 			setTile(x + 5 * WIDTH, BLOCK);
 			setTile(x + 10 * WIDTH, BLOCK);
@@ -75,6 +84,7 @@ public class Energy2Test extends BaseScreen {
 		values[index] = TYPE_TO_VALUE[type];
 		nextValues[index] = TYPE_TO_VALUE[type];
 		extraValues[index] = TYPE_TO_EXTRA[type];
+		regions.wake(index % WIDTH, index / WIDTH);
 	}
 
 	Color water = new Color(Color.WHITE);
@@ -214,33 +224,43 @@ public class Energy2Test extends BaseScreen {
 			}
 			batch.end();
 		}
+		stage.act(delta);
+		stage.draw();
 	}
 
+	/**
+	 * Only cells that changed last tick and their neighbours are processed, rest of the map is asleep
+	 */
 	private void tick (int tick) {
-		for (int y = 0; y < HEIGHT; y++) {
-			for (int x = 0; x < WIDTH; x++) {
-				int index = x + y * WIDTH;
-				int type = types[index];
-				if (type == EMPTY)
-					continue;
-				if (ticks[index] >= tick)
-					continue;
+		int count = regions.begin();
+		for (int i = 0; i < count; i++) {
+			int index = regions.getActive(i);
+			int type = types[index];
+			if (type == EMPTY)
+				continue;
+			if (ticks[index] >= tick)
+				continue;
 
-				nextValues[index] += extraValues[index];
+			nextValues[index] += extraValues[index];
 
-				float value = values[index];
-				if (value <= 0)
-					continue;
-
-				propagate(x, y, tick);
+			float value = values[index];
+			if (value <= 0)
+				continue;
 
-			}
+			propagate(index % WIDTH, index / WIDTH, tick);
 		}
 
-		//Copy the new mass values to the mass array
-		for (int i = 0; i < WIDTH * HEIGHT; i++) {
-			values[i] = nextValues[i];
+		//Copy the new mass values to the mass array, only active cells and their neighbours could have changed
+		int touched = regions.touch();
+		for (int i = 0; i < touched; i++) {
+			int index = regions.getTouched(i);
+			if (Math.abs(nextValues[index] - values[index]) > SETTLE_EPSILON) {
+				regions.markChanged(index);
+			}
+			values[index] = nextValues[index];
 		}
+		regions.end();
+		statsLabel.setText("Active cells: " + regions.getActiveCells() + ", skipped: " + regions.getSkippedCells());
 	}
 
 	private void propagate (int x, int y, int tick) {
@@ -95,6 +95,7 @@ public class Energy4Test extends BaseScreen {
 		values[index] = TYPE_TO_VALUE[type];
 		nextValues[index] = TYPE_TO_VALUE[type];
 		extraValues[index] = TYPE_TO_EXTRA[type];
+		groupsDirty = true;
 	}
 
 	Color water = new Color(Color.WHITE);
@@ -261,26 +262,15 @@ public class Energy4Test extends BaseScreen {
 	public IntMap<IntArray> groupToSources = new IntMap<>();
 	public IntMap<IntArray> groupToDrains = new IntMap<>();
 	public IntMap<IntArray> groupToBlocks = new IntMap<>();
+	public IntArray ungrouped = new IntArray();
+	/**
+	 * Groups only change when tiles are edited, no need to flood fill whole map each tick
+	 */
+	private boolean groupsDirty = true;
 	private void tick () {
-		groupCount = 0;
-		groupToSources.clear();
-		groupToDrains.clear();
-		groupToBlocks.clear();
-		for (int i = 0; i < WIDTH * HEIGHT; i++) {
-			groups[i] = NO_GROUP;
-		}
-
-		for (int y = 0; y < HEIGHT; y++) {
-			for (int x = 0; x < WIDTH; x++) {
-				int index = x + y * WIDTH;
-				if (types[index] == SOURCE && groups[index] == NO_GROUP) {
-					groupToSources.put(groupCount, new IntArray());
-					groupToDrains.put(groupCount, new IntArray());
-					groupToBlocks.put(groupCount, new IntArray());
-					buildGroup(x, y, groupCount);
-					groupCount++;
-				}
-			}
+		if (groupsDirty) {
+			groupsDirty = false;
+			rebuildGroups();
 		}
 
 		for (int gId = 0; gId < groupCount; gId++) {
@@ -292,7 +282,7 @@ public class Energy4Test extends BaseScreen {
 				totalSource += extraValues[sources.get(i)];
 			}
 
-			float extra = totalSource/drains.size;
+			float extra = MathUtils.clamp(totalSource/drains.size, 0, 1);
 //			for (int i = 0; i < drains.size; i++) {
 //				values[drains.get(i)] += extraValues[drains.get(i)] + extra + .01f;
 //			}
@@ -305,13 +295,38 @@ public class Energy4Test extends BaseScreen {
 		}
 
 		// tick down not grouped
+		for (int i = 0; i < ungrouped.size; i++) {
+			int index = ungrouped.get(i);
+			values[index] = MathUtils.clamp(values[index] - 0.01f, 0, 1);
+		}
+	}
+
+	private void rebuildGroups () {
+		groupCount = 0;
+		groupToSources.clear();
+		groupToDrains.clear();
+		groupToBlocks.clear();
+		ungrouped.clear();
+		for (int i = 0; i < WIDTH * HEIGHT; i++) {
+			groups[i] = NO_GROUP;
+		}
+
 		for (int y = 0; y < HEIGHT; y++) {
 			for (int x = 0; x < WIDTH; x++) {
 				int index = x + y * WIDTH;
-				if ((types[index] == BLOCK || types[index] == DRAIN) && groups[index] == NO_GROUP) {
-					values[index] -= 0.01f;
+				if (types[index] == SOURCE && groups[index] == NO_GROUP) {
+					groupToSources.put(groupCount, new IntArray());
+					groupToDrains.put(groupCount, new IntArray());
+					groupToBlocks.put(groupCount, new IntArray());
+					buildGroup(x, y, groupCount);
+					groupCount++;
 				}
-				values[index] = MathUtils.clamp(values[index], 0, 1);
+			}
+		}
+
+		for (int i = 0; i < WIDTH * HEIGHT; i++) {
+			if ((types[i] == BLOCK || types[i] == DRAIN) && groups[i] == NO_GROUP) {
+				ungrouped.add(i);
 			}
 		}
 	}
@@ -8,6 +8,7 @@ import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.MathUtils;
 import com.kotcrab.vis.ui.VisUI;
+import com.kotcrab.vis.ui.widget.VisLabel;
 import io.piotrjastrzebski.playground.BaseScreen;
 import io.piotrjastrzebski.playground.GameReset;
 import io.piotrjastrzebski.playground.PlaygroundGame;
@@ -32,11 +33,17 @@ public class EnergyTest extends BaseScreen {
 	public final static float MAX_COMPRESS = 0.02f;
 	public final static float MIN_DRAW_VALUE = 0.01f;
 	public final static float MAX_DRAW_VALUE = 1.1f;
+	/**
+	 * Max change of a cell in a tick for it to fall asleep
+	 */
+	public final static float SETTLE_EPSILON = 0.0001f;
 
 	public static int[] types;
 	public static float[] values;
 	public static float[] nextValues;
 	public static float[] extraValues;
+	private ActiveRegions regions;
+	private VisLabel statsLabel;
 	private boolean drawText;
 
 	public EnergyTest (GameReset game) {
@@ -51,6 +58,9 @@ public class EnergyTest extends BaseScreen {
 		values = new float[WIDTH * HEIGHT];
 		nextValues = new float[WIDTH * HEIGHT];
 		extraValues = new float[WIDTH * HEIGHT];
+		regions = new ActiveRegions(WIDTH, HEIGHT, 1);
+		regions.wakeAll();
+		root.top().left().add(statsLabel = new VisLabel("Active cells: 0, skipped: 0"));
 		for (int y = 0; y < HEIGHT; y++) {
 			for (int x = 0; x < WIDTH; x++) {
 				int index = x + y * WIDTH;
@@ -78,21 +88,25 @@ public class EnergyTest extends BaseScreen {
 				values[index] = 0;
 				nextValues[index] = 0;
 				extraValues[index] = -0.01f;
+				regions.wake(mx, my);
 			} else if (Gdx.input.isKeyPressed(Input.Keys.W)) {
 				types[index] = BLOCK;
 				values[index] = MAX_VALUE;
 				nextValues[index] = MAX_VALUE;
 				extraValues[index] = MAX_VALUE;
+				regions.wake(mx, my);
 			} else if (Gdx.input.isKeyPressed(Input.Keys.E)) {
 				types[index] = BLOCK;
 				values[index] = 0;
 				nextValues[index] = 0;
 				extraValues[index] = -MAX_VALUE/3f;
+				regions.wake(mx, my);
 			} else if (Gdx.input.isKeyPressed(Input.Keys.R)) {
 				types[index] = EMPTY;
 				values[index] = 0;
 				nextValues[index] = 0;
 				extraValues[index] = 0;
+				regions.wake(mx, my);
 			}
 		}
 		if (Gdx.input.isKeyJustPressed(Input.Keys.T)) {
@@ -102,58 +116,8 @@ public class EnergyTest extends BaseScreen {
 		tick += delta;
 		if (tick >= tickDelta) {
 			tick -= tickDelta;
-			for (int y = 0; y < HEIGHT; y++) {
-				for (int x = 0; x < WIDTH; x++) {
-					int index = x + y * WIDTH;
-					int type = types[index];
-					if (type != BLOCK)
-						continue;
-
-					float value = values[index];
-					if (value <= 0)
-						continue;
-
-					nextValues[index] += extraValues[index];
-
-					for (int ox = -1; ox <= 1; ox++) {
-						for (int oy = -1; oy <= 1; oy++) {
-							if (Math.abs(ox) == Math.abs(oy))
-								continue;
-							if (x + ox < 0 || x + ox >= WIDTH || y + oy < 0 || y + oy >= HEIGHT)
-								continue;
-							int otherId = (x + ox) + (y + oy) * WIDTH;
-							if (types[otherId] == BLOCK) {
-								float flow = (values[index] - values[otherId]) / 4f;
-								if (flow > MIN_FLOW) {
-									flow *= .5f;
-								}
-								flow = MathUtils.clamp(flow, 0, value);
-								nextValues[index] -= flow;
-								nextValues[otherId] += flow;
-								value -= flow;
-								if (value <= 0)
-									break;
-							}
-						}
-					}
-				}
-			}
-			//Copy the new mass values to the mass array
-			for (int i = 0; i < WIDTH * HEIGHT; i++) {
-				values[i] = nextValues[i];
-			}
-
-			// remove water from the edges
-			for (int y = 0; y < HEIGHT; y++) {
-				for (int x = 0; x < WIDTH; x++) {
-					if (x == 0 || x == WIDTH -1 || y == 0 || y == HEIGHT -1) {
-						int index = x + y * WIDTH;
-						if(types[index] == BLOCK) continue;
-						values[index] = Math.max(values[index] - MAX_VALUE * tickDelta, 0);
-						nextValues[index] = Math.max(nextValues[index] - MAX_VALUE * tickDelta, 0);
-					}
-				}
-			}
+			tick();
+			statsLabel.setText("Active cells: " + regions.getActiveCells() + ", skipped: " + regions.getSkippedCells());
 		}
 		// draw stuff
 		renderer.setProjectionMatrix(gameCamera.combined);
@@ -217,6 +181,69 @@ public class EnergyTest extends BaseScreen {
 			}
 			batch.end();
 		}
+		stage.act(delta);
+		stage.draw();
+	}
+
+	/**
+	 * Only cells that changed last tick and their neighbours are processed, rest of the map is asleep
+	 */
+	private void tick () {
+		int count = regions.begin();
+		for (int i = 0; i < count; i++) {
+			int index = regions.getActive(i);
+			int x = index % WIDTH;
+			int y = index / WIDTH;
+			int type = types[index];
+			if (type != BLOCK)
+				continue;
+
+			float value = values[index];
+			if (value <= 0)
+				continue;
+
+			nextValues[index] += extraValues[index];
+
+			for (int ox = -1; ox <= 1; ox++) {
+				for (int oy = -1; oy <= 1; oy++) {
+					if (Math.abs(ox) == Math.abs(oy))
+						continue;
+					if (x + ox < 0 || x + ox >= WIDTH || y + oy < 0 || y + oy >= HEIGHT)
+						continue;
+					int otherId = (x + ox) + (y + oy) * WIDTH;
+					if (types[otherId] == BLOCK) {
+						float flow = (values[index] - values[otherId]) / 4f;
+						if (flow > MIN_FLOW) {
+							flow *= .5f;
+						}
+						flow = MathUtils.clamp(flow, 0, value);
+						nextValues[index] -= flow;
+						nextValues[otherId] += flow;
+						value -= flow;
+						if (value <= 0)
+							break;
+					}
+				}
+			}
+		}
+		// only active cells and their neighbours could have changed
+		int touched = regions.touch();
+		for (int i = 0; i < touched; i++) {
+			int index = regions.getTouched(i);
+			int x = index % WIDTH;
+			int y = index / WIDTH;
+			float value = nextValues[index];
+			// remove water from the edges
+			if ((x == 0 || x == WIDTH -1 || y == 0 || y == HEIGHT -1) && types[index] != BLOCK) {
+				value = Math.max(value - MAX_VALUE * tickDelta, 0);
+				nextValues[index] = value;
+			}
+			if (Math.abs(value - values[index]) > SETTLE_EPSILON) {
+				regions.markChanged(index);
+			}
+			values[index] = value;
+		}
+		regions.end();
 	}
 
 	private Color getWaterColor(float value, Color out){
@@ -9,6 +9,7 @@ import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
 import com.kotcrab.vis.ui.VisUI;
 import io.piotrjastrzebski.playground.BaseScreen;
 import io.piotrjastrzebski.playground.GameReset;
@@ -34,6 +35,19 @@ import java.util.Iterator;
     private boolean simEnabled = true;
     private Array<Item> items = new Array<>();
     private GameMap map;
+    // belts merged into segments, toggle with B
+    private BeltLines lines = new BeltLines(Item.ITEM_SIZE);
+    private boolean useLines;
+    private boolean linesDirty = true;
+    private IntMap<Item> lineItems = new IntMap<>();
+    private BeltLines.ItemVisitor lineItemVisitor = new BeltLines.ItemVisitor() {
+        @Override public void visit (int id, int belt, int slot) {
+            Item item = lineItems.get(id);
+            Belt.Slot beltSlot = map.belts[belt].slots[slot];
+            item.x = beltSlot.tx;
+            item.y = beltSlot.ty;
+        }
+    };
 
     public Transport5Test (GameReset game) {
         super(game);
@@ -81,12 +95,30 @@ import java.util.Iterator;
         items.add(item);
 
         Belt belt = map.getBelt((int)x, (int)y);
-        if (belt != null) {
+        if (belt == null) return;
+        if (useLines) {
+            rebuildLines();
+            if (lines.addItem(belt.index, item.id)) {
+                lineItems.put(item.id, item);
+                item.despawn = -1;
+            }
+        } else {
             belt.enqueue(item);
             item.despawn = -1;
         }
     }
 
+    private void rebuildLines () {
+        if (!linesDirty) return;
+        linesDirty = false;
+        map.buildLines(lines);
+        // items don't survive a rebuild
+        for (Item item : lineItems.values()) {
+            item.despawn = 2;
+        }
+        lineItems.clear();
+    }
+
     int direction = Belt.DIR_EAST;
     float tickTimer = 0;
     @Override public void render (float delta) {
@@ -97,10 +129,13 @@ import java.util.Iterator;
         if (mx >= 0 && mx < WIDTH && my >= 0 && my < HEIGHT) {
             if (Gdx.input.isKeyJustPressed(Input.Keys.Q)) {
                 map.setBelt(mx, my, Belt.TYPE_STRAIGHT, direction);
+                linesDirty = true;
             } else if (Gdx.input.isKeyJustPressed(Input.Keys.W)) {
                 map.setBelt(mx, my, Belt.TYPE_CURVE_CW, direction);
+                linesDirty = true;
             } else if (Gdx.input.isKeyJustPressed(Input.Keys.E)) {
                 map.setBelt(mx, my, Belt.TYPE_CURVE_CCW, direction);
+                linesDirty = true;
             } else if (Gdx.input.isKeyJustPressed(Input.Keys.R)) {
                 if (Gdx.input.isKeyPressed(Input.Keys.SHIFT_LEFT) || Gdx.input.isKeyPressed(Input.Keys.SHIFT_RIGHT)) {
                     direction--;
@@ -117,6 +152,7 @@ import java.util.Iterator;
                 Belt belt = map.getBelt(mx, my);
                 if (belt != null) {
                     belt.rotate(direction);
+                    linesDirty = true;
                 }
             } else if (Gdx.input.isKeyJustPressed(Input.Keys.E)) {
 //                setBelt(mx, my, 0);
@@ -124,6 +160,7 @@ import java.util.Iterator;
 //                setBelt(mx, my, 0);
             } else if (Gdx.input.isKeyJustPressed(Input.Keys.Z)) {
                 map.clearBelt(mx, my);
+                linesDirty = true;
             } else if (Gdx.input.isKeyJustPressed(Input.Keys.X)) {
                 spawnItem(cs.x, cs.y);
             }
@@ -134,12 +171,22 @@ import java.util.Iterator;
         if (Gdx.input.isKeyJustPressed(Input.Keys.H)) {
             map.print();
         }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.B)) {
+            useLines = !useLines;
+            Gdx.app.log("LINES", useLines? "enabled" : "disabled");
+        }
         {
             tickTimer += delta;
             final float tickPeriod = .5f;
             if (tickTimer >= tickPeriod) {
                 tickTimer -= tickPeriod;
-                map.tick();
+                if (useLines) {
+                    rebuildLines();
+                    lines.tick();
+                    lines.visitItems(lineItemVisitor);
+                } else {
+                    map.tick();
+                }
             }
         }
         {
@@ -234,6 +281,25 @@ import java.util.Iterator;
             tick++;
         }
 
+        /**
+         * Rebuild given lines from current belts
+         */
+        public void buildLines (BeltLines lines) {
+            int[] slots = new int[belts.length];
+            int[] next = new int[belts.length];
+            for (int i = 0; i < belts.length; i++) {
+                Belt belt = belts[i];
+                next[i] = BeltLines.NONE;
+                if (belt == null) continue;
+                slots[i] = belt.slots.length;
+                Belt nextBelt = getNext(belt);
+                if (nextBelt != null) {
+                    next[i] = nextBelt.index;
+                }
+            }
+            lines.setBelts(slots, next);
+        }
+
         public void render (ShapeRenderer renderer) {
             for (Belt belt : belts) {
                 if (belt != null) {
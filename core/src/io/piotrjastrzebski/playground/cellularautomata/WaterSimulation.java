@@ -0,0 +1,409 @@
+package io.piotrjastrzebski.playground.cellularautomata;
+
+import com.badlogic.gdx.math.MathUtils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Water rule from {@link WaterTest}, as a grid split into square chunks that can be stepped in parallel
+ *
+ * Cells only read current values and push flow to their 4 neighbours in next values, so writes can spill 1 cell into adjacent chunks.
+ * Chunks are stepped in 4 passes, checkerboard style, chunks in the same pass are never adjacent so their writes never overlap.
+ * Order of writes is the same regardless of thread count, so results are the same with or without a pool.
+ *
+ * Chunks that didn't change more than {@link #SETTLE_EPSILON} in a tick fall asleep, they wake up when a neighbour changes or cells in them are edited.
+ * Sleeping chunks are tracked by {@link ActiveRegions}.
+ */
+public class WaterSimulation {
+	public final static int EMPTY = 0;
+	public final static int BLOCK = 1;
+	public final static int WATER = 2;
+	public final static float MIN_VALUE = 0.001f;
+	public final static float MAX_VALUE = 1;
+	public final static float MIN_FLOW = 0.01f;
+	public final static float MAX_SPEED = 1;
+	public final static float MAX_COMPRESS = 0.02f;
+	/**
+	 * Max change of a cell in a tick for its chunk to be considered settled
+	 */
+	public final static float SETTLE_EPSILON = 0.0001f;
+	public final static int DEFAULT_CHUNK_SIZE = 32;
+
+	private final int width;
+	private final int height;
+	private final int chunkSize;
+	private final int chunksX;
+	private final ForkJoinPool pool;
+	/**
+	 * Min amount of chunks in a pass for it to be processed in parallel
+	 */
+	public int parallelThreshold = 4;
+
+	private final int[] types;
+	private final float[] values;
+	private final float[] nextValues;
+
+	private final ActiveRegions regions;
+	private int[] chunkIds;
+	private float drain;
+
+	/**
+	 * Serial simulation with default chunk size
+	 */
+	public WaterSimulation (int width, int height) {
+		this(width, height, DEFAULT_CHUNK_SIZE, null);
+	}
+
+	/**
+	 * @param chunkSize size of chunk in cells, at least 2
+	 * @param pool to step chunks on, or null to step them on calling thread
+	 */
+	public WaterSimulation (int width, int height, int chunkSize, ForkJoinPool pool) {
+		if (chunkSize < 2) throw new IllegalArgumentException("chunkSize must be at least 2, got " + chunkSize);
+		this.width = width;
+		this.height = height;
+		this.chunkSize = chunkSize;
+		this.pool = pool;
+		chunksX = (width + chunkSize - 1) / chunkSize;
+		types = new int[width * height];
+		values = new float[width * height];
+		nextValues = new float[width * height];
+		regions = new ActiveRegions(width, height, chunkSize);
+		chunkIds = new int[regions.getRegionCount()];
+		wakeAll();
+	}
+
+	/**
+	 * Advance simulation by single tick
+	 * @param tickDelta length of the tick, water drains from map edges at {@link #MAX_VALUE} per second
+	 */
+	public void step (float tickDelta) {
+		drain = MAX_VALUE * tickDelta;
+		int activeCount = regions.begin();
+		if (activeCount == 0) return;
+		for (int pass = 0; pass < 4; pass++) {
+			int count = 0;
+			for (int i = 0; i < activeCount; i++) {
+				int chunk = regions.getActive(i);
+				if (((regions.getRegionX(chunk) & 1) | (regions.getRegionY(chunk) & 1) << 1) == pass) {
+					chunkIds[count++] = chunk;
+				}
+			}
+			run(count, true);
+		}
+		// flow can spill into adjacent chunks, they need to be settled as well
+		int count = regions.touch();
+		for (int i = 0; i < count; i++) {
+			chunkIds[i] = regions.getTouched(i);
+		}
+		run(count, false);
+		// chunks that changed and their neighbours must run next tick
+		regions.end();
+	}
+
+	private void run (int count, boolean flow) {
+		if (count == 0) return;
+		if (pool == null || count < parallelThreshold) {
+			for (int i = 0; i < count; i++) {
+				if (flow) {
+					flowChunk(chunkIds[i]);
+				} else {
+					settleChunk(chunkIds[i]);
+				}
+			}
+		} else {
+			pool.invoke(new ChunkTask(this, flow, 0, count));
+		}
+	}
+
+	private void flowChunk (int chunk) {
+		int[] types = this.types;
+		float[] values = this.values;
+		float[] nextValues = this.nextValues;
+		int width = this.width;
+		int height = this.height;
+		int sx = (chunk % chunksX) * chunkSize;
+		int sy = (chunk / chunksX) * chunkSize;
+		int ex = Math.min(sx + chunkSize, width);
+		int ey = Math.min(sy + chunkSize, height);
+		for (int y = sy; y < ey; y++) {
+			for (int x = sx; x < ex; x++) {
+				int index = x + y * width;
+				if (types[index] == BLOCK) continue;
+
+				float value = values[index];
+				if (value <= 0) continue;
+
+				// below
+				if (y > 0) {
+					int belowId = index - width;
+					if (types[belowId] != BLOCK) {
+						float flow = getStableValue(value + values[belowId]) - values[belowId];
+						if (flow > MIN_FLOW) {
+							flow *= .5f;
+						}
+						flow = MathUtils.clamp(flow, 0, Math.min(MAX_SPEED, value));
+
+						nextValues[index] -= flow;
+						nextValues[belowId] += flow;
+						value -= flow;
+					}
+				}
+				if (value <= 0) continue;
+
+				// left
+				if (x > 0) {
+					int leftId = index - 1;
+					if (types[leftId] != BLOCK) {
+						float flow = (values[index] - values[leftId]) / 4f;
+						if (flow > MIN_FLOW) {
+							flow *= .5f;
+						}
+						flow = MathUtils.clamp(flow, 0, value);
+
+						nextValues[index] -= flow;
+						nextValues[leftId] += flow;
+						value -= flow;
+					}
+				}
+				if (value <= 0) continue;
+
+				// right
+				if (x < width - 1) {
+					int rightId = index + 1;
+					if (types[rightId] != BLOCK) {
+						float flow = (values[index] - values[rightId]) / 4f;
+						if (flow > MIN_FLOW) {
+							flow *= .5f;
+						}
+						flow = MathUtils.clamp(flow, 0, value);
+
+						nextValues[index] -= flow;
+						nextValues[rightId] += flow;
+						value -= flow;
+					}
+				}
+				if (value <= 0) continue;
+
+				// up
+				if (y < height - 1) {
+					int upId = index + width;
+					if (types[upId] != BLOCK) {
+						float flow = value - getStableValue(value + values[upId]);
+						if (flow > MIN_FLOW) {
+							flow *= .5f;
+						}
+						flow = MathUtils.clamp(flow, 0, Math.min(MAX_VALUE, value));
+
+						nextValues[index] -= flow;
+						nextValues[upId] += flow;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Copy next values, drain edges and update types, chunks don't touch each other here
+	 */
+	private void settleChunk (int chunk) {
+		int[] types = this.types;
+		float[] values = this.values;
+		float[] nextValues = this.nextValues;
+		int width = this.width;
+		int height = this.height;
+		int sx = (chunk % chunksX) * chunkSize;
+		int sy = (chunk / chunksX) * chunkSize;
+		int ex = Math.min(sx + chunkSize, width);
+		int ey = Math.min(sy + chunkSize, height);
+		float maxChange = 0;
+		for (int y = sy; y < ey; y++) {
+			boolean edgeY = y == 0 || y == height - 1;
+			for (int x = sx; x < ex; x++) {
+				int index = x + y * width;
+				if (types[index] == BLOCK) continue;
+				float value = nextValues[index];
+				// remove water from the edges
+				if (edgeY || x == 0 || x == width - 1) {
+					value = Math.max(value - drain, 0);
+					nextValues[index] = value;
+				}
+				float change = Math.abs(value - values[index]);
+				if (change > maxChange) maxChange = change;
+				values[index] = value;
+				types[index] = value > MIN_VALUE ? WATER : EMPTY;
+			}
+		}
+		if (maxChange > SETTLE_EPSILON) {
+			regions.markChanged(chunk);
+		}
+	}
+
+	private static float getStableValue (float value) {
+		if (value <= 1) {
+			return 1;
+		} else if (value < 2 * MAX_VALUE + MAX_COMPRESS) {
+			return (MAX_VALUE * MAX_VALUE + value * MAX_COMPRESS) / (MAX_VALUE + MAX_COMPRESS);
+		} else {
+			return (value + MAX_COMPRESS) / 2f;
+		}
+	}
+
+	public void setBlock (int x, int y) {
+		int index = x + y * width;
+		types[index] = BLOCK;
+		values[index] = 0;
+		nextValues[index] = 0;
+		wake(x, y);
+	}
+
+	public void addWater (int x, int y, float amount) {
+		int index = x + y * width;
+		if (types[index] == BLOCK) return;
+		types[index] = WATER;
+		values[index] += amount;
+		nextValues[index] += amount;
+		wake(x, y);
+	}
+
+	public void clear (int x, int y) {
+		int index = x + y * width;
+		types[index] = EMPTY;
+		values[index] = 0;
+		nextValues[index] = 0;
+		wake(x, y);
+	}
+
+	/**
+	 * Wake chunk containing given cell and its neighbours
+	 */
+	public void wake (int x, int y) {
+		regions.wake(x, y);
+	}
+
+	public void wakeAll () {
+		regions.wakeAll();
+	}
+
+	public int getType (int x, int y) {
+		return types[x + y * width];
+	}
+
+	public float getValue (int x, int y) {
+		return values[x + y * width];
+	}
+
+	/**
+	 * @return types of all cells, x + y * width, must not be modified
+	 */
+	public int[] getTypes () {
+		return types;
+	}
+
+	/**
+	 * @return values of all cells, x + y * width, must not be modified
+	 */
+	public float[] getValues () {
+		return values;
+	}
+
+	/**
+	 * @return total amount of water
+	 */
+	public float getTotal () {
+		float total = 0;
+		for (int i = 0; i < values.length; i++) {
+			total += values[i];
+		}
+		return total;
+	}
+
+	/**
+	 * @return if chunk will be stepped in next tick
+	 */
+	public boolean isChunkActive (int cx, int cy) {
+		return regions.isAwake(cx + cy * chunksX);
+	}
+
+	/**
+	 * @return amount of chunks stepped in last tick
+	 */
+	public int getActiveChunks () {
+		return regions.getActiveCount();
+	}
+
+	/**
+	 * @return amount of chunks settled in last tick, active ones and their neighbours
+	 */
+	public int getTouchedChunks () {
+		return regions.getTouchedCount();
+	}
+
+	/**
+	 * @return amount of cells in chunks stepped in last tick
+	 */
+	public int getActiveCells () {
+		return regions.getActiveCells();
+	}
+
+	/**
+	 * @return amount of cells skipped in last tick, as their chunks were asleep
+	 */
+	public int getSkippedCells () {
+		return regions.getSkippedCells();
+	}
+
+	/**
+	 * @return tracker of sleeping chunks
+	 */
+	public ActiveRegions getRegions () {
+		return regions;
+	}
+
+	public int getChunkCount () {
+		return regions.getRegionCount();
+	}
+
+	public int getChunkSize () {
+		return chunkSize;
+	}
+
+	public int getWidth () {
+		return width;
+	}
+
+	public int getHeight () {
+		return height;
+	}
+
+	@SuppressWarnings("serial")
+	private static class ChunkTask extends RecursiveAction {
+		private final WaterSimulation sim;
+		private final boolean flow;
+		private final int from;
+		private final int to;
+
+		public ChunkTask (WaterSimulation sim, boolean flow, int from, int to) {
+			this.sim = sim;
+			this.flow = flow;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override protected void compute () {
+			if (to - from <= 2) {
+				for (int i = from; i < to; i++) {
+					if (flow) {
+						sim.flowChunk(sim.chunkIds[i]);
+					} else {
+						sim.settleChunk(sim.chunkIds[i]);
+					}
+				}
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new ChunkTask(sim, flow, from, mid), new ChunkTask(sim, flow, mid, to));
+		}
+	}
+}
@@ -12,6 +12,8 @@ import io.piotrjastrzebski.playground.BaseScreen;
 import io.piotrjastrzebski.playground.GameReset;
 import io.piotrjastrzebski.playground.PlaygroundGame;
 
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Created by EvilEntity on 25/01/2016.
  */
@@ -22,20 +24,15 @@ public class WaterTest extends BaseScreen {
 
 	public final static int WIDTH = (int)VP_WIDTH;
 	public final static int HEIGHT = (int)VP_HEIGHT;
-	public final static int EMPTY = 0;
-	public final static int BLOCK = 1;
-	public final static int WATER = 2;
-	public final static float MIN_VALUE = 0.001f;
-	public final static float MAX_VALUE = 1;
-	public final static float MIN_FLOW = 0.01f;
-	public final static float MAX_SPEED = 1;
-	public final static float MAX_COMPRESS = 0.02f;
+	public final static int EMPTY = WaterSimulation.EMPTY;
+	public final static int BLOCK = WaterSimulation.BLOCK;
+	public final static int WATER = WaterSimulation.WATER;
+	public final static float MAX_VALUE = WaterSimulation.MAX_VALUE;
 	public final static float MIN_DRAW_VALUE = 0.01f;
 	public final static float MAX_DRAW_VALUE = 1.1f;
 
-	public static int[] types;
-	public static float[] values;
-	public static float[] nextValues;
+	private ForkJoinPool pool;
+	private WaterSimulation simulation;
 	private boolean drawText;
 
 	public WaterTest (GameReset game) {
@@ -46,20 +43,8 @@ public class WaterTest extends BaseScreen {
 		font.getData().setScale(INV_SCALE);
 		glyphs = new GlyphLayout();
 		clear.set(Color.GRAY);
-		types = new int[WIDTH * HEIGHT];
-		values = new float[WIDTH * HEIGHT];
-		nextValues = new float[WIDTH * HEIGHT];
-		for (int y = 0; y < HEIGHT; y++) {
-			for (int x = 0; x < WIDTH; x++) {
-				int index = x + y * WIDTH;
-//				int type = MathUtils.random(EMPTY, WATER);
-//				types[index] = type;
-//				if (type == WATER) {
-//					values[index] = 1;
-//					nextValues[index] = 1;
-//				}
-			}
-		}
+		pool = new ForkJoinPool();
+		simulation = new WaterSimulation(WIDTH, HEIGHT, 8, pool);
 	}
 	Color water = new Color(Color.WHITE);
 	float tick;
@@ -70,19 +55,12 @@ public class WaterTest extends BaseScreen {
 		int mx = (int)cs.x;
 		int my = (int)cs.y;
 		if (mx >= 0 && mx < WIDTH && my >= 0 && my < HEIGHT) {
-			int index = mx + my * WIDTH;
 			if (Gdx.input.isKeyPressed(Input.Keys.Q)) {
-				types[index] = BLOCK;
-				values[index] = 0;
-				nextValues[index] = 0;
+				simulation.setBlock(mx, my);
 			} else if (Gdx.input.isKeyPressed(Input.Keys.W)) {
-				types[index] = WATER;
-				values[index] += MAX_VALUE;
-				nextValues[index] += MAX_VALUE;
+				simulation.addWater(mx, my, MAX_VALUE);
 			} else if (Gdx.input.isKeyPressed(Input.Keys.E)) {
-				types[index] = EMPTY;
-				values[index] = 0;
-				nextValues[index] = 0;
+				simulation.clear(mx, my);
 			}
 		}
 		if (Gdx.input.isKeyJustPressed(Input.Keys.T)) {
@@ -92,113 +70,11 @@ public class WaterTest extends BaseScreen {
 		tick += delta;
 		if (tick >= tickDelta) {
 			tick -= tickDelta;
-			for (int y = 0; y < HEIGHT; y++) {
-				for (int x = 0; x < WIDTH; x++) {
-					int index = x + y * WIDTH;
-					int type = types[index];
-					if (type == BLOCK) continue;
-
-					float value = values[index];
-					if (value <= 0) continue;
-
-					// below
-					if (y > 0) {
-						int belowId = x + (y-1) * WIDTH;
-						if (types[belowId] != BLOCK) {
-							float flow = getStableValue(value + values[belowId]) - values[belowId];
-							if (flow > MIN_FLOW) {
-								flow *= .5f;
-							}
-							flow = MathUtils.clamp(flow, 0, Math.min(MAX_SPEED, value));
-
-							nextValues[index] -= flow;
-							nextValues[belowId] += flow;
-							value -= flow;
-						}
-					}
-					if (value <= 0) continue;
-
-					// left
-					if (x > 0) {
-						int leftId = (x - 1) + y * WIDTH;
-						if (types[leftId] != BLOCK) {
-							float flow = (values[index] - values[leftId])/4f;
-							if (flow > MIN_FLOW) {
-								flow *= .5f;
-							}
-							flow = MathUtils.clamp(flow, 0, value);
-
-							nextValues[index] -= flow;
-							nextValues[leftId] += flow;
-							value -= flow;
-						}
-					}
-					if (value <= 0) continue;
-
-					// right
-					if (x < WIDTH -1) {
-						int rightId = (x + 1) + y * WIDTH;
-						if (types[rightId] != BLOCK) {
-							float flow = (values[index] - values[rightId])/4f;
-							if (flow > MIN_FLOW) {
-								flow *= .5f;
-							}
-							flow = MathUtils.clamp(flow, 0, value);
-
-							nextValues[index] -= flow;
-							nextValues[rightId] += flow;
-							value -= flow;
-						}
-					}
-					if (value <= 0) continue;
-
-					// up
-					if (y < HEIGHT -1) {
-						int upId = x + (y + 1) * WIDTH;
-						float flow = value - getStableValue(value + values[upId]);
-						if (flow > MIN_FLOW) {
-							flow *= .5f;
-						}
-						flow = MathUtils.clamp(flow, 0, Math.min(MAX_VALUE, value));
-
-						nextValues[index] -= flow;
-						nextValues[upId] += flow;
-						value -= flow;
-					}
-				}
-			}
-
-			//Copy the new mass values to the mass array
-			for (int i = 0; i < WIDTH * HEIGHT; i++) {
-				values[i] = nextValues[i];
-			}
-
-			// remove water from the edges
-			for (int y = 0; y < HEIGHT; y++) {
-				for (int x = 0; x < WIDTH; x++) {
-					if (x == 0 || x == WIDTH -1 || y == 0 || y == HEIGHT -1) {
-						int index = x + y * WIDTH;
-						if(types[index] == BLOCK) continue;
-						values[index] = Math.max(values[index] - MAX_VALUE * tickDelta, 0);
-						nextValues[index] = Math.max(nextValues[index] - MAX_VALUE * tickDelta, 0);
-					}
-				}
-			}
-
-			// update flags
-			for (int y = 0; y < HEIGHT; y++) {
-				for (int x = 0; x < WIDTH; x++) {
-					int index = x + y * WIDTH;
-					if(types[index] == BLOCK) continue;
-					if (values[index] > MIN_VALUE){
-						types[index] = WATER;
-					} else {
-						types[index] = EMPTY;
-					}
-				}
-			}
+			simulation.step(tickDelta);
 		}
 		// draw stuff
+		int[] types = simulation.getTypes();
+		float[] values = simulation.getValues();
 		renderer.setProjectionMatrix(gameCamera.combined);
 		renderer.begin(ShapeRenderer.ShapeType.Filled);
 		for (int y = 0; y < HEIGHT; y++) {
@@ -260,16 +136,6 @@ public class WaterTest extends BaseScreen {
 		}
 	}
 
-	private float getStableValue (float value) {
-		if (value <= 1) {
-			return 1;
-		} else if (value < 2 * MAX_VALUE + MAX_COMPRESS) {
-			return (MAX_VALUE * MAX_VALUE + value * MAX_COMPRESS)/(MAX_VALUE + MAX_COMPRESS);
-		} else {
-			return (value + MAX_COMPRESS)/2f;
-		}
-	}
-
 	private Color getWaterColor(float value, Color out){
 		value = MathUtils.clamp(value, MIN_DRAW_VALUE, MAX_DRAW_VALUE);
 
@@ -300,6 +166,11 @@ public class WaterTest extends BaseScreen {
 		return true;
 	}
 
+	@Override public void dispose () {
+		super.dispose();
+		pool.shutdown();
+	}
+
 	@Override public void resize (int width, int height) {
 		gameViewport.update(width, height, true);
 		guiViewport.update(width, height, true);
@@ -21,6 +21,7 @@ public class CSTestV2 extends BaseScreen {
 	Client clientB;
 	Server server;
 	VisLabel ackLabel;
+	VisLabel bytesLabel;
 
 	public CSTestV2 (GameReset game) {
 		super(game);
@@ -92,6 +93,7 @@ public class CSTestV2 extends BaseScreen {
 		});
 
 		clientTable.add(ackLabel = new VisLabel("Not ACKed inputs: 0"));
+		clientTable.add(bytesLabel = new VisLabel("Snapshot bytes: 0"));
 		return client;
 	}
 
@@ -100,6 +102,7 @@ public class CSTestV2 extends BaseScreen {
 		clientA.update(delta);
 //		clientB.update(delta);
 		server.update(delta);
+		bytesLabel.setText("Snapshot bytes: " + server.getLastBytes(clientA) + ", avg " + (int)server.getAverageBytes(clientA));
 
 		renderer.setProjectionMatrix(gameCamera.combined);
 		renderer.begin(ShapeRenderer.ShapeType.Filled);
@@ -3,6 +3,7 @@ package io.piotrjastrzebski.playground.clientserverv2;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.Pools;
 
 import java.util.Iterator;
 
@@ -21,7 +22,10 @@ public class Client {
 	boolean left;
 	boolean right;
 
-	LagNetwork<Array<EntityState>> network;
+	LagNetwork<SnapshotPacket> network;
+	WorldSnapshot[] snapshots = new WorldSnapshot[Server.SNAPSHOT_HISTORY];
+	int lastTick = -1;
+	EntityState state = new EntityState();
 
 	int id;
 
@@ -31,6 +35,9 @@ public class Client {
 	public Client (CSTestV2 csTest) {
 		this.csTest = csTest;
 		network = new LagNetwork<>();
+		for (int i = 0; i < snapshots.length; i++) {
+			snapshots[i] = new WorldSnapshot();
+		}
 	}
 
 
@@ -64,13 +71,20 @@ public class Client {
 
 	private void processServerMSG () {
 		while (true) {
-			LagNetwork<Array<EntityState>>.Message<Array<EntityState>> gameState = network.receive();
-			if (gameState == null) {
+			LagNetwork<SnapshotPacket>.Message<SnapshotPacket> message = network.receive();
+			if (message == null) {
 				csTest.setNotACKed(pendingInputs.size);
 				return;
 			}
+			SnapshotPacket packet = message.data;
+			network.free(message);
+			WorldSnapshot snapshot = decode(packet);
+			Pools.free(packet);
+			if (snapshot == null) continue;
+			server.ack(lag, id, snapshot.tick);
 
-			for (EntityState state : gameState.data) {
+			for (int i = 0; i < snapshot.size(); i++) {
+				EntityState state = snapshot.get(i, this.state);
 
 				// TODO this is a bit dumb, playerId is set by the server directly
 				if (state.id == id) {
@@ -108,9 +122,22 @@ public class Client {
 //					entity.accel = state.accel;
 				}
 			}
+		}
+	}
 
-			network.free(gameState);
+	/**
+	 * @return decoded snapshot or null if packet is older than last one or its baseline is gone
+	 */
+	private WorldSnapshot decode (SnapshotPacket packet) {
+		if (packet.tick <= lastTick) return null;
+		WorldSnapshot baseline = null;
+		if (packet.baselineTick >= 0) {
+			baseline = snapshots[packet.baselineTick % snapshots.length];
+			if (baseline.tick != packet.baselineTick) return null;
 		}
+		WorldSnapshot snapshot = SnapshotCodec.decode(baseline, packet, snapshots[packet.tick % snapshots.length]);
+		lastTick = snapshot.tick;
+		return snapshot;
 	}
 
 	Array<GameInput> pendingInputs = new Array<>();
@@ -1,21 +1,56 @@
 package io.piotrjastrzebski.playground.clientserverv2;
 
-import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.utils.Pool;
 
-import java.util.Iterator;
-
 /**
  * Simple message queue with delay
+ *
+ * Messages are kept in a binary heap ordered by delivery time, messages with same delivery time are delivered in order they were sent.
+ * Time comes from {@link Clock}, so simulations can run faster than real time
+ *
  * Created by PiotrJ on 21/06/15.
  */
 public class LagNetwork<T> {
+	/**
+	 * Source of time in ms
+	 */
+	public interface Clock {
+		long millis ();
+	}
+
+	public final static Clock SYSTEM_CLOCK = new Clock() {
+		@Override public long millis () {
+			return System.currentTimeMillis();
+		}
+	};
+
+	/**
+	 * Called for each delivered message, message is freed after the call, so data must not be kept around if it is pooled
+	 */
+	public interface Receiver<E> {
+		void receive (E data, long sent);
+	}
+
 	Pool<Message<T>> messagePool = new Pool<Message<T>>(64) {
 		@Override protected Message<T> newObject () {
 			return new Message<>();
 		}
 	};
-	private Array<Message> messages = new Array<>();
+	private Message<T>[] heap = newHeap(64);
+	private int size;
+	private long sequence;
+	private final Clock clock;
+	private int jitter;
+	private RandomXS128 random = new RandomXS128();
+
+	public LagNetwork () {
+		this(SYSTEM_CLOCK);
+	}
+
+	public LagNetwork (Clock clock) {
+		this.clock = clock;
+	}
 
 	/**
 	 *
@@ -23,42 +58,162 @@ public class LagNetwork<T> {
 	 * @param msg
 	 */
 	public void send(int lag, T msg) {
+		if (jitter > 0) {
+			lag += random.nextInt(jitter + 1);
+		}
 		Message<T> message = messagePool.obtain();
-		message.init(lag, msg);
-		messages.add(message);
+		message.init(clock.millis(), lag, sequence++, msg);
+		push(message);
 	}
 
+	/**
+	 * @return next message that should be delivered by now or null, it should be freed with {@link LagNetwork#free(Message)} when done
+	 */
 	public Message<T> receive() {
-		long now = System.currentTimeMillis();
-		Iterator<Message> msgIter = messages.iterator();
-		while (msgIter.hasNext()) {
-			Message<T> message = msgIter.next();
-			if (message.deliver <= now) {
-				msgIter.remove();
-				return message;
-			}
+		return receive(clock.millis());
+	}
+
+	/**
+	 * @return next message that should be delivered by given time or null
+	 */
+	public Message<T> receive(long now) {
+		if (size == 0 || heap[0].deliver > now) return null;
+		return pop();
+	}
+
+	/**
+	 * Deliver all messages that should be delivered by given time, in delivery order
+	 * @return count of delivered messages
+	 */
+	public int drainUntil(long now, Receiver<T> receiver) {
+		int count = 0;
+		while (size > 0 && heap[0].deliver <= now) {
+			Message<T> message = pop();
+			receiver.receive(message.data, message.ts);
+			messagePool.free(message);
+			count++;
 		}
-		return null;
+		return count;
+	}
+
+	/**
+	 * Deliver all messages that should be delivered by now
+	 * @return count of delivered messages
+	 */
+	public int drain(Receiver<T> receiver) {
+		return drainUntil(clock.millis(), receiver);
 	}
 
 	public void free(Message<T> message) {
 		messagePool.free(message);
 	}
 
+	/**
+	 * @return count of messages in flight
+	 */
+	public int size () {
+		return size;
+	}
+
+	/**
+	 * Remove all messages in flight
+	 */
+	public void clear () {
+		for (int i = 0; i < size; i++) {
+			messagePool.free(heap[i]);
+			heap[i] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * @param jitter max random delay in ms added to lag of each message, messages can arrive out of order if not 0
+	 */
+	public void setJitter (int jitter) {
+		this.jitter = jitter;
+	}
+
+	public int getJitter () {
+		return jitter;
+	}
+
+	public void setSeed (long seed) {
+		random.setSeed(seed);
+	}
+
+	public Clock getClock () {
+		return clock;
+	}
+
+	private void push (Message<T> message) {
+		if (size == heap.length) {
+			Message<T>[] grown = newHeap(size * 2);
+			System.arraycopy(heap, 0, grown, 0, size);
+			heap = grown;
+		}
+		// sift up
+		int index = size++;
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			Message<T> other = heap[parent];
+			if (!message.before(other)) break;
+			heap[index] = other;
+			index = parent;
+		}
+		heap[index] = message;
+	}
+
+	private Message<T> pop () {
+		Message<T> top = heap[0];
+		Message<T> last = heap[--size];
+		heap[size] = null;
+		if (size > 0) {
+			// sift down
+			int index = 0;
+			int half = size >>> 1;
+			while (index < half) {
+				int child = 2 * index + 1;
+				Message<T> smallest = heap[child];
+				int right = child + 1;
+				if (right < size && heap[right].before(smallest)) {
+					child = right;
+					smallest = heap[right];
+				}
+				if (!smallest.before(last)) break;
+				heap[index] = smallest;
+				index = child;
+			}
+			heap[index] = last;
+		}
+		return top;
+	}
+
+	// generic arrays can't be created directly
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Message<T>[] newHeap (int size) {
+		return new Message[size];
+	}
+
 	public class Message<E> implements Pool.Poolable {
 		long deliver;
+		long seq;
 		E data;
 		public long ts;
 
-		public void init(int lag, E msg) {
-			ts = System.currentTimeMillis();
+		public void init(long now, int lag, long seq, E msg) {
+			ts = now;
 			deliver = ts + lag;
+			this.seq = seq;
 			this.data = msg;
+		}
 
+		boolean before (Message<E> other) {
+			return deliver < other.deliver || (deliver == other.deliver && seq < other.seq);
 		}
 
 		@Override public void reset () {
 			deliver = 0;
+			seq = 0;
 			data = null;
 		}
 	}
@@ -1,20 +1,32 @@
 package io.piotrjastrzebski.playground.clientserverv2;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.Pools;
 
 /**
  * Created by PiotrJ on 21/06/15.
  */
 public class Server {
 	public static float TICK_RATE;
+	/**
+	 * Amount of sent snapshots kept per client, older acks fall back to full snapshots
+	 */
+	public static final int SNAPSHOT_HISTORY = 32;
 	int id;
 	IntMap<Client> clients = new IntMap<>();
 	IntMap<Entity> entities = new IntMap<>();
 	IntMap<GameInput> lastInputs = new IntMap<>();
 
 	LagNetwork<GameInput> network = new LagNetwork<>();
+	LagNetwork<Ack> ackNetwork = new LagNetwork<>();
+	IntMap<ClientView> views = new IntMap<>();
+	int snapshotTick;
+	/**
+	 * Entities further than this from client's player are not sent to it, by default client sees half of the wrapping world
+	 */
+	float interestRadius = CSTestV2.VP_WIDTH / 4;
 
 	public Server () {
 	}
@@ -24,6 +36,7 @@ public class Server {
 		client.setServer(this);
 		client.id = id;
 		clients.put(id, client);
+		views.put(id, new ClientView(client));
 
 		Entity entity = new Entity(0);
 		entities.put(id, entity);
@@ -52,58 +65,120 @@ public class Server {
 			// TODO proper server delta
 			entity.clearForces();
 		}
-		while (true) {
-			LagNetwork<GameInput>.Message<GameInput> message = network.receive();
-			if (message == null) {
-				break;
-			}
-
-			if (validateInput(message.data)) {
-				int id = message.data.id;
-				entities.get(id).applyInput(message.data);
-
-				lastInputs.put(id, message.data);
-			}
-
-			network.free(message);
-		}
+		network.drain(inputReceiver);
+		ackNetwork.drain(ackReceiver);
 		// simulate entities
 		for (Entity entity:entities.values()) {
 			entity.fixedUpdate();
 		}
 	}
 
-	Array<EntityState> worldState = new Array<>();
+	WorldSnapshot worldState = new WorldSnapshot();
+	EntityState state = new EntityState();
 	private void sendWorldState () {
+		snapshotTick++;
 		worldState.clear();
-		// gather world state
-		// todo cull so we sent only required data
+		worldState.tick = snapshotTick;
+		// gather world state, ids are sequential so it is sorted
 		for (int i = 0; i < entities.size; i++) {
 			Entity entity = entities.get(i);
-			// todo pool etc
-			EntityState state = new EntityState();
 			state.id = entity.id;
 			state.x = entity.positionX;
 			state.velocity = entity.velocity;
 			state.accel = entity.accel;
 
 			GameInput input = lastInputs.get(i);
-			if (input != null) {
-				state.lastSeqId = input.seqId;
-			}
+			state.lastSeqId = input != null ? input.seqId : 0;
 			worldState.add(state);
 		}
 
 		// send data to clients
-		for(Client client : clients.values()) {
-			client.network.send(client.getLag(), worldState);
+		for (ClientView view : views.values()) {
+			Client client = view.client;
+			WorldSnapshot snapshot = view.history[snapshotTick % SNAPSHOT_HISTORY];
+			snapshot.clear();
+			snapshot.tick = snapshotTick;
+			Entity player = entities.get(client.id);
+			for (int i = 0; i < worldState.size(); i++) {
+				if (worldState.getId(i) == client.id || isInterested(player, worldState.getX(i))) {
+					snapshot.add(worldState, i);
+				}
+			}
+			WorldSnapshot baseline = null;
+			if (view.ackedTick >= 0 && snapshotTick - view.ackedTick < SNAPSHOT_HISTORY) {
+				baseline = view.history[view.ackedTick % SNAPSHOT_HISTORY];
+			}
+			SnapshotPacket packet = SnapshotCodec.encode(baseline, snapshot, Pools.obtain(SnapshotPacket.class));
+			view.lastBytes = packet.size();
+			view.totalBytes += packet.size();
+			view.packets++;
+			client.network.send(client.getLag(), packet);
 		}
 	}
 
+	private boolean isInterested (Entity player, float x) {
+		if (player == null) return true;
+		float distance = Math.abs(player.positionX - x);
+		// world wraps around
+		distance = Math.min(distance, CSTestV2.VP_WIDTH - distance);
+		return distance <= interestRadius;
+	}
+
+	/**
+	 * Acknowledge that client received snapshot with given tick, it will be used as baseline for following snapshots
+	 */
+	public void ack (int lag, int clientId, int tick) {
+		Ack ack = Pools.obtain(Ack.class);
+		ack.clientId = clientId;
+		ack.tick = tick;
+		ackNetwork.send(lag, ack);
+	}
+
+	private LagNetwork.Receiver<Ack> ackReceiver = new LagNetwork.Receiver<Ack>() {
+		@Override public void receive (Ack ack, long sent) {
+			ClientView view = views.get(ack.clientId);
+			if (view != null && ack.tick > view.ackedTick) {
+				view.ackedTick = ack.tick;
+			}
+			Pools.free(ack);
+		}
+	};
+
+	private LagNetwork.Receiver<GameInput> inputReceiver = new LagNetwork.Receiver<GameInput>() {
+		@Override public void receive (GameInput input, long sent) {
+			if (validateInput(input)) {
+				int id = input.id;
+				entities.get(id).applyInput(input);
+
+				lastInputs.put(id, input);
+			}
+		}
+	};
+
 	private boolean validateInput(GameInput input) {
 		return input != null && Math.abs(input.accel) <= Entity.MAX_ACCEL;
 	}
 
+	public void setInterestRadius (float interestRadius) {
+		this.interestRadius = interestRadius;
+	}
+
+	/**
+	 * @return size in bytes of last snapshot sent to given client
+	 */
+	public int getLastBytes (Client client) {
+		ClientView view = views.get(client.id);
+		return view != null ? view.lastBytes : 0;
+	}
+
+	/**
+	 * @return average size in bytes of snapshots sent to given client
+	 */
+	public float getAverageBytes (Client client) {
+		ClientView view = views.get(client.id);
+		return view != null && view.packets > 0 ? view.totalBytes / (float)view.packets : 0;
+	}
+
 	public void setFPS (int fps) {
 		Server.TICK_RATE = 1.0f/fps;
 	}
@@ -114,4 +189,30 @@ public class Server {
 		}
 		return null;
 	}
+
+	static class ClientView {
+		final Client client;
+		final WorldSnapshot[] history = new WorldSnapshot[SNAPSHOT_HISTORY];
+		int ackedTick = -1;
+		int lastBytes;
+		long totalBytes;
+		int packets;
+
+		public ClientView (Client client) {
+			this.client = client;
+			for (int i = 0; i < history.length; i++) {
+				history[i] = new WorldSnapshot();
+			}
+		}
+	}
+
+	public static class Ack implements Pool.Poolable {
+		public int clientId;
+		public int tick;
+
+		@Override public void reset () {
+			clientId = -1;
+			tick = -1;
+		}
+	}
 }
@@ -0,0 +1,138 @@
+package io.piotrjastrzebski.playground.clientserverv2;
+
+/**
+ * Encodes {@link WorldSnapshot}s as deltas against a baseline both sides have
+ *
+ * Entities that didn't change since baseline are not written at all, removed entities are written as ids only,
+ * changed entities as a mask of changed fields followed by zig zag var int differences.
+ * Without a baseline every entity is written as a difference from 0.
+ */
+public class SnapshotCodec {
+	private static final int X = 1;
+	private static final int VELOCITY = 1 << 1;
+	private static final int ACCEL = 1 << 2;
+	private static final int SEQ = 1 << 3;
+
+	private SnapshotCodec () {}
+
+	/**
+	 * Encode current snapshot into given packet
+	 * @param baseline snapshot acknowledged by receiver or null for full snapshot
+	 */
+	public static SnapshotPacket encode (WorldSnapshot baseline, WorldSnapshot current, SnapshotPacket out) {
+		out.reset();
+		out.tick = current.tick;
+		out.baselineTick = baseline != null ? baseline.tick : -1;
+		out.writeVarLong(out.tick);
+		out.writeVarLong(out.baselineTick + 1);
+
+		int removed = 0;
+		int changed = 0;
+		if (baseline != null) {
+			for (int i = 0; i < baseline.size; i++) {
+				if (current.indexOf(baseline.ids[i]) < 0) removed++;
+			}
+		}
+		for (int i = 0; i < current.size; i++) {
+			int base = baseline != null ? baseline.indexOf(current.ids[i]) : -1;
+			if (base < 0 || mask(baseline, base, current, i) != 0) changed++;
+		}
+
+		out.writeVarLong(removed);
+		int last = -1;
+		if (removed > 0) {
+			for (int i = 0; i < baseline.size; i++) {
+				int id = baseline.ids[i];
+				if (current.indexOf(id) >= 0) continue;
+				out.writeVarLong(id - last - 1);
+				last = id;
+			}
+		}
+
+		out.writeVarLong(changed);
+		last = -1;
+		for (int i = 0; i < current.size; i++) {
+			int id = current.ids[i];
+			int base = baseline != null ? baseline.indexOf(id) : -1;
+			int mask;
+			int x = 0, velocity = 0, accel = 0;
+			long seq = 0;
+			if (base >= 0) {
+				mask = mask(baseline, base, current, i);
+				if (mask == 0) continue;
+				x = baseline.x[base];
+				velocity = baseline.velocity[base];
+				accel = baseline.accel[base];
+				seq = baseline.lastSeqId[base];
+			} else {
+				mask = (current.x[i] != 0 ? X : 0) | (current.velocity[i] != 0 ? VELOCITY : 0)
+					| (current.accel[i] != 0 ? ACCEL : 0) | (current.lastSeqId[i] != 0 ? SEQ : 0);
+			}
+			out.writeVarLong(id - last - 1);
+			last = id;
+			out.writeByte(mask);
+			if ((mask & X) != 0) out.writeSigned(current.x[i] - x);
+			if ((mask & VELOCITY) != 0) out.writeSigned(current.velocity[i] - velocity);
+			if ((mask & ACCEL) != 0) out.writeSigned(current.accel[i] - accel);
+			if ((mask & SEQ) != 0) out.writeSigned(current.lastSeqId[i] - seq);
+		}
+		return out;
+	}
+
+	private static int mask (WorldSnapshot baseline, int base, WorldSnapshot current, int index) {
+		int mask = 0;
+		if (baseline.x[base] != current.x[index]) mask |= X;
+		if (baseline.velocity[base] != current.velocity[index]) mask |= VELOCITY;
+		if (baseline.accel[base] != current.accel[index]) mask |= ACCEL;
+		if (baseline.lastSeqId[base] != current.lastSeqId[index]) mask |= SEQ;
+		return mask;
+	}
+
+	/**
+	 * Decode given packet into out snapshot
+	 * @param baseline snapshot with tick equal to {@link SnapshotPacket#baselineTick}, or null if packet is full
+	 */
+	public static WorldSnapshot decode (WorldSnapshot baseline, SnapshotPacket in, WorldSnapshot out) {
+		in.position = 0;
+		int tick = (int)in.readVarLong();
+		int baselineTick = (int)in.readVarLong() - 1;
+		if (baselineTick >= 0 && (baseline == null || baseline.tick != baselineTick)) {
+			throw new IllegalArgumentException("Packet requires baseline " + baselineTick);
+		}
+		out.clear();
+		out.tick = tick;
+
+		int removed = (int)in.readVarLong();
+		int nextRemoved = removed > 0 ? (int)in.readVarLong() : Integer.MAX_VALUE;
+		removed--;
+		if (baselineTick >= 0) {
+			for (int i = 0; i < baseline.size; i++) {
+				int id = baseline.ids[i];
+				if (id == nextRemoved) {
+					nextRemoved = removed > 0 ? id + 1 + (int)in.readVarLong() : Integer.MAX_VALUE;
+					removed--;
+					continue;
+				}
+				out.add(baseline, i);
+			}
+		}
+
+		int changed = (int)in.readVarLong();
+		int last = -1;
+		for (int c = 0; c < changed; c++) {
+			int id = last + 1 + (int)in.readVarLong();
+			last = id;
+			int mask = in.readByte();
+			int index = out.indexOf(id);
+			if (index < 0) {
+				index = -index - 1;
+				out.insert(index, id, 0, 0, 0, 0);
+			}
+			if ((mask & X) != 0) out.x[index] += in.readSigned();
+			if ((mask & VELOCITY) != 0) out.velocity[index] += in.readSigned();
+			if ((mask & ACCEL) != 0) out.accel[index] += in.readSigned();
+			if ((mask & SEQ) != 0) out.lastSeqId[index] += in.readSigned();
+		}
+		return out;
+	}
+}
@@ -0,0 +1,72 @@
+package io.piotrjastrzebski.playground.clientserverv2;
+
+import com.badlogic.gdx.utils.Pool;
+
+import java.util.Arrays;
+
+/**
+ * Encoded {@link WorldSnapshot} as it would be sent over the wire
+ */
+public class SnapshotPacket implements Pool.Poolable {
+	public int tick;
+	/** tick of snapshot this packet is a delta against, -1 if full */
+	public int baselineTick = -1;
+	byte[] data = new byte[256];
+	int size;
+	int position;
+
+	public SnapshotPacket () {}
+
+	public int size () {
+		return size;
+	}
+
+	void writeByte (int value) {
+		if (size == data.length) {
+			data = Arrays.copyOf(data, size * 2);
+		}
+		data[size++] = (byte)value;
+	}
+
+	void writeVarLong (long value) {
+		while ((value & ~0x7FL) != 0) {
+			writeByte((int)((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		writeByte((int)value);
+	}
+
+	/**
+	 * Zig zag encoded, so small negative values are small too
+	 */
+	void writeSigned (long value) {
+		writeVarLong((value << 1) ^ (value >> 63));
+	}
+
+	int readByte () {
+		if (position >= size) throw new IllegalStateException("Read past end of packet");
+		return data[position++] & 0xFF;
+	}
+
+	long readVarLong () {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = readByte();
+			value |= (long)(b & 0x7F) << shift;
+			if ((b & 0x80) == 0) return value;
+		}
+		throw new IllegalStateException("Malformed var long");
+	}
+
+	long readSigned () {
+		long value = readVarLong();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	@Override public void reset () {
+		tick = 0;
+		baselineTick = -1;
+		size = 0;
+		position = 0;
+	}
+}
@@ -0,0 +1,111 @@
+package io.piotrjastrzebski.playground.clientserverv2;
+
+import java.util.Arrays;
+
+/**
+ * Quantized state of entities at given server tick, sorted by entity id
+ *
+ * Values are stored quantized, so server and client compute deltas from exactly the same numbers.
+ * Snapshots are meant to be reused, see {@link SnapshotCodec}
+ */
+public class WorldSnapshot {
+	/** position resolution, in world units */
+	public static final float POSITION_STEP = 1f / 512;
+	public static final float VELOCITY_STEP = 1f / 256;
+	public static final float ACCEL_STEP = 1f / 256;
+
+	public int tick = -1;
+	int size;
+	int[] ids = new int[16];
+	int[] x = new int[16];
+	int[] velocity = new int[16];
+	int[] accel = new int[16];
+	long[] lastSeqId = new long[16];
+
+	public WorldSnapshot () {}
+
+	/**
+	 * Add state of an entity, quantized, ids must be added in ascending order
+	 */
+	public void add (EntityState state) {
+		add(state.id, quantize(state.x, POSITION_STEP), quantize(state.velocity, VELOCITY_STEP), quantize(state.accel, ACCEL_STEP),
+			state.lastSeqId);
+	}
+
+	void add (int id, int x, int velocity, int accel, long lastSeqId) {
+		if (size > 0 && ids[size - 1] >= id) throw new IllegalArgumentException("Ids must be ascending, " + id + " after " + ids[size - 1]);
+		insert(size, id, x, velocity, accel, lastSeqId);
+	}
+
+	void insert (int index, int id, int x, int velocity, int accel, long lastSeqId) {
+		if (size == ids.length) {
+			int capacity = size * 2;
+			ids = Arrays.copyOf(ids, capacity);
+			this.x = Arrays.copyOf(this.x, capacity);
+			this.velocity = Arrays.copyOf(this.velocity, capacity);
+			this.accel = Arrays.copyOf(this.accel, capacity);
+			this.lastSeqId = Arrays.copyOf(this.lastSeqId, capacity);
+		}
+		int moved = size - index;
+		if (moved > 0) {
+			System.arraycopy(ids, index, ids, index + 1, moved);
+			System.arraycopy(this.x, index, this.x, index + 1, moved);
+			System.arraycopy(this.velocity, index, this.velocity, index + 1, moved);
+			System.arraycopy(this.accel, index, this.accel, index + 1, moved);
+			System.arraycopy(this.lastSeqId, index, this.lastSeqId, index + 1, moved);
+		}
+		ids[index] = id;
+		this.x[index] = x;
+		this.velocity[index] = velocity;
+		this.accel[index] = accel;
+		this.lastSeqId[index] = lastSeqId;
+		size++;
+	}
+
+	/**
+	 * Copy entity at given index from other snapshot to the end of this one
+	 */
+	void add (WorldSnapshot other, int index) {
+		add(other.ids[index], other.x[index], other.velocity[index], other.accel[index], other.lastSeqId[index]);
+	}
+
+	/**
+	 * @return index of entity with given id, or -(insertion point) - 1 if it is not in the snapshot
+	 */
+	public int indexOf (int id) {
+		return Arrays.binarySearch(ids, 0, size, id);
+	}
+
+	/**
+	 * Fill given state with dequantized state of entity at given index
+	 */
+	public EntityState get (int index, EntityState out) {
+		out.id = ids[index];
+		out.x = x[index] * POSITION_STEP;
+		out.velocity = velocity[index] * VELOCITY_STEP;
+		out.accel = accel[index] * ACCEL_STEP;
+		out.lastSeqId = lastSeqId[index];
+		return out;
+	}
+
+	public int getId (int index) {
+		return ids[index];
+	}
+
+	public float getX (int index) {
+		return x[index] * POSITION_STEP;
+	}
+
+	public int size () {
+		return size;
+	}
+
+	public void clear () {
+		tick = -1;
+		size = 0;
+	}
+
+	public static int quantize (float value, float step) {
+		return Math.round(value / step);
+	}
+}
@@ -0,0 +1,220 @@
+package io.piotrjastrzebski.playground.ecs.aijobs;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntMap;
+import io.piotrjastrzebski.playground.ecs.aijobs.components.Worker;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Steps behavior trees of workers, each every {@code interval} ticks instead of every tick
+ *
+ * Workers with same interval are spread over ticks, so there is similar amount of work each tick
+ * If a tick goes over {@link #budgetNanos}, remaining due workers are deferred, next tick starts with them
+ * With threads, due workers are split in chunks stepped in parallel, tasks must only touch their worker or guard shared state
+ * {@link Worker#aiDelta} is set to time since previous step of its tree before it is stepped
+ */
+public class AIScheduler implements Disposable {
+	/** max time spent stepping trees per tick, 0 for no limit, at least one tree per thread is stepped each tick */
+	public long budgetNanos;
+	/** min number of due workers to step them in parallel, fewer are not worth the overhead */
+	public int minParallel = 256;
+
+	private final ExecutorService executor;
+	private final int threads;
+	private final Array<Agent> agents = new Array<>();
+	private final IntMap<Agent> byId = new IntMap<>();
+	private final Array<Agent> due = new Array<>();
+	private final ArrayList<Chunk> chunks = new ArrayList<>();
+	private final ArrayList<Future<Integer>> futures = new ArrayList<>();
+	private int tick;
+	private int cursor;
+	private int added;
+	private int stepped;
+	private int skipped;
+	private int deferred;
+
+	/**
+	 * @param threads to step trees on, 0 to step on calling thread
+	 */
+	public AIScheduler (int threads) {
+		this.threads = threads;
+		if (threads > 0) {
+			executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+				int id;
+				@Override public Thread newThread (Runnable r) {
+					Thread thread = new Thread(r, "ai-scheduler-" + id++);
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			for (int i = 0; i < threads; i++) {
+				chunks.add(new Chunk());
+			}
+		} else {
+			executor = null;
+		}
+	}
+
+	/**
+	 * @param interval ticks between steps of worker tree, 1 to step every tick
+	 */
+	public void add (Worker worker, int interval) {
+		if (byId.containsKey(worker.eid)) throw new IllegalArgumentException(worker + " already added");
+		Agent agent = new Agent();
+		agent.worker = worker;
+		agent.interval = Math.max(interval, 1);
+		// offset first step so workers added at the same time dont step together
+		agent.nextTick = tick + 1 + added++ % agent.interval;
+		agent.index = agents.size;
+		agents.add(agent);
+		byId.put(worker.eid, agent);
+	}
+
+	public void setInterval (Worker worker, int interval) {
+		Agent agent = byId.get(worker.eid);
+		if (agent == null) return;
+		agent.interval = Math.max(interval, 1);
+		agent.nextTick = Math.min(agent.nextTick, tick + agent.interval);
+	}
+
+	public void remove (Worker worker) {
+		Agent agent = byId.remove(worker.eid);
+		if (agent == null) return;
+		Agent last = agents.pop();
+		if (last != agent) {
+			agents.set(agent.index, last);
+			last.index = agent.index;
+		}
+	}
+
+	/**
+	 * Step trees of workers that are due this tick
+	 *
+	 * @param delta time since last tick
+	 */
+	public void tick (float delta) {
+		tick++;
+		stepped = skipped = deferred = 0;
+		int size = agents.size;
+		if (size == 0) return;
+		long deadline = budgetNanos > 0? System.nanoTime() + budgetNanos : Long.MAX_VALUE;
+		// start where we stopped last time, so deferred workers go first
+		int start = cursor < size? cursor : 0;
+		due.clear();
+		for (int i = 0; i < size; i++) {
+			int at = start + i;
+			Agent agent = agents.get(at < size? at : at - size);
+			agent.elapsed += delta;
+			if (agent.nextTick > tick) {
+				skipped++;
+			} else {
+				due.add(agent);
+			}
+		}
+		if (executor == null || due.size < minParallel) {
+			int count = step(due, 0, due.size, deadline);
+			stepped = count;
+			deferred = due.size - count;
+			if (deferred > 0) cursor = due.get(count).index;
+		} else {
+			stepParallel(deadline);
+		}
+	}
+
+	private void stepParallel (long deadline) {
+		int per = (due.size + threads - 1) / threads;
+		futures.clear();
+		for (int i = 0; i < threads; i++) {
+			Chunk chunk = chunks.get(i);
+			chunk.from = Math.min(i * per, due.size);
+			chunk.to = Math.min(chunk.from + per, due.size);
+			chunk.deadline = deadline;
+			futures.add(executor.submit(chunk));
+		}
+		int firstDeferred = -1;
+		for (int i = 0; i < threads; i++) {
+			Chunk chunk = chunks.get(i);
+			int count;
+			try {
+				count = futures.get(i).get();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new GdxRuntimeException(ex);
+			} catch (ExecutionException ex) {
+				throw new GdxRuntimeException(ex.getCause());
+			}
+			stepped += count;
+			int left = chunk.to - chunk.from - count;
+			if (left > 0 && firstDeferred == -1) firstDeferred = chunk.from + count;
+			deferred += left;
+		}
+		if (firstDeferred >= 0) cursor = due.get(firstDeferred).index;
+	}
+
+	/**
+	 * @return number of stepped agents from start of the range, rest is deferred
+	 */
+	private int step (Array<Agent> agents, int from, int to, long deadline) {
+		int tick = this.tick;
+		for (int i = from; i < to; i++) {
+			if (i > from && System.nanoTime() > deadline) return i - from;
+			Agent agent = agents.get(i);
+			Worker worker = agent.worker;
+			worker.aiDelta = agent.elapsed;
+			worker.ai.step();
+			agent.elapsed = 0;
+			agent.nextTick = tick + agent.interval;
+		}
+		return to - from;
+	}
+
+	/** @return number of trees stepped in last tick */
+	public int getStepped () {
+		return stepped;
+	}
+
+	/** @return number of workers that were not due in last tick */
+	public int getSkipped () {
+		return skipped;
+	}
+
+	/** @return number of due workers that were not stepped in last tick due to budget */
+	public int getDeferred () {
+		return deferred;
+	}
+
+	public int size () {
+		return agents.size;
+	}
+
+	@Override public void dispose () {
+		if (executor != null) executor.shutdown();
+	}
+
+	private static class Agent {
+		Worker worker;
+		int interval;
+		int nextTick;
+		float elapsed;
+		int index;
+	}
+
+	private class Chunk implements Callable<Integer> {
+		int from;
+		int to;
+		long deadline;
+
+		@Override public Integer call () throws Exception {
+			return step(due, from, to, deadline);
+		}
+	}
+}
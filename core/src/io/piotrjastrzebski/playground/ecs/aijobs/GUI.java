@@ -46,6 +46,7 @@ public class GUI extends IteratingSystem implements InputProcessor {
 
 	VisLabel name;
 	VisLabel entity;
+	VisLabel ai;
 	VisTextButton pause;
 	@Override protected void initialize () {
 		super.initialize();
@@ -68,6 +69,9 @@ public class GUI extends IteratingSystem implements InputProcessor {
 		entity.setWrap(false);
 		window.add(entity);
 		window.row();
+		ai = new VisLabel();
+		window.add(ai);
+		window.row();
 		// ...
 //		container.setPosition(0, 720);
 		stage.addActor(window);
@@ -82,6 +86,8 @@ public class GUI extends IteratingSystem implements InputProcessor {
 	@Override protected void begin () {
 		name.setText("Nothing");
 		entity.setText("");
+		AIScheduler scheduler = workers.getScheduler();
+		ai.setText("ai stepped " + scheduler.getStepped() + ", skipped " + scheduler.getSkipped() + ", deferred " + scheduler.getDeferred());
 	}
 
 	Vector3 temp = new Vector3();
@@ -12,6 +12,8 @@ public class Worker extends Component {
 	public int jobID = -1;
 	public String name;
 	public BehaviorTree<Worker> ai;
+	/** time since {@link #ai} was last stepped, set before each step */
+	public float aiDelta;
 
 	public void claim (Job job) {
 		jobID = job.eid;
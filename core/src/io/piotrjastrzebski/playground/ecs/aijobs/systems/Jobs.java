@@ -7,12 +7,12 @@ import com.artemis.annotations.Wire;
 import com.artemis.systems.EntityProcessingSystem;
 import com.artemis.systems.IteratingSystem;
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.IntMap;
 import io.piotrjastrzebski.playground.ecs.aijobs.ECSAIJobsTest;
 import io.piotrjastrzebski.playground.ecs.aijobs.Godlike;
 import io.piotrjastrzebski.playground.ecs.aijobs.components.Job;
 import io.piotrjastrzebski.playground.ecs.aijobs.components.Worker;
+import io.piotrjastrzebski.playground.ecs.jobs.JobBoard;
 
 /**
  * Created by EvilEntity on 17/08/2015.
@@ -21,9 +21,10 @@ import io.piotrjastrzebski.playground.ecs.aijobs.components.Worker;
 public class Jobs extends IteratingSystem {
 	private final static String TAG = Jobs.class.getSimpleName();
 	private ComponentMapper<Job> mJob;
+	protected ComponentMapper<Godlike> mGodlike;
 
 	IntMap<Job> jobById = new IntMap<>();
-	Array<Job> jobs = new Array<>();
+	JobBoard board = new JobBoard(4);
 	public Jobs () {
 		super(Aspect.all(Job.class));
 	}
@@ -32,7 +33,23 @@ public class Jobs extends IteratingSystem {
 		Gdx.app.log(TAG, ECSAIJobsTest.entityToStr(world, e));
 		Job job = mJob.get(e);
 		jobById.put(e, job);
-		jobs.add(job);
+		if (mGodlike.has(e)) {
+			Godlike godlike = mGodlike.get(e);
+			board.add(e, job.priority, godlike.x, godlike.y);
+		} else {
+			board.add(e, job.priority, 0, 0);
+		}
+		if (job.previous != ECSAIJobsTest.NULL_ID) require(e, job.previous);
+		for (int i = 0; i < job.required.size; i++) {
+			require(e, job.required.get(i));
+		}
+		if (job.workerID != ECSAIJobsTest.NULL_ID) board.claim(e);
+	}
+
+	private void require (int e, int id) {
+		// removed jobs are done, jobs not inserted yet are still pending
+		if (!mJob.has(id) || isDone(mJob.get(id))) return;
+		board.require(e, id);
 	}
 
 	@Override protected void process (int e) {
@@ -41,64 +58,33 @@ public class Jobs extends IteratingSystem {
 
 	@Override protected void removed (int e) {
 		Job job = mJob.get(e);
-		jobs.removeValue(job, true);
-		jobById.put(job.eid, null);
+		jobById.remove(job.eid);
+		board.remove(job.eid);
 	}
 
 	public Job getJob (int jid) {
 		return jobById.get(jid, null);
 	}
 
-	public Job getJob () {
-		for (Job job : jobs) {
-			if (isAvailable(job)) {
-				return job;
-			}
-		}
-		return null;
-	}
-
-	protected ComponentMapper<Godlike> mGodlike;
-	public boolean findJobFor (Worker worker) {
+	// synchronized, as workers ai can be stepped in parallel, see AIScheduler
+	public synchronized boolean findJobFor (Worker worker) {
 		// already has a job, ie from a chain
 		if (hasJob(worker)) return true;
-		for (Job job : jobs) {
-			if (isAvailable(job)) {
-				claim(worker, job);
-				return true;
-			}
-		}
-		return false;
-	}
-
-	private boolean isDone(int id) {
-		return isDone(jobById.get(id, null));
+		Godlike workerlike = mGodlike.get(worker.eid);
+		int id = board.claimNearest(workerlike.x, workerlike.y);
+		if (id == JobBoard.NULL_ID) return false;
+		claim(worker, jobById.get(id));
+		return true;
 	}
 
 	private boolean isDone(Job job) {
-		// already removed
-		if (job == null) return true;
 		return job.progress > 1;
 	}
 
-	private boolean isAvailable (Job job) {
-		if (job.previous != ECSAIJobsTest.NULL_ID && !isDone(job.previous)) {
-			return false;
-		}
-		for (int i = 0; i < job.required.size; i++) {
-			int id = job.required.get(i);
-			if (!isDone(id)) return false;
-		}
-		return !isClaimed(job);
-	}
-
-	private boolean isClaimed(Job job) {
-		return job.workerID != ECSAIJobsTest.NULL_ID;
-	}
-
 	public void finish (Job job) {
 		if (job.progress < 1) return;
 		Gdx.app.log(TAG, job + " finished");
+		board.finish(job.eid);
 		world.getEntity(job.eid).deleteFromWorld();
 	}
 
@@ -111,6 +97,7 @@ public class Jobs extends IteratingSystem {
 	}
 
 	private void claim (Worker worker, Job job) {
+		board.claim(job.eid);
 		worker.claim(job);
 		Godlike joblike = mGodlike.get(job.eid);
 		Godlike workerlike = mGodlike.get(worker.eid);
@@ -122,10 +109,10 @@ public class Jobs extends IteratingSystem {
 		return worker.jobID != ECSAIJobsTest.NULL_ID;
 	}
 
-	public boolean workDone (Worker worker) {
+	public synchronized boolean workDone (Worker worker) {
 		Job job = getJob(worker.jobID);
-		// work on job
-		job.progress += 1f * world.delta;
+		// work on job, for as long as since last step of workers ai
+		job.progress += 1f * worker.aiDelta;
 		if (job.progress > 1) {
 			// if done, finish it
 			finish(job);
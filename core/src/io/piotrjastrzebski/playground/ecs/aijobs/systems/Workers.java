@@ -1,77 +1,60 @@
 package io.piotrjastrzebski.playground.ecs.aijobs.systems;
 
 import com.artemis.Aspect;
+import com.artemis.BaseEntitySystem;
 import com.artemis.ComponentMapper;
-import com.artemis.Entity;
 import com.artemis.annotations.Wire;
-import com.artemis.systems.EntityProcessingSystem;
-import com.artemis.systems.IteratingSystem;
 import com.badlogic.gdx.Gdx;
+import io.piotrjastrzebski.playground.ecs.aijobs.AIScheduler;
 import io.piotrjastrzebski.playground.ecs.aijobs.ECSAIJobsTest;
-import io.piotrjastrzebski.playground.ecs.aijobs.Godlike;
-import io.piotrjastrzebski.playground.ecs.aijobs.components.Job;
 import io.piotrjastrzebski.playground.ecs.aijobs.components.Worker;
 
 /**
+ * Steps ai of workers with {@link AIScheduler}, so not every tree is stepped every frame
+ *
  * Created by EvilEntity on 17/08/2015.
  */
 @Wire
-public class Workers extends IteratingSystem {
+public class Workers extends BaseEntitySystem {
 	private final static String TAG = Workers.class.getSimpleName();
 	protected ComponentMapper<Worker> mWorker;
-//	protected ComponentMapper<Godlike> mGodlike;
-//	Jobs jobs;
+
+	/** ticks between steps of ai of new workers */
+	public int aiInterval = 1;
+	private final AIScheduler scheduler;
 
 	public Workers () {
+		this(0);
+	}
+
+	/**
+	 * @param threads to step ai on, 0 to step on main thread
+	 */
+	public Workers (int threads) {
 		super(Aspect.all(Worker.class));
+		scheduler = new AIScheduler(threads);
 	}
 
 	@Override protected void inserted (int e) {
 		Gdx.app.log(TAG, ECSAIJobsTest.entityToStr(world, e));
-
-	}
-
-	@Override protected void process (int e) {
-//		Godlike godlike = mGodlike.get(e);
 		Worker worker = mWorker.get(e);
 		worker.ai.setObject(worker);
-		worker.ai.step();
-
-		// TODO in ai?
-		// job set
-//		if (worker.jobID != ECSAIJobsTest.NULL_ID) {
-//			if (!godlike.atTarget) return;
-//			Job job = jobs.getJob(worker.jobID);
-			// work on job
-//			job.progress += 1f * world.delta;
-//			if (job.progress > 1) {
-				// if done, finish it
-//				jobs.finish(job);
-//				if (jobs.hasNext(job)) {
-//					claim(worker, jobs.next(job));
-//				} else {
-//					worker.jobID = ECSAIJobsTest.NULL_ID;
-//				}
-//			}
-//		} else {
-			// no job, try to find one
-//			Job job = jobs.getJob();
-//			if (job != null) {
-//				 found some job, assign worker
-//				claim(worker, job);
-//			}
-//		}
+		scheduler.add(worker, aiInterval);
 	}
 
-//	private void claim (Worker worker, Job job) {
-//		worker.claim(job);
-//		Godlike joblike = mGodlike.get(job.eid);
-//		Godlike workerlike = mGodlike.get(worker.eid);
-//		workerlike.tx = joblike.x;
-//		workerlike.ty = joblike.y;
-//	}
+	@Override protected void processSystem () {
+		scheduler.tick(world.delta);
+	}
 
 	@Override protected void removed (int e) {
+		scheduler.remove(mWorker.get(e));
+	}
+
+	public AIScheduler getScheduler () {
+		return scheduler;
+	}
 
+	@Override protected void dispose () {
+		scheduler.dispose();
 	}
 }
@@ -0,0 +1,376 @@
+package io.piotrjastrzebski.playground.ecs.jobs;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Jobs by id, with remaining dependency counters and queue of jobs ready to be claimed
+ *
+ * Job is ready when all jobs it requires are finished and it is not claimed
+ * Finishing a job decrements counters of jobs waiting for it, instead of checking all dependencies of all jobs again
+ * Ready jobs are kept per priority, in a grid of cells, so nearest one of highest priority can be found fast
+ */
+public class JobBoard {
+	public static final int NULL_ID = -1;
+
+	private final float cellSize;
+	private final IntMap<Entry> entries = new IntMap<>();
+	/** ready jobs by priority, priorities sorted from highest */
+	private final IntMap<Level> levels = new IntMap<>();
+	private final IntArray priorities = new IntArray();
+	private int readyCount;
+
+	private final Pool<Entry> entryPool = new Pool<Entry>() {
+		@Override protected Entry newObject () {
+			return new Entry();
+		}
+	};
+
+	/**
+	 * @param cellSize size of grid cells used for nearest job lookup, around typical distance between jobs
+	 */
+	public JobBoard (float cellSize) {
+		this.cellSize = cellSize;
+	}
+
+	/**
+	 * Add job, it is ready right away if it doesn't require anything yet
+	 *
+	 * @param priority higher priority jobs are claimed first
+	 */
+	public void add (int id, int priority, float x, float y) {
+		Entry entry = entry(id);
+		if (entry.added) throw new IllegalArgumentException("Job " + id + " already added");
+		entry.added = true;
+		entry.priority = priority;
+		entry.x = x;
+		entry.y = y;
+		updateReady(entry);
+	}
+
+	/**
+	 * Job with given id can't be claimed until required one is finished
+	 *
+	 * Required job can be added after this, until it is it counts as not finished
+	 */
+	public void require (int id, int requiredId) {
+		Entry required = entry(requiredId);
+		if (required.finished) return;
+		Entry entry = entry(id);
+		entry.remaining++;
+		entry.required.add(requiredId);
+		required.dependents.add(id);
+		updateReady(entry);
+	}
+
+	/**
+	 * Mark job as finished, jobs waiting only for it become ready
+	 */
+	public void finish (int id) {
+		Entry entry = entries.get(id);
+		if (entry == null || entry.finished) return;
+		entry.finished = true;
+		entry.claimed = false;
+		updateReady(entry);
+		IntArray dependents = entry.dependents;
+		for (int i = 0; i < dependents.size; i++) {
+			Entry dependent = entries.get(dependents.get(i));
+			if (dependent == null) continue;
+			dependent.remaining--;
+			dependent.required.removeValue(id);
+			updateReady(dependent);
+		}
+		dependents.clear();
+	}
+
+	/**
+	 * Remove job, it counts as finished for jobs that require it
+	 */
+	public void remove (int id) {
+		finish(id);
+		Entry entry = entries.remove(id);
+		if (entry == null) return;
+		// ids get reused, so jobs it waited for must forget about it
+		IntArray required = entry.required;
+		for (int i = 0; i < required.size; i++) {
+			Entry requiredEntry = entries.get(required.get(i));
+			if (requiredEntry != null) requiredEntry.dependents.removeValue(id);
+		}
+		entryPool.free(entry);
+	}
+
+	/**
+	 * Claim job regardless of its dependencies, ie next job in a chain
+	 */
+	public void claim (int id) {
+		Entry entry = entries.get(id);
+		if (entry == null || entry.finished) return;
+		entry.claimed = true;
+		updateReady(entry);
+	}
+
+	/**
+	 * Make claimed job available again, ie when its worker is gone
+	 */
+	public void release (int id) {
+		Entry entry = entries.get(id);
+		if (entry == null) return;
+		entry.claimed = false;
+		updateReady(entry);
+	}
+
+	/**
+	 * Claim ready job of highest priority, nearest to given position of ones with same priority
+	 *
+	 * @return id of claimed job or {@link #NULL_ID} if there are no ready jobs
+	 */
+	public int claimNearest (float x, float y) {
+		for (int i = 0; i < priorities.size; i++) {
+			Level level = levels.get(priorities.get(i));
+			if (level.size == 0) continue;
+			int id = level.nearest(x, y);
+			claim(id);
+			return id;
+		}
+		return NULL_ID;
+	}
+
+	/**
+	 * @return if job can be claimed
+	 */
+	public boolean isReady (int id) {
+		Entry entry = entries.get(id);
+		return entry != null && entry.ready;
+	}
+
+	/**
+	 * @return if job was finished or is not known to the board
+	 */
+	public boolean isFinished (int id) {
+		Entry entry = entries.get(id);
+		return entry == null || entry.finished;
+	}
+
+	/**
+	 * @return number of unfinished jobs given job is waiting for
+	 */
+	public int getRemaining (int id) {
+		Entry entry = entries.get(id);
+		return entry == null? 0 : entry.remaining;
+	}
+
+	public int getReadyCount () {
+		return readyCount;
+	}
+
+	public void clear () {
+		for (Entry entry : entries.values()) {
+			entryPool.free(entry);
+		}
+		entries.clear();
+		levels.clear();
+		priorities.clear();
+		readyCount = 0;
+	}
+
+	private Entry entry (int id) {
+		Entry entry = entries.get(id);
+		if (entry == null) {
+			entry = entryPool.obtain();
+			entry.id = id;
+			entries.put(id, entry);
+		}
+		return entry;
+	}
+
+	private void updateReady (Entry entry) {
+		boolean ready = entry.added && !entry.finished && !entry.claimed && entry.remaining == 0;
+		if (ready == entry.ready) return;
+		entry.ready = ready;
+		if (ready) {
+			level(entry.priority).add(entry);
+			readyCount++;
+		} else {
+			levels.get(entry.priority).remove(entry);
+			readyCount--;
+		}
+	}
+
+	private Level level (int priority) {
+		Level level = levels.get(priority);
+		if (level == null) {
+			level = new Level();
+			levels.put(priority, level);
+			int at = 0;
+			while (at < priorities.size && priorities.get(at) > priority) at++;
+			priorities.insert(at, priority);
+		}
+		return level;
+	}
+
+	private static class Entry implements Pool.Poolable {
+		int id;
+		int priority;
+		float x, y;
+		/** unfinished jobs this one requires */
+		int remaining;
+		/** ids of jobs counted in remaining */
+		final IntArray required = new IntArray();
+		/** jobs that require this one */
+		final IntArray dependents = new IntArray();
+		boolean added;
+		boolean finished;
+		boolean claimed;
+		boolean ready;
+		// position in its cell while ready
+		long cell;
+		int index;
+
+		@Override public void reset () {
+			id = NULL_ID;
+			priority = 0;
+			x = y = 0;
+			remaining = 0;
+			required.clear();
+			dependents.clear();
+			added = finished = claimed = ready = false;
+		}
+	}
+
+	/**
+	 * Ready jobs of single priority in a sparse grid
+	 */
+	private class Level {
+		// only cells with jobs in them
+		final LongMap<Cell> cells = new LongMap<>();
+		final Array<Cell> freeCells = new Array<>(false, 16);
+		int size;
+		// bounds of used cells, so we know when to stop searching, recomputed lazily when edge cell is removed
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+		boolean boundsDirty;
+
+		void add (Entry entry) {
+			int cx = cell(entry.x);
+			int cy = cell(entry.y);
+			long key = key(cx, cy);
+			Cell cell = cells.get(key);
+			if (cell == null) {
+				cell = freeCells.size > 0? freeCells.pop() : new Cell();
+				cells.put(key, cell);
+				minX = Math.min(minX, cx);
+				minY = Math.min(minY, cy);
+				maxX = Math.max(maxX, cx);
+				maxY = Math.max(maxY, cy);
+			}
+			entry.cell = key;
+			entry.index = cell.entries.size;
+			cell.entries.add(entry);
+			size++;
+		}
+
+		void remove (Entry entry) {
+			Cell cell = cells.get(entry.cell);
+			Array<Entry> cellEntries = cell.entries;
+			// swap with last so we dont have to shift
+			Entry last = cellEntries.pop();
+			if (last != entry) {
+				cellEntries.set(entry.index, last);
+				last.index = entry.index;
+			}
+			size--;
+			if (cellEntries.size == 0) {
+				cells.remove(entry.cell);
+				freeCells.add(cell);
+				int cx = (int)(entry.cell >> 32);
+				int cy = (int)entry.cell;
+				if (cx == minX || cx == maxX || cy == minY || cy == maxY) boundsDirty = true;
+			}
+		}
+
+		private void updateBounds () {
+			boundsDirty = false;
+			minX = minY = Integer.MAX_VALUE;
+			maxX = maxY = Integer.MIN_VALUE;
+			for (LongMap.Entry<Cell> entry : cells) {
+				int cx = (int)(entry.key >> 32);
+				int cy = (int)entry.key;
+				minX = Math.min(minX, cx);
+				minY = Math.min(minY, cy);
+				maxX = Math.max(maxX, cx);
+				maxY = Math.max(maxY, cy);
+			}
+		}
+
+		/**
+		 * Search rings of cells around x, y until no closer job can be found
+		 * If the area to search has many more cells than there are used ones, jobs are sparse and all used cells are checked instead
+		 */
+		int nearest (float x, float y) {
+			if (boundsDirty) updateBounds();
+			int cx = cell(x);
+			int cy = cell(y);
+			int maxRing = Math.max(Math.max(cx - minX, maxX - cx), Math.max(cy - minY, maxY - cy));
+			long area = (2L * maxRing + 1) * (2L * maxRing + 1);
+			if (area > cells.size * 4L) return nearestInCells(x, y);
+			Entry best = null;
+			float bestDst = Float.MAX_VALUE;
+			for (int ring = 0; ring <= maxRing; ring++) {
+				// any job in this ring is at least this far
+				float minDst = (ring - 1) * cellSize;
+				if (best != null && minDst * minDst > bestDst) break;
+				for (int dy = -ring; dy <= ring; dy++) {
+					boolean edge = dy == -ring || dy == ring;
+					for (int dx = -ring; dx <= ring; dx += edge? 1 : ring * 2) {
+						Cell cell = cells.get(key(cx + dx, cy + dy));
+						if (cell != null) {
+							Array<Entry> cellEntries = cell.entries;
+							for (int i = 0; i < cellEntries.size; i++) {
+								Entry entry = cellEntries.get(i);
+								float dst = (entry.x - x) * (entry.x - x) + (entry.y - y) * (entry.y - y);
+								if (dst < bestDst) {
+									bestDst = dst;
+									best = entry;
+								}
+							}
+						}
+						if (ring == 0) break;
+					}
+				}
+			}
+			return best.id;
+		}
+
+		private int nearestInCells (float x, float y) {
+			Entry best = null;
+			float bestDst = Float.MAX_VALUE;
+			for (Cell cell : cells.values()) {
+				Array<Entry> cellEntries = cell.entries;
+				for (int i = 0; i < cellEntries.size; i++) {
+					Entry entry = cellEntries.get(i);
+					float dst = (entry.x - x) * (entry.x - x) + (entry.y - y) * (entry.y - y);
+					if (dst < bestDst) {
+						bestDst = dst;
+						best = entry;
+					}
+				}
+			}
+			return best.id;
+		}
+
+		private int cell (float value) {
+			return (int)Math.floor(value / cellSize);
+		}
+	}
+
+	private static class Cell {
+		final Array<Entry> entries = new Array<>(false, 4);
+	}
+
+	private static long key (int cx, int cy) {
+		return ((long)cx << 32) | (cy & 0xffffffffL);
+	}
+}
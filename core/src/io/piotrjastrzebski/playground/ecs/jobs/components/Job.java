@@ -16,6 +16,8 @@ public class Job extends Component {
 	public IntArray required = new IntArray();
 	public int next = ECSJobsTest.NULL_ID;
 	public int previous = ECSJobsTest.NULL_ID;
+	/** higher priority jobs are claimed first */
+	public int priority;
 	public float progress;
 
 
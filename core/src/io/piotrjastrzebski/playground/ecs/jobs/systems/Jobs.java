@@ -7,9 +7,10 @@ import com.artemis.annotations.Wire;
 import com.artemis.systems.EntityProcessingSystem;
 import com.artemis.systems.IteratingSystem;
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.IntMap;
 import io.piotrjastrzebski.playground.ecs.jobs.ECSJobsTest;
+import io.piotrjastrzebski.playground.ecs.jobs.Godlike;
+import io.piotrjastrzebski.playground.ecs.jobs.JobBoard;
 import io.piotrjastrzebski.playground.ecs.jobs.components.Job;
 
 /**
@@ -19,9 +20,10 @@ import io.piotrjastrzebski.playground.ecs.jobs.components.Job;
 public class Jobs extends IteratingSystem {
 	private final static String TAG = Jobs.class.getSimpleName();
 	private ComponentMapper<Job> mJob;
+	protected ComponentMapper<Godlike> mGodlike;
 
 	IntMap<Job> jobById = new IntMap<>();
-	Array<Job> jobs = new Array<>();
+	JobBoard board = new JobBoard(4);
 	public Jobs () {
 		super(Aspect.all(Job.class));
 	}
@@ -30,7 +32,23 @@ public class Jobs extends IteratingSystem {
 		Gdx.app.log(TAG, ECSJobsTest.entityToStr(world, e));
 		Job job = mJob.get(e);
 		jobById.put(e, job);
-		jobs.add(job);
+		if (mGodlike.has(e)) {
+			Godlike godlike = mGodlike.get(e);
+			board.add(e, job.priority, godlike.x, godlike.y);
+		} else {
+			board.add(e, job.priority, 0, 0);
+		}
+		if (job.previous != ECSJobsTest.NULL_ID) require(e, job.previous);
+		for (int i = 0; i < job.required.size; i++) {
+			require(e, job.required.get(i));
+		}
+		if (job.workerID != ECSJobsTest.NULL_ID) board.claim(e);
+	}
+
+	private void require (int e, int id) {
+		// removed jobs are done, jobs not inserted yet are still pending
+		if (!mJob.has(id) || isDone(mJob.get(id))) return;
+		board.require(e, id);
 	}
 
 	@Override protected void process (int e) {
@@ -39,51 +57,39 @@ public class Jobs extends IteratingSystem {
 
 	@Override protected void removed (int e) {
 		Job job = mJob.get(e);
-		jobs.removeValue(job, true);
-		jobById.put(job.eid, null);
+		jobById.remove(job.eid);
+		board.remove(job.eid);
 	}
 
 	public Job getJob (int jid) {
 		return jobById.get(jid, null);
 	}
 
-	public Job getJob () {
-		for (Job job : jobs) {
-			if (isAvailable(job)) {
-				return job;
-			}
-		}
-		return null;
+	/**
+	 * Claim available job nearest to given position, of highest priority
+	 * @return claimed job or null if there are none available
+	 */
+	public Job claimJob (float x, float y) {
+		int id = board.claimNearest(x, y);
+		if (id == JobBoard.NULL_ID) return null;
+		return jobById.get(id);
 	}
 
-	private boolean isDone(int id) {
-		return isDone(jobById.get(id, null));
+	/**
+	 * Mark job as claimed, even if it is not available, ie next in chain
+	 */
+	public void claim (Job job) {
+		board.claim(job.eid);
 	}
 
 	private boolean isDone(Job job) {
-		// already removed
-		if (job == null) return true;
 		return job.progress > 1;
 	}
 
-	private boolean isAvailable (Job job) {
-		if (job.previous != ECSJobsTest.NULL_ID && !isDone(job.previous)) {
-			return false;
-		}
-		for (int i = 0; i < job.required.size; i++) {
-			int id = job.required.get(i);
-			if (!isDone(id)) return false;
-		}
-		return !isClaimed(job);
-	}
-
-	private boolean isClaimed(Job job) {
-		return job.workerID != ECSJobsTest.NULL_ID;
-	}
-
 	public void finish (Job job) {
 		if (job.progress < 1) return;
 		Gdx.app.log(TAG, job + " finished");
+		board.finish(job.eid);
 		world.getEntity(job.eid).deleteFromWorld();
 	}
 
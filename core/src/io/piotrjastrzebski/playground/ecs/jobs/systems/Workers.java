@@ -50,8 +50,8 @@ public class Workers extends IteratingSystem {
 				}
 			}
 		} else {
-			// no job, try to find one
-			Job job = jobs.getJob();
+			// no job, try to find one close by
+			Job job = jobs.claimJob(godlike.x, godlike.y);
 			if (job != null) {
 				// found some job, assign worker
 				claim(worker, job);
@@ -60,6 +60,7 @@ public class Workers extends IteratingSystem {
 	}
 
 	private void claim (Worker worker, Job job) {
+		jobs.claim(job);
 		worker.claim(job);
 		Godlike joblike = mGodlike.get(job.eid);
 		Godlike workerlike = mGodlike.get(worker.eid);
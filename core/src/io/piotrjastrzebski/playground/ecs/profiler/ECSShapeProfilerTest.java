@@ -4,13 +4,9 @@ import com.artemis.*;
 import com.artemis.utils.Bag;
 import com.artemis.utils.ImmutableBag;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
-import com.badlogic.gdx.math.MathUtils;
 import com.kotcrab.vis.ui.VisUI;
 import io.piotrjastrzebski.playground.BaseScreen;
 import io.piotrjastrzebski.playground.GameReset;
-import io.piotrjastrzebski.playground.ecs.quadtreetest.Position;
-import io.piotrjastrzebski.playground.ecs.quadtreetest.Size;
-import io.piotrjastrzebski.playground.ecs.quadtreetest.Velocity;
 
 /**
  * ECS graphical profiler with shape renderer
@@ -36,15 +32,7 @@ public class ECSShapeProfilerTest extends BaseScreen {
 
 		config.setSystem(new DebugDrawSystem());
 
-		config.setSystem(new VelocitySystem());
-		config.setSystem(new BoundsSystem());
-
-		config.setSystem(new QTSystem());
-
-
-		config.setSystem(new QTTestSystem());
-		config.setSystem(new QTGetSystem());
-		config.setSystem(new QTSelectSystem());
+		ProfilerWorlds.setSimulationSystems(config);
 
 		config.setSystem(new GUISystem());
 		config.setSystem(new ProfilerGUISystem());
@@ -52,25 +40,7 @@ public class ECSShapeProfilerTest extends BaseScreen {
 
 		world = new World(config);
 
-		for (int i = 0; i < 17500; i++) {
-			createEntity();
-		}
-	}
-
-	private void createEntity( ){
-		Entity entity = world.createEntity();
-		EntityEdit edit = entity.edit();
-		Position position = edit.create(Position.class);
-		position.x = MathUtils.random(-8.f, 7.f);
-		position.y = MathUtils.random(-8.f, 7.f);
-		Size size = edit.create(Size.class);
-		size.width = MathUtils.random(.25f, .5f);
-		size.height = MathUtils.random(.25f, .5f);
-		if (MathUtils.random() > 0.5f) {
-			Velocity velocity = edit.create(Velocity.class);
-			velocity.x = MathUtils.random(-2, 2);
-			velocity.y = MathUtils.random(-2, 2);
-		}
+		ProfilerWorlds.createEntities(world, ProfilerWorlds.SHAPE_ENTITIES);
 	}
 
 	@Override public void render (float delta) {
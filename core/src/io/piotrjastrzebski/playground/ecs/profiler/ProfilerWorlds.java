@@ -0,0 +1,62 @@
+package io.piotrjastrzebski.playground.ecs.profiler;
+
+import com.artemis.Entity;
+import com.artemis.EntityEdit;
+import com.artemis.World;
+import com.artemis.WorldConfiguration;
+import com.badlogic.gdx.math.MathUtils;
+import io.piotrjastrzebski.playground.ecs.quadtreetest.Position;
+import io.piotrjastrzebski.playground.ecs.quadtreetest.Size;
+import io.piotrjastrzebski.playground.ecs.quadtreetest.Velocity;
+
+/**
+ * Systems and entities shared by {@link ECSShapeProfilerTest}, {@link ECSPolyProfilerTest} and headless benchmark runs
+ *
+ * Simulation systems don't need GL, {@link QTTestSystem} skips drawing when there is no renderer
+ */
+public class ProfilerWorlds {
+	public static final int SHAPE_ENTITIES = 17500;
+	public static final int POLY_ENTITIES = 10000;
+
+	private ProfilerWorlds () {}
+
+	/**
+	 * Add movement and quad tree systems, in order they should run
+	 */
+	public static void setSimulationSystems (WorldConfiguration config) {
+		config.setSystem(new VelocitySystem());
+		config.setSystem(new BoundsSystem());
+
+		config.setSystem(new QTSystem());
+
+		config.setSystem(new QTTestSystem());
+		config.setSystem(new QTGetSystem());
+		config.setSystem(new QTSelectSystem());
+	}
+
+	/**
+	 * Create given amount of entities, uses {@link MathUtils#random}, seed it for same world every time
+	 */
+	public static void createEntities (World world, int count) {
+		for (int i = 0; i < count; i++) {
+			createEntity(world);
+		}
+	}
+
+	public static Entity createEntity (World world) {
+		Entity entity = world.createEntity();
+		EntityEdit edit = entity.edit();
+		Position position = edit.create(Position.class);
+		position.x = MathUtils.random(-8.f, 7.f);
+		position.y = MathUtils.random(-8.f, 7.f);
+		Size size = edit.create(Size.class);
+		size.width = MathUtils.random(.25f, .5f);
+		size.height = MathUtils.random(.25f, .5f);
+		if (MathUtils.random() > 0.5f) {
+			Velocity velocity = edit.create(Velocity.class);
+			velocity.x = MathUtils.random(-2, 2);
+			velocity.y = MathUtils.random(-2, 2);
+		}
+		return entity;
+	}
+}
@@ -15,8 +15,8 @@ import com.badlogic.gdx.math.Rectangle;
 @com.artemis.annotations.Profile(using = SystemProfiler.class, enabled = SystemProfiler.ENABLED)
 public class QTTestSystem extends BaseSystem {
 	QTSystem qtSystem;
-	@Wire(name = "game") OrthographicCamera camera;
-	@Wire ShapeRenderer renderer;
+	@Wire(name = "game", failOnNull = false) OrthographicCamera camera;
+	@Wire(failOnNull = false) ShapeRenderer renderer;
 	@Override protected void initialize () {
 		super.initialize();
 
@@ -33,6 +33,8 @@ public class QTTestSystem extends BaseSystem {
 			float y = MathUtils.random(-8, 8 - height);
 			testBounds.set(x, y, width, height);
 		}
+		// headless worlds have nothing to draw with
+		if (renderer == null) return;
 		renderer.setProjectionMatrix(camera.combined);
 		renderer.setColor(Color.YELLOW);
 		renderer.begin(ShapeRenderer.ShapeType.Line);
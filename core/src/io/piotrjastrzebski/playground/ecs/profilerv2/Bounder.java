@@ -9,11 +9,13 @@ import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.viewport.ExtendViewport;
+import io.piotrjastrzebski.playground.ecs.profilerv2.lib.ComponentAccess;
 
 /**
  * Created by PiotrJ on 14/08/15.
  */
 @Wire
+@ComponentAccess(read = ECSProfilerTest.Size.class, write = {ECSProfilerTest.Transform.class, ECSProfilerTest.Velocity.class})
 public class Bounder extends EntityProcessingSystem {
 	protected ComponentMapper<ECSProfilerTest.Transform> mTransform;
 	protected ComponentMapper<ECSProfilerTest.Size> mSize;
@@ -6,7 +6,7 @@ import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import io.piotrjastrzebski.playground.BaseScreen;
 import io.piotrjastrzebski.playground.GameReset;
-import io.piotrjastrzebski.playground.ecs.profilerv2.lib.ProfilerInvocationStrategy;
+import io.piotrjastrzebski.playground.ecs.profilerv2.lib.ParallelInvocationStrategy;
 import io.piotrjastrzebski.playground.ecs.profilerv2.lib.SystemProfiler;
 
 /**
@@ -14,6 +14,7 @@ import io.piotrjastrzebski.playground.ecs.profilerv2.lib.SystemProfiler;
  */
 public class ECSProfilerTest extends BaseScreen {
 	World world;
+	ParallelInvocationStrategy strategy;
 
 	public ECSProfilerTest (GameReset game) {
 		super(game);
@@ -31,7 +32,9 @@ public class ECSProfilerTest extends BaseScreen {
 		config.setSystem(new Renderer());
 		config.setSystem(new Stager());
 		config.setSystem(new ProfilerSystem());
-		config.setInvocationStrategy(new ProfilerInvocationStrategy());
+		// Mover and Bounder declare their access, they conflict so they will still run one after another
+		strategy = new ParallelInvocationStrategy();
+		config.setInvocationStrategy(strategy);
 
 		world = new World(config);
 
@@ -66,6 +69,7 @@ public class ECSProfilerTest extends BaseScreen {
 	@Override public void dispose () {
 		super.dispose();
 		world.dispose();
+		strategy.dispose();
 	}
 
 	@Wire
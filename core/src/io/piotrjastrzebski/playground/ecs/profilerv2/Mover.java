@@ -7,11 +7,13 @@ import com.artemis.annotations.Wire;
 import com.artemis.systems.EntityProcessingSystem;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import io.piotrjastrzebski.playground.ecs.profilerv2.lib.ComponentAccess;
 
 /**
  * Created by PiotrJ on 14/08/15.
  */
 @Wire
+@ComponentAccess(read = ECSProfilerTest.Velocity.class, write = ECSProfilerTest.Transform.class)
 public class Mover extends EntityProcessingSystem {
 	protected ComponentMapper<ECSProfilerTest.Transform> mTransform;
 	protected ComponentMapper<ECSProfilerTest.Velocity> mVelocity;
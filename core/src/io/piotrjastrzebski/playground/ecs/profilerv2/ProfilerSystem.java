@@ -2,10 +2,12 @@ package io.piotrjastrzebski.playground.ecs.profilerv2;
 
 import com.artemis.BaseSystem;
 import com.artemis.annotations.Wire;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.kotcrab.vis.ui.VisUI;
+import io.piotrjastrzebski.playground.ecs.profilerv2.lib.ProfilerReport;
 import io.piotrjastrzebski.playground.ecs.profilerv2.lib.SystemProfiler;
 import io.piotrjastrzebski.playground.ecs.profilerv2.lib.SystemProfilerGUI;
 
@@ -18,10 +20,21 @@ public class ProfilerSystem extends BaseSystem {
 	@Wire(name = "gui") OrthographicCamera camera;
 	@Wire Stage stage;
 
+	private final boolean record;
+
 	public ProfilerSystem () {
+		this(false);
+	}
+
+	/**
+	 * @param record if samples should be recorded, summary is logged on dispose
+	 */
+	public ProfilerSystem (boolean record) {
+		this.record = record;
 	}
 
 	SystemProfilerGUI gui;
+	ProfilerReport report;
 
 	@Override protected void initialize () {
 		super.initialize();
@@ -31,6 +44,10 @@ public class ProfilerSystem extends BaseSystem {
 //		SystemProfiler.add(new SystemProfiler("Render")).setColor(1, 0, 0, 1);
 		// resume profiling
 		SystemProfiler.resume();
+		if (record) {
+			SystemProfiler.startRecording();
+			report = new ProfilerReport();
+		}
 		SystemProfilerGUI.STYLE_SMALL = "small";
 		gui = new SystemProfilerGUI(VisUI.getSkin(), "default");
 		gui.show(stage);
@@ -38,6 +55,7 @@ public class ProfilerSystem extends BaseSystem {
 
 	@Override
 	protected void processSystem() {
+		if (report != null) report.collect();
 		if (!isEnabled() || gui.getParent() == null) {
 			return;
 		}
@@ -49,6 +67,15 @@ public class ProfilerSystem extends BaseSystem {
 
 	@Override protected void dispose () {
 		super.dispose();
+		if (report != null) {
+			SystemProfiler.stopRecording();
+			report.collect();
+			ProfilerReport.Summary summary = new ProfilerReport.Summary();
+			for (SystemProfiler profiler : report.getProfilers()) {
+				Gdx.app.log("Profiler", report.summarize(profiler, summary).toString());
+			}
+			report.clear();
+		}
 		SystemProfiler.dispose();
 	}
 }
@@ -0,0 +1,26 @@
+package io.piotrjastrzebski.playground.ecs.profilerv2.lib;
+
+import com.artemis.Component;
+
+import java.lang.annotation.*;
+
+/**
+ * Declares components a system reads and writes, used by {@link ParallelInvocationStrategy}
+ *
+ * Systems with this annotation must not create or delete entities or add or remove components, as that is not thread safe.
+ * Systems without it are always processed alone, on the thread that processes the world.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface ComponentAccess {
+	/**
+	 * Components that are only read
+	 */
+	Class<? extends Component>[] read() default {};
+
+	/**
+	 * Components that are modified, implies read
+	 */
+	Class<? extends Component>[] write() default {};
+}
@@ -0,0 +1,203 @@
+package io.piotrjastrzebski.playground.ecs.profilerv2.lib;
+
+import com.artemis.BaseEntitySystem;
+import com.artemis.BaseSystem;
+import com.artemis.Component;
+import com.artemis.utils.ImmutableBag;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * {@link ProfilerInvocationStrategy} that processes independent systems at the same time on a {@link ForkJoinPool}
+ *
+ * Systems are split into batches, in order they were registered. System joins current batch if it declares its
+ * {@link ComponentAccess} and it doesn't write components that other systems in the batch read or write, or read what they write.
+ * Batches are processed one after another, entity states are updated before each batch, not before each system.
+ *
+ * Systems without declared access form a batch of their own and run on the calling thread, so rendering etc is safe.
+ * First system in each batch also runs on the calling thread, rest are processed by the pool.
+ */
+public class ParallelInvocationStrategy extends ProfilerInvocationStrategy {
+	protected final ForkJoinPool pool;
+	protected final boolean ownsPool;
+	protected ObjectMap<Class<? extends BaseSystem>, Access> declared = new ObjectMap<>();
+	/** system indices, batches separated by -1 */
+	protected int[] batches;
+	protected SystemTask[] tasks;
+
+	/**
+	 * Use new pool with parallelism equal to available processors
+	 */
+	public ParallelInvocationStrategy () {
+		this(new ForkJoinPool(), true);
+	}
+
+	/**
+	 * Use given pool, it will not be shut down by this strategy
+	 */
+	public ParallelInvocationStrategy (ForkJoinPool pool) {
+		this(pool, false);
+	}
+
+	protected ParallelInvocationStrategy (ForkJoinPool pool, boolean ownsPool) {
+		this.pool = pool;
+		this.ownsPool = ownsPool;
+	}
+
+	/**
+	 * Declare access for system class, in place of {@link ComponentAccess} annotation, must be called before first process
+	 */
+	public ParallelInvocationStrategy declare (Class<? extends BaseSystem> type, Class<? extends Component>[] read,
+		Class<? extends Component>[] write) {
+		declared.put(type, new Access(read, write));
+		return this;
+	}
+
+	@Override protected void initialize () {
+		super.initialize();
+		ImmutableBag<BaseSystem> systems = world.getSystems();
+		Access[] access = new Access[systems.size()];
+		for (int i = 0; i < systems.size(); i++) {
+			access[i] = getAccess(systems.get(i));
+		}
+		tasks = new SystemTask[systems.size()];
+		// worst case every system is alone
+		batches = new int[systems.size() * 2];
+		int index = 0;
+		int batchStart = 0;
+		for (int i = 0; i < systems.size(); i++) {
+			tasks[i] = new SystemTask(systems.get(i), profilers[i]);
+			boolean fits = access[i] != null && index > batchStart;
+			for (int j = batchStart; fits && j < index; j++) {
+				Access other = access[batches[j]];
+				fits = other != null && !access[i].conflicts(other);
+			}
+			if (!fits && index > batchStart) {
+				batches[index++] = -1;
+				batchStart = index;
+			}
+			batches[index++] = i;
+			if (access[i] == null) {
+				batches[index++] = -1;
+				batchStart = index;
+			}
+		}
+		if (index == 0 || batches[index - 1] != -1) {
+			batches[index++] = -1;
+		}
+		// trim, -1 terminates the last batch
+		int[] trimmed = new int[index];
+		System.arraycopy(batches, 0, trimmed, 0, index);
+		batches = trimmed;
+	}
+
+	private Access getAccess (BaseSystem system) {
+		Access access = declared.get(system.getClass());
+		if (access != null) return access;
+		ComponentAccess annotation = system.getClass().getAnnotation(ComponentAccess.class);
+		if (annotation == null) return null;
+		return new Access(annotation.read(), annotation.write());
+	}
+
+	@Override protected void process () {
+		if (!initialized) initialize();
+		total.start();
+		int start = 0;
+		for (int i = 0; i < batches.length; i++) {
+			if (batches[i] != -1) continue;
+			updateEntityStates();
+			processBatch(start, i);
+			start = i + 1;
+		}
+		updateEntityStates();
+		total.stop();
+	}
+
+	private void processBatch (int from, int to) {
+		int[] batches = this.batches;
+		// find enabled systems, so we can run first one here
+		int first = -1;
+		for (int i = from; i < to; i++) {
+			int id = batches[i];
+			if (disabled.get(id)) continue;
+			if (first == -1) {
+				first = id;
+				continue;
+			}
+			BaseSystem system = tasks[id].system;
+			if (system instanceof BaseEntitySystem) {
+				// subscriptions rebuild entity bags lazily, shared subscriptions would race
+				((BaseEntitySystem)system).getEntityIds();
+			}
+			tasks[id].reinitialize();
+			pool.execute(tasks[id]);
+		}
+		if (first == -1) return;
+		tasks[first].compute();
+		for (int i = from; i < to; i++) {
+			int id = batches[i];
+			if (id == first || disabled.get(id)) continue;
+			// rethrows any exception from the system
+			tasks[id].join();
+		}
+	}
+
+	/**
+	 * @return batches of system indices, each batch is terminated with -1
+	 */
+	public int[] getBatches () {
+		if (!initialized) initialize();
+		return batches;
+	}
+
+	/**
+	 * Shutdown the pool if it was created by this strategy
+	 */
+	public void dispose () {
+		if (ownsPool) {
+			pool.shutdown();
+		}
+	}
+
+	protected static class Access {
+		final ObjectSet<Class<? extends Component>> read = new ObjectSet<>();
+		final ObjectSet<Class<? extends Component>> write = new ObjectSet<>();
+
+		public Access (Class<? extends Component>[] read, Class<? extends Component>[] write) {
+			this.read.addAll(read);
+			this.write.addAll(write);
+		}
+
+		public boolean conflicts (Access other) {
+			for (Class<? extends Component> type : write) {
+				if (other.read.contains(type) || other.write.contains(type))
+					return true;
+			}
+			for (Class<? extends Component> type : other.write) {
+				if (read.contains(type))
+					return true;
+			}
+			return false;
+		}
+	}
+
+	@SuppressWarnings("serial")
+	protected static class SystemTask extends RecursiveAction {
+		final BaseSystem system;
+		final SystemProfiler profiler;
+
+		public SystemTask (BaseSystem system, SystemProfiler profiler) {
+			this.system = system;
+			this.profiler = profiler;
+		}
+
+		@Override protected void compute () {
+			if (profiler != null) profiler.start();
+			system.process();
+			if (profiler != null) profiler.stop();
+		}
+	}
+}
@@ -0,0 +1,334 @@
+package io.piotrjastrzebski.playground.ecs.profilerv2.lib;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.StreamUtils;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Consumer of {@link SampleRecorder}s, collects samples of all recording {@link SystemProfiler}s
+ * and summarizes or exports them, for use without {@link SystemProfilerGUI}
+ *
+ * {@link ProfilerReport#collect()} should be called periodically, so recorders don't overflow, always from the same thread
+ * Only last window of samples per profiler is kept, so it can be collected each frame for as long as the app runs
+ */
+public class ProfilerReport {
+	/**
+	 * 'SPRF' in ascii
+	 */
+	public static final int BINARY_MAGIC = 0x53505246;
+	public static final int BINARY_VERSION = 1;
+	/**
+	 * Samples kept per profiler by default, little over 4 minutes at 60fps
+	 */
+	public static final int DEFAULT_WINDOW = 1 << 14;
+
+	protected Array<SystemProfiler> profilers = new Array<>();
+	protected ObjectMap<SystemProfiler, LongArray> samples = new ObjectMap<>();
+	private final int window;
+	private long[] sorted = new long[0];
+
+	public ProfilerReport () {
+		this(DEFAULT_WINDOW);
+	}
+
+	/**
+	 * @param window max count of latest samples kept per profiler
+	 */
+	public ProfilerReport (int window) {
+		if (window <= 0) throw new IllegalArgumentException("window must be > 0, was " + window);
+		this.window = window;
+	}
+
+	/**
+	 * Drain recorders of all registered profilers
+	 * @return count of collected samples
+	 */
+	public int collect () {
+		int collected = 0;
+		Array<SystemProfiler> all = SystemProfiler.get();
+		for (int i = 0; i < all.size; i++) {
+			SystemProfiler profiler = all.get(i);
+			SampleRecorder recorder = profiler.getRecorder();
+			if (recorder == null) continue;
+			LongArray data = samples.get(profiler);
+			if (data == null) {
+				data = new LongArray(recorder.capacity());
+				samples.put(profiler, data);
+				profilers.add(profiler);
+			}
+			collected += recorder.drain(data);
+			// trimming each frame would copy whole window, let it grow to twice the size first
+			if (data.size - window >= window) trim(data);
+		}
+		return collected;
+	}
+
+	/**
+	 * Drop oldest samples over the window
+	 */
+	private LongArray trim (LongArray data) {
+		int excess = data.size - window;
+		if (excess > 0) {
+			System.arraycopy(data.items, excess, data.items, 0, window);
+			data.size = window;
+		}
+		return data;
+	}
+
+	/**
+	 * Remove all collected samples
+	 */
+	public void clear () {
+		for (LongArray data : samples.values()) {
+			data.clear();
+		}
+	}
+
+	/**
+	 * @return profilers with collected samples, in order they were first seen
+	 */
+	public Array<SystemProfiler> getProfilers () {
+		return profilers;
+	}
+
+	/**
+	 * @return last window of collected samples in nanoseconds for given profiler, or null
+	 */
+	public LongArray getSamples (SystemProfiler profiler) {
+		LongArray data = samples.get(profiler);
+		return data == null ? null : trim(data);
+	}
+
+	public int getWindow () {
+		return window;
+	}
+
+	/**
+	 * Fill given summary with stats of samples collected for given profiler
+	 * @return given summary
+	 */
+	public Summary summarize (SystemProfiler profiler, Summary out) {
+		out.reset();
+		out.name = profiler.getName();
+		LongArray data = getSamples(profiler);
+		if (data == null || data.size == 0) return out;
+		int count = data.size;
+		if (sorted.length < count) {
+			sorted = new long[count];
+		}
+		System.arraycopy(data.items, 0, sorted, 0, count);
+		Arrays.sort(sorted, 0, count);
+		long total = 0;
+		for (int i = 0; i < count; i++) {
+			total += sorted[i];
+		}
+		out.count = count;
+		out.mean = total / count;
+		out.p50 = percentile(sorted, count, .50f);
+		out.p95 = percentile(sorted, count, .95f);
+		out.p99 = percentile(sorted, count, .99f);
+		out.max = sorted[count - 1];
+		SampleRecorder recorder = profiler.getRecorder();
+		out.dropped = recorder != null ? recorder.getDropped() : 0;
+		return out;
+	}
+
+	/**
+	 * Nearest rank percentile
+	 * @param sorted values sorted in ascending order
+	 * @param count of values to use from sorted, must be > 0
+	 * @param percentile in [0, 1]
+	 */
+	public static long percentile (long[] sorted, int count, float percentile) {
+		int rank = (int)Math.ceil(percentile * count) - 1;
+		return sorted[Math.max(0, Math.min(count - 1, rank))];
+	}
+
+	/**
+	 * Write summary of each profiler, one per line, times in microseconds
+	 */
+	public void writeSummaryCsv (Writer writer) throws IOException {
+		writer.write("name,count,mean_us,p50_us,p95_us,p99_us,max_us,dropped\n");
+		Summary summary = new Summary();
+		for (SystemProfiler profiler : profilers) {
+			summarize(profiler, summary);
+			writer.write(escape(summary.name));
+			writer.write(',');
+			writer.write(Integer.toString(summary.count));
+			writer.write(',');
+			writer.write(micros(summary.mean));
+			writer.write(',');
+			writer.write(micros(summary.p50));
+			writer.write(',');
+			writer.write(micros(summary.p95));
+			writer.write(',');
+			writer.write(micros(summary.p99));
+			writer.write(',');
+			writer.write(micros(summary.max));
+			writer.write(',');
+			writer.write(Long.toString(summary.dropped));
+			writer.write('\n');
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Write all collected samples, one per line, times in nanoseconds
+	 */
+	public void writeSamplesCsv (Writer writer) throws IOException {
+		writer.write("name,sample,time_ns\n");
+		for (SystemProfiler profiler : profilers) {
+			String name = escape(profiler.getName());
+			LongArray data = getSamples(profiler);
+			for (int i = 0; i < data.size; i++) {
+				writer.write(name);
+				writer.write(',');
+				writer.write(Integer.toString(i));
+				writer.write(',');
+				writer.write(Long.toString(data.items[i]));
+				writer.write('\n');
+			}
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Write all collected samples in compact binary format
+	 *
+	 * int magic, int version, int profiler count, then for each profiler utf name, int sample count and samples as var longs
+	 */
+	public void writeBinary (OutputStream os) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os));
+		out.writeInt(BINARY_MAGIC);
+		out.writeInt(BINARY_VERSION);
+		out.writeInt(profilers.size);
+		for (SystemProfiler profiler : profilers) {
+			out.writeUTF(profiler.getName());
+			LongArray data = getSamples(profiler);
+			out.writeInt(data.size);
+			for (int i = 0; i < data.size; i++) {
+				writeVarLong(out, data.items[i]);
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * Read samples written with {@link #writeBinary(OutputStream)}, names are mapped to dummy profilers, window is unbounded
+	 */
+	public static ProfilerReport readBinary (InputStream is) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+		if (in.readInt() != BINARY_MAGIC) throw new IOException("Not a profiler samples file");
+		int version = in.readInt();
+		if (version != BINARY_VERSION) throw new IOException("Unsupported version " + version);
+		// keep everything that was written
+		ProfilerReport report = new ProfilerReport(Integer.MAX_VALUE);
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			SystemProfiler profiler = new SystemProfiler(in.readUTF());
+			int size = in.readInt();
+			LongArray data = new LongArray(size);
+			for (int j = 0; j < size; j++) {
+				data.add(readVarLong(in));
+			}
+			report.profilers.add(profiler);
+			report.samples.put(profiler, data);
+		}
+		return report;
+	}
+
+	public void writeSummaryCsv (FileHandle file) {
+		Writer writer = file.writer(false, "UTF-8");
+		try {
+			writeSummaryCsv(writer);
+		} catch (IOException ex) {
+			throw new GdxRuntimeException("Error writing file: " + file, ex);
+		} finally {
+			StreamUtils.closeQuietly(writer);
+		}
+	}
+
+	public void writeSamplesCsv (FileHandle file) {
+		Writer writer = file.writer(false, "UTF-8");
+		try {
+			writeSamplesCsv(writer);
+		} catch (IOException ex) {
+			throw new GdxRuntimeException("Error writing file: " + file, ex);
+		} finally {
+			StreamUtils.closeQuietly(writer);
+		}
+	}
+
+	public void writeBinary (FileHandle file) {
+		OutputStream os = file.write(false);
+		try {
+			writeBinary(os);
+		} catch (IOException ex) {
+			throw new GdxRuntimeException("Error writing file: " + file, ex);
+		} finally {
+			StreamUtils.closeQuietly(os);
+		}
+	}
+
+	private static void writeVarLong (DataOutputStream out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int)((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int)value);
+	}
+
+	private static long readVarLong (DataInputStream in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (long)(b & 0x7F) << shift;
+			if ((b & 0x80) == 0) return value;
+		}
+		throw new IOException("Malformed var long");
+	}
+
+	private static String micros (long nanos) {
+		return Long.toString(nanos / 1000) + "." + (nanos % 1000) / 100;
+	}
+
+	private static String escape (String name) {
+		if (name.indexOf(',') < 0 && name.indexOf('"') < 0) return name;
+		return '"' + name.replace("\"", "\"\"") + '"';
+	}
+
+	/**
+	 * Stats for a single profiler, times in nanoseconds
+	 */
+	public static class Summary {
+		public String name;
+		public int count;
+		public long mean;
+		public long p50;
+		public long p95;
+		public long p99;
+		public long max;
+		public long dropped;
+
+		public void reset () {
+			name = null;
+			count = 0;
+			mean = 0;
+			p50 = 0;
+			p95 = 0;
+			p99 = 0;
+			max = 0;
+			dropped = 0;
+		}
+
+		@Override public String toString () {
+			return name + " n=" + count + ", p50=" + micros(p50) + "us, p95=" + micros(p95) + "us, p99=" + micros(p99) + "us, max=" + micros(max) + "us";
+		}
+	}
+}
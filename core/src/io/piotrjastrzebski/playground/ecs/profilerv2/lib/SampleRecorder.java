@@ -0,0 +1,83 @@
+package io.piotrjastrzebski.playground.ecs.profilerv2.lib;
+
+import com.badlogic.gdx.utils.LongArray;
+
+/**
+ * Lock free ring buffer of samples for a single {@link SystemProfiler}
+ *
+ * Single producer, single consumer. Thread that runs the system records, any other single thread can drain.
+ * When the buffer is full new samples are dropped and counted, nothing is allocated when recording
+ */
+public class SampleRecorder {
+	private final long[] samples;
+	private final int mask;
+	/** next index to write, only written by producer */
+	private volatile long head;
+	/** next index to read, only written by consumer */
+	private volatile long tail;
+	private volatile long dropped;
+
+	/**
+	 * @param capacity of the buffer, rounded up to power of 2
+	 */
+	public SampleRecorder (int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		samples = new long[size];
+		mask = size - 1;
+	}
+
+	/**
+	 * Record a sample, producer thread only
+	 * @param time in nanoseconds
+	 * @return false if sample was dropped as buffer is full
+	 */
+	public boolean record (long time) {
+		long h = head;
+		if (h - tail >= samples.length) {
+			// single writer, so this is safe
+			dropped = dropped + 1;
+			return false;
+		}
+		samples[(int)(h & mask)] = time;
+		// volatile write publishes the sample
+		head = h + 1;
+		return true;
+	}
+
+	/**
+	 * Move all available samples to given array, consumer thread only
+	 * @return count of drained samples
+	 */
+	public int drain (LongArray out) {
+		long t = tail;
+		long h = head;
+		int count = (int)(h - t);
+		if (count == 0) return 0;
+		out.ensureCapacity(count);
+		long[] samples = this.samples;
+		for (long i = t; i < h; i++) {
+			out.add(samples[(int)(i & mask)]);
+		}
+		// volatile write frees the slots for producer
+		tail = h;
+		return count;
+	}
+
+	/**
+	 * @return count of samples waiting to be drained
+	 */
+	public int available () {
+		return (int)(head - tail);
+	}
+
+	/**
+	 * @return count of samples dropped since creation, because buffer was full
+	 */
+	public long getDropped () {
+		return dropped;
+	}
+
+	public int capacity () {
+		return samples.length;
+	}
+}
@@ -20,7 +20,12 @@ public class SystemProfiler implements ArtemisProfiler {
 	 * Samples to store per system, only changes before initialization have effect
 	 */
 	public static int SAMPLES = 60 * 5;
+	/**
+	 * Capacity of {@link SampleRecorder} per system, only changes before recording starts have effect
+	 */
+	public static int RECORDER_SAMPLES = 1 << 14;
 	private static boolean RUNNING = false;
+	private static volatile boolean RECORDING = false;
 
 	private static Array<SystemProfiler> profilers = new Array<>();
 	private static ObjectMap<String, SystemProfiler> profilerByName = new ObjectMap<>();
@@ -30,6 +35,9 @@ public class SystemProfiler implements ArtemisProfiler {
 		profiler.added = true;
 		profilers.add(profiler);
 		profilerByName.put(profiler.getName(), profiler);
+		if (RECORDING && profiler.recorder == null) {
+			profiler.recorder = new SampleRecorder(RECORDER_SAMPLES);
+		}
 		return profiler;
 	}
 
@@ -133,6 +141,36 @@ public class SystemProfiler implements ArtemisProfiler {
 		return RUNNING;
 	}
 
+	/**
+	 * Start recording samples of all profilers into {@link SampleRecorder}s, that can be drained with {@link ProfilerReport}
+	 *
+	 * Should be called from thread that processes the world, before it runs
+	 */
+	public static void startRecording () {
+		RECORDING = true;
+		Object[] items = profilers.items;
+		for (int i = 0; i < profilers.size; i++) {
+			SystemProfiler profiler = (SystemProfiler)items[i];
+			if (profiler.recorder == null) {
+				profiler.recorder = new SampleRecorder(RECORDER_SAMPLES);
+			}
+		}
+	}
+
+	/**
+	 * Stop recording samples, already recorded samples can still be drained
+	 */
+	public static void stopRecording () {
+		RECORDING = false;
+	}
+
+	/**
+	 * @return if profilers are recording samples
+	 */
+	public static boolean isRecording () {
+		return RECORDING;
+	}
+
 	/**
 	 * Clear registered profilers, should be called when {@link World} is disposed
 	 */
@@ -159,6 +197,10 @@ public class SystemProfiler implements ArtemisProfiler {
 	protected Color color;
 	protected String name;
 	protected BaseSystem system;
+	/**
+	 * Created when recording starts, null otherwise
+	 */
+	protected SampleRecorder recorder;
 
 	public SystemProfiler() {}
 
@@ -255,6 +297,9 @@ public class SystemProfiler implements ArtemisProfiler {
 		if (++index == times.length){
 			index = 0;
 		}
+		if (RECORDING && recorder != null) {
+			recorder.record(time);
+		}
 	}
 
 	/**
@@ -278,6 +323,13 @@ public class SystemProfiler implements ArtemisProfiler {
 		return times;
 	}
 
+	/**
+	 * @return recorder with samples of this profiler or null if recording was never started
+	 */
+	public SampleRecorder getRecorder () {
+		return recorder;
+	}
+
 	@Override
 	public String toString() {
 		return name!= null ? name :
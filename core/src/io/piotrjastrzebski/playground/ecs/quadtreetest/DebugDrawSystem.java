@@ -8,6 +8,7 @@ import com.artemis.systems.EntityProcessingSystem;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Rectangle;
 
 @Wire
 public class DebugDrawSystem extends EntityProcessingSystem {
@@ -33,16 +34,13 @@ public class DebugDrawSystem extends EntityProcessingSystem {
 
 	public boolean drawQuadTree = true;
 	public boolean drawQuadTreeTouched = true;
-	private void drawQT(ShapeRenderer renderer, QuadTree quadTree) {
-		QuadTree[] nodes = quadTree.getNodes();
-		if (nodes != null && nodes[0] != null) {
-			for (QuadTree tree : nodes) {
-				drawQT(renderer, tree);
-			}
-		}
-		QuadTree.Container bounds = quadTree.getBounds();
+	private Rectangle nodeBounds = new Rectangle();
+	private void drawQT(ShapeRenderer renderer, FlatQuadTree quadTree) {
 		renderer.setColor(Color.BLUE);
-		renderer.rect(bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight());
+		for (int id = 0, count = quadTree.getNodeCount(); id < count; id++) {
+			quadTree.getNodeBounds(id, nodeBounds);
+			renderer.rect(nodeBounds.x, nodeBounds.y, nodeBounds.width, nodeBounds.height);
+		}
 	}
 
 	public boolean drawSelected = true;
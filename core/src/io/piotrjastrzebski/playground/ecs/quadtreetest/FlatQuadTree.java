@@ -0,0 +1,648 @@
+package io.piotrjastrzebski.playground.ecs.quadtreetest;
+
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.math.Rectangle;
+
+import java.util.Arrays;
+
+/**
+ * Quad tree for optimized queries in 2d space, same api as {@link QuadTree}
+ *
+ * Bounds are stored in flat arrays indexed by entity id, nodes are stored in flat arrays indexed by node id.
+ * Children of a node are allocated in blocks of 4, in {@link QuadTree#SW}, {@link QuadTree#SE}, {@link QuadTree#NW}, {@link QuadTree#NE} order.
+ * Entities in a node form a doubly linked list, so update and remove are O(1) unlinks.
+ *
+ * Arrays only grow when more entities or nodes are needed, nothing is allocated once the tree is warmed up.
+ * There is no static state, multiple trees can be used at the same time, but a single tree is not thread safe.
+ * Use {@link #snapshot(QuadTreeSnapshot)} for queries from multiple threads.
+ */
+public class FlatQuadTree {
+	public final static int NONE = -1;
+	public final static int ROOT = 0;
+
+	/**
+	 * Max count of entities in a node before it is split
+	 */
+	protected int maxInBucket;
+	/**
+	 * Max count of splits, root is at depth = 0
+	 */
+	protected int maxDepth;
+
+	// nodes
+	protected int nodeCount;
+	protected float[] nodeX;
+	protected float[] nodeY;
+	protected float[] nodeWidth;
+	protected float[] nodeHeight;
+	protected int[] nodeDepth;
+	protected int[] nodeParent;
+	/** index of first of 4 children or {@link #NONE} if node is a leaf */
+	protected int[] nodeChildren;
+	/** first entity in node or {@link #NONE} if node is empty */
+	protected int[] nodeHead;
+	protected int[] nodeSize;
+
+	// entities
+	protected float[] x;
+	protected float[] y;
+	protected float[] width;
+	protected float[] height;
+	/** node this entity is in or {@link #NONE} if it is not in the tree */
+	protected int[] node;
+	protected int[] next;
+	protected int[] prev;
+
+	/** used by rect queries in place of recursion */
+	protected int[] stack;
+	/** morton code << 32 | index, used by {@link #rebuild(IntBag, float[])} */
+	protected long[] keys = new long[0];
+
+	/**
+	 * Specify max tree bounds, {@link QuadTree#MAX_IN_BUCKET} and {@link QuadTree#MAX_DEPTH} are used for limits
+	 */
+	public FlatQuadTree (float x, float y, float width, float height) {
+		this(x, y, width, height, QuadTree.MAX_IN_BUCKET, QuadTree.MAX_DEPTH, 64);
+	}
+
+	/**
+	 * Specify max tree bounds, limits and initial entity capacity
+	 */
+	public FlatQuadTree (float x, float y, float width, float height, int maxInBucket, int maxDepth, int entityCapacity) {
+		this.maxInBucket = maxInBucket;
+		this.maxDepth = maxDepth;
+		int nodeCapacity = 1 + 4 * 16;
+		nodeX = new float[nodeCapacity];
+		nodeY = new float[nodeCapacity];
+		nodeWidth = new float[nodeCapacity];
+		nodeHeight = new float[nodeCapacity];
+		nodeDepth = new int[nodeCapacity];
+		nodeParent = new int[nodeCapacity];
+		nodeChildren = new int[nodeCapacity];
+		nodeHead = new int[nodeCapacity];
+		nodeSize = new int[nodeCapacity];
+
+		entityCapacity = Math.max(entityCapacity, 1);
+		this.x = new float[entityCapacity];
+		this.y = new float[entityCapacity];
+		this.width = new float[entityCapacity];
+		this.height = new float[entityCapacity];
+		node = new int[entityCapacity];
+		Arrays.fill(node, NONE);
+		next = new int[entityCapacity];
+		prev = new int[entityCapacity];
+
+		stack = new int[4 * maxDepth + 4];
+
+		nodeCount = 0;
+		initNode(allocNode(), 0, x, y, width, height, NONE);
+	}
+
+	private int allocNode () {
+		if (nodeCount == nodeX.length) {
+			int capacity = nodeCount * 2;
+			nodeX = Arrays.copyOf(nodeX, capacity);
+			nodeY = Arrays.copyOf(nodeY, capacity);
+			nodeWidth = Arrays.copyOf(nodeWidth, capacity);
+			nodeHeight = Arrays.copyOf(nodeHeight, capacity);
+			nodeDepth = Arrays.copyOf(nodeDepth, capacity);
+			nodeParent = Arrays.copyOf(nodeParent, capacity);
+			nodeChildren = Arrays.copyOf(nodeChildren, capacity);
+			nodeHead = Arrays.copyOf(nodeHead, capacity);
+			nodeSize = Arrays.copyOf(nodeSize, capacity);
+		}
+		return nodeCount++;
+	}
+
+	private void initNode (int id, int depth, float x, float y, float width, float height, int parent) {
+		nodeX[id] = x;
+		nodeY[id] = y;
+		nodeWidth[id] = width;
+		nodeHeight[id] = height;
+		nodeDepth[id] = depth;
+		nodeParent[id] = parent;
+		nodeChildren[id] = NONE;
+		nodeHead[id] = NONE;
+		nodeSize[id] = 0;
+	}
+
+	protected void ensureEntityCapacity (int eid) {
+		if (eid < x.length) return;
+		int capacity = Math.max(x.length * 2, eid + 1);
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		width = Arrays.copyOf(width, capacity);
+		height = Arrays.copyOf(height, capacity);
+		int old = node.length;
+		node = Arrays.copyOf(node, capacity);
+		Arrays.fill(node, old, capacity, NONE);
+		next = Arrays.copyOf(next, capacity);
+		prev = Arrays.copyOf(prev, capacity);
+	}
+
+	/**
+	 * Same rules as {@link QuadTree}, bounds that straddle a mid line stay in the parent
+	 */
+	protected int indexOf (int id, float x, float y, float width, float height) {
+		float midX = nodeX[id] + nodeWidth[id] / 2;
+		float midY = nodeY[id] + nodeHeight[id] / 2;
+		boolean top = y > midY;
+		boolean bottom = y < midY && y + height < midY;
+		if (x < midX && x + width < midX) {
+			if (top) {
+				return QuadTree.NW;
+			} else if (bottom) {
+				return QuadTree.SW;
+			}
+		} else if (x > midX) {
+			if (top) {
+				return QuadTree.NE;
+			} else if (bottom) {
+				return QuadTree.SE;
+			}
+		}
+		return QuadTree.OUTSIDE;
+	}
+
+	protected boolean nodeContains (int id, float x, float y) {
+		float nx = nodeX[id];
+		float ny = nodeY[id];
+		return nx <= x && nx + nodeWidth[id] >= x && ny <= y && ny + nodeHeight[id] >= y;
+	}
+
+	protected boolean nodeContains (int id, float ox, float oy, float owidth, float oheight) {
+		float nx = nodeX[id];
+		float ny = nodeY[id];
+		float nx2 = nx + nodeWidth[id];
+		float ny2 = ny + nodeHeight[id];
+		float ox2 = ox + owidth;
+		float oy2 = oy + oheight;
+		return ox > nx && ox < nx2 && ox2 > nx && ox2 < nx2 && oy > ny && oy < ny2 && oy2 > ny && oy2 < ny2;
+	}
+
+	protected boolean nodeOverlaps (int id, float x, float y, float width, float height) {
+		float nx = nodeX[id];
+		float ny = nodeY[id];
+		return nx < x + width && nx + nodeWidth[id] > x && ny < y + height && ny + nodeHeight[id] > y;
+	}
+
+	/**
+	 * Inserts given entity id to tree with given bounds
+	 */
+	public void insert (int eid, float x, float y, float width, float height) {
+		ensureEntityCapacity(eid);
+		if (node[eid] != NONE) {
+			unlink(eid);
+		}
+		this.x[eid] = x;
+		this.y[eid] = y;
+		this.width[eid] = width;
+		this.height[eid] = height;
+		insert(ROOT, eid);
+	}
+
+	protected void insert (int id, int eid) {
+		float ex = x[eid];
+		float ey = y[eid];
+		float ew = width[eid];
+		float eh = height[eid];
+		while (nodeChildren[id] != NONE) {
+			int index = indexOf(id, ex, ey, ew, eh);
+			if (index == QuadTree.OUTSIDE) break;
+			id = nodeChildren[id] + index;
+		}
+		link(id, eid);
+
+		if (nodeSize[id] > maxInBucket && nodeDepth[id] < maxDepth) {
+			if (nodeChildren[id] == NONE) {
+				split(id);
+			}
+			int children = nodeChildren[id];
+			int current = nodeHead[id];
+			while (current != NONE) {
+				int following = next[current];
+				int index = indexOf(id, x[current], y[current], width[current], height[current]);
+				if (index != QuadTree.OUTSIDE) {
+					unlink(current);
+					insert(children + index, current);
+				}
+				current = following;
+			}
+		}
+	}
+
+	private void split (int id) {
+		// allocNode may grow arrays, dont cache them
+		int first = allocNode();
+		allocNode();
+		allocNode();
+		allocNode();
+		float halfWidth = nodeWidth[id] / 2;
+		float halfHeight = nodeHeight[id] / 2;
+		float nx = nodeX[id];
+		float ny = nodeY[id];
+		int depth = nodeDepth[id] + 1;
+		initNode(first + QuadTree.SW, depth, nx, ny, halfWidth, halfHeight, id);
+		initNode(first + QuadTree.SE, depth, nx + halfWidth, ny, halfWidth, halfHeight, id);
+		initNode(first + QuadTree.NW, depth, nx, ny + halfHeight, halfWidth, halfHeight, id);
+		initNode(first + QuadTree.NE, depth, nx + halfWidth, ny + halfHeight, halfWidth, halfHeight, id);
+		nodeChildren[id] = first;
+	}
+
+	private void link (int id, int eid) {
+		int head = nodeHead[id];
+		prev[eid] = NONE;
+		next[eid] = head;
+		if (head != NONE) {
+			prev[head] = eid;
+		}
+		nodeHead[id] = eid;
+		nodeSize[id]++;
+		node[eid] = id;
+	}
+
+	private void unlink (int eid) {
+		int id = node[eid];
+		int p = prev[eid];
+		int n = next[eid];
+		if (p != NONE) {
+			next[p] = n;
+		} else {
+			nodeHead[id] = n;
+		}
+		if (n != NONE) {
+			prev[n] = p;
+		}
+		nodeSize[id]--;
+		node[eid] = NONE;
+	}
+
+	private final static int MORTON_BITS = 16;
+	private final static int MORTON_MAX = (1 << MORTON_BITS) - 1;
+
+	/**
+	 * Replace content of the tree with given ids, faster than {@link #update(int, float, float, float, float)} when most entities moved
+	 *
+	 * Entities are sorted by morton code of their center, so each node gets a continuous range of them and nodes are built top down in one pass.
+	 * Bounds are packed in order of ids, x, y, width, height of ids.get(i) start at bounds[i * 4]
+	 */
+	public void rebuild (IntBag ids, float[] bounds) {
+		reset();
+		int count = ids.size();
+		if (count == 0) return;
+		if (keys.length < count) {
+			keys = new long[Math.max(count, keys.length * 2)];
+		}
+		int[] data = ids.getData();
+		float rootX = nodeX[ROOT];
+		float rootY = nodeY[ROOT];
+		float scaleX = (MORTON_MAX + 1) / nodeWidth[ROOT];
+		float scaleY = (MORTON_MAX + 1) / nodeHeight[ROOT];
+		long[] keys = this.keys;
+		for (int i = 0; i < count; i++) {
+			int eid = data[i];
+			ensureEntityCapacity(eid);
+			float ex = bounds[i * 4];
+			float ey = bounds[i * 4 + 1];
+			float ew = bounds[i * 4 + 2];
+			float eh = bounds[i * 4 + 3];
+			x[eid] = ex;
+			y[eid] = ey;
+			width[eid] = ew;
+			height[eid] = eh;
+			int mx = clampMorton((int)((ex + ew / 2 - rootX) * scaleX));
+			int my = clampMorton((int)((ey + eh / 2 - rootY) * scaleY));
+			keys[i] = ((long)morton(mx, my) << 32) | i;
+		}
+		Arrays.sort(keys, 0, count);
+		// keys now hold indices into ids, swap them for entity ids, morton bits are still needed while building
+		for (int i = 0; i < count; i++) {
+			keys[i] = (keys[i] & 0xFFFFFFFF00000000L) | data[(int)keys[i]];
+		}
+		build(ROOT, 0, count);
+	}
+
+	private void build (int id, int from, int to) {
+		int depth = nodeDepth[id];
+		if (to - from <= maxInBucket || depth >= maxDepth) {
+			for (int i = from; i < to; i++) {
+				link(id, (int)keys[i]);
+			}
+			return;
+		}
+		if (depth >= MORTON_BITS) {
+			// out of morton precision, fall back to regular inserts
+			for (int i = from; i < to; i++) {
+				insert(id, (int)keys[i]);
+			}
+			return;
+		}
+		// child could have been split already by a fallback insert
+		if (nodeChildren[id] == NONE) {
+			split(id);
+		}
+		int children = nodeChildren[id];
+		int shift = 32 + 2 * (MORTON_BITS - 1 - depth);
+		int start = from;
+		while (start < to) {
+			int quadrant = (int)(keys[start] >>> shift) & 3;
+			int end = start + 1;
+			while (end < to && ((int)(keys[end] >>> shift) & 3) == quadrant) {
+				end++;
+			}
+			// entities that fit in the child are compacted to front of the range, in morton order
+			int write = start;
+			for (int i = start; i < end; i++) {
+				int eid = (int)keys[i];
+				int index = indexOf(id, x[eid], y[eid], width[eid], height[eid]);
+				if (index == quadrant) {
+					keys[write++] = keys[i];
+				} else if (index == QuadTree.OUTSIDE) {
+					link(id, eid);
+				} else {
+					// center quantized to other side of mid line
+					insert(children + index, eid);
+				}
+			}
+			if (write > start) {
+				build(children + quadrant, start, write);
+			}
+			start = end;
+		}
+	}
+
+	private static int clampMorton (int value) {
+		return value < 0 ? 0 : value > MORTON_MAX ? MORTON_MAX : value;
+	}
+
+	/**
+	 * Interleaves bits so that each pair of bits matches {@link QuadTree#SW}, {@link QuadTree#SE}, {@link QuadTree#NW}, {@link QuadTree#NE} order
+	 */
+	private static int morton (int x, int y) {
+		return spread(x) | (spread(y) << 1);
+	}
+
+	private static int spread (int value) {
+		value &= 0x0000FFFF;
+		value = (value | (value << 8)) & 0x00FF00FF;
+		value = (value | (value << 4)) & 0x0F0F0F0F;
+		value = (value | (value << 2)) & 0x33333333;
+		value = (value | (value << 1)) & 0x55555555;
+		return value;
+	}
+
+	/**
+	 * Returns entity ids of entities that are inside nodes that contain given point
+	 *
+	 * Returned entities must be filtered further as these results are not exact
+	 */
+	public IntBag get (IntBag fill, float x, float y) {
+		return get(fill, x, y, false);
+	}
+
+	/**
+	 * Returns entity ids of entities that bounds contain given point
+	 */
+	public IntBag getExact (IntBag fill, float x, float y) {
+		return get(fill, x, y, true);
+	}
+
+	protected IntBag get (IntBag fill, float x, float y, boolean exact) {
+		int id = ROOT;
+		if (!nodeContains(id, x, y)) return fill;
+		while (true) {
+			collect(fill, id, x, y, 0, 0, exact);
+			if (nodeChildren[id] == NONE) break;
+			int index = indexOf(id, x, y, 0, 0);
+			if (index == QuadTree.OUTSIDE) break;
+			id = nodeChildren[id] + index;
+		}
+		return fill;
+	}
+
+	/**
+	 * Returns entity ids of entities that are inside nodes that overlap given bounds
+	 *
+	 * Returned entities must be filtered further as these results are not exact
+	 */
+	public IntBag get (IntBag fill, float x, float y, float width, float height) {
+		return get(fill, x, y, width, height, false);
+	}
+
+	/**
+	 * Returns entity ids of entities that overlap given bounds
+	 */
+	public IntBag getExact (IntBag fill, float x, float y, float width, float height) {
+		return get(fill, x, y, width, height, true);
+	}
+
+	protected IntBag get (IntBag fill, float x, float y, float width, float height, boolean exact) {
+		if (!nodeOverlaps(ROOT, x, y, width, height)) return fill;
+		int[] stack = this.stack;
+		int top = 0;
+		stack[top++] = ROOT;
+		while (top > 0) {
+			int id = stack[--top];
+			collect(fill, id, x, y, width, height, exact);
+			int children = nodeChildren[id];
+			if (children == NONE) continue;
+			int index = indexOf(id, x, y, width, height);
+			if (index != QuadTree.OUTSIDE) {
+				if (nodeOverlaps(children + index, x, y, width, height)) {
+					stack[top++] = children + index;
+				}
+			} else {
+				// if test bounds don't fully fit inside a node, we need to check them all
+				for (int i = 0; i < 4; i++) {
+					if (nodeOverlaps(children + i, x, y, width, height)) {
+						stack[top++] = children + i;
+					}
+				}
+			}
+		}
+		return fill;
+	}
+
+	private void collect (IntBag fill, int id, float qx, float qy, float qwidth, float qheight, boolean exact) {
+		int eid = nodeHead[id];
+		if (!exact) {
+			while (eid != NONE) {
+				fill.add(eid);
+				eid = next[eid];
+			}
+		} else if (qwidth == 0 && qheight == 0) {
+			while (eid != NONE) {
+				float ex = x[eid];
+				float ey = y[eid];
+				if (ex <= qx && ex + width[eid] >= qx && ey <= qy && ey + height[eid] >= qy) {
+					fill.add(eid);
+				}
+				eid = next[eid];
+			}
+		} else {
+			while (eid != NONE) {
+				float ex = x[eid];
+				float ey = y[eid];
+				if (ex < qx + qwidth && ex + width[eid] > qx && ey < qy + qheight && ey + height[eid] > qy) {
+					fill.add(eid);
+				}
+				eid = next[eid];
+			}
+		}
+	}
+
+	/**
+	 * Update position for this id with new one
+	 */
+	public void update (int id, float x, float y, float width, float height) {
+		if (id >= node.length || node[id] == NONE) {
+			insert(id, x, y, width, height);
+			return;
+		}
+		this.x[id] = x;
+		this.y[id] = y;
+		this.width[id] = width;
+		this.height[id] = height;
+
+		int current = node[id];
+		unlink(id);
+		while (nodeParent[current] != NONE && !nodeContains(current, x, y, width, height)) {
+			current = nodeParent[current];
+		}
+		insert(current, id);
+	}
+
+	/**
+	 * Remove this id from the tree
+	 */
+	public void remove (int id) {
+		if (id >= node.length || node[id] == NONE)
+			return;
+		unlink(id);
+	}
+
+	/**
+	 * @return if given id is in the tree
+	 */
+	public boolean contains (int id) {
+		return id < node.length && node[id] != NONE;
+	}
+
+	/**
+	 * Reset the tree by removing all nodes and stored ids, capacity is retained
+	 */
+	public void reset () {
+		for (int id = 0; id < nodeCount; id++) {
+			int eid = nodeHead[id];
+			while (eid != NONE) {
+				node[eid] = NONE;
+				eid = next[eid];
+			}
+		}
+		nodeCount = 1;
+		nodeChildren[ROOT] = NONE;
+		nodeHead[ROOT] = NONE;
+		nodeSize[ROOT] = 0;
+	}
+
+	/**
+	 * Copy current state of the tree into given snapshot, that can be queried from multiple threads
+	 *
+	 * @return given snapshot
+	 */
+	public QuadTreeSnapshot snapshot (QuadTreeSnapshot out) {
+		int entities = 0;
+		for (int id = 0; id < nodeCount; id++) {
+			entities += nodeSize[id];
+		}
+		out.ensureCapacity(nodeCount, entities);
+		out.nodeCount = nodeCount;
+		out.count = entities;
+		System.arraycopy(nodeX, 0, out.nodeX, 0, nodeCount);
+		System.arraycopy(nodeY, 0, out.nodeY, 0, nodeCount);
+		System.arraycopy(nodeWidth, 0, out.nodeWidth, 0, nodeCount);
+		System.arraycopy(nodeHeight, 0, out.nodeHeight, 0, nodeCount);
+		System.arraycopy(nodeChildren, 0, out.nodeChildren, 0, nodeCount);
+		int index = 0;
+		for (int id = 0; id < nodeCount; id++) {
+			out.nodeStart[id] = index;
+			int eid = nodeHead[id];
+			while (eid != NONE) {
+				out.ids[index] = eid;
+				out.x[index] = x[eid];
+				out.y[index] = y[eid];
+				out.width[index] = width[eid];
+				out.height[index] = height[eid];
+				index++;
+				eid = next[eid];
+			}
+		}
+		out.nodeStart[nodeCount] = index;
+		return out;
+	}
+
+	/**
+	 * Dispose of the tree by removing all nodes and stored ids
+	 */
+	public void dispose () {
+		reset();
+	}
+
+	/**
+	 * @return count of nodes, including the root, valid node ids are in [0, count)
+	 */
+	public int getNodeCount () {
+		return nodeCount;
+	}
+
+	/**
+	 * @return id of first of 4 children of given node or {@link #NONE} if it is a leaf
+	 */
+	public int getNodeChildren (int id) {
+		return nodeChildren[id];
+	}
+
+	/**
+	 * @return count of entities stored directly in given node
+	 */
+	public int getNodeSize (int id) {
+		return nodeSize[id];
+	}
+
+	/**
+	 * @return given rectangle set to bounds of given node
+	 */
+	public Rectangle getNodeBounds (int id, Rectangle out) {
+		return out.set(nodeX[id], nodeY[id], nodeWidth[id], nodeHeight[id]);
+	}
+
+	public int getMaxInBucket () {
+		return maxInBucket;
+	}
+
+	/**
+	 * Takes effect for future splits only
+	 */
+	public void setMaxInBucket (int maxInBucket) {
+		this.maxInBucket = maxInBucket;
+	}
+
+	public int getMaxDepth () {
+		return maxDepth;
+	}
+
+	/**
+	 * Takes effect for future splits only
+	 */
+	public void setMaxDepth (int maxDepth) {
+		this.maxDepth = maxDepth;
+		if (stack.length < 4 * maxDepth + 4) {
+			stack = new int[4 * maxDepth + 4];
+		}
+	}
+
+	@Override public String toString () {
+		return "FlatQuadTree{" +
+			"nodes=" + nodeCount + "}";
+	}
+}
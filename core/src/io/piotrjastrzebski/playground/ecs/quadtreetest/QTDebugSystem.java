@@ -220,6 +220,7 @@ public class QTDebugSystem extends BaseSystem {
 				maxInBucket = (int)maxInBucketSlider.getValue();
 				maxInBucketLabel.setText(maxInBucket + " max in bucket");
 				QuadTree.MAX_IN_BUCKET = maxInBucket;
+				qtSystem.getQuadTree().setMaxInBucket(maxInBucket);
 			}
 		});
 		maxInBucketSlider.setValue(maxInBucket);
@@ -233,6 +234,7 @@ public class QTDebugSystem extends BaseSystem {
 				maxDepth = (int)maxDepthSlider.getValue();
 				maxDepthLabel.setText(maxDepth + " max depth");
 				QuadTree.MAX_DEPTH = maxDepth;
+				qtSystem.getQuadTree().setMaxDepth(maxDepth);
 			}
 		});
 		maxDepthSlider.setValue(maxDepth);
@@ -247,6 +249,22 @@ public class QTDebugSystem extends BaseSystem {
 			}
 		});
 		container.add(rebuild);
+
+		final VisLabel thresholdLabel = new VisLabel("");
+		final VisSlider thresholdSlider = new VisSlider(0.0f, 1.05f, 0.05f, false);
+		thresholdSlider.addListener(new ChangeListener() {
+			@Override public void changed (ChangeEvent event, Actor actor) {
+				qtSystem.rebuildThreshold = thresholdSlider.getValue();
+				if (qtSystem.rebuildThreshold > 1) {
+					thresholdLabel.setText("never rebuild");
+				} else {
+					thresholdLabel.setText(Math.round(100 * qtSystem.rebuildThreshold) + " % dirty to rebuild");
+				}
+			}
+		});
+		thresholdSlider.setValue(qtSystem.rebuildThreshold);
+		container.add(thresholdSlider);
+		container.add(thresholdLabel);
 		container.row();
 
 		window.add(container);
@@ -266,6 +284,8 @@ public class QTDebugSystem extends BaseSystem {
 
 		QuadTree.MAX_DEPTH = maxDepth;
 		QuadTree.MAX_IN_BUCKET = maxInBucket;
+		qtSystem.getQuadTree().setMaxDepth(maxDepth);
+		qtSystem.getQuadTree().setMaxInBucket(maxInBucket);
 
 		for (int i = 0; i < numEntities; i++) {
 			createEntity();
@@ -298,7 +318,7 @@ public class QTDebugSystem extends BaseSystem {
 	long startTime = TimeUtils.nanoTime();
 	IntBag fill = new IntBag();
 	@Override protected void processSystem () {
-		QuadTree quadTree = qtSystem.getQuadTree();
+		FlatQuadTree quadTree = qtSystem.getQuadTree();
 		fill.clear();
 		if (linearSearch) {
 			IntBag actives = entitySub.getEntities();
@@ -368,7 +388,7 @@ public class QTDebugSystem extends BaseSystem {
 			sb.append(nanoDiff / 1000000);
 		} else {
 			sb.append(qtSystem.diff / 1000000);
-			sb.append(" update(), ");
+			sb.append(qtSystem.rebuilt? " rebuild(), " : " update(), ");
 			sb.append(nanoDiff / 1000000);
 		}
 		sb.append(" millis (");
@@ -1,18 +1,17 @@
 package io.piotrjastrzebski.playground.ecs.quadtreetest;
 
 import com.artemis.Aspect;
+import com.artemis.BaseEntitySystem;
 import com.artemis.ComponentMapper;
-import com.artemis.Entity;
 import com.artemis.annotations.Wire;
-import com.artemis.systems.EntityProcessingSystem;
-import com.artemis.systems.IteratingSystem;
+import com.artemis.utils.IntBag;
 
 @Wire
-public class QTSystem extends IteratingSystem {
+public class QTSystem extends BaseEntitySystem {
 	private ComponentMapper<Position> mPosition;
 	private ComponentMapper<Size> mSize;
 
-	private QuadTree base;
+	private FlatQuadTree base;
 	public QTSystem () {
 		super(Aspect.all(Position.class, Size.class));
 	}
@@ -23,16 +22,55 @@ public class QTSystem extends IteratingSystem {
 	}
 
 	public void init(float x, float y, float width, float height) {
-		base = new QuadTree(x, y, width, height);
+		base = new FlatQuadTree(x, y, width, height);
 	}
 
+	/**
+	 * Force full rebuild every frame
+	 */
 	public boolean rebuild = false;
+	/**
+	 * Rebuild when fraction of dirty entities is at least this big, set above 1 to always update incrementally
+	 */
+	public float rebuildThreshold = 0.35f;
+	/**
+	 * If last frame did a full rebuild
+	 */
+	public boolean rebuilt;
+	public int dirtyCount;
 	public long diff;
 	private long start;
+	private float[] bounds = new float[0];
 	@Override protected void begin () {
 		start = System.nanoTime();
-		if (rebuild) {
-			base.reset();
+	}
+
+	@Override protected void processSystem () {
+		IntBag actives = getEntityIds();
+		int[] ids = actives.getData();
+		int count = actives.size();
+		dirtyCount = 0;
+		for (int i = 0; i < count; i++) {
+			if (mPosition.get(ids[i]).dirty) dirtyCount++;
+		}
+		rebuilt = count > 0 && (rebuild || dirtyCount >= count * rebuildThreshold);
+		if (rebuilt) {
+			if (bounds.length < count * 4) {
+				bounds = new float[Math.max(count * 4, bounds.length * 2)];
+			}
+			for (int i = 0; i < count; i++) {
+				Position position = mPosition.get(ids[i]);
+				Size size = mSize.get(ids[i]);
+				bounds[i * 4] = position.x;
+				bounds[i * 4 + 1] = position.y;
+				bounds[i * 4 + 2] = size.width;
+				bounds[i * 4 + 3] = size.height;
+			}
+			base.rebuild(actives, bounds);
+		} else {
+			for (int i = 0; i < count; i++) {
+				process(ids[i]);
+			}
 		}
 	}
 
@@ -42,12 +80,10 @@ public class QTSystem extends IteratingSystem {
 		base.insert(e, position.x, position.y, size.width, size.height);
 	}
 
-	@Override protected void process (int e) {
+	protected void process (int e) {
 		Position position = mPosition.get(e);
-		Size size = mSize.get(e);
-		if (rebuild) {
-			base.insert(e, position.x, position.y, size.width, size.height);
-		} else if (position.dirty) {
+		if (position.dirty) {
+			Size size = mSize.get(e);
 			base.update(e, position.x, position.y, size.width, size.height);
 		}
 	}
@@ -57,13 +93,28 @@ public class QTSystem extends IteratingSystem {
 	}
 
 	@Override protected void end () {
+		if (snapshot) {
+			base.snapshot(baseSnapshot);
+		}
 		diff = System.nanoTime() - start;
 	}
 
-	public QuadTree getQuadTree () {
+	public FlatQuadTree getQuadTree () {
 		return base;
 	}
 
+	/**
+	 * Refresh snapshot at the end of each frame
+	 */
+	public boolean snapshot = false;
+	private QuadTreeSnapshot baseSnapshot = new QuadTreeSnapshot();
+	/**
+	 * @return snapshot of the tree, for queries from other threads, valid if {@link #snapshot} is enabled
+	 */
+	public QuadTreeSnapshot getSnapshot () {
+		return baseSnapshot;
+	}
+
 	@Override protected void dispose () {
 		base.dispose();
 	}
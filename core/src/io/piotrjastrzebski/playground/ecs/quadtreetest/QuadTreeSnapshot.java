@@ -0,0 +1,283 @@
+package io.piotrjastrzebski.playground.ecs.quadtreetest;
+
+import com.artemis.utils.IntBag;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Frozen, read only copy of a {@link FlatQuadTree}, created with {@link FlatQuadTree#snapshot(QuadTreeSnapshot)}
+ *
+ * Entities are packed per node, so each node owns a continuous slice of entity arrays.
+ * Queries do not touch any shared mutable state, any number of threads can query at the same time as long as each uses its own fill {@link IntBag}.
+ * Snapshot must not be refreshed while queries are running.
+ */
+public class QuadTreeSnapshot {
+	protected int nodeCount;
+	protected float[] nodeX = new float[0];
+	protected float[] nodeY = new float[0];
+	protected float[] nodeWidth = new float[0];
+	protected float[] nodeHeight = new float[0];
+	protected int[] nodeChildren = new int[0];
+	/** entities of node n are in [nodeStart[n], nodeStart[n + 1]) */
+	protected int[] nodeStart = new int[1];
+
+	protected int count;
+	protected int[] ids = new int[0];
+	protected float[] x = new float[0];
+	protected float[] y = new float[0];
+	protected float[] width = new float[0];
+	protected float[] height = new float[0];
+
+	public QuadTreeSnapshot () {}
+
+	protected void ensureCapacity (int nodes, int entities) {
+		if (nodeX.length < nodes) {
+			nodeX = new float[nodes];
+			nodeY = new float[nodes];
+			nodeWidth = new float[nodes];
+			nodeHeight = new float[nodes];
+			nodeChildren = new int[nodes];
+			nodeStart = new int[nodes + 1];
+		}
+		if (ids.length < entities) {
+			ids = new int[entities];
+			x = new float[entities];
+			y = new float[entities];
+			width = new float[entities];
+			height = new float[entities];
+		}
+	}
+
+	/**
+	 * Returns entity ids of entities that bounds contain given point
+	 */
+	public IntBag getExact (IntBag fill, float x, float y) {
+		int id = FlatQuadTree.ROOT;
+		if (nodeCount == 0 || !nodeContains(id, x, y)) return fill;
+		while (true) {
+			for (int i = nodeStart[id], end = nodeStart[id + 1]; i < end; i++) {
+				float ex = this.x[i];
+				float ey = this.y[i];
+				if (ex <= x && ex + width[i] >= x && ey <= y && ey + height[i] >= y) {
+					fill.add(ids[i]);
+				}
+			}
+			int children = nodeChildren[id];
+			if (children == FlatQuadTree.NONE) break;
+			int index = indexOf(id, x, y, 0, 0);
+			if (index == QuadTree.OUTSIDE) break;
+			id = children + index;
+		}
+		return fill;
+	}
+
+	/**
+	 * Returns entity ids of entities that are inside nodes that overlap given bounds
+	 *
+	 * Returned entities must be filtered further as these results are not exact
+	 */
+	public IntBag get (IntBag fill, float x, float y, float width, float height) {
+		if (nodeCount > 0 && nodeOverlaps(FlatQuadTree.ROOT, x, y, width, height)) {
+			get(FlatQuadTree.ROOT, fill, x, y, width, height, false);
+		}
+		return fill;
+	}
+
+	/**
+	 * Returns entity ids of entities that overlap given bounds
+	 */
+	public IntBag getExact (IntBag fill, float x, float y, float width, float height) {
+		if (nodeCount > 0 && nodeOverlaps(FlatQuadTree.ROOT, x, y, width, height)) {
+			get(FlatQuadTree.ROOT, fill, x, y, width, height, true);
+		}
+		return fill;
+	}
+
+	private void get (int id, IntBag fill, float qx, float qy, float qwidth, float qheight, boolean exact) {
+		int start = nodeStart[id];
+		int end = nodeStart[id + 1];
+		if (exact) {
+			for (int i = start; i < end; i++) {
+				float ex = x[i];
+				float ey = y[i];
+				if (ex < qx + qwidth && ex + width[i] > qx && ey < qy + qheight && ey + height[i] > qy) {
+					fill.add(ids[i]);
+				}
+			}
+		} else {
+			for (int i = start; i < end; i++) {
+				fill.add(ids[i]);
+			}
+		}
+		int children = nodeChildren[id];
+		if (children == FlatQuadTree.NONE) return;
+		int index = indexOf(id, qx, qy, qwidth, qheight);
+		if (index != QuadTree.OUTSIDE) {
+			if (nodeOverlaps(children + index, qx, qy, qwidth, qheight)) {
+				get(children + index, fill, qx, qy, qwidth, qheight, exact);
+			}
+		} else {
+			// if test bounds don't fully fit inside a node, we need to check them all
+			for (int i = 0; i < 4; i++) {
+				if (nodeOverlaps(children + i, qx, qy, qwidth, qheight)) {
+					get(children + i, fill, qx, qy, qwidth, qheight, exact);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Run all queries in given batch on given pool, blocks until all are done
+	 *
+	 * Each query fills its own result, so no synchronization is needed
+	 */
+	public void getExact (ForkJoinPool pool, QueryBatch batch) {
+		if (batch.count == 0) return;
+		pool.invoke(new QueryTask(this, batch, 0, batch.count));
+	}
+
+	/**
+	 * Run all queries in given batch on calling thread
+	 */
+	public void getExact (QueryBatch batch) {
+		for (int i = 0; i < batch.count; i++) {
+			batch.query(this, i);
+		}
+	}
+
+	private int indexOf (int id, float x, float y, float width, float height) {
+		float midX = nodeX[id] + nodeWidth[id] / 2;
+		float midY = nodeY[id] + nodeHeight[id] / 2;
+		boolean top = y > midY;
+		boolean bottom = y < midY && y + height < midY;
+		if (x < midX && x + width < midX) {
+			if (top) {
+				return QuadTree.NW;
+			} else if (bottom) {
+				return QuadTree.SW;
+			}
+		} else if (x > midX) {
+			if (top) {
+				return QuadTree.NE;
+			} else if (bottom) {
+				return QuadTree.SE;
+			}
+		}
+		return QuadTree.OUTSIDE;
+	}
+
+	private boolean nodeContains (int id, float x, float y) {
+		float nx = nodeX[id];
+		float ny = nodeY[id];
+		return nx <= x && nx + nodeWidth[id] >= x && ny <= y && ny + nodeHeight[id] >= y;
+	}
+
+	private boolean nodeOverlaps (int id, float x, float y, float width, float height) {
+		float nx = nodeX[id];
+		float ny = nodeY[id];
+		return nx < x + width && nx + nodeWidth[id] > x && ny < y + height && ny + nodeHeight[id] > y;
+	}
+
+	/**
+	 * @return count of entities in this snapshot
+	 */
+	public int size () {
+		return count;
+	}
+
+	public int getNodeCount () {
+		return nodeCount;
+	}
+
+	@Override public String toString () {
+		return "QuadTreeSnapshot{" +
+			"nodes=" + nodeCount +
+			", entities=" + count + "}";
+	}
+
+	/**
+	 * Batch of rectangle queries, results are reused between runs
+	 */
+	public static class QueryBatch {
+		/**
+		 * Queries per fork join task, smaller values split work more evenly, but add overhead
+		 */
+		public int queriesPerTask = 32;
+		protected int count;
+		protected float[] rects = new float[0];
+		protected IntBag[] results = new IntBag[0];
+
+		public QueryBatch () {}
+
+		/**
+		 * Add rectangle query, returns index of its result
+		 */
+		public int add (float x, float y, float width, float height) {
+			if (count == results.length) {
+				int capacity = Math.max(16, count * 2);
+				rects = Arrays.copyOf(rects, capacity * 4);
+				results = Arrays.copyOf(results, capacity);
+				for (int i = count; i < capacity; i++) {
+					results[i] = new IntBag();
+				}
+			}
+			rects[count * 4] = x;
+			rects[count * 4 + 1] = y;
+			rects[count * 4 + 2] = width;
+			rects[count * 4 + 3] = height;
+			return count++;
+		}
+
+		protected void query (QuadTreeSnapshot snapshot, int index) {
+			IntBag fill = results[index];
+			fill.setSize(0);
+			snapshot.getExact(fill, rects[index * 4], rects[index * 4 + 1], rects[index * 4 + 2], rects[index * 4 + 3]);
+		}
+
+		/**
+		 * @return entity ids that overlap query at given index
+		 */
+		public IntBag getResult (int index) {
+			return results[index];
+		}
+
+		public int size () {
+			return count;
+		}
+
+		/**
+		 * Remove all queries, result buffers are retained
+		 */
+		public void clear () {
+			count = 0;
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class QueryTask extends RecursiveAction {
+		private final QuadTreeSnapshot snapshot;
+		private final QueryBatch batch;
+		private final int from;
+		private final int to;
+
+		public QueryTask (QuadTreeSnapshot snapshot, QueryBatch batch, int from, int to) {
+			this.snapshot = snapshot;
+			this.batch = batch;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override protected void compute () {
+			if (to - from <= Math.max(batch.queriesPerTask, 1)) {
+				for (int i = from; i < to; i++) {
+					batch.query(snapshot, i);
+				}
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new QueryTask(snapshot, batch, from, mid), new QueryTask(snapshot, batch, mid, to));
+		}
+	}
+}
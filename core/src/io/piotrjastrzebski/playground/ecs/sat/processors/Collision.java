@@ -1,265 +1,563 @@
 package io.piotrjastrzebski.playground.ecs.sat.processors;
 
 import com.artemis.Aspect;
+import com.artemis.BaseEntitySystem;
 import com.artemis.ComponentMapper;
-import com.artemis.Entity;
-import com.artemis.EntitySystem;
 import com.artemis.annotations.Wire;
-import com.artemis.systems.EntityProcessingSystem;
+import com.artemis.utils.Bag;
 import com.artemis.utils.IntBag;
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.*;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.Pool;
 import io.piotrjastrzebski.playground.ecs.sat.SATTest;
 import io.piotrjastrzebski.playground.ecs.sat.components.*;
 import io.piotrjastrzebski.playground.ecs.sat.components.Circle;
 import io.piotrjastrzebski.playground.ecs.sat.components.Polygon;
 
 /**
+ * Finds colliding entities, pairs with overlapping AABBs from {@link SweepAndPrune} are tested with SAT
+ *
+ * Pairs are cached between frames, pairs where neither entity moved reuse last result and separated pairs
+ * first check the axis that separated them last time, so mostly static scenes skip most of SAT
+ * {@link ContactListener}s get begin, persist and end of contacts
+ *
+ * Debug colors and shapes are done in separate pass, if {@link #debug} is set and there is a renderer to draw with
+ *
  * Created by PiotrJ on 27/08/15.
  */
 @Wire
-public class Collision extends EntitySystem {
+public class Collision extends BaseEntitySystem {
 	protected ComponentMapper<Polygon> mPolygon;
 	protected ComponentMapper<Circle> mCircle;
 	protected ComponentMapper<AABB> mAABB;
 	protected ComponentMapper<Tint> mTint;
 
-	@Wire(name = SATTest.WIRE_GAME_CAM) OrthographicCamera camera;
-	@Wire ShapeRenderer renderer;
+	@Wire(name = SATTest.WIRE_GAME_CAM, failOnNull = false) OrthographicCamera camera;
+	@Wire(failOnNull = false) ShapeRenderer renderer;
+
+	/** draw debug shapes and tint colliding entities */
+	public boolean debug = true;
+	/** if false, every pair of entities is checked, for comparison */
+	public boolean broadphase = true;
+	/** if false, every pair is tested from scratch each frame, for comparison */
+	public boolean pairCache = true;
+
+	private final SweepAndPrune sweepAndPrune = new SweepAndPrune();
+	private final IntArray pairs = new IntArray();
+	private final Array<CollisionResult> contacts = new Array<>();
+	private final LongMap<Pair> pairsByKey = new LongMap<>();
+	/** pairs by entity id, so removing an entity doesn't have to look through all pairs */
+	private final Bag<Array<Pair>> pairsByEntity = new Bag<>();
+	private final Pool<Pair> pairPool = new Pool<Pair>() {
+		@Override protected Pair newObject () {
+			return new Pair();
+		}
+	};
+	/** pairs of removed entities, freed next frame as their results can still be in contacts */
+	private final Array<Pair> removedPairs = new Array<>();
+	private final Array<ContactListener> listeners = new Array<>();
+	// shape state by entity id, so we know what moved since last frame
+	private float[] shapes = new float[64 * 4];
+	private boolean[] moved = new boolean[64];
+	private int frame;
+	private int pairsTested;
+	private int satTests;
+	private int axisHits;
+	private int staticHits;
 
 	public Collision () {
 		super(Aspect.all(Collider.class, AABB.class).one(Polygon.class, Circle.class));
 	}
 
-	@Override protected void begin () {
-		renderer.setProjectionMatrix(camera.combined);
-		renderer.begin(ShapeRenderer.ShapeType.Line);
+	@Override protected void inserted (int entityId) {
+		sweepAndPrune.add(entityId);
+		if (entityId >= moved.length) {
+			int size = Math.max(entityId + 1, moved.length * 2);
+			float[] newShapes = new float[size * 4];
+			System.arraycopy(shapes, 0, newShapes, 0, shapes.length);
+			shapes = newShapes;
+			moved = new boolean[size];
+		}
+		// so it counts as moved in first frame
+		shapes[entityId * 4] = Float.NaN;
 	}
 
-	@Override protected void end () {
-		renderer.end();
+	@Override protected void removed (int entityId) {
+		sweepAndPrune.remove(entityId);
+		// end its pairs now, as the id can be reused before next frame
+		Array<Pair> entityPairs = pairsOf(entityId);
+		for (int i = 0; i < entityPairs.size; i++) {
+			Pair pair = entityPairs.get(i);
+			endPair(pair);
+			pairsByKey.remove(key(pair.entityA, pair.entityB));
+			pairsOf(pair.entityA == entityId? pair.entityB : pair.entityA).removeValue(pair, true);
+			removedPairs.add(pair);
+		}
+		entityPairs.clear();
+	}
+
+	private Array<Pair> pairsOf (int entityId) {
+		Array<Pair> entityPairs = pairsByEntity.safeGet(entityId);
+		if (entityPairs == null) {
+			entityPairs = new Array<>(false, 4);
+			pairsByEntity.set(entityId, entityPairs);
+		}
+		return entityPairs;
+	}
+
+	private static long key (int a, int b) {
+		return (long)a << 32 | b;
 	}
 
 	@Override protected void processSystem () {
+		frame++;
+		contacts.clear();
+		pairPool.freeAll(removedPairs);
+		removedPairs.clear();
+		pairs.clear();
 		IntBag entities = getSubscription().getEntities();
-		for (int e1 = 0; e1 < entities.size(); e1++) {
-			for (int e2 = 0; e2 < entities.size(); e2++) {
-				int eid1 = entities.get(e1);
-				int eid2 = entities.get(e2);
-				if (eid1 == eid2) continue;
-				test(eid1, eid2);
+		int[] ids = entities.getData();
+		for (int i = 0, n = entities.size(); i < n; i++) {
+			updateMoved(ids[i]);
+		}
+		if (broadphase) {
+			for (int i = 0, n = entities.size(); i < n; i++) {
+				sweepAndPrune.update(ids[i], mAABB.get(ids[i]).rect);
+			}
+			sweepAndPrune.findPairs(pairs);
+		} else {
+			for (int i = 0, n = entities.size(); i < n; i++) {
+				Rectangle rect = mAABB.get(ids[i]).rect;
+				for (int j = i + 1; j < n; j++) {
+					if (rect.overlaps(mAABB.get(ids[j]).rect)) pairs.add(ids[i], ids[j]);
+				}
 			}
 		}
+		pairsTested = pairs.size / 2;
+		satTests = axisHits = staticHits = 0;
+		for (int i = 0; i < pairs.size; i += 2) {
+			int a = Math.min(pairs.get(i), pairs.get(i + 1));
+			int b = Math.max(pairs.get(i), pairs.get(i + 1));
+			long key = key(a, b);
+			Pair pair = pairsByKey.get(key);
+			if (pair == null) {
+				pair = pairPool.obtain();
+				pair.entityA = a;
+				pair.entityB = b;
+				pairsByKey.put(key, pair);
+				pairsOf(a).add(pair);
+				pairsOf(b).add(pair);
+			}
+			pair.frame = frame;
+			boolean wasTouching = pair.touching;
+			testPair(pair);
+			if (pair.touching) {
+				contacts.add(pair.result);
+				for (ContactListener listener : listeners) {
+					if (wasTouching) {
+						listener.persist(pair.result);
+					} else {
+						listener.begin(pair.result);
+					}
+				}
+			} else if (wasTouching) {
+				for (ContactListener listener : listeners) {
+					listener.end(a, b);
+				}
+			}
+		}
+		// pairs that are no longer overlapping in broadphase or got removed
+		LongMap.Values<Pair> values = pairsByKey.values();
+		while (values.hasNext()) {
+			Pair pair = values.next();
+			if (pair.frame == frame) continue;
+			endPair(pair);
+			values.remove();
+			pairsOf(pair.entityA).removeValue(pair, true);
+			pairsOf(pair.entityB).removeValue(pair, true);
+			pairPool.free(pair);
+		}
+		if (debug && renderer != null) debugDraw();
 	}
 
-	private void test (int eid1, int eid2) {
-		if (mCircle.has(eid1) && mCircle.has(eid2)) {
-			testCircles(eid1, eid2);
-		} else if (mPolygon.has(eid1) && mPolygon.has(eid2)) {
-			testPolygons(eid1, eid2, false);
-//			testPolygons(eid2, eid1, true);
-		} else {
-			if (mCircle.has(eid1)) {
-				testCirclePoly(eid1, eid2);
-			} else if (mCircle.has(eid2)) {
-				testCirclePoly(eid2, eid1);
+	private void endPair (Pair pair) {
+		if (pair.touching) {
+			for (ContactListener listener : listeners) {
+				listener.end(pair.entityA, pair.entityB);
 			}
 		}
 	}
 
-	CollisionResult result = new CollisionResult();
-	Vector2 tmp1 = new Vector2();
-	private CollisionResult testCircles(int cidA, int cidB) {
-		result.reset();
-		// if AABBs are not overlapping we cant be touching
-		AABB aabbA = mAABB.get(cidA);
-		AABB aabbB = mAABB.get(cidB);
-		if (aabbA.rect.overlaps(aabbB.rect)) {
-			aabbA.color.set(Color.RED);
-			aabbB.color.set(Color.RED);
+	private void testPair (Pair pair) {
+		int a = pair.entityA;
+		int b = pair.entityB;
+		if (pairCache && pair.tested) {
+			// nothing changed, so neither did the result
+			if (!moved[a] && !moved[b]) {
+				staticHits++;
+				return;
+			}
+			// axis that separated them last time likely still does
+			if (pair.hasAxis) {
+				vAxis.set(pair.axisX, pair.axisY);
+				if (separated(a, b)) {
+					axisHits++;
+					pair.touching = false;
+					return;
+				}
+			}
+		}
+		satTests++;
+		pair.tested = true;
+		pair.touching = test(a, b, pair.result);
+		// polygon tests bail out with separating axis in vAxis, circles dont have one
+		pair.hasAxis = !pair.touching && !(mCircle.has(a) && mCircle.has(b));
+		if (pair.hasAxis) {
+			pair.axisX = vAxis.x;
+			pair.axisY = vAxis.y;
+		}
+	}
+
+	private void updateMoved (int eid) {
+		float x, y, rotation, scale;
+		if (mCircle.has(eid)) {
+			com.badlogic.gdx.math.Circle circle = mCircle.get(eid).circle;
+			x = circle.x;
+			y = circle.y;
+			rotation = 0;
+			scale = circle.radius;
 		} else {
-			aabbA.color.set(Color.GREEN);
-			aabbB.color.set(Color.GREEN);
-			// can bail early as optimization
-			return null;
+			com.badlogic.gdx.math.Polygon polygon = mPolygon.get(eid).polygon;
+			x = polygon.getX();
+			y = polygon.getY();
+			rotation = polygon.getRotation();
+			scale = polygon.getScaleX();
 		}
+		float[] shapes = this.shapes;
+		int i = eid * 4;
+		// NaN never equals, so new entities count as moved
+		moved[eid] = shapes[i] != x || shapes[i + 1] != y || shapes[i + 2] != rotation || shapes[i + 3] != scale;
+		shapes[i] = x;
+		shapes[i + 1] = y;
+		shapes[i + 2] = rotation;
+		shapes[i + 3] = scale;
+	}
 
-		Circle circleA = mCircle.get(cidA);
-		com.badlogic.gdx.math.Circle cA = circleA.circle;
-		Circle circleB = mCircle.get(cidB);
-		com.badlogic.gdx.math.Circle cB = circleB.circle;
+	/**
+	 * @return if entities are separated on {@link #vAxis}
+	 */
+	private boolean separated (int eid1, int eid2) {
+		startSAT();
+		if (mCircle.has(eid1) && mCircle.has(eid2)) return false;
+		if (mPolygon.has(eid1) && mPolygon.has(eid2)) {
+			return !testAxis(mPolygon.get(eid1).polygon.getTransformedVertices(), mPolygon.get(eid2).polygon.getTransformedVertices(), null);
+		}
+		int cid = mCircle.has(eid1)? eid1 : eid2;
+		int pid = cid == eid1? eid2 : eid1;
+		return !testAxis(null, mPolygon.get(pid).polygon.getTransformedVertices(), mCircle.get(cid).circle);
+	}
 
-		renderer.setColor(Color.BROWN);
-		renderer.line(cA.x, cA.y, cB.x, cB.y);
+	private boolean test (int eid1, int eid2, CollisionResult result) {
+		result.reset();
+		if (mCircle.has(eid1) && mCircle.has(eid2)) {
+			return testCircles(eid1, eid2, result);
+		} else if (mPolygon.has(eid1) && mPolygon.has(eid2)) {
+			return testPolygons(eid1, eid2, result);
+		} else if (mCircle.has(eid1)) {
+			return testCirclePoly(eid1, eid2, result);
+		} else {
+			return testCirclePoly(eid2, eid1, result);
+		}
+	}
+
+	private boolean testCircles (int cidA, int cidB, CollisionResult result) {
+		com.badlogic.gdx.math.Circle cA = mCircle.get(cidA).circle;
+		com.badlogic.gdx.math.Circle cB = mCircle.get(cidB).circle;
 
 		float radTotal = cA.radius + cB.radius;
 		float dst2 = (cB.x - cA.x) * (cB.x - cA.x) + (cB.y - cA.y) * (cB.y - cA.y);
-		Tint tintA = mTint.get(cidA);
-		Tint tintB = mTint.get(cidB);
-		if (dst2 > radTotal * radTotal) {
-			tintA.color.set(Color.CYAN);
-			tintB.color.set(Color.CYAN);
-			return result;
-		} else {
-			tintA.color.set(Color.BLUE);
-			tintB.color.set(Color.BLUE);
-		}
+		if (dst2 > radTotal * radTotal) return false;
 
 		float dst = (float)Math.sqrt(dst2);
 		float diff = radTotal - dst;
 		result.collided = true;
 		result.entityA = cidA;
-		result.entityB = cidA;
+		result.entityB = cidB;
 		result.vector.set(cB.x - cA.x, cB.y - cA.y).nor();
 		result.dst = dst;
 		result.separation.set(result.vector.x * diff, result.vector.y * diff);
+		result.entityAContained = (cA.radius <= cB.radius && dst <= cB.radius - cA.radius);
+		result.entityBContained = (cB.radius <= cA.radius && dst <= cA.radius - cB.radius);
+		return true;
+	}
 
-		renderer.setColor(Color.GREEN);
-		renderer.circle(cA.x - result.separation.x/2, cA.y - result.separation.y/2, cA.radius, 32);
-		renderer.circle(cB.x + result.separation.x / 2, cB.y + result.separation.y / 2, cB.radius, 32);
-
-		result.entityAContained = (cA.radius<= cB.radius && dst <= cB.radius - cA.radius);
-		if (result.entityAContained) {
-			tintA.color.set(Color.YELLOW);
+	Vector2 vAxis = new Vector2();
+	Vector2 vCenter = new Vector2();
+	float min, max;
+	// smallest overlap found so far, its axis and containment on all axes
+	float overlap;
+	Vector2 vOverlap = new Vector2();
+	boolean aInB, bInA;
+
+	private boolean testPolygons (int pidA, int pidB, CollisionResult result) {
+		float[] vertsA = mPolygon.get(pidA).polygon.getTransformedVertices();
+		float[] vertsB = mPolygon.get(pidB).polygon.getTransformedVertices();
+		startSAT();
+		if (!testAxes(vertsA, vertsA, vertsB, null)) return false;
+		if (!testAxes(vertsB, vertsA, vertsB, null)) return false;
+		// point from a to b
+		centroid(vertsB, vCenter);
+		float cB = vCenter.dot(vOverlap);
+		centroid(vertsA, vCenter);
+		return finishSAT(pidA, pidB, cB - vCenter.dot(vOverlap), result);
+	}
 
+	private boolean testCirclePoly (int cid, int pid, CollisionResult result) {
+		com.badlogic.gdx.math.Circle circle = mCircle.get(cid).circle;
+		float[] verts = mPolygon.get(pid).polygon.getTransformedVertices();
+		startSAT();
+		// circle has single axis we care about, from its center to closest vertex
+		float best = Float.MAX_VALUE;
+		for (int i = 0; i < verts.length; i += 2) {
+			float dst2 = Vector2.dst2(circle.x, circle.y, verts[i], verts[i + 1]);
+			if (dst2 < best) {
+				best = dst2;
+				vAxis.set(verts[i] - circle.x, verts[i + 1] - circle.y);
+			}
 		}
-		result.entityBContained = (cB.radius<= cA.radius && dst <= cA.radius - cB.radius);
-		if (result.entityBContained) {
-			tintB.color.set(Color.YELLOW);
+		if (!vAxis.isZero()) {
+			vAxis.nor();
+			if (!testAxis(null, verts, circle)) return false;
 		}
-
-		return result;
+		if (!testAxes(verts, null, verts, circle)) return false;
+		centroid(verts, vCenter);
+		return finishSAT(cid, pid, vCenter.dot(vOverlap) - vOverlap.dot(circle.x, circle.y), result);
 	}
 
-	Vector2 vAxis = new Vector2();
-	Vector2 tmp3 = new Vector2();
-	Vector2 vOffset = new Vector2();
-	private CollisionResult testPolygons(int pidA, int pidB, boolean flip) {
-		result.reset();
+	private void startSAT () {
+		overlap = Float.MAX_VALUE;
+		aInB = bInA = true;
+	}
 
-		Tint tintA = mTint.get(pidA);
-		Tint tintB = mTint.get(pidB);
-		tintA.color.set(Color.CYAN);
-		tintB.color.set(Color.CYAN);
+	/**
+	 * Test normals of edges of given polygon, shape a is either polygon vertsA or circle
+	 */
+	private boolean testAxes (float[] edges, float[] vertsA, float[] vertsB, com.badlogic.gdx.math.Circle circle) {
+		for (int i = 0; i < edges.length; i += 2) {
+			int next = i + 2 < edges.length? i + 2 : 0;
+			vAxis.set(edges[i + 1] - edges[next + 1], edges[next] - edges[i]).nor();
+			if (!testAxis(vertsA, vertsB, circle)) return false;
+		}
+		return true;
+	}
 
-		// if AABBs are not overlapping we cant be touching
-		AABB aabbA = mAABB.get(pidA);
-		AABB aabbB = mAABB.get(pidB);
-		if (aabbA.rect.overlaps(aabbB.rect)) {
-			aabbA.color.set(Color.RED);
-			aabbB.color.set(Color.RED);
+	/**
+	 * @return false if shapes are separated on {@link #vAxis}
+	 */
+	private boolean testAxis (float[] vertsA, float[] vertsB, com.badlogic.gdx.math.Circle circle) {
+		float minA, maxA;
+		if (circle != null) {
+			float c = vAxis.dot(circle.x, circle.y);
+			minA = c - circle.radius;
+			maxA = c + circle.radius;
 		} else {
-			aabbA.color.set(Color.GREEN);
-			aabbB.color.set(Color.GREEN);
-			// can bail early as optimization
-			return null;
+			project(vertsA);
+			minA = min;
+			maxA = max;
 		}
+		project(vertsB);
+		float minB = min;
+		float maxB = max;
+		float axisOverlap = Math.min(maxA, maxB) - Math.max(minA, minB);
+		if (axisOverlap < 0) return false;
+		if (minA < minB || maxA > maxB) aInB = false;
+		if (minB < minA || maxB > maxA) bInA = false;
+		if (axisOverlap < overlap) {
+			overlap = axisOverlap;
+			vOverlap.set(vAxis);
+		}
+		return true;
+	}
 
-		Polygon polygonA = mPolygon.get(pidA);
-		Polygon polygonB = mPolygon.get(pidB);
-		float[] vertsA = polygonA.polygon.getTransformedVertices();
-		float[] vertsB = polygonB.polygon.getTransformedVertices();
-		vOffset.set(vertsA[0] - vertsB[0], vertsA[1] - vertsB[1]);
-
-		float min0, max0;
-		float min1, max1;
-		boolean gap = false;
-		for (int i = 0; i < vertsA.length; i+=2) {
-			getAxisNormal(vertsA, i, vAxis);
-
-			renderer.setColor(Color.YELLOW);
-			renderer.line(vertsA[i], vertsA[i + 1], vertsA[i] - vAxis.x * 100, vertsA[i + 1] - vAxis.y * 100);
-			renderer.line(vertsA[i], vertsA[i + 1], vertsA[i] + vAxis.x * 100, vertsA[i + 1] + vAxis.y * 100);
-
-			min0 = max0 = vAxis.dot(vertsA[0], vertsA[1]);
-			for (int j = 0; j < vertsA.length; j+=2) {
-				float t = vAxis.dot(vertsA[j], vertsA[j + 1]);
-				if (t < min0) min0 = t;
-				if (t > max0) max0 = t;
-			}
-
-			min1 = max1 = vAxis.dot(vertsB[0], vertsB[1]);
-			for (int j = 0; j < vertsB.length; j+=2) {
-				float t = vAxis.dot(vertsB[j], vertsB[j + 1]);
-				if (t < min1) min1 = t;
-				if (t > max1) max1 = t;
-			}
-
-			float sOffset = vAxis.dot(tmp1);
-			min0 += sOffset;
-			max0 += sOffset;
+	private boolean finishSAT (int eidA, int eidB, float direction, CollisionResult result) {
+		if (direction < 0) vOverlap.scl(-1);
+		result.collided = true;
+		result.entityA = eidA;
+		result.entityB = eidB;
+		result.vector.set(vOverlap);
+		result.dst = overlap;
+		result.separation.set(vOverlap).scl(overlap);
+		result.entityAContained = aInB;
+		result.entityBContained = bInA;
+		return true;
+	}
 
-			float d0 = min0 - max1;
-			float d1 = min1 - max0;
-			if (d0 > 0 || d1 > 0) {
-				gap = true;
-			}
+	private void project (float[] verts) {
+		min = max = vAxis.dot(verts[0], verts[1]);
+		for (int i = 2; i < verts.length; i += 2) {
+			float t = vAxis.dot(verts[i], verts[i + 1]);
+			if (t < min) min = t;
+			if (t > max) max = t;
 		}
+	}
 
-		if (gap) {
-			tintA.color.set(Color.CYAN);
-			tintB.color.set(Color.CYAN);
-			renderer.setColor(Color.CYAN);
-		} else {
-			tintA.color.set(Color.BLUE);
-			tintB.color.set(Color.BLUE);
-			renderer.setColor(Color.BLUE);
-		};
-		renderer.polygon(vertsA);
-		return result;
-	}
-
-	Vector2 p1 = new Vector2();
-	Vector2 p2 = new Vector2();
-	private Vector2 getAxisNormal(float[] verts, int id, Vector2 ret) {
-		if (id % 2 != 0) throw  new IllegalArgumentException("dummy!");
-		p1.set(verts[id], verts[id + 1]);
-		if(id == verts.length - 2 ){
-			p2.set(verts[0], verts[1]);
-		} else {
-			p2.set(verts[id + 2], verts[id + 3]);
+	private static Vector2 centroid (float[] verts, Vector2 out) {
+		out.setZero();
+		for (int i = 0; i < verts.length; i += 2) {
+			out.add(verts[i], verts[i + 1]);
 		}
-		return ret.set(-(p2.y - p1.y), p2.x - p1.x).nor();
+		return out.scl(2f / verts.length);
 	}
 
-	private CollisionResult testCirclePoly(int cid, int pid) {
-		result.reset();
-		// if AABBs are not overlapping we cant be touching
-		AABB aabbA = mAABB.get(cid);
-		AABB aabbB = mAABB.get(pid);
-		if (aabbA.rect.overlaps(aabbB.rect)) {
+	private void debugDraw () {
+		IntBag entities = getSubscription().getEntities();
+		int[] ids = entities.getData();
+		for (int i = 0, n = entities.size(); i < n; i++) {
+			mAABB.get(ids[i]).color.set(Color.GREEN);
+			Tint tint = mTint.getSafe(ids[i], null);
+			if (tint != null) tint.color.set(Color.CYAN);
+		}
+		renderer.setProjectionMatrix(camera.combined);
+		renderer.begin(ShapeRenderer.ShapeType.Line);
+		renderer.setColor(Color.BROWN);
+		for (int i = 0; i < pairs.size; i += 2) {
+			AABB aabbA = mAABB.get(pairs.get(i));
+			AABB aabbB = mAABB.get(pairs.get(i + 1));
 			aabbA.color.set(Color.RED);
 			aabbB.color.set(Color.RED);
+			renderer.line(aabbA.rect.x + aabbA.rect.width / 2, aabbA.rect.y + aabbA.rect.height / 2,
+				aabbB.rect.x + aabbB.rect.width / 2, aabbB.rect.y + aabbB.rect.height / 2);
+		}
+		renderer.setColor(Color.GREEN);
+		for (CollisionResult contact : contacts) {
+			debugTint(contact.entityA, contact.entityAContained);
+			debugTint(contact.entityB, contact.entityBContained);
+			// where both would be after separation
+			debugShape(contact.entityA, -contact.separation.x / 2, -contact.separation.y / 2);
+			debugShape(contact.entityB, contact.separation.x / 2, contact.separation.y / 2);
+		}
+		renderer.end();
+	}
+
+	private void debugTint (int eid, boolean contained) {
+		Tint tint = mTint.getSafe(eid, null);
+		if (tint != null) tint.color.set(contained? Color.YELLOW : Color.BLUE);
+	}
+
+	private void debugShape (int eid, float ox, float oy) {
+		if (mCircle.has(eid)) {
+			com.badlogic.gdx.math.Circle c = mCircle.get(eid).circle;
+			renderer.circle(c.x + ox, c.y + oy, c.radius, 32);
 		} else {
-			aabbA.color.set(Color.GREEN);
-			aabbB.color.set(Color.GREEN);
-			// can bail early as optimization
-			return null;
+			float[] verts = mPolygon.get(eid).polygon.getTransformedVertices();
+			for (int i = 0; i < verts.length; i += 2) {
+				int next = i + 2 < verts.length? i + 2 : 0;
+				renderer.line(verts[i] + ox, verts[i + 1] + oy, verts[next] + ox, verts[next + 1] + oy);
+			}
 		}
-		Circle circle = mCircle.get(cid);
-		Polygon polygon = mPolygon.get(pid);
+	}
+
+	/**
+	 * @return number of pairs that passed broadphase and were tested with SAT in last frame
+	 */
+	public int getPairsTested () {
+		return pairsTested;
+	}
+
+	/**
+	 * @return colliding pairs found in last frame, valid until next frame
+	 */
+	public Array<CollisionResult> getContacts () {
+		return contacts;
+	}
+
+	/**
+	 * @return number of pairs tested with full SAT in last frame
+	 */
+	public int getSatTests () {
+		return satTests;
+	}
+
+	/**
+	 * @return number of pairs in last frame that were still separated by their cached axis
+	 */
+	public int getAxisHits () {
+		return axisHits;
+	}
+
+	/**
+	 * @return number of pairs in last frame that reused result as neither entity moved
+	 */
+	public int getStaticHits () {
+		return staticHits;
+	}
+
+	public int getCachedPairs () {
+		return pairsByKey.size;
+	}
 
-		return result;
+	public void addContactListener (ContactListener listener) {
+		if (!listeners.contains(listener, true)) listeners.add(listener);
 	}
 
-	private class CollisionResult {
+	public void removeContactListener (ContactListener listener) {
+		listeners.removeValue(listener, true);
+	}
+
+	/**
+	 * Contact events, {@link #end(int, int)} gets lower entity id first
+	 */
+	public interface ContactListener {
+		/** entities started touching this frame */
+		void begin (CollisionResult contact);
+
+		/** entities were touching last frame and still are */
+		void persist (CollisionResult contact);
+
+		/** entities stopped touching or one of them was removed */
+		void end (int entityA, int entityB);
+	}
+
+	private static class Pair implements Pool.Poolable {
+		int entityA;
+		int entityB;
+		int frame;
+		boolean tested;
+		boolean touching;
+		// axis that separated the pair last time it was tested
+		boolean hasAxis;
+		float axisX, axisY;
+		final CollisionResult result = new CollisionResult();
+
+		@Override public void reset () {
+			tested = touching = hasAxis = false;
+			result.reset();
+		}
+	}
+
+	public static class CollisionResult implements Pool.Poolable {
 		public boolean collided;
 		public int entityA;
 		public int entityB;
 		public boolean entityAContained;
 		public boolean entityBContained;
+		/** normal from a to b */
 		public Vector2 vector = new Vector2();
+		/** distance between centers for circles, penetration depth otherwise */
 		public float dst;
+		/** how far a and b have to be moved apart along {@link #vector} to stop colliding */
 		public Vector2 separation = new Vector2();
 
 		public CollisionResult () {
 			reset();
 		}
 
-		public void reset() {
+		@Override public void reset() {
 			collided = false;
 			entityA = -1;
 			entityB = -1;
@@ -270,5 +568,4 @@ public class Collision extends EntitySystem {
 			separation.setZero();
 		}
 	}
-
 }
@@ -0,0 +1,91 @@
+package io.piotrjastrzebski.playground.ecs.sat.processors;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Sweep and prune broadphase over entity AABBs
+ *
+ * Entities are kept sorted by min x, between frames things dont move much so insertion sort is close to linear
+ * Only pairs with overlapping AABBs are reported, each pair once
+ */
+public class SweepAndPrune {
+	private final IntArray order = new IntArray();
+	// bounds by entity id
+	private float[] minX = new float[64];
+	private float[] minY = new float[64];
+	private float[] maxX = new float[64];
+	private float[] maxY = new float[64];
+
+	public void add (int id) {
+		ensureCapacity(id);
+		order.add(id);
+	}
+
+	public void remove (int id) {
+		order.removeValue(id);
+	}
+
+	public void update (int id, Rectangle rect) {
+		minX[id] = rect.x;
+		minY[id] = rect.y;
+		maxX[id] = rect.x + rect.width;
+		maxY[id] = rect.y + rect.height;
+	}
+
+	/**
+	 * @param pairs ids of overlapping pairs are added to it, two values per pair
+	 */
+	public void findPairs (IntArray pairs) {
+		int[] items = order.items;
+		int size = order.size;
+		float[] minX = this.minX;
+		for (int i = 1; i < size; i++) {
+			int id = items[i];
+			float key = minX[id];
+			int j = i - 1;
+			while (j >= 0 && minX[items[j]] > key) {
+				items[j + 1] = items[j];
+				j--;
+			}
+			items[j + 1] = id;
+		}
+		float[] maxX = this.maxX;
+		float[] minY = this.minY;
+		float[] maxY = this.maxY;
+		for (int i = 0; i < size; i++) {
+			int a = items[i];
+			float max = maxX[a];
+			float aMinY = minY[a];
+			float aMaxY = maxY[a];
+			for (int j = i + 1; j < size; j++) {
+				int b = items[j];
+				// sorted, nothing further can overlap on x
+				if (minX[b] >= max) break;
+				// same as Rectangle#overlaps
+				if (minY[b] < aMaxY && maxY[b] > aMinY) {
+					pairs.add(a, b);
+				}
+			}
+		}
+	}
+
+	public int size () {
+		return order.size;
+	}
+
+	private void ensureCapacity (int id) {
+		if (id < minX.length) return;
+		int size = Math.max(id + 1, minX.length * 2);
+		minX = copy(minX, size);
+		minY = copy(minY, size);
+		maxX = copy(maxX, size);
+		maxY = copy(maxY, size);
+	}
+
+	private static float[] copy (float[] src, int size) {
+		float[] dst = new float[size];
+		System.arraycopy(src, 0, dst, 0, src.length);
+		return dst;
+	}
+}
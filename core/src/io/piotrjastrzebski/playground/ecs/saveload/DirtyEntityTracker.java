@@ -0,0 +1,89 @@
+package io.piotrjastrzebski.playground.ecs.saveload;
+
+import com.artemis.Aspect;
+import com.artemis.BaseEntitySystem;
+import com.artemis.utils.BitVector;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * Tracks entities that changed since last save, for incremental saves with {@link KryoWorldSerializer}
+ *
+ * Created and deleted entities are tracked automatically, changes to components must be marked with {@link #markDirty(int)}.
+ * Entity changes are picked up by world process, so saves should happen between world updates
+ */
+public class DirtyEntityTracker extends BaseEntitySystem {
+	private BitVector dirty = new BitVector();
+	private BitVector deleted = new BitVector();
+	private BitVector saved = new BitVector();
+	private IntBag dirtyIds = new IntBag();
+	private IntBag deletedIds = new IntBag();
+
+	public DirtyEntityTracker () {
+		super(Aspect.all());
+	}
+
+	@Override protected void initialize () {
+		setEnabled(false);
+	}
+
+	@Override protected void inserted (int entityId) {
+		dirty.set(entityId);
+	}
+
+	@Override protected void removed (int entityId) {
+		dirty.clear(entityId);
+		// id can be reused by new entity before next save, so it still must be deleted first
+		if (saved.get(entityId)) {
+			deleted.set(entityId);
+			saved.clear(entityId);
+		}
+	}
+
+	/**
+	 * Mark entity as changed, so it is saved in next incremental save
+	 */
+	public void markDirty (int entityId) {
+		dirty.set(entityId);
+	}
+
+	/**
+	 * Write all entities, replacing given file
+	 */
+	public void saveFull (KryoWorldSerializer serializer, FileHandle file) {
+		IntBag entities = getEntityIds();
+		serializer.save(entities, null, file, false);
+		dirty.clear();
+		deleted.clear();
+		saved.clear();
+		int[] ids = entities.getData();
+		for (int i = 0, n = entities.size(); i < n; i++) {
+			saved.set(ids[i]);
+		}
+	}
+
+	/**
+	 * Append changed and deleted entities since last save to given file
+	 * @return count of saved and deleted entities
+	 */
+	public int saveDirty (KryoWorldSerializer serializer, FileHandle file) {
+		dirtyIds.setSize(0);
+		deletedIds.setSize(0);
+		dirty.toIntBag(dirtyIds);
+		deleted.toIntBag(deletedIds);
+		if (dirtyIds.isEmpty() && deletedIds.isEmpty()) return 0;
+		serializer.save(dirtyIds, deletedIds, file, true);
+		saved.or(dirty);
+		dirty.clear();
+		deleted.clear();
+		return dirtyIds.size() + deletedIds.size();
+	}
+
+	public boolean isDirty (int entityId) {
+		return dirty.get(entityId);
+	}
+
+	@Override protected void processSystem () {
+
+	}
+}
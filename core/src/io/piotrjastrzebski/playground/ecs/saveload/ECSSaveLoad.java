@@ -9,12 +9,16 @@ import com.artemis.systems.IteratingSystem;
 import com.artemis.utils.IntBag;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Preferences;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.utils.*;
+import com.kotcrab.vis.ui.widget.VisCheckBox;
 import io.piotrjastrzebski.playground.BaseScreen;
 import io.piotrjastrzebski.playground.GameReset;
 import io.piotrjastrzebski.playground.PlaygroundGame;
@@ -31,6 +35,7 @@ public class ECSSaveLoad extends BaseScreen {
 	private final static String TAG = ECSSaveLoad.class.getSimpleName();
 	private final static String PREFS_GLOBAL = "GLOBAL";
 	private final static String PREFS_CURRENT_GAME = "CURRENT_GAME";
+	private final static String SAVE_FILE = "SAVE_FILE";
 
 	private Preferences prefsGlobal;
 	private Preferences prefsSave;
@@ -52,14 +57,18 @@ public class ECSSaveLoad extends BaseScreen {
 			prefsGlobal.flush();
 		}
 		prefsSave = Gdx.app.getPreferences("ECSSaveLoad."+save_id);
+		// load with same format we saved with last time
+		LCSystem.BINARY = prefsGlobal.getBoolean("binary", false);
 
 		// we need to setup world either way
 		WorldConfiguration config = new WorldConfiguration();
 		config.register(PREFS_GLOBAL, prefsGlobal);
 		config.register(PREFS_CURRENT_GAME, prefsSave);
 		config.register(save = new SaveData());
+		config.register(SAVE_FILE, Gdx.files.local("ECSSaveLoad." + save_id + ".bin"));
 
 		config.setSystem(new WorldSerializationManager());
+		config.setSystem(new DirtyEntityTracker());
 		config.setSystem(new LCSystem());
 		config.setSystem(new LCAssets());
 		config.setSystem(new LCRenderer());
@@ -84,6 +93,17 @@ public class ECSSaveLoad extends BaseScreen {
 		for (LifeCycle lifeCycle : lifeCycles) {
 			lifeCycle.load();
 		}
+
+		final VisCheckBox binary = new VisCheckBox("Binary save");
+		binary.setChecked(LCSystem.BINARY);
+		binary.addListener(new ChangeListener() {
+			@Override public void changed (ChangeEvent event, Actor actor) {
+				LCSystem.BINARY = binary.isChecked();
+				prefsGlobal.putBoolean("binary", LCSystem.BINARY);
+				prefsGlobal.flush();
+			}
+		});
+		root.add(binary);
 	}
 
 	@Override public void render (float delta) {
@@ -194,11 +214,21 @@ public class ECSSaveLoad extends BaseScreen {
 	static class LCSystem extends BaseSystem implements LifeCycle {
 		private static final String TAG = LCSystem.class.getSimpleName();
 		private final static String CHARSET = "UTF-8";
+		/**
+		 * Save with {@link KryoWorldSerializer} to a file, only changed entities are appended after first save, json in preferences otherwise
+		 */
+		public static boolean BINARY = false;
 		@Wire(name = PREFS_CURRENT_GAME) Preferences prefs;
+		@Wire(name = SAVE_FILE) FileHandle saveFile;
 		@Wire SaveData saveData;
 		@Wire WorldSerializationManager wsm;
+		@Wire DirtyEntityTracker tracker;
+		private KryoWorldSerializer binary;
+		// ids in the file don't match the world after load, so we need to start over
+		private boolean fullSave = true;
 
 		@Override protected void initialize () {
+			binary = new KryoWorldSerializer(world);
 			JsonArtemisSerializer serializer = new JsonArtemisSerializer(world);
 			serializer.prettyPrint(true);
 			serializer.setUsePrototypes(false);
@@ -220,6 +250,7 @@ public class ECSSaveLoad extends BaseScreen {
 
 		@Override public void create () {
 			Gdx.app.log(TAG, "create");
+			saveFile.delete();
 			for (int i = 0; i < 20; i++) {
 				EntityEdit edit = world.edit(world.create());
 				edit.create(LCAsset.class).tint.set(MathUtils.random(), MathUtils.random(), MathUtils.random(), 1);
@@ -239,6 +270,10 @@ public class ECSSaveLoad extends BaseScreen {
 
 		@Override public void save () {
 			Gdx.app.log(TAG, "save");
+			if (BINARY) {
+				saveBinary();
+				return;
+			}
 
 			final EntitySubscription allEntities = world.getSystem(AspectSubscriptionManager.class).get(Aspect.all());
 
@@ -254,8 +289,34 @@ public class ECSSaveLoad extends BaseScreen {
 
 		}
 
+		private void saveBinary () {
+			try {
+				long start = TimeUtils.nanoTime();
+				if (fullSave || !saveFile.exists()) {
+					tracker.saveFull(binary, saveFile);
+					fullSave = false;
+				} else {
+					tracker.saveDirty(binary, saveFile);
+				}
+				Gdx.app.log(TAG, "Saved in " + TimeUtils.timeSinceNanos(start) / 1000 + "us, " + saveFile.length() + " bytes");
+			} catch (Exception e) {
+				Gdx.app.error(TAG, "Save Failed", e);
+			}
+		}
+
 		@Override public void load () {
 			Gdx.app.log(TAG, "load");
+			if (BINARY) {
+				try {
+					if (saveFile.exists()) {
+						binary.load(saveFile);
+					}
+				} catch (Exception e) {
+					Gdx.app.error(TAG, "Load Failed", e);
+				}
+				fullSave = true;
+				return;
+			}
 
 			try {
 				final String json = prefs.getString("save_data", null);
@@ -0,0 +1,278 @@
+package io.piotrjastrzebski.playground.ecs.saveload;
+
+import com.artemis.Component;
+import com.artemis.Entity;
+import com.artemis.EntityEdit;
+import com.artemis.World;
+import com.artemis.annotations.EntityId;
+import com.artemis.utils.Bag;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.channels.Channels;
+
+/**
+ * Binary, streaming alternative to JsonArtemisSerializer, components are written with {@link Kryo}
+ *
+ * Each save writes a segment, segments can be appended to existing file to save only changed entities, see {@link DirtyEntityTracker}.
+ * Segment is: magic, version, deleted entity ids, saved entity ids, then components of each saved entity.
+ * Loading replays all segments in order, ids in file are mapped to new entities, so all segments in a file must come from same world,
+ * write a full save after loading.
+ *
+ * Entity fields and {@link EntityId} int and {@link IntBag} fields are remapped on load, references to entities that were not saved end up as null or -1.
+ * Components are created by Kryo, so they need no arg constructors, transient fields are skipped.
+ */
+public class KryoWorldSerializer {
+	/**
+	 * 'AKWS' in ascii
+	 */
+	public static final int MAGIC = 0x414B5753;
+	public static final int VERSION = 1;
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	protected final World world;
+	protected final Kryo kryo;
+	/** id in file to id in world */
+	private IntIntMap remap = new IntIntMap();
+	private ObjectMap<Class<?>, Field[]> entityIdFields = new ObjectMap<>();
+	private Bag<Component> components = new Bag<>();
+	private IntBag loaded = new IntBag();
+	private IntBag segment = new IntBag();
+	private boolean loading;
+
+	public KryoWorldSerializer (World world) {
+		this.world = world;
+		kryo = new Kryo();
+		kryo.setRegistrationRequired(false);
+		// components can be shared between entities or reference each other
+		kryo.setReferences(true);
+		// we reset after each segment, so class names are written once per segment
+		kryo.setAutoReset(false);
+		kryo.register(Entity.class, new EntitySerializer());
+	}
+
+	/**
+	 * Register component class, so it is written as an int and not a name, must match when loading
+	 */
+	public void register (Class<?> type) {
+		kryo.register(type);
+	}
+
+	public void register (Class<?> type, Serializer<?> serializer) {
+		kryo.register(type, serializer);
+	}
+
+	/**
+	 * Write a segment with given entities, stream is flushed but not closed
+	 */
+	public void save (IntBag entities, OutputStream os) {
+		save(entities, null, os);
+	}
+
+	/**
+	 * Write a segment with given entities, and ids of deleted entities, stream is flushed but not closed
+	 * @param deleted ids of entities deleted since previous segment, or null
+	 */
+	public void save (IntBag entities, IntBag deleted, OutputStream os) {
+		Output output = new Output(os, BUFFER_SIZE);
+		try {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			writeIds(output, deleted);
+			writeIds(output, entities);
+			int[] ids = entities.getData();
+			for (int i = 0, n = entities.size(); i < n; i++) {
+				components.clear();
+				world.getEntity(ids[i]).getComponents(components);
+				output.writeVarInt(components.size(), true);
+				for (int j = 0; j < components.size(); j++) {
+					kryo.writeClassAndObject(output, components.get(j));
+				}
+			}
+			output.flush();
+		} finally {
+			kryo.reset();
+			components.clear();
+		}
+	}
+
+	private void writeIds (Output output, IntBag ids) {
+		int size = ids != null ? ids.size() : 0;
+		output.writeVarInt(size, true);
+		for (int i = 0; i < size; i++) {
+			output.writeVarInt(ids.get(i), true);
+		}
+	}
+
+	/**
+	 * Save given entities, to a file channel
+	 * @param append if true segment is added at the end of the file, use for incremental saves
+	 */
+	public void save (IntBag entities, IntBag deleted, FileHandle file, boolean append) {
+		file.parent().mkdirs();
+		FileOutputStream fos = null;
+		try {
+			fos = new FileOutputStream(file.file(), append);
+			save(entities, deleted, Channels.newOutputStream(fos.getChannel()));
+		} catch (IOException ex) {
+			throw new GdxRuntimeException("Error writing file: " + file, ex);
+		} finally {
+			StreamUtils.closeQuietly(fos);
+		}
+	}
+
+	/**
+	 * Load all segments from given stream, stream is not closed
+	 * @return ids of created entities, valid until next load
+	 */
+	public IntBag load (InputStream is) {
+		loaded.setSize(0);
+		remap.clear();
+		Input input = new Input(is, BUFFER_SIZE);
+		loading = true;
+		try {
+			while (!input.eof()) {
+				readSegment(input);
+				kryo.reset();
+			}
+		} finally {
+			loading = false;
+			kryo.reset();
+		}
+		return loaded;
+	}
+
+	public IntBag load (FileHandle file) {
+		FileInputStream fis = null;
+		try {
+			fis = new FileInputStream(file.file());
+			return load(Channels.newInputStream(fis.getChannel()));
+		} catch (IOException ex) {
+			throw new GdxRuntimeException("Error reading file: " + file, ex);
+		} finally {
+			StreamUtils.closeQuietly(fis);
+		}
+	}
+
+	private void readSegment (Input input) {
+		if (input.readInt() != MAGIC) throw new GdxRuntimeException("Not a world save");
+		int version = input.readInt();
+		if (version != VERSION) throw new GdxRuntimeException("Unsupported version " + version);
+		int deleted = input.readVarInt(true);
+		for (int i = 0; i < deleted; i++) {
+			int id = input.readVarInt(true);
+			int entity = remap.remove(id, -1);
+			if (entity != -1) {
+				world.delete(entity);
+				loaded.removeValue(entity);
+			}
+		}
+		int count = input.readVarInt(true);
+		segment.setSize(0);
+		// create all entities first, so references can be resolved
+		for (int i = 0; i < count; i++) {
+			int id = input.readVarInt(true);
+			int entity = remap.get(id, -1);
+			if (entity == -1) {
+				entity = world.create();
+				remap.put(id, entity);
+			} else {
+				clearComponents(entity);
+				loaded.removeValue(entity);
+			}
+			segment.add(entity);
+		}
+		loaded.addAll(segment);
+		for (int i = 0; i < count; i++) {
+			EntityEdit edit = world.edit(segment.get(i));
+			int size = input.readVarInt(true);
+			for (int j = 0; j < size; j++) {
+				Component component = (Component)kryo.readClassAndObject(input);
+				remapEntityIds(component);
+				edit.add(component);
+			}
+		}
+	}
+
+	private void clearComponents (int entity) {
+		components.clear();
+		world.getEntity(entity).getComponents(components);
+		EntityEdit edit = world.edit(entity);
+		for (int i = 0; i < components.size(); i++) {
+			edit.remove(components.get(i));
+		}
+		components.clear();
+	}
+
+	private void remapEntityIds (Component component) {
+		Field[] fields = getEntityIdFields(component.getClass());
+		if (fields.length == 0) return;
+		try {
+			for (Field field : fields) {
+				if (field.getType() == int.class) {
+					field.setInt(component, remap.get(field.getInt(component), -1));
+				} else {
+					IntBag bag = (IntBag)field.get(component);
+					if (bag == null) continue;
+					int[] data = bag.getData();
+					for (int i = 0; i < bag.size(); i++) {
+						data[i] = remap.get(data[i], -1);
+					}
+				}
+			}
+		} catch (IllegalAccessException ex) {
+			throw new GdxRuntimeException("Unable to remap entity ids in " + component, ex);
+		}
+	}
+
+	private Field[] getEntityIdFields (Class<?> type) {
+		Field[] fields = entityIdFields.get(type);
+		if (fields != null) return fields;
+		Array<Field> found = new Array<>(Field.class);
+		for (Class<?> current = type; current != Component.class && current != null; current = current.getSuperclass()) {
+			for (Field field : current.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) continue;
+				if (!field.isAnnotationPresent(EntityId.class)) continue;
+				if (field.getType() != int.class && field.getType() != IntBag.class) continue;
+				field.setAccessible(true);
+				found.add(field);
+			}
+		}
+		fields = found.toArray();
+		entityIdFields.put(type, fields);
+		return fields;
+	}
+
+	public Kryo getKryo () {
+		return kryo;
+	}
+
+	private class EntitySerializer extends Serializer<Entity> {
+		@Override public void write (Kryo kryo, Output output, Entity entity) {
+			output.writeVarInt(entity.getId(), true);
+		}
+
+		@Override public Entity read (Kryo kryo, Input input, Class<Entity> type) {
+			int id = input.readVarInt(true);
+			if (!loading) return null;
+			int entity = remap.get(id, -1);
+			return entity != -1 ? world.getEntity(entity) : null;
+		}
+	}
+}
@@ -1,86 +1,104 @@
 package io.piotrjastrzebski.playground.isotiled.partitions;
 
-import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.IntMap;
-import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.IntArray;
 
 /**
+ * Scanline flood fill over int[] type grid, x + y * width
+ *
+ * Fills whole horizontal runs of tiles and queues one seed per run in the rows above and below
+ * Not thread safe, use an instance per thread
+ *
  * Created by EvilEntity on 07/01/2016.
  */
 class FloodFiller {
-	private FloodFiller () {
-	}
+	private long[] visited = new long[0];
+	// ring buffer of tile ids to fill from, capacity is power of 2
+	private int[] queue = new int[64];
+	private int head;
+	private int size;
 
-	public static void floodFill (int x, int y, TileMap tileMap, ObjectSet<Tile> out) {
-		floodFill(x, y, 0, 0, tileMap.mapWidth - 1, tileMap.mapHeight - 1, tileMap, out);
+	public IntArray floodFill (int x, int y, TileMap tileMap, IntArray out) {
+		return floodFill(tileMap.types, tileMap.mapWidth, tileMap.mapHeight, x, y, 0, 0, tileMap.mapWidth - 1, tileMap.mapHeight - 1, out);
 	}
 
-	public static void floodFill (int x, int y, MapRegion region, TileMap tileMap, ObjectSet<Tile> out) {
-		floodFill(x, y, region.x, region.y, region.x + region.size - 1, region.y + region.size - 1, tileMap, out);
+	public IntArray floodFill (int x, int y, MapRegion region, TileMap tileMap, IntArray out) {
+		return floodFill(tileMap.types, tileMap.mapWidth, tileMap.mapHeight, x, y, region.x, region.y,
+			region.x + region.size - 1, region.y + region.size - 1, out);
 	}
 
-	private static Array<Tile> queue = new Array<>(false, 16);
-	private static IntMap<Tile> processed = new IntMap<>();
-
 	/**
-	 * Find all connected tiles starting from tile at x, y within given bounds
+	 * Find all connected tiles of same type starting from tile at x, y within given inclusive bounds
+	 *
+	 * @param out cleared and filled with ids of found tiles
+	 * @return out
 	 */
-	public static void floodFill (int x, int y, int sx, int sy, int ex, int ey, TileMap tileMap, ObjectSet<Tile> out) {
+	public IntArray floodFill (int[] types, int width, int height, int x, int y, int sx, int sy, int ex, int ey, IntArray out) {
 		out.clear();
-		processed.clear();
-		queue.clear();
-		Tile start = tileMap.getTileAt(x, y);
-		if (start == null)
+		if (x < 0 || y < 0 || x >= width || y >= height)
 			throw new AssertionError("Tile cant be null here!");
-		queue.add(start);
-		while (queue.size > 0) {
-			Tile tile = queue.removeIndex(0);
-			if (tile.type != start.type)
-				continue;
-			if (processed.containsKey(tile.id))
-				continue;
-			processed.put(tile.id, tile);
-			out.add(tile);
-			Tile west = getWestEdge(tile, sx, sy, ex, ey, tileMap);
-			Tile east = getEastEdge(tile, sx, sy, ex, ey, tileMap);
+		// clamp bounds to the map
+		if (sx < 0) sx = 0;
+		if (sy < 0) sy = 0;
+		if (ex >= width) ex = width - 1;
+		if (ey >= height) ey = height - 1;
+		int words = (width * height + 63) >>> 6;
+		if (visited.length < words) visited = new long[words];
+		final long[] visited = this.visited;
 
-			for (int nx = west.x; nx <= east.x; nx++) {
-				Tile next = tileMap.getTileAt(nx, west.y);
-				if (next == null)
-					throw new AssertionError("Tile cant be null here!");
-				processed.put(next.id, next);
-				out.add(next);
-				Tile north = tileMap.getTileAt(nx, west.y + 1);
-				if (north != null && north.x >= sx && north.x <= ex && north.y >= sy && north.y <= ey && north.type == start.type
-					&& !processed.containsKey(north.id)) {
-					queue.add(north);
-				}
-				Tile south = tileMap.getTileAt(nx, west.y - 1);
-				if (south != null && south.x >= sx && south.x <= ex && south.y >= sy && south.y <= ey && south.type == start.type
-					&& !processed.containsKey(south.id)) {
-					queue.add(south);
-				}
+		int target = types[x + y * width];
+		head = 0;
+		size = 0;
+		push(x + y * width);
+		while (size > 0) {
+			int id = queue[head];
+			head = (head + 1) & (queue.length - 1);
+			size--;
+			if ((visited[id >>> 6] & (1L << id)) != 0) continue;
+			int ty = id / width;
+			int row = ty * width;
+			int tx = id - row;
+			// find the run, runs are maximal so no tile in it can be visited already
+			int west = tx;
+			while (west > sx && types[row + west - 1] == target) west--;
+			int east = tx;
+			while (east < ex && types[row + east + 1] == target) east++;
+			for (int i = row + west, end = row + east; i <= end; i++) {
+				visited[i >>> 6] |= 1L << i;
+				out.add(i);
 			}
+			if (ty < ey) scan(types, visited, row + width, west, east, target);
+			if (ty > sy) scan(types, visited, row - width, west, east, target);
 		}
+		// leave the mask clear for next fill, cheaper than clearing all of it for small fills
+		int[] items = out.items;
+		for (int i = 0, n = out.size; i < n; i++) {
+			visited[items[i] >>> 6] = 0;
+		}
+		return out;
 	}
 
-	private static Tile getWestEdge (Tile tile, int sx, int sy, int ex, int ey, TileMap tiles) {
-		return getEdge(tile, -1, sx, sy, ex, ey, tiles);
-	}
-
-	private static Tile getEastEdge (Tile tile, int sx, int sy, int ex, int ey, TileMap tiles) {
-		return getEdge(tile, 1, sx, sy, ex, ey, tiles);
+	/**
+	 * Queue first tile of each run of fillable tiles in [west, east] of given row
+	 */
+	private void scan (int[] types, long[] visited, int row, int west, int east, int target) {
+		boolean inRun = false;
+		for (int i = row + west, end = row + east; i <= end; i++) {
+			boolean fillable = types[i] == target && (visited[i >>> 6] & (1L << i)) == 0;
+			if (fillable && !inRun) push(i);
+			inRun = fillable;
+		}
 	}
 
-	private static Tile getEdge (Tile tile, int offset, int sx, int sy, int ex, int ey, TileMap tiles) {
-		while (true) {
-			Tile next = tiles.getTileAt(tile.x + offset, tile.y);
-			if (next != null && next.x >= sx && next.x <= ex && next.y >= sy && next.y <= ey && next.type == tile.type) {
-				tile = next;
-			} else {
-				break;
+	private void push (int id) {
+		if (size == queue.length) {
+			int[] grown = new int[queue.length * 2];
+			for (int i = 0; i < size; i++) {
+				grown[i] = queue[(head + i) & (queue.length - 1)];
 			}
+			queue = grown;
+			head = 0;
 		}
-		return tile;
+		queue[(head + size) & (queue.length - 1)] = id;
+		size++;
 	}
 }
@@ -4,8 +4,6 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.*;
 
-import java.util.Comparator;
-
 /**
  * Created by EvilEntity on 07/01/2016.
  */
@@ -46,33 +44,29 @@ class MapRegion {
 			sub.clear(tileMap);
 		}
 
-		added.clear();
 		subRegionPool.freeAll(subs);
 		subs.clear();
 	}
 
-	private static ObjectSet<Tile> found = new ObjectSet<>();
-	private static ObjectSet<Tile> added = new ObjectSet<>();
-	public void rebuild (TileMap tileMap) {
+	/**
+	 * Replace sub regions with ones computed by {@link RegionBuilder}, region must be cleared first
+	 */
+	public void apply (RegionBuilder.Build build, TileMap tileMap) {
+		for (int i = 0; i < build.subTypes.size; i++) {
+			subs.add(subRegionPool.obtain().init(i, this));
+		}
+		int[] labels = build.labels;
+		// sorted by x, then y
 		for (int tx = x; tx < x + size; tx++) {
 			for (int ty = y; ty < y + size; ty++) {
-				found.clear();
 				Tile tile = tileMap.getTileAt(tx, ty);
-				if (tile == null || added.contains(tile)) continue;
-				SubRegion sub = subRegionPool.obtain().init(subs.size, this);
-				subs.add(sub);
-				FloodFiller.floodFill(tx, ty, this, tileMap, found);
-				added.addAll(found);
-				for (Tile t : found) {
-					sub.add(t);
-				}
+				if (tile == null) continue;
+				subs.get(labels[(tx - x) + (ty - y) * size]).add(tile);
 			}
 		}
-	}
-
-	public void rebuildSubRegions(TileMap tileMap) {
-		for (SubRegion sub : subs) {
-			sub.rebuild(tileMap);
+		// tiles could have changed since the snapshot, they will be rebuilt in next batch
+		for (int i = 0; i < subs.size; i++) {
+			subs.get(i).tileType = build.subTypes.get(i);
 		}
 	}
 
@@ -108,20 +102,6 @@ class MapRegion {
 	}
 
 	public static class SubRegion implements Pool.Poolable {
-		private static Comparator<Tile> tileXComp = new Comparator<Tile>() {
-			@Override public int compare (Tile o1, Tile o2) {
-				if (o1.y == o2.y) return o1.x - o2.x;
-				return o1.y - o2.y;
-			}
-		};
-
-		private static Comparator<Tile> tileYComp = new Comparator<Tile>() {
-			@Override public int compare (Tile o1, Tile o2) {
-				if (o1.x == o2.x) return o1.y - o2.y;
-				return o1.x - o2.x;
-			}
-		};
-
 		public MapRegion parent;
 		public int id;
 		public int tileType;
@@ -140,107 +120,6 @@ class MapRegion {
 			return this;
 		}
 
-		public void rebuild(TileMap map) {
-			map.clear(this);
-			// tiles are sorted so it is easier to find next tile in order
-			tiles.sort(tileXComp);
-			findHorizontalEdges(map, -1, 0);
-			findHorizontalEdges(map, 1, 1);
-			tiles.sort(tileYComp);
-			findVerticalEdges(map, -1, 0);
-			findVerticalEdges(map, 1, 1);
-		}
-
-		private void findHorizontalEdges (TileMap map, int offsetY, int endOffsetY) {
-			// we need to find 2 types of edges, edges in this sub region, and edges in regions to the side
-			int currentId = 0;
-			// go over all tiles in this region
-			while (currentId < tiles.size) {
-				// first tile of this edge
-				Tile start = tiles.get(currentId);
-				// check if tile below this one belongs to this sub, if so go to next one
-				Tile next = map.getTileAt(start.x, start.y + offsetY);
-				// we are at the edge
-				if (next == null) {
-					currentId++;
-					continue;
-				}
-				// this should never be null, as we skip the bottom edge of the map
-				if (next.subRegion == this) {
-					currentId++;
-					continue;
-				}
-				int otherType = next.type;
-				Tile end = start;
-				// go in a given direction until we encounter a tile that doesnt match
-				for (int i = currentId + 1; i < tiles.size ; i++) {
-					Tile tile = tiles.get(i);
-					// next row, we are done
-					if (end.y != tile.y) break;
-					// next tile is not adjacent to last one
-					if (end.x + 1 != tile.x) break;
-					next = map.getTileAt(tile.x, tile.y + offsetY);
-					// no tile, its at the map bounds
-					if (next == null) break;
-					// we dont want edges inside the regions
-					if (next.subRegion == this) break;
-					// if type of the other tile changes, we want an edge
-					if (otherType != next.type) break;
-					end = tile;
-					currentId = i;
-				}
-				int edge = map.setHorizontalEdge(this, start.x, start.y + endOffsetY, end.x - start.x + 1);
-				edgeIds.add(edge);
-				currentId++;
-			}
-		}
-
-		private void findVerticalEdges (TileMap map, int offsetX, int endOffsetX) {
-			// we need to find 2 types of edges, edges in this sub region, and edges in regions to the side
-			int currentId = 0;
-			// go over all tiles in this region
-			while (currentId < tiles.size) {
-				// first tile of this edge
-				Tile start = tiles.get(currentId);
-				// check if tile below this one belongs to this sub, if so go to next one
-				Tile next = map.getTileAt(start.x + offsetX, start.y);
-				// we are at the edge
-				if (next == null) {
-					currentId++;
-					continue;
-				}
-				// this should never be null, as we skip the bottom edge of the map
-				if (next.subRegion == this) {
-					currentId++;
-					continue;
-				}
-				int otherType = next.type;
-				Tile end = start;
-				// go in a given direction until we encounter a tile that doesnt match
-				for (int i = currentId + 1; i < tiles.size ; i++) {
-					Tile tile = tiles.get(i);
-					// next row, we are done
-					if (end.x != tile.x) break;
-					// next tile is not adjacent to last one
-					if (end.y + 1 != tile.y) break;
-					next = map.getTileAt(tile.x + offsetX, tile.y);
-					// no tile, its at the map bounds
-					if (next == null) break;
-					// we dont want edges inside the regions
-					if (next.subRegion == this) break;
-					// if type of the other tile changes, we want an edge
-					if (otherType != next.type) break;
-					end = tile;
-					currentId = i;
-				}
-				int edge = map.setVerticalEdge(this, start.x + endOffsetX, start.y, end.y - start.y + 1);
-				edgeIds.add(edge);
-				currentId++;
-			}
-
-
-		}
-
 		public void add (Tile tile) {
 			if (tiles.contains(tile, true)) throw new AssertionError("Tile already added!");
 			tiles.add(tile);
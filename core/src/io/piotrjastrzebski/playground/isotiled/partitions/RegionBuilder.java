@@ -0,0 +1,143 @@
+package io.piotrjastrzebski.playground.isotiled.partitions;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Computes sub regions of a {@link MapRegion} and their edges from a snapshot of tile types, x + y * mapWidth
+ *
+ * Does not touch the live map, so it can run on a worker thread, result is applied with {@link TileMap#update()}
+ * Not thread safe, use an instance per thread
+ */
+class RegionBuilder {
+	private final FloodFiller floodFiller = new FloodFiller();
+	private final IntArray found = new IntArray();
+
+	/**
+	 * @param types snapshot of tile types, must not change while this runs
+	 */
+	public Build build (int[] types, int mapWidth, int mapHeight, Build out) {
+		MapRegion region = out.region;
+		int size = region.size;
+		if (out.labels.length < size * size) out.labels = new int[size * size];
+		final int[] labels = out.labels;
+		for (int i = 0; i < size * size; i++) {
+			labels[i] = -1;
+		}
+		out.subTypes.clear();
+		out.edges.clear();
+		out.edgeOffsets.clear();
+		int ex = Math.min(region.x + size, mapWidth);
+		int ey = Math.min(region.y + size, mapHeight);
+		// same order as sub regions were found in before, so their ids dont change
+		for (int tx = region.x; tx < ex; tx++) {
+			for (int ty = region.y; ty < ey; ty++) {
+				if (labels[(tx - region.x) + (ty - region.y) * size] >= 0) continue;
+				int sub = out.subTypes.size;
+				out.subTypes.add(types[tx + ty * mapWidth]);
+				floodFiller.floodFill(types, mapWidth, mapHeight, tx, ty, region.x, region.y, ex - 1, ey - 1, found);
+				int[] items = found.items;
+				for (int i = 0; i < found.size; i++) {
+					int id = items[i];
+					int x = id % mapWidth;
+					int y = id / mapWidth;
+					labels[(x - region.x) + (y - region.y) * size] = sub;
+				}
+			}
+		}
+		for (int sub = 0; sub < out.subTypes.size; sub++) {
+			out.edgeOffsets.add(out.edges.size);
+			horizontalEdges(types, mapWidth, mapHeight, out, sub, -1, 0);
+			horizontalEdges(types, mapWidth, mapHeight, out, sub, 1, 1);
+			verticalEdges(types, mapWidth, out, sub, -1, 0);
+			verticalEdges(types, mapWidth, out, sub, 1, 1);
+		}
+		out.edgeOffsets.add(out.edges.size);
+		return out;
+	}
+
+	/**
+	 * Edges between sub and tiles above or below it, each run of tiles facing same type of other tile is an edge
+	 */
+	private void horizontalEdges (int[] types, int mapWidth, int mapHeight, Build out, int sub, int offsetY, int endOffsetY) {
+		MapRegion region = out.region;
+		int size = region.size;
+		int[] labels = out.labels;
+		for (int ly = 0; ly < size; ly++) {
+			int y = region.y + ly;
+			int ny = y + offsetY;
+			int start = -1;
+			int otherType = -1;
+			for (int lx = 0; lx < size; lx++) {
+				int type = -1;
+				// tiles at map bounds and next to same sub dont have edges
+				if (labels[lx + ly * size] == sub && ny >= 0 && ny < mapHeight
+					&& (ny < region.y || ny >= region.y + size || labels[lx + (ny - region.y) * size] != sub)) {
+					type = types[region.x + lx + ny * mapWidth];
+				}
+				if (start >= 0 && type != otherType) {
+					out.edges.add(TileMap.packEdgeId(region.x + start, y + endOffsetY, lx - start, true));
+					start = -1;
+				}
+				if (start < 0 && type >= 0) {
+					start = lx;
+					otherType = type;
+				}
+			}
+			if (start >= 0) {
+				out.edges.add(TileMap.packEdgeId(region.x + start, y + endOffsetY, size - start, true));
+			}
+		}
+	}
+
+	/**
+	 * Edges between sub and tiles to the left or right of it
+	 */
+	private void verticalEdges (int[] types, int mapWidth, Build out, int sub, int offsetX, int endOffsetX) {
+		MapRegion region = out.region;
+		int size = region.size;
+		int[] labels = out.labels;
+		for (int lx = 0; lx < size; lx++) {
+			int x = region.x + lx;
+			int nx = x + offsetX;
+			int start = -1;
+			int otherType = -1;
+			for (int ly = 0; ly < size; ly++) {
+				int type = -1;
+				if (labels[lx + ly * size] == sub && nx >= 0 && nx < mapWidth
+					&& (nx < region.x || nx >= region.x + size || labels[(nx - region.x) + ly * size] != sub)) {
+					type = types[nx + (region.y + ly) * mapWidth];
+				}
+				if (start >= 0 && type != otherType) {
+					out.edges.add(TileMap.packEdgeId(x + endOffsetX, region.y + start, ly - start, false));
+					start = -1;
+				}
+				if (start < 0 && type >= 0) {
+					start = ly;
+					otherType = type;
+				}
+			}
+			if (start >= 0) {
+				out.edges.add(TileMap.packEdgeId(x + endOffsetX, region.y + start, size - start, false));
+			}
+		}
+	}
+
+	/**
+	 * Sub regions and edges of single region
+	 */
+	public static class Build implements Pool.Poolable {
+		public MapRegion region;
+		/** sub region index of each tile in region, local x + local y * size */
+		public int[] labels = new int[0];
+		/** tile type of each sub region */
+		public final IntArray subTypes = new IntArray();
+		/** packed edge ids of all sub regions, edges of sub i are in [edgeOffsets[i], edgeOffsets[i + 1]) */
+		public final IntArray edges = new IntArray();
+		public final IntArray edgeOffsets = new IntArray();
+
+		@Override public void reset () {
+			region = null;
+		}
+	}
+}
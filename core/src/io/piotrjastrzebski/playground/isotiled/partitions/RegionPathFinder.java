@@ -0,0 +1,382 @@
+package io.piotrjastrzebski.playground.isotiled.partitions;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+import io.piotrjastrzebski.playground.isotiled.partitions.MapRegion.SubRegion;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical path finder over {@link TileMap} sub regions
+ *
+ * First A* runs over sub regions connected by edges, each entered at the middle of an edge,
+ * giving a corridor of sub regions from start to goal, then tile A* runs only over tiles in that corridor
+ * Corridors are cached by start and goal sub region until next rebuild of the map is published
+ *
+ * Paths are 4 connected, walls are not passable
+ * Not thread safe, use an instance per thread
+ */
+class RegionPathFinder {
+	public static final int WALL = 1;
+	/**
+	 * Weight of remaining distance in sub region search, 1 expands most of the open area between start and goal
+	 * Larger values expand a lot less sub regions, for slightly longer paths
+	 */
+	public float heuristicWeight = 1.2f;
+	/** cache is cleared when it gets larger than this */
+	public int maxCacheSize = 4096;
+
+	private final TileMap map;
+	private final LongMap<Array<SubRegion>> cache = new LongMap<>();
+	private final Array<SubRegion> noPath = new Array<>(0);
+	private int version;
+	private int hits;
+	private int misses;
+
+	// sub region search, node is entered at x, y, through the cheapest edge found so far
+	private static final int NONE = -2;
+	// node of each sub region by region id * region size^2 + sub id, valid if stamp matches
+	private final int[] subStamps;
+	private final int[] subNodes;
+	private int subStamp;
+	private int nodes;
+	private float[] nodeX = new float[64];
+	private float[] nodeY = new float[64];
+	private int[] nodeParents = new int[64];
+	private float[] nodeCosts = new float[64];
+	private SubRegion[] nodeSubs = new SubRegion[64];
+	private boolean[] nodeClosed = new boolean[64];
+
+	// tile search, arrays are reset lazily by comparing stamps
+	private int[] tileStamps;
+	private int[] tileParents;
+	private int[] tileCosts;
+	private int stamp;
+	// tiles of current corridor
+	private final int[] corridorStamps;
+	private int corridorStamp;
+
+	private final Heap heap = new Heap();
+
+	public RegionPathFinder (TileMap map) {
+		this.map = map;
+		int size = map.mapWidth * map.mapHeight;
+		tileStamps = new int[size];
+		tileParents = new int[size];
+		tileCosts = new int[size];
+		corridorStamps = new int[size];
+		// at most one sub region per tile
+		subStamps = new int[map.regions.length * map.regionSize * map.regionSize];
+		subNodes = new int[subStamps.length];
+		version = map.getVersion();
+	}
+
+	/**
+	 * @param out cleared and filled with tile ids of the path, including start and goal
+	 * @return if there is a path
+	 */
+	public boolean findPath (int sx, int sy, int ex, int ey, IntArray out) {
+		out.clear();
+		Array<SubRegion> subs = corridor(sx, sy, ex, ey);
+		if (subs == null) return false;
+		if (++corridorStamp == 0) {
+			Arrays.fill(corridorStamps, 0);
+			corridorStamp = 1;
+		}
+		for (SubRegion sub : subs) {
+			for (Tile tile : sub.tiles) {
+				corridorStamps[tile.id] = corridorStamp;
+			}
+		}
+		return findTilePath(sx, sy, ex, ey, true, out);
+	}
+
+	/**
+	 * Plain tile A* over whole map, slower but path is always shortest
+	 *
+	 * @param out cleared and filled with tile ids of the path, including start and goal
+	 * @return if there is a path
+	 */
+	public boolean findTilePath (int sx, int sy, int ex, int ey, IntArray out) {
+		out.clear();
+		if (!isPassable(sx, sy) || !isPassable(ex, ey)) return false;
+		return findTilePath(sx, sy, ex, ey, false, out);
+	}
+
+	/**
+	 * @param out cleared and filled with sub regions path from start to goal will go through, in no particular order
+	 * @return if there is a path
+	 */
+	public boolean findCorridor (int sx, int sy, int ex, int ey, Array<SubRegion> out) {
+		out.clear();
+		Array<SubRegion> subs = corridor(sx, sy, ex, ey);
+		if (subs == null) return false;
+		out.addAll(subs);
+		return true;
+	}
+
+	/**
+	 * @return cached corridor, must not be modified, null if there is no path
+	 */
+	private Array<SubRegion> corridor (int sx, int sy, int ex, int ey) {
+		if (version != map.getVersion()) {
+			// sub regions may be freed and reused, nothing cached is valid
+			cache.clear();
+			version = map.getVersion();
+		}
+		if (!isPassable(sx, sy) || !isPassable(ex, ey)) return null;
+		SubRegion start = map.getTileAt(sx, sy).subRegion;
+		SubRegion goal = map.getTileAt(ex, ey).subRegion;
+		long key = (long)key(start) << 32 | key(goal);
+		Array<SubRegion> subs = cache.get(key);
+		if (subs != null) {
+			hits++;
+			return subs == noPath? null : subs;
+		}
+		misses++;
+		if (cache.size >= maxCacheSize) cache.clear();
+		subs = searchSubs(start, goal, ex + .5f, ey + .5f, sx + .5f, sy + .5f);
+		cache.put(key, subs == null? noPath : subs);
+		return subs;
+	}
+
+	private Array<SubRegion> searchSubs (SubRegion start, SubRegion goal, float gx, float gy, float sx, float sy) {
+		if (start == goal) {
+			Array<SubRegion> subs = new Array<>(1);
+			subs.add(start);
+			return subs;
+		}
+		if (++subStamp == 0) {
+			Arrays.fill(subStamps, 0);
+			subStamp = 1;
+		}
+		nodes = 0;
+		heap.clear();
+		int first = node(start);
+		nodeCosts[first] = 0;
+		nodeParents[first] = -1;
+		nodeX[first] = sx;
+		nodeY[first] = sy;
+		heap.add(first, 0);
+		while (heap.size > 0) {
+			int node = heap.pop();
+			// stale entry, node was reached cheaper after it was queued
+			if (nodeClosed[node]) continue;
+			nodeClosed[node] = true;
+			SubRegion sub = nodeSubs[node];
+			if (sub == goal) {
+				Array<SubRegion> subs = new Array<>();
+				for (int n = node; n >= 0; n = nodeParents[n]) {
+					subs.add(nodeSubs[n]);
+				}
+				return subs;
+			}
+			float cost = nodeCosts[node];
+			float fx = nodeX[node];
+			float fy = nodeY[node];
+			IntArray edgeIds = sub.edgeIds;
+			for (int i = 0; i < edgeIds.size; i++) {
+				Edge edge = map.getEdge(edgeIds.get(i));
+				SubRegion to = edge.subA == sub? edge.subB : edge.subA;
+				if (to == null || to.tileType == WALL) continue;
+				float ex = midX(edge);
+				float ey = midY(edge);
+				relax(to, node, cost + Math.abs(ex - fx) + Math.abs(ey - fy), ex, ey, gx, gy);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Enter sub region at x, y if it is cheaper than what we had
+	 */
+	private void relax (SubRegion to, int parent, float cost, float x, float y, float gx, float gy) {
+		int node = node(to);
+		if (nodeClosed[node] || (nodeParents[node] != NONE && nodeCosts[node] <= cost)) return;
+		nodeParents[node] = parent;
+		nodeCosts[node] = cost;
+		nodeX[node] = x;
+		nodeY[node] = y;
+		heap.add(node, cost + (Math.abs(x - gx) + Math.abs(y - gy)) * heuristicWeight);
+	}
+
+	private int node (SubRegion sub) {
+		int index = sub.parent.id * map.regionSize * map.regionSize + sub.id;
+		if (subStamps[index] == subStamp) return subNodes[index];
+		if (nodes == nodeSubs.length) growNodes();
+		int node = nodes++;
+		subStamps[index] = subStamp;
+		subNodes[index] = node;
+		nodeSubs[node] = sub;
+		nodeParents[node] = NONE;
+		nodeClosed[node] = false;
+		return node;
+	}
+
+	private void growNodes () {
+		int size = nodeSubs.length * 2;
+		float[] xs = new float[size];
+		System.arraycopy(nodeX, 0, xs, 0, nodes);
+		nodeX = xs;
+		float[] ys = new float[size];
+		System.arraycopy(nodeY, 0, ys, 0, nodes);
+		nodeY = ys;
+		int[] parents = new int[size];
+		System.arraycopy(nodeParents, 0, parents, 0, nodes);
+		nodeParents = parents;
+		float[] costs = new float[size];
+		System.arraycopy(nodeCosts, 0, costs, 0, nodes);
+		nodeCosts = costs;
+		SubRegion[] subs = new SubRegion[size];
+		System.arraycopy(nodeSubs, 0, subs, 0, nodes);
+		nodeSubs = subs;
+		boolean[] closed = new boolean[size];
+		System.arraycopy(nodeClosed, 0, closed, 0, nodes);
+		nodeClosed = closed;
+	}
+
+	private static float midX (Edge edge) {
+		return edge.horizontal? edge.x + edge.length / 2f : edge.x;
+	}
+
+	private static float midY (Edge edge) {
+		return edge.horizontal? edge.y : edge.y + edge.length / 2f;
+	}
+
+	/**
+	 * @param inCorridor if tiles must be in current corridor
+	 */
+	private boolean findTilePath (int sx, int sy, int ex, int ey, boolean inCorridor, IntArray out) {
+		final int width = map.mapWidth;
+		final int height = map.mapHeight;
+		final int[] types = map.types;
+		final int[] stamps = tileStamps;
+		final int[] parents = tileParents;
+		final int[] costs = tileCosts;
+		if (++stamp == 0) {
+			// wrapped around, old stamps could match again
+			Arrays.fill(stamps, 0);
+			stamp = 1;
+		}
+		int start = sx + sy * width;
+		int goal = ex + ey * width;
+		heap.clear();
+		stamps[start] = stamp;
+		costs[start] = 0;
+		parents[start] = -1;
+		heap.add(start, Math.abs(ex - sx) + Math.abs(ey - sy));
+		while (heap.size > 0) {
+			int id = heap.pop();
+			if (id == goal) {
+				for (int at = goal; at >= 0; at = parents[at]) {
+					out.add(at);
+				}
+				out.reverse();
+				return true;
+			}
+			int x = id % width;
+			int y = id / width;
+			// stale entry
+			if (heap.lastPriority > costs[id] + Math.abs(ex - x) + Math.abs(ey - y)) continue;
+			int cost = costs[id] + 1;
+			if (x > 0) visit(id - 1, x - 1, y, id, cost, ex, ey, types, inCorridor);
+			if (x < width - 1) visit(id + 1, x + 1, y, id, cost, ex, ey, types, inCorridor);
+			if (y > 0) visit(id - width, x, y - 1, id, cost, ex, ey, types, inCorridor);
+			if (y < height - 1) visit(id + width, x, y + 1, id, cost, ex, ey, types, inCorridor);
+		}
+		return false;
+	}
+
+	private void visit (int id, int x, int y, int parent, int cost, int ex, int ey, int[] types, boolean inCorridor) {
+		if (tileStamps[id] == stamp && tileCosts[id] <= cost) return;
+		if (types[id] == WALL) return;
+		if (inCorridor && corridorStamps[id] != corridorStamp) return;
+		tileStamps[id] = stamp;
+		tileCosts[id] = cost;
+		tileParents[id] = parent;
+		heap.add(id, cost + Math.abs(ex - x) + Math.abs(ey - y));
+	}
+
+	private boolean isPassable (int x, int y) {
+		Tile tile = map.getTileAt(x, y);
+		return tile != null && tile.subRegion != null && tile.subRegion.tileType != WALL;
+	}
+
+	private static int key (SubRegion sub) {
+		// region size is at most 15, so there is less then 256 subs in a region
+		return sub.parent.id << 8 | sub.id;
+	}
+
+	public void clearCache () {
+		cache.clear();
+	}
+
+	public int getCacheSize () {
+		return cache.size;
+	}
+
+	public int getCacheHits () {
+		return hits;
+	}
+
+	public int getCacheMisses () {
+		return misses;
+	}
+
+	/**
+	 * Binary min heap of ints with float priorities, same value can be added more then once
+	 */
+	private static class Heap {
+		int[] values = new int[64];
+		float[] priorities = new float[64];
+		int size;
+		/** priority of last popped value */
+		float lastPriority;
+
+		void clear () {
+			size = 0;
+		}
+
+		void add (int value, float priority) {
+			if (size == values.length) {
+				int[] grownValues = new int[size * 2];
+				System.arraycopy(values, 0, grownValues, 0, size);
+				values = grownValues;
+				float[] grownPriorities = new float[size * 2];
+				System.arraycopy(priorities, 0, grownPriorities, 0, size);
+				priorities = grownPriorities;
+			}
+			int at = size++;
+			while (at > 0) {
+				int parent = (at - 1) >>> 1;
+				if (priorities[parent] <= priority) break;
+				values[at] = values[parent];
+				priorities[at] = priorities[parent];
+				at = parent;
+			}
+			values[at] = value;
+			priorities[at] = priority;
+		}
+
+		int pop () {
+			int result = values[0];
+			lastPriority = priorities[0];
+			int value = values[--size];
+			float priority = priorities[size];
+			int at = 0;
+			while (true) {
+				int child = at * 2 + 1;
+				if (child >= size) break;
+				if (child + 1 < size && priorities[child + 1] < priorities[child]) child++;
+				if (priorities[child] >= priority) break;
+				values[at] = values[child];
+				priorities[at] = priorities[child];
+				at = child;
+			}
+			values[at] = value;
+			priorities[at] = priority;
+			return result;
+		}
+	}
+}
@@ -4,7 +4,16 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.utils.*;
 import io.piotrjastrzebski.playground.isotiled.partitions.MapRegion.SubRegion;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
 /**
+ * Tiles split into regions, regions into sub regions of connected tiles of same type, connected with edges into rooms
+ *
+ * Regions are rebuilt from a snapshot of tile types, on executor thread if there is one, see {@link #update()}
+ *
  * Created by EvilEntity on 07/01/2016.
  */
 class TileMap {
@@ -15,10 +24,36 @@ class TileMap {
 	public final int regionsY;
 	public final MapRegion[] regions;
 	public final Tile[] tiles;
+	/** tile types by tile id, synced from tiles for regions that are rebuilt */
+	public final int[] types;
+	public final FloodFiller floodFiller = new FloodFiller();
 	public final Array<Room> rooms;
 	private final ObjectSet<Room> roomsTouched;
+	/** debug only, check edges and regions for duplicate hashes after each rebuild, slow on large maps */
+	public boolean validate;
+
+	private ExecutorService executor;
+	private final boolean[] dirty;
+	private final Array<MapRegion> dirtyQueue = new Array<>();
+	private final Array<MapRegion> rebuildQueue = new Array<>();
+	private final RegionBuilder builder = new RegionBuilder();
+	private final Array<RegionBuilder.Build> builds = new Array<>();
+	private final Pool<RegionBuilder.Build> buildPool = new Pool<RegionBuilder.Build>() {
+		@Override protected RegionBuilder.Build newObject () {
+			return new RegionBuilder.Build();
+		}
+	};
+	private Future<?> running;
+	private int version;
 
 	public TileMap (int[] map, int mapWidth, int mapHeight, int regionSize) {
+		this(map, mapWidth, mapHeight, regionSize, null);
+	}
+
+	/**
+	 * @param executor to rebuild regions on, null to rebuild on calling thread
+	 */
+	public TileMap (int[] map, int mapWidth, int mapHeight, int regionSize, ExecutorService executor) {
 		this.mapWidth = mapWidth;
 		this.mapHeight = mapHeight;
 		this.regionSize = regionSize;
@@ -29,7 +64,10 @@ class TileMap {
 		regionsX = mapWidth / regionSize;
 		regionsY = mapHeight / regionSize;
 
+		this.executor = executor;
+
 		regions = new MapRegion[regionsX * regionsY];
+		dirty = new boolean[regions.length];
 		for (int x = 0; x < regionsX; x++) {
 			for (int y = 0; y < regionsY; y++) {
 				MapRegion region = new MapRegion(x + y * regionsX, x * regionSize, y * regionSize, regionSize);
@@ -38,12 +76,14 @@ class TileMap {
 		}
 
 		tiles = new Tile[mapWidth * mapHeight];
-		for (int x = 0; x < TiledPartitionV2Test.MAP_WIDTH; x++) {
-			for (int y = 0; y < TiledPartitionV2Test.MAP_HEIGHT; y++) {
-				Tile tile = new Tile(x + y * TiledPartitionV2Test.MAP_WIDTH, x, y);
+		types = new int[mapWidth * mapHeight];
+		for (int x = 0; x < mapWidth; x++) {
+			for (int y = 0; y < mapHeight; y++) {
+				Tile tile = new Tile(x + y * mapWidth, x, y);
 				// magic incantation to get correct id from the map above
-				tile.setType(map[x + (TiledPartitionV2Test.MAP_HEIGHT - 1 - y) * TiledPartitionV2Test.MAP_WIDTH]);
+				tile.setType(map[x + (mapHeight - 1 - y) * mapWidth]);
 				tiles[tile.id] = tile;
+				types[tile.id] = tile.type;
 				addTileToRegion(tile);
 			}
 		}
@@ -60,7 +100,7 @@ class TileMap {
 		int ry = y / regionSize;
 		if (rx < 0 || ry < 0 || rx >= regionsX || ry >= regionsY)
 			return null;
-		return regions[rx + ry * (TiledPartitionV2Test.MAP_WIDTH / TiledPartitionV2Test.REGION_SIZE)];
+		return regions[rx + ry * regionsX];
 	}
 
 	private void addTileToRegion (Tile tile) {
@@ -74,16 +114,164 @@ class TileMap {
 		return tiles[id];
 	}
 
-	private Array<MapRegion> rebuildQueue = new Array<>();
 	/**
-	 * Rebuild all regions
+	 * Rebuild all regions, blocks until done
 	 */
 	public void rebuild () {
-		rebuildQueue.clear();
 		for (MapRegion region : regions) {
 			scheduleRegionRebuild(region);
 		}
-		execRebuild();
+		finishRebuild();
+	}
+
+	/**
+	 * Rebuild region at x, y and surrounding, blocks until done
+	 */
+	public void rebuild (int x, int y) {
+		scheduleRebuild(x, y);
+		finishRebuild();
+	}
+
+	/**
+	 * Schedule rebuild of region at x, y and surrounding
+	 *
+	 * Edits are coalesced, each region is rebuilt once in next {@link #update()} no matter how many tiles in it changed
+	 */
+	public void scheduleRebuild (int x, int y) {
+		scheduleRegionRebuildAt(x, y);
+		scheduleRegionRebuildAt(x -regionSize, y);
+		scheduleRegionRebuildAt(x +regionSize, y);
+		scheduleRegionRebuildAt(x, y -regionSize);
+		scheduleRegionRebuildAt(x, y +regionSize);
+	}
+
+	/**
+	 * Call once per frame
+	 *
+	 * Publishes finished rebuild and starts next one with regions scheduled since the last one started
+	 * Without executor scheduled regions are rebuilt right away
+	 *
+	 * @return if regions, edges or rooms changed
+	 */
+	public boolean update () {
+		boolean published = false;
+		if (running != null && running.isDone()) {
+			publish();
+			published = true;
+		}
+		if (running == null && dirtyQueue.size > 0) {
+			startRebuild();
+			if (executor == null) {
+				publish();
+				published = true;
+			}
+		}
+		return published;
+	}
+
+	/**
+	 * Publish running rebuild and rebuild all scheduled regions, blocks until done
+	 */
+	public void finishRebuild () {
+		if (running != null) publish();
+		if (dirtyQueue.size == 0) return;
+		// we are waiting anyway, no point in going to another thread
+		ExecutorService executor = this.executor;
+		this.executor = null;
+		startRebuild();
+		this.executor = executor;
+		publish();
+	}
+
+	/**
+	 * @return if there is rebuild in progress, map is in previous state until it is published in {@link #update()}
+	 */
+	public boolean isRebuilding () {
+		return running != null;
+	}
+
+	/**
+	 * @return number of regions waiting for next rebuild
+	 */
+	public int getScheduledCount () {
+		return dirtyQueue.size;
+	}
+
+	private void startRebuild () {
+		rebuildQueue.clear();
+		rebuildQueue.addAll(dirtyQueue);
+		for (MapRegion region : dirtyQueue) {
+			dirty[region.id] = false;
+			// snapshot for the builder, types wont change until this rebuild is published
+			syncTypes(region);
+			RegionBuilder.Build build = buildPool.obtain();
+			build.region = region;
+			builds.add(build);
+		}
+		dirtyQueue.clear();
+		final Array<RegionBuilder.Build> builds = this.builds;
+		Runnable task = new Runnable() {
+			@Override public void run () {
+				for (RegionBuilder.Build build : builds) {
+					builder.build(types, mapWidth, mapHeight, build);
+				}
+			}
+		};
+		if (executor != null) {
+			running = executor.submit(task);
+		} else {
+			FutureTask<?> future = new FutureTask<>(task, null);
+			future.run();
+			running = future;
+		}
+	}
+
+	/**
+	 * Swap in finished rebuild, all at once so nothing sees partially rebuilt map
+	 */
+	private void publish () {
+		try {
+			running.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new AssertionError("Interrupted while waiting for rebuild");
+		} catch (ExecutionException ex) {
+			throw new AssertionError("Rebuild failed", ex.getCause());
+		} finally {
+			running = null;
+		}
+		for (RegionBuilder.Build build : builds) {
+			build.region.clear(this);
+		}
+		for (RegionBuilder.Build build : builds) {
+			build.region.apply(build, this);
+		}
+		// note this is separate as edges are shared with surrounding regions
+		for (RegionBuilder.Build build : builds) {
+			Array<SubRegion> subs = build.region.subs;
+			IntArray edges = build.edges;
+			IntArray offsets = build.edgeOffsets;
+			for (int i = 0; i < subs.size; i++) {
+				SubRegion sub = subs.get(i);
+				for (int j = offsets.get(i), end = offsets.get(i + 1); j < end; j++) {
+					int id = edges.get(j);
+					obtainEdge(id).add(sub);
+					sub.edgeIds.add(id);
+				}
+			}
+		}
+		buildPool.freeAll(builds);
+		builds.clear();
+		rebuildRooms(rebuildQueue);
+		version++;
+		if (validate) validateHashes();
+	}
+
+	/**
+	 * @return number of published rebuilds, anything derived from sub regions, edges or rooms is stale when it changes
+	 */
+	public int getVersion () {
+		return version;
 	}
 
 	private void validateHashes () {
@@ -127,22 +315,8 @@ class TileMap {
 		}
 	}
 
-	private void execRebuild() {
-		for (MapRegion region : rebuildQueue) {
-			region.clear(this);
-		}
-		for (MapRegion region : rebuildQueue) {
-			region.rebuild(this);
-		}
-		// note this is separate as it depends on surrounding regions being updated
-		for (MapRegion region : rebuildQueue) {
-			region.rebuildSubRegions(this);
-		}
-		rebuildRooms(rebuildQueue);
-		validateHashes();
-	}
-
-	private NeighbourData tmpData = new NeighbourData();
+	private Array<SubRegion> roomSubs = new Array<>();
+	private ObjectSet<SubRegion> roomVisited = new ObjectSet<>();
 	private ObjectSet<SubRegion> tmpSubs = new ObjectSet<>();
 	public ObjectMap<SubRegion, Room> subToRoom = new ObjectMap<>();
 	private void rebuildRooms (Array<MapRegion> rebuildQueue) {
@@ -162,15 +336,12 @@ class TileMap {
 			for (SubRegion startSub : subs) {
 				if (tmpSubs.contains(startSub))
 					continue;
-				tmpData.reset();
 				// FIXME this doesnt handle room splitting
-				// we probably wont have more then 999...
-				// need to do something with the rooms
-				getConnectedSubs(startSub, 999, filterSimilar, tmpData);
+				collectRoom(startSub, roomSubs);
 				// find room to add to
 				Room room = null;
 				// since all subs are connected, they belong to same room
-				for (SubRegion subRegion : tmpData.subRegions) {
+				for (SubRegion subRegion : roomSubs) {
 					if (subToRoom.containsKey(subRegion)) {
 						room = subToRoom.get(subRegion);
 						break;
@@ -181,7 +352,7 @@ class TileMap {
 					rooms.add(room);
 				}
 				// startSub should be in the data as well
-				for (SubRegion subRegion : tmpData.subRegions) {
+				for (SubRegion subRegion : roomSubs) {
 					room.add(subRegion);
 					subToRoom.put(subRegion, room);
 					tmpSubs.add(subRegion);
@@ -190,16 +361,37 @@ class TileMap {
 		}
 	}
 	/**
-	 * Rebuild region at x, y and surrounding
+	 * Breadth first search for all subs connected to start, same order as {@link #getConnectedSubsTo(SubRegion, int, NeighbourData)}
 	 */
-	public void rebuild (int x, int y) {
-		rebuildQueue.clear();
-		scheduleRegionRebuildAt(x, y);
-		scheduleRegionRebuildAt(x -regionSize, y);
-		scheduleRegionRebuildAt(x +regionSize, y);
-		scheduleRegionRebuildAt(x, y -regionSize);
-		scheduleRegionRebuildAt(x, y +regionSize);
-		execRebuild();
+	private Array<SubRegion> collectRoom (SubRegion start, Array<SubRegion> out) {
+		out.clear();
+		roomVisited.clear();
+		out.add(start);
+		roomVisited.add(start);
+		for (int i = 0; i < out.size; i++) {
+			SubRegion sub = out.get(i);
+			final IntArray ids = sub.edgeIds;
+			for (int j = 0; j < ids.size; j++) {
+				final Edge edge = getEdge(ids.get(j));
+				visit(sub, edge.subA, out);
+				visit(sub, edge.subB, out);
+			}
+		}
+		return out;
+	}
+
+	private void visit (SubRegion sub, SubRegion other, Array<SubRegion> out) {
+		if (other == null || other == sub || !filterSimilar.accept(sub, other)) return;
+		if (roomVisited.add(other)) out.add(other);
+	}
+
+	private void syncTypes (MapRegion region) {
+		for (int y = region.y; y < region.y + region.size; y++) {
+			for (int x = region.x; x < region.x + region.size; x++) {
+				int id = x + y * mapWidth;
+				types[id] = tiles[id].type;
+			}
+		}
 	}
 
 	private void scheduleRegionRebuildAt (int x, int y) {
@@ -207,7 +399,9 @@ class TileMap {
 	}
 
 	private void scheduleRegionRebuild (MapRegion region) {
-		if (region != null) rebuildQueue.add(region);
+		if (region == null || dirty[region.id]) return;
+		dirty[region.id] = true;
+		dirtyQueue.add(region);
 	}
 
 	public void clear (SubRegion region) {
@@ -238,30 +432,16 @@ class TileMap {
 		region.edgeIds.clear();
 	}
 
-	private Edge getEdge(int x, int y, int length, boolean horizontal) {
-		int id = packEdgeId(x, y, length, horizontal);
-		if (idToEdge.containsKey(id)) {
-			return idToEdge.get(id);
-		}
-		// need proper way of getting those
-		Edge edge = Edge.obtain().init(id, x, y, length, horizontal);
+	private Edge obtainEdge (int id) {
+		Edge edge = idToEdge.get(id, null);
+		if (edge != null) return edge;
+		// unpack, see packEdgeId()
+		edge = Edge.obtain().init(id, id >>> 13 & 0x1fff, id & 0x1fff, id >>> 26 & 0xf, (id >>> 30 & 1) == 1);
 		idToEdge.put(id, edge);
 		return edge;
 	}
 
-	public int setHorizontalEdge (SubRegion region, int x, int y, int length) {
-		Edge edge = getEdge(x, y, length, true);
-		edge.add(region);
-		return edge.id;
-	}
-
 	public IntMap<Edge> idToEdge = new IntMap<>();
-	public int setVerticalEdge (SubRegion region, int x, int y, int length) {
-		Edge edge = getEdge(x, y, length, false);
-		edge.add(region);
-		return edge.id;
-	}
-
 	public SubRegion getSubRegionAt (int x, int y) {
 		MapRegion region = getRegionAt(x, y);
 		if (region == null) return null;
@@ -271,7 +451,7 @@ class TileMap {
 	private final static int MAX_LENGTH = (int)Math.pow(2, 4);
 	private final static int MAX_X = (int)Math.pow(2, 13);
 	private final static int MAX_Y = (int)Math.pow(2, 13);
-	private int packEdgeId(int x, int y, int length, boolean horizontal) {
+	static int packEdgeId (int x, int y, int length, boolean horizontal) {
 		if (length >= MAX_LENGTH) throw new AssertionError("Length >= " + MAX_LENGTH);
 		if (x >= MAX_X) throw new AssertionError("x >= " + MAX_X);
 		if (y >= MAX_Y) throw new AssertionError("y >= " + MAX_Y);
@@ -8,11 +8,14 @@ import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.IntArray;
 import io.piotrjastrzebski.playground.BaseScreen;
 import io.piotrjastrzebski.playground.GameReset;
 import io.piotrjastrzebski.playground.PlaygroundGame;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * Created by EvilEntity on 07/06/2015.
  */
@@ -77,12 +80,16 @@ public class TiledPartitionV2Test extends BaseScreen {
 	};
 
 	TileMap tileMap;
+	ExecutorService executor;
+	RegionPathFinder pathFinder;
 
 	public TiledPartitionV2Test (GameReset game) {
 		super(game);
 
-		tileMap = new TileMap(map2, MAP_WIDTH, MAP_HEIGHT, REGION_SIZE);
+		executor = Executors.newSingleThreadExecutor();
+		tileMap = new TileMap(map2, MAP_WIDTH, MAP_HEIGHT, REGION_SIZE, executor);
 		tileMap.rebuild();
+		pathFinder = new RegionPathFinder(tileMap);
 
 		gameCamera.position.set(VP_WIDTH / 2, VP_HEIGHT / 2, 0);
 
@@ -93,6 +100,8 @@ public class TiledPartitionV2Test extends BaseScreen {
 		Gdx.app.log("", "F6 - toggle draw sub regions");
 		Gdx.app.log("", "F7 - toggle draw all edges");
 		Gdx.app.log("", "F8 - toggle draw degree of separation search");
+		Gdx.app.log("", "F9 - toggle validate hashes after rebuild");
+		Gdx.app.log("", "F10 - toggle path finding, l click - start, r click - goal");
 		Gdx.app.log("", "[ - degreeOfSeparation--");
 		Gdx.app.log("", "] - degreeOfSeparation++");
 	}
@@ -104,6 +113,7 @@ public class TiledPartitionV2Test extends BaseScreen {
 	private boolean drawDebugSubRegions = false;
 	private boolean drawAllEdges = false;
 	private boolean drawDoS = false;
+	private boolean drawPath = false;
 
 	private int degreeOfSeparation = 1;
 	private Vector2 cs = new Vector2();
@@ -116,6 +126,11 @@ public class TiledPartitionV2Test extends BaseScreen {
 	boolean dirty = false;
 	@Override public void render (float delta) {
 		super.render(delta);
+		// tile edits are rebuilt in the background, cached search is stale once they are published
+		if (tileMap.update()) {
+			dirty = true;
+			findPath();
+		}
 
 		Gdx.gl.glEnable(GL20.GL_BLEND);
 		Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
@@ -134,6 +149,9 @@ public class TiledPartitionV2Test extends BaseScreen {
 		if (drawDebugFloodFill) {
 			drawFloodFill();
 		}
+		if (drawPath) {
+			drawPath();
+		}
 		if (drawAllEdges) {
 			for (Edge edge : tileMap.idToEdge.values()) {
 				renderer.setColor(edge.color);
@@ -288,11 +306,34 @@ public class TiledPartitionV2Test extends BaseScreen {
 	private void drawFloodFill () {
 		renderer.setColor(Color.GOLD);
 		renderer.getColor().a = .75f;
-		for (Tile tile : found) {
+		for (int i = 0; i < found.size; i++) {
+			Tile tile = tileMap.getTile(found.get(i));
 			renderer.rect(tile.x + .025f, tile.y + .025f, .95f, .95f);
 		}
 	}
 
+	private IntArray path = new IntArray();
+	private int pathStartX = -1;
+	private int pathStartY = -1;
+	private int pathGoalX = -1;
+	private int pathGoalY = -1;
+	private void findPath () {
+		if (pathStartX < 0 || pathGoalX < 0) return;
+		pathFinder.findPath(pathStartX, pathStartY, pathGoalX, pathGoalY, path);
+	}
+
+	private void drawPath () {
+		renderer.setColor(Color.CYAN);
+		for (int i = 0; i < path.size; i++) {
+			Tile tile = tileMap.getTile(path.get(i));
+			renderer.rect(tile.x + .3f, tile.y + .3f, .4f, .4f);
+		}
+		renderer.setColor(Color.BLUE);
+		if (pathStartX >= 0) renderer.rect(pathStartX + .2f, pathStartY + .2f, .6f, .6f);
+		renderer.setColor(Color.RED);
+		if (pathGoalX >= 0) renderer.rect(pathGoalX + .2f, pathGoalY + .2f, .6f, .6f);
+	}
+
 	private void drawSubRegions () {
 		for (MapRegion region : tileMap.regions) {
 			for (MapRegion.SubRegion sub : region.subs) {
@@ -305,7 +346,7 @@ public class TiledPartitionV2Test extends BaseScreen {
 		}
 	}
 
-	private ObjectSet<Tile> found = new ObjectSet<>();
+	private IntArray found = new IntArray();
 
 	private void drawDebugPointer () {
 		int x = (int)cs.x;
@@ -358,6 +399,13 @@ public class TiledPartitionV2Test extends BaseScreen {
 		case Input.Keys.F8:
 			drawDoS = !drawDoS;
 			break;
+		case Input.Keys.F9:
+			tileMap.validate = !tileMap.validate;
+			Gdx.app.log("", "validate = " + tileMap.validate);
+			break;
+		case Input.Keys.F10:
+			drawPath = !drawPath;
+			break;
 		case Input.Keys.LEFT_BRACKET:
 			degreeOfSeparation = Math.max(degreeOfSeparation -scale, 0);
 			Gdx.app.log("", "degreeOfSeparation = " + degreeOfSeparation);
@@ -385,12 +433,22 @@ public class TiledPartitionV2Test extends BaseScreen {
 		int x = (int)cs.x;
 		int y = (int)cs.y;
 		// need to change type or something
-		if (drawDebugFloodFill) {
+		if (drawPath) {
+			if (tileMap.getTileAt(x, y) == null) return true;
 			if (button == Input.Buttons.LEFT) {
-				FloodFiller.floodFill(x, y, tileMap, found);
+				pathStartX = x;
+				pathStartY = y;
+			} else if (button == Input.Buttons.RIGHT) {
+				pathGoalX = x;
+				pathGoalY = y;
+			}
+			findPath();
+		} else if (drawDebugFloodFill) {
+			if (button == Input.Buttons.LEFT) {
+				tileMap.floodFiller.floodFill(x, y, tileMap, found);
 			} else if (button == Input.Buttons.RIGHT) {
 				MapRegion region = tileMap.getRegionAt(x, y);
-				FloodFiller.floodFill(x, y, region, tileMap, found);
+				tileMap.floodFiller.floodFill(x, y, region, tileMap, found);
 			} else if (button == Input.Buttons.MIDDLE) {
 				found.clear();
 			}
@@ -400,13 +458,12 @@ public class TiledPartitionV2Test extends BaseScreen {
 				if (button == Input.Buttons.LEFT) {
 					tile.type++;
 					if (tile.type > 2) tile.type = 0;
-					tileMap.rebuild(tile.x, tile.y);;
+					tileMap.scheduleRebuild(tile.x, tile.y);
 				} else if (button == Input.Buttons.RIGHT) {
 					tile.type--;
 					if (tile.type < 0) tile.type = 2;
-					tileMap.rebuild(tile.x, tile.y);;
+					tileMap.scheduleRebuild(tile.x, tile.y);
 				}
-				dirty = true;
 			}
 		}
 		return true;
@@ -418,6 +475,11 @@ public class TiledPartitionV2Test extends BaseScreen {
 		return super.mouseMoved(screenX, screenY);
 	}
 
+	@Override public void dispose () {
+		super.dispose();
+		executor.shutdownNow();
+	}
+
 	public static void main (String[] args) {
 		PlaygroundGame.start(args, TiledPartitionV2Test.class);
 	}
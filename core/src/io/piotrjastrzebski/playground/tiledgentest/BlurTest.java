@@ -14,6 +14,7 @@ import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import io.piotrjastrzebski.playground.BaseScreen;
 import io.piotrjastrzebski.playground.GameReset;
+import io.piotrjastrzebski.playground.tiledgentest.generators.SeparableBlur;
 
 
 /**
@@ -24,7 +25,9 @@ public class BlurTest extends BaseScreen {
 	private float blurDst = 5;
 	MapWidget map;
 	MapData data;
-	MapData.Tile[][] tmpTiles;
+	SeparableBlur blur;
+	float[] rainfall;
+	float[] scratch;
 	Interpolation interp;
 	float gain;
 	public BlurTest (GameReset game) {
@@ -49,17 +52,15 @@ public class BlurTest extends BaseScreen {
 		data.height = 225;
 
 		data.tiles = new MapData.Tile[data.width][data.height];
-		tmpTiles = new MapData.Tile[data.width][data.height];
+		blur = new SeparableBlur();
+		rainfall = new float[data.width * data.height];
+		scratch = new float[data.width * data.height];
 		for (int mx = 0; mx < data.width; mx++) {
 			for (int my = 0; my < data.height; my++) {
 				MapData.Tile tile = new MapData.Tile();
 				tile.x = mx;
 				tile.y = my;
 				data.tiles[mx][my] = tile;
-				tile = new MapData.Tile();
-				tile.x = mx;
-				tile.y = my;
-				tmpTiles[mx][my] = tile;
 			}
 		}
 
@@ -171,16 +172,17 @@ public class BlurTest extends BaseScreen {
 				} else {
 					val = 0;
 				}
-				tile.rainfall = val;
+				rainfall[mx + my * xResolution] = val;
 				tile.setColor(val, val, val);
 			}
 		}
 
-		blur(data.tiles, tmpTiles, blurDst);
+		blur.gaussian(rainfall, scratch, xResolution, yResolution, blurDst);
 
 		for (int mx = 0; mx < xResolution; mx++) {
 			for (int my = 0; my < yResolution; my++) {
 				MapData.Tile tile = data.tiles[mx][my];
+				tile.rainfall = rainfall[mx + my * xResolution];
 				// remove some rainfall based on elevation
 //				tile.rainfall -= Interpolation.exp10In.apply(tile.elevation);// * 0.5f;
 				if (blurEnabled) {
@@ -198,64 +200,6 @@ public class BlurTest extends BaseScreen {
 		map.setData(data);
 	}
 
-	private void blur(MapData.Tile[][] src, MapData.Tile[][] dst, float str) {
-		double[] kernel = create1DGK(str);
-		int kernelRadius = kernel.length/2;
-		int kernelSize = kernel.length;
-
-		// horizontal
-		int width = src.length;
-		int height = src[0].length;
-		for (int x = 0; x < width; x++) {
-			for (int y = 0; y < height; y++) {
-				double rT = 0.0, kT = 0.0;
-
-				for (int u = 0; u < kernelSize; u++) {
-					int cX = x + u - kernelRadius;
-					if (cX < 0 || cX > width - 1) {
-						continue;
-					}
-
-					rT += src[cX][y].rainfall * kernel[u];
-					kT += kernel[u];
-				}
-
-				dst[x][y].rainfall = (float)(rT / kT);
-			}
-		}
-		// vertical
-		for (int x = 0; x < width; x++) {
-			for (int y = 0; y < height; y++) {
-				double rT = 0.0, kT = 0.0;
-
-				for (int v = 0; v < kernelSize; v++) {
-					int cY = y + v - kernelRadius;
-					if (cY < 0 || cY > height - 1) {
-						continue;
-					}
-
-					rT += dst[x][cY].rainfall * kernel[v];
-					kT += kernel[v];
-				}
-
-				src[x][y].rainfall = (float)(rT / kT);
-			}
-		}
-	}
-
-	private double[] create1DGK(double sd) {
-		int radius = (int)Math.ceil(sd * 2.5);
-		double[] kernel = new double[radius * 2 + 1];
-
-		int kPos = 0;
-		double norm = 1./Math.sqrt(2 * Math.PI * sd * sd);
-		for (int u = -radius; u <= radius; u++) {
-			kernel[kPos++] = norm * Math.exp(-(u * u) / (2 * sd * sd));
-		}
-
-		return kernel;
-	}
-
 	@Override public void render (float delta) {
 		super.render(delta);
 		stage.act(delta);
@@ -0,0 +1,182 @@
+package io.piotrjastrzebski.playground.tiledgentest;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.utils.Disposable;
+import io.piotrjastrzebski.playground.BaseScreen;
+import io.piotrjastrzebski.playground.GameReset;
+import io.piotrjastrzebski.playground.tiledgentest.generators.TerrainChunks;
+
+/**
+ * Infinite version of {@link TiledGenTest}, terrain is generated in chunks as the view moves
+ * Each chunk is drawn as a single texture
+ *
+ * Drag to move, scroll to zoom, R to reseed
+ */
+public class ChunkedGenTest extends BaseScreen {
+	private static final int CHUNK_SIZE = 64;
+	// world units per tile at zoom 1
+	private static final float TILE_SIZE = 1 / 8f;
+	private static final long BUDGET = 64 * 1024 * 1024;
+	private static final int MAX_TEXTURES_PER_FRAME = 4;
+
+	MapData data;
+	TerrainChunks chunks;
+	Pixmap pixmap;
+	Label stats;
+	Color color = new Color();
+
+	public ChunkedGenTest (GameReset game) {
+		super(game);
+		data = new MapData();
+		// reasonable values for world map
+		data.biomeEnabled = true;
+		data.waterEnabled = true;
+		data.water = 0.4f;
+		data.seed = MathUtils.random(Long.MAX_VALUE);
+
+		int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		chunks = new TerrainChunks(CHUNK_SIZE, BUDGET, threads);
+		chunks.setSeed(data.seed);
+		pixmap = new Pixmap(CHUNK_SIZE, CHUNK_SIZE, Pixmap.Format.RGBA8888);
+
+		stats = new Label("", skin);
+		root.add(stats).expand().top().left().pad(10);
+	}
+
+	@Override public void render (float delta) {
+		super.render(delta);
+		gameCamera.update();
+		batch.setProjectionMatrix(gameCamera.combined);
+
+		chunks.beginFrame();
+		float chunkWorld = CHUNK_SIZE * TILE_SIZE;
+		float halfWidth = gameCamera.viewportWidth * gameCamera.zoom / 2;
+		float halfHeight = gameCamera.viewportHeight * gameCamera.zoom / 2;
+		int minX = MathUtils.floor((gameCamera.position.x - halfWidth) / chunkWorld);
+		int maxX = MathUtils.floor((gameCamera.position.x + halfWidth) / chunkWorld);
+		int minY = MathUtils.floor((gameCamera.position.y - halfHeight) / chunkWorld);
+		int maxY = MathUtils.floor((gameCamera.position.y + halfHeight) / chunkWorld);
+		int uploaded = 0;
+		int drawn = 0;
+		batch.begin();
+		for (int cy = minY; cy <= maxY; cy++) {
+			for (int cx = minX; cx <= maxX; cx++) {
+				TerrainChunks.Chunk chunk = chunks.get(cx, cy);
+				if (chunk == null) continue;
+				ChunkTexture texture = (ChunkTexture)chunk.getRenderData();
+				if (texture == null) {
+					// spread uploads over frames so scrolling doesn't stutter
+					if (uploaded >= MAX_TEXTURES_PER_FRAME) continue;
+					texture = createTexture(chunk);
+					chunks.setRenderData(chunk, texture, CHUNK_SIZE * CHUNK_SIZE * 4);
+					uploaded++;
+				}
+				batch.draw(texture.texture, cx * chunkWorld, cy * chunkWorld, chunkWorld, chunkWorld);
+				drawn++;
+			}
+		}
+		batch.end();
+
+		stats.setText(String.format("chunks drawn: %d, cached: %d, pending: %d, evicted: %d\nmemory: %.1f/%.1f MB",
+			drawn, chunks.getCachedCount(), chunks.getPendingCount(), chunks.getEvictedCount(),
+			chunks.getUsedBytes() / (1024f * 1024f), chunks.getBudgetBytes() / (1024f * 1024f)));
+		stage.act(delta);
+		stage.draw();
+	}
+
+	private ChunkTexture createTexture (TerrainChunks.Chunk chunk) {
+		float[] values = chunk.values;
+		for (int y = 0; y < CHUNK_SIZE; y++) {
+			for (int x = 0; x < CHUNK_SIZE; x++) {
+				color(values[x + y * CHUNK_SIZE], color);
+				// pixmap y goes down
+				pixmap.drawPixel(x, CHUNK_SIZE - 1 - y, Color.rgba8888(color));
+			}
+		}
+		return new ChunkTexture(new Texture(pixmap));
+	}
+
+	/**
+	 * Same colors as {@link TiledGenTest}
+	 */
+	private void color (float val, Color out) {
+		out.set(val, val, val, 1);
+		if (!data.waterEnabled) return;
+		if (val < data.water) {
+			if (val < data.water * 0.7f) {
+				out.set(0.2f, 0.5f, 0.9f, 1);
+			} else {
+				out.set(0.4f, 0.7f, 1, 1);
+			}
+			return;
+		}
+		// normalize val so 0 is at water level
+		val = (val - data.water) / (1 - data.water);
+		out.set(val, val, val, 1);
+		if (!data.biomeEnabled) return;
+		if (val < 0.1) {
+			out.set(Color.YELLOW);
+		} else if (val < 0.3) {
+			out.set(Color.GREEN);
+		} else if (val < 0.55) {
+			out.set(.1f, 0.8f, .2f, 1);
+		} else if (val < 0.8) {
+			out.set(Color.GRAY);
+		} else {
+			out.set(Color.WHITE);
+		}
+	}
+
+	private static class ChunkTexture implements Disposable {
+		final Texture texture;
+
+		ChunkTexture (Texture texture) {
+			this.texture = texture;
+		}
+
+		@Override public void dispose () {
+			texture.dispose();
+		}
+	}
+
+	int lastX;
+	int lastY;
+	@Override public boolean touchDown (int screenX, int screenY, int pointer, int button) {
+		lastX = screenX;
+		lastY = screenY;
+		return super.touchDown(screenX, screenY, pointer, button);
+	}
+
+	@Override public boolean touchDragged (int screenX, int screenY, int pointer) {
+		float scale = gameCamera.zoom * gameViewport.getWorldWidth() / Gdx.graphics.getWidth();
+		gameCamera.position.add((lastX - screenX) * scale, (screenY - lastY) * scale, 0);
+		lastX = screenX;
+		lastY = screenY;
+		return super.touchDragged(screenX, screenY, pointer);
+	}
+
+	@Override public boolean scrolled (int amount) {
+		gameCamera.zoom = MathUtils.clamp(gameCamera.zoom * (1 + amount * 0.1f), 0.1f, 4f);
+		return true;
+	}
+
+	@Override public boolean keyDown (int keycode) {
+		if (keycode == Input.Keys.R) {
+			data.seed = MathUtils.random(Long.MAX_VALUE);
+			chunks.setSeed(data.seed);
+		}
+		return super.keyDown(keycode);
+	}
+
+	@Override public void dispose () {
+		super.dispose();
+		chunks.dispose();
+		pixmap.dispose();
+	}
+}
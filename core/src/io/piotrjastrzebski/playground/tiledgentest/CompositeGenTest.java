@@ -14,10 +14,7 @@ import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import io.piotrjastrzebski.playground.BaseScreen;
 import io.piotrjastrzebski.playground.GameReset;
-import io.piotrjastrzebski.playground.tiledgentest.generators.MountainGen;
-import io.piotrjastrzebski.playground.tiledgentest.generators.RainGen;
-import io.piotrjastrzebski.playground.tiledgentest.generators.TempGen;
-import io.piotrjastrzebski.playground.tiledgentest.generators.TerrainGen;
+import io.piotrjastrzebski.playground.tiledgentest.generators.TerrainPipeline;
 
 /**
  * Created by EvilEntity on 07/06/2015.
@@ -26,6 +23,8 @@ public class CompositeGenTest extends BaseScreen {
 	MapWidget map;
 	MapData data;
 	Interpolation interp;
+	TerrainPipeline pipeline;
+	Label timings;
 
 	boolean rainFall = false;
 	private boolean temp = false;
@@ -51,6 +50,10 @@ public class CompositeGenTest extends BaseScreen {
 		data.width = 400;
 		data.height = 225;
 
+		// 400x225 is too small for a pool to pay off, see TerrainPipeline
+		pipeline = new TerrainPipeline();
+		pipeline.rainDistance = 97;
+
 		data.tiles = new MapData.Tile[data.width][data.height];
 		for (int mx = 0; mx < data.width; mx++) {
 			for (int my = 0; my < data.height; my++) {
@@ -113,6 +116,10 @@ public class CompositeGenTest extends BaseScreen {
 		settings.add(showMount);
 		settings.row();
 
+		timings = new Label("", skin);
+		settings.add(timings).left();
+		settings.row();
+
 		root.add(settings).expandY().fillY();
 		root.add(pane).expand().fill();
 		root.getStage().setScrollFocus(map);
@@ -121,25 +128,29 @@ public class CompositeGenTest extends BaseScreen {
 	}
 
 	public void refresh() {
-		float[][] terrainData = TerrainGen.generate(data.seed, data.width, data.height);
-		float[][] mountainData = MountainGen.generate(data.seed, terrainData);
-		float[][] rainfallData = RainGen.generate(terrainData, 97, data.water);
-		float[][] temperatureData = TempGen.generate(data.seed, data.width, data.height);
+		pipeline.waterLevel = data.water;
+		pipeline.generate(data.seed, data.width, data.height);
+		timings.setText(pipeline.getTimings());
+		float[] terrainData = pipeline.getTerrain();
+		float[] mountainData = pipeline.getMountains();
+		float[] rainfallData = pipeline.getRain();
+		float[] temperatureData = pipeline.getTemperature();
 
 		float max = 1.0f;
 		for (int mx = 0; mx < data.width; mx++) {
 			for (int my = 0; my < data.height; my++) {
 				MapData.Tile tile = data.tiles[mx][my];
-				tile.temp = temperatureData[mx][my];
-				tile.rainfall = rainfallData[mx][my];
+				int id = mx + my * data.width;
+				tile.temp = temperatureData[id];
+				tile.rainfall = rainfallData[id];
 
-				float val = terrainData[mx][my];
+				float val = terrainData[id];
 				tile.value = val;
 
 				if (val > max) max = val;
 				tile.setColor(val, val, val);
 				if (temp) {
-					val = temperatureData[mx][my];
+					val = temperatureData[id];
 					tile.setColor(val, val, val);
 				} else {
 					if (val < data.water) {
@@ -154,7 +165,7 @@ public class CompositeGenTest extends BaseScreen {
 						val = (val - data.water) / (max - data.water);
 
 						tile.elevation = val;
-						tile.mountains = mountainData[mx][my];
+						tile.mountains = mountainData[id];
 
 						tile.setColor(val, val, val);
 						if (data.biomeEnabled) {
@@ -178,7 +189,7 @@ public class CompositeGenTest extends BaseScreen {
 					}
 					tile.mulColor(val, val, val);
 					if (rainFall) {
-						float val2 = rainfallData[mx][my];
+						float val2 = rainfallData[id];
 						tile.mulColor(val2, val2, val2);
 					}
 					if (mountains) {
@@ -11,21 +11,29 @@ public class MountainGen {
 	public static float[][] generate (long seed, float[][] terrainData) {
 		int width = terrainData.length;
 		int height = terrainData[0].length;
-		OpenNoise noise = new OpenNoise(33, 0.5f, seed);
-		double XEnd = width;
-		double yEnd = height * 2;
+		float[] mountainData = new float[width * height];
+		generate(noise(seed), mountainData, width, height, 0, height);
+		return TerrainPipeline.toGrid(mountainData, width, height);
+	}
+
+	public static OpenNoise noise (long seed) {
+		return new OpenNoise(33, 0.5f, seed);
+	}
 
-		float[][] mountainData = new float[width][height];
-		for (int mx = 0; mx < width; mx++) {
-			for (int my = 0; my < height; my++) {
-				int nx = (int)(mx * ((XEnd) / width));
-				int ny = (int)(my * ((yEnd) / height));
+	/**
+	 * Fill rows [fromY, toY) of flat map, x + y * width, rows can be generated in parallel
+	 */
+	public static void generate (OpenNoise noise, float[] mountainData, int width, int height, int fromY, int toY) {
+		for (int my = fromY; my < toY; my++) {
+			// x maps 1:1 to noise, y is stretched 2x
+			int ny = my * 2;
+			int row = my * width;
+			for (int mx = 0; mx < width; mx++) {
 				// normalize
-				double dVal = 0.5d + noise.getNoise(nx, ny);
+				double dVal = 0.5d + noise.getNoise(mx, ny);
 				float val = (float)dVal;
-				mountainData[mx][my] = Interpolation.pow3In.apply(val);
+				mountainData[row + mx] = Interpolation.pow3In.apply(val);
 			}
 		}
-		return mountainData;
 	}
 }
@@ -0,0 +1,219 @@
+package io.piotrjastrzebski.playground.tiledgentest.generators;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Separable blurs over flat float[] maps, x + y * width, using running sums so cost doesn't depend on radius
+ *
+ * Static line methods blur rows [from, to) or columns [from, to) and can be called from any thread,
+ * instance methods run full horizontal and vertical passes, in parallel if there is a pool
+ */
+public class SeparableBlur {
+	/** rows or columns per fork join task */
+	public int linesPerTask = 16;
+	private final ForkJoinPool pool;
+
+	/**
+	 * Blurs on calling thread only
+	 */
+	public SeparableBlur () {
+		this(null);
+	}
+
+	/**
+	 * @param pool to blur in, null to blur on calling thread only
+	 */
+	public SeparableBlur (ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Tent blur used by {@link RainGen}, each tile gets its value plus neighbours within radius
+	 * weighted by 1 - d / (1.1 * radius), tiles outside of the map count as 0
+	 *
+	 * @param data to blur, contains result
+	 * @param scratch at least as big as data
+	 */
+	public void tent (final float[] data, final float[] scratch, final int width, final int height, final int radius) {
+		lines(height, new Lines() {
+			@Override public void lines (int from, int to) {
+				tentRows(data, scratch, width, radius, from, to);
+			}
+		});
+		lines(width, new Lines() {
+			@Override public void lines (int from, int to) {
+				tentColumns(scratch, data, width, height, radius, from, to);
+			}
+		});
+	}
+
+	/**
+	 * Average of tiles within radius, tiles outside of the map are ignored
+	 *
+	 * @param data to blur, contains result
+	 * @param scratch at least as big as data
+	 */
+	public void box (final float[] data, final float[] scratch, final int width, final int height, final int radius) {
+		lines(height, new Lines() {
+			@Override public void lines (int from, int to) {
+				boxRows(data, scratch, width, radius, from, to);
+			}
+		});
+		lines(width, new Lines() {
+			@Override public void lines (int from, int to) {
+				boxColumns(scratch, data, width, height, radius, from, to);
+			}
+		});
+	}
+
+	/**
+	 * Gaussian blur approximated with 3 box blurs
+	 *
+	 * @param data to blur, contains result
+	 * @param scratch at least as big as data
+	 */
+	public void gaussian (float[] data, float[] scratch, int width, int height, float sigma) {
+		if (sigma <= 0) return;
+		int[] radii = gaussianBoxRadii(sigma, 3);
+		for (int radius : radii) {
+			box(data, scratch, width, height, radius);
+		}
+	}
+
+	/**
+	 * @return radii of n box blurs that approximate gaussian blur with given sigma
+	 */
+	public static int[] gaussianBoxRadii (float sigma, int n) {
+		double ideal = Math.sqrt((12 * sigma * sigma / n) + 1);
+		int lower = (int)Math.floor(ideal);
+		if (lower % 2 == 0) lower--;
+		int upper = lower + 2;
+		double mIdeal = (12 * sigma * sigma - n * lower * lower - 4 * n * lower - 3 * n) / (-4.0 * lower - 4);
+		long m = Math.round(mIdeal);
+		int[] radii = new int[n];
+		for (int i = 0; i < n; i++) {
+			radii[i] = ((i < m? lower : upper) - 1) / 2;
+		}
+		return radii;
+	}
+
+	public static void tentRows (float[] src, float[] dst, int width, int radius, int fromY, int toY) {
+		for (int y = fromY; y < toY; y++) {
+			tentLine(src, dst, y * width, 1, width, radius);
+		}
+	}
+
+	public static void tentColumns (float[] src, float[] dst, int width, int height, int radius, int fromX, int toX) {
+		for (int x = fromX; x < toX; x++) {
+			tentLine(src, dst, x, width, height, radius);
+		}
+	}
+
+	public static void boxRows (float[] src, float[] dst, int width, int radius, int fromY, int toY) {
+		for (int y = fromY; y < toY; y++) {
+			boxLine(src, dst, y * width, 1, width, radius);
+		}
+	}
+
+	public static void boxColumns (float[] src, float[] dst, int width, int height, int radius, int fromX, int toX) {
+		for (int x = fromX; x < toX; x++) {
+			boxLine(src, dst, x, width, height, radius);
+		}
+	}
+
+	/**
+	 * Tent blur of single line, keeps sums and distance weighted sums of both halves of the window
+	 */
+	private static void tentLine (float[] src, float[] dst, int start, int stride, int length, int radius) {
+		if (radius <= 0) {
+			for (int i = 0, id = start; i < length; i++, id += stride) {
+				dst[id] = src[id];
+			}
+			return;
+		}
+		double k = 1 / (1.1 * radius);
+		// left half is [i - radius, i - 1], right half is [i + 1, i + radius]
+		double left = 0;
+		double leftWeighted = 0;
+		double right = 0;
+		double rightWeighted = 0;
+		int end = Math.min(radius, length - 1);
+		for (int j = 1; j <= end; j++) {
+			float value = src[start + j * stride];
+			right += value;
+			rightWeighted += j * value;
+		}
+		for (int i = 0; i < length; i++) {
+			int id = start + i * stride;
+			float value = src[id];
+			dst[id] = (float)(value + left + right - k * (leftWeighted + rightWeighted));
+			// slide window by one
+			float out = i - radius >= 0? src[id - radius * stride] : 0;
+			leftWeighted += left - (radius + 1) * out + value;
+			left += value - out;
+			float next = i + 1 < length? src[id + stride] : 0;
+			float in = i + radius + 1 < length? src[id + (radius + 1) * stride] : 0;
+			rightWeighted += radius * in - right;
+			right += in - next;
+		}
+	}
+
+	/**
+	 * Box blur of single line, window is clipped to the line
+	 */
+	private static void boxLine (float[] src, float[] dst, int start, int stride, int length, int radius) {
+		double sum = 0;
+		int end = Math.min(radius, length - 1);
+		for (int j = 0; j <= end; j++) {
+			sum += src[start + j * stride];
+		}
+		for (int i = 0; i < length; i++) {
+			int from = Math.max(i - radius, 0);
+			int to = Math.min(i + radius, length - 1);
+			dst[start + i * stride] = (float)(sum / (to - from + 1));
+			if (i - radius >= 0) sum -= src[start + (i - radius) * stride];
+			if (i + radius + 1 < length) sum += src[start + (i + radius + 1) * stride];
+		}
+	}
+
+	private void lines (int count, Lines lines) {
+		if (pool == null || count <= linesPerTask) {
+			lines.lines(0, count);
+			return;
+		}
+		LineTask task = new LineTask(lines, 0, count);
+		if (ForkJoinTask.inForkJoinPool()) {
+			task.invoke();
+		} else {
+			pool.invoke(task);
+		}
+	}
+
+	private interface Lines {
+		void lines (int from, int to);
+	}
+
+	@SuppressWarnings("serial")
+	private class LineTask extends RecursiveAction {
+		private final Lines lines;
+		private final int from;
+		private final int to;
+
+		LineTask (Lines lines, int from, int to) {
+			this.lines = lines;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override protected void compute () {
+			if (to - from <= linesPerTask) {
+				lines.lines(from, to);
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new LineTask(lines, from, mid), new LineTask(lines, mid, to));
+		}
+	}
+}
@@ -18,31 +18,33 @@ public class TempGen {
 
 	public static float[][] generate(int largestFeature, float persistence, long seed, int width, int height) {
 		OpenNoise noise = new OpenNoise(largestFeature, persistence, seed);
-		double xStart = 0;
-		double XEnd = width;
-		double yStart = 0;
-		double yEnd = height * 10;
-
-		float[][] result = new float[width][height];
-		float max = 1.0f;
-		for (int mx = 0; mx < width; mx++) {
-			for (int my = 0; my < height; my++) {
-				int nx = (int)(xStart + mx * ((XEnd - xStart) / width));
-				int ny = (int)(yStart + my * ((yEnd - yStart) / height));
-				// normalize
-				double dVal = 0.5d + noise.getNoise(nx, ny);
+		float[] result = new float[width * height];
+		generate(noise, result, width, height, 0, height);
+		return TerrainPipeline.toGrid(result, width, height);
+	}
 
-				float alpha = my/(float)height;
-				if (alpha > 0.5) alpha = 1-alpha;
-				alpha = Interpolation.pow3Out.apply(alpha)*0.75f;
+	public static OpenNoise noise (long seed) {
+		return new OpenNoise(513, 0.55f, seed);
+	}
 
+	/**
+	 * Fill rows [fromY, toY) of flat map, x + y * width, rows can be generated in parallel
+	 */
+	public static void generate (OpenNoise noise, float[] result, int width, int height, int fromY, int toY) {
+		for (int my = fromY; my < toY; my++) {
+			// x maps 1:1 to noise, y is stretched 10x
+			int ny = my * 10;
+			float alpha = my/(float)height;
+			if (alpha > 0.5) alpha = 1-alpha;
+			alpha = Interpolation.pow3Out.apply(alpha)*0.75f;
+			int row = my * width;
+			for (int mx = 0; mx < width; mx++) {
+				// normalize
+				double dVal = 0.5d + noise.getNoise(mx, ny);
 				float val = (float)dVal;
-				if (val > max) max = val;
-
 				val = Interpolation.sine.apply(val * alpha) + alpha;
-				result[mx][my] = val;
+				result[row + mx] = val;
 			}
 		}
-		return result;
 	}
 }
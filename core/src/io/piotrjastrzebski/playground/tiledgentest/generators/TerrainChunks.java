@@ -0,0 +1,257 @@
+package io.piotrjastrzebski.playground.tiledgentest.generators;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.LongMap;
+import io.piotrjastrzebski.playground.tiledgentest.OpenNoise;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Infinite terrain made of size x size chunks, generated on demand from {@link TerrainGen} noise
+ *
+ * Chunks are generated on background threads and kept in least recently used order,
+ * chunks not used in current frame are evicted when cache is over memory budget
+ * Everything but generation itself happens on the thread calling {@link #get(int, int)}, so render data can be GL resources
+ */
+public class TerrainChunks implements Disposable {
+	private final int chunkSize;
+	private final long budgetBytes;
+	private final ExecutorService executor;
+	/** max chunks generated at the same time, so we don't queue chunks that scrolled out of view long ago */
+	public int maxPending;
+
+	private final LinkedHashMap<Long, Chunk> cache = new LinkedHashMap<>(64, .75f, true);
+	private final LongMap<Chunk> pending = new LongMap<>();
+	private final ConcurrentLinkedQueue<Chunk> generated = new ConcurrentLinkedQueue<>();
+	private long usedBytes;
+	private int frame;
+	private int evicted;
+
+	private volatile OpenNoise noise;
+	private int generation;
+	/** chunks of previous generations that were already running when seed changed, they still count towards maxPending */
+	private int stale;
+
+	/**
+	 * @param chunkSize tiles per chunk side
+	 * @param budgetBytes memory budget of cached chunks, including their render data
+	 * @param threads to generate chunks on, 0 to generate on calling thread
+	 */
+	public TerrainChunks (int chunkSize, long budgetBytes, int threads) {
+		this(chunkSize, budgetBytes, threads > 0 ? newExecutor(threads) : null, threads > 0 ? threads * 4 : 1);
+	}
+
+	/**
+	 * @param executor to generate chunks on, null to generate on calling thread
+	 */
+	TerrainChunks (int chunkSize, long budgetBytes, ExecutorService executor, int maxPending) {
+		this.chunkSize = chunkSize;
+		this.budgetBytes = budgetBytes;
+		this.executor = executor;
+		this.maxPending = maxPending;
+	}
+
+	private static ExecutorService newExecutor (int threads) {
+		return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			int id;
+			@Override public Thread newThread (Runnable r) {
+				Thread thread = new Thread(r, "terrain-chunks-" + id++);
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Drops all chunks, new ones are generated with given seed
+	 */
+	public void setSeed (long seed) {
+		noise = TerrainGen.noise(seed);
+		generation++;
+		for (Chunk chunk : cache.values()) {
+			chunk.dispose();
+		}
+		cache.clear();
+		// queued chunks are cancelled, running ones will be dropped when done as they are from old generation
+		for (Chunk chunk : pending.values()) {
+			if (!chunk.task.cancel(false)) stale++;
+		}
+		pending.clear();
+		usedBytes = 0;
+	}
+
+	/**
+	 * Start of a frame, chunks returned from {@link #get(int, int)} after this call will not be evicted until next one
+	 */
+	public void beginFrame () {
+		frame++;
+		Chunk chunk;
+		while ((chunk = generated.poll()) != null) {
+			if (chunk.generation != generation) {
+				stale--;
+				continue;
+			}
+			pending.remove(chunk.key);
+			chunk.lastFrame = frame;
+			cache.put(chunk.key, chunk);
+			usedBytes += chunk.getBytes();
+		}
+		evict();
+	}
+
+	/**
+	 * @return generated chunk with given chunk coordinates or null if it is not ready yet, generation is started if needed
+	 */
+	public Chunk get (int chunkX, int chunkY) {
+		if (noise == null) throw new IllegalStateException("Call setSeed first");
+		long key = key(chunkX, chunkY);
+		Chunk chunk = cache.get(key);
+		if (chunk != null) {
+			chunk.lastFrame = frame;
+			return chunk;
+		}
+		if (pending.containsKey(key) || pending.size + stale >= maxPending) return null;
+		chunk = new Chunk(this, chunkX, chunkY, key, generation);
+		if (executor == null) {
+			chunk.generate(noise);
+			chunk.lastFrame = frame;
+			cache.put(key, chunk);
+			usedBytes += chunk.getBytes();
+			evict();
+			return chunk;
+		}
+		pending.put(key, chunk);
+		final Chunk toGenerate = chunk;
+		final OpenNoise noise = this.noise;
+		chunk.task = executor.submit(new Runnable() {
+			@Override public void run () {
+				toGenerate.generate(noise);
+				generated.add(toGenerate);
+			}
+		});
+		return null;
+	}
+
+	/**
+	 * Must be called when render data of cached chunk changes, so budget stays correct
+	 */
+	public void setRenderData (Chunk chunk, Disposable renderData, int renderBytes) {
+		if (chunk.renderData != null) chunk.renderData.dispose();
+		if (cache.get(chunk.key) == chunk) {
+			usedBytes += renderBytes - chunk.renderBytes;
+		}
+		chunk.renderData = renderData;
+		chunk.renderBytes = renderBytes;
+		evict();
+	}
+
+	private void evict () {
+		if (usedBytes <= budgetBytes) return;
+		// least recently used first
+		Iterator<Chunk> it = cache.values().iterator();
+		while (usedBytes > budgetBytes && it.hasNext()) {
+			Chunk chunk = it.next();
+			// in use this frame, everything after it is as well
+			if (chunk.lastFrame == frame) break;
+			it.remove();
+			usedBytes -= chunk.getBytes();
+			chunk.dispose();
+			evicted++;
+		}
+	}
+
+	public static long key (int chunkX, int chunkY) {
+		return ((long)chunkX << 32) | (chunkY & 0xffffffffL);
+	}
+
+	public int getChunkSize () {
+		return chunkSize;
+	}
+
+	public int getCachedCount () {
+		return cache.size();
+	}
+
+	/**
+	 * @return count of chunks being generated, including ones from previous seed that will be dropped
+	 */
+	public int getPendingCount () {
+		return pending.size + stale;
+	}
+
+	public int getEvictedCount () {
+		return evicted;
+	}
+
+	public long getUsedBytes () {
+		return usedBytes;
+	}
+
+	public long getBudgetBytes () {
+		return budgetBytes;
+	}
+
+	@Override public void dispose () {
+		if (executor != null) executor.shutdownNow();
+		for (Chunk chunk : cache.values()) {
+			chunk.dispose();
+		}
+		cache.clear();
+		pending.clear();
+		generated.clear();
+		stale = 0;
+		usedBytes = 0;
+	}
+
+	public static class Chunk {
+		/** chunk coordinates, first tile is at x * size, y * size */
+		public final int x, y;
+		public final int size;
+		/** terrain values, x + y * size */
+		public final float[] values;
+		private final long key;
+		private final int generation;
+		private int lastFrame;
+		private Disposable renderData;
+		private int renderBytes;
+		private Future<?> task;
+
+		Chunk (TerrainChunks chunks, int x, int y, long key, int generation) {
+			this.x = x;
+			this.y = y;
+			this.key = key;
+			this.generation = generation;
+			size = chunks.chunkSize;
+			values = new float[size * size];
+		}
+
+		void generate (OpenNoise noise) {
+			TerrainGen.generateChunk(noise, values, x * size, y * size, size);
+		}
+
+		/**
+		 * @return render data set with {@link TerrainChunks#setRenderData(Chunk, Disposable, int)}, null if there is none
+		 */
+		public Disposable getRenderData () {
+			return renderData;
+		}
+
+		long getBytes () {
+			return values.length * 4L + renderBytes;
+		}
+
+		void dispose () {
+			if (renderData != null) {
+				renderData.dispose();
+				renderData = null;
+			}
+		}
+	}
+}
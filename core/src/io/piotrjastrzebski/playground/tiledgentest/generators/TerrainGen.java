@@ -13,22 +13,43 @@ public class TerrainGen {
 
 	public static float[][] generate(int largestFeature, float persistence, long seed, int width, int height) {
 		OpenNoise noise = new OpenNoise(largestFeature, persistence, seed);
-		double xStart = 0;
-		double XEnd = width;
-		double yStart = 0;
-		double yEnd = height * 2;
+		float[] terrain = new float[width * height];
+		generate(noise, terrain, width, height, 0, height);
+		return TerrainPipeline.toGrid(terrain, width, height);
+	}
+
+	public static OpenNoise noise (long seed) {
+		return new OpenNoise(256, 0.55f, seed);
+	}
 
-		float[][] terrainData = new float[width][height];
-		for (int mx = 0; mx < width; mx++) {
-			for (int my = 0; my < height; my++) {
-				int nx = (int)(xStart + mx * ((XEnd - xStart) / width));
-				int ny = (int)(yStart + my * ((yEnd - yStart) / height));
+	/**
+	 * Fill rows [fromY, toY) of flat map, x + y * width, rows can be generated in parallel
+	 */
+	public static void generate (OpenNoise noise, float[] terrainData, int width, int height, int fromY, int toY) {
+		for (int my = fromY; my < toY; my++) {
+			// x maps 1:1 to noise, y is stretched 2x
+			int ny = my * 2;
+			int row = my * width;
+			for (int mx = 0; mx < width; mx++) {
 				// normalize
-				double dVal = 0.5d + noise.getNoise(nx, ny);
+				double dVal = 0.5d + noise.getNoise(mx, ny);
 				float val = (float)dVal;
-				terrainData[mx][my] = MathUtils.clamp(val, 0, 1);
+				terrainData[row + mx] = MathUtils.clamp(val, 0, 1);
+			}
+		}
+	}
+
+	/**
+	 * Fill size x size chunk starting at given world tile, x + y * size, same values as full map generated with same noise
+	 */
+	public static void generateChunk (OpenNoise noise, float[] terrainData, int worldX, int worldY, int size) {
+		for (int y = 0; y < size; y++) {
+			int ny = (worldY + y) * 2;
+			int row = y * size;
+			for (int x = 0; x < size; x++) {
+				double dVal = 0.5d + noise.getNoise(worldX + x, ny);
+				terrainData[row + x] = MathUtils.clamp((float)dVal, 0, 1);
 			}
 		}
-		return terrainData;
 	}
 }
@@ -0,0 +1,311 @@
+package io.piotrjastrzebski.playground.tiledgentest.generators;
+
+import io.piotrjastrzebski.playground.tiledgentest.OpenNoise;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates terrain, mountain, rain and temperature layers into flat float[] buffers, x + y * width
+ *
+ * Generates on calling thread by default, that is the fastest option on a single core and for small maps,
+ * fork join overhead per stage eats the gain there. With a pool rows of each layer are filled in parallel and
+ * mountains and temperature are generated while terrain and rain are, worth it with several cores and maps of
+ * roughly 512x512 and up, see TerrainPipelineBenchmark
+ * Buffers are reused between generations of same or smaller size
+ */
+public class TerrainPipeline {
+	public static final int TERRAIN = 0;
+	public static final int MOUNTAINS = 1;
+	public static final int RAIN = 2;
+	public static final int TEMPERATURE = 3;
+	public static final int STAGES = 4;
+	private static final String[] STAGE_NAMES = {"terrain", "mountains", "rain", "temperature"};
+
+	/** rows per fork join task */
+	public int rowsPerTask = 16;
+	public int rainDistance = 97;
+	public float waterLevel = 0.4f;
+
+	private final ForkJoinPool pool;
+	private int width;
+	private int height;
+	private float[] terrain = new float[0];
+	private float[] mountains = new float[0];
+	private float[] rain = new float[0];
+	private float[] temperature = new float[0];
+	private float[] scratch = new float[0];
+	private float[] rowMax = new float[0];
+	private final SeparableBlur blur;
+
+	private long seed;
+	private boolean seeded;
+	private OpenNoise terrainNoise;
+	private OpenNoise mountainNoise;
+	private OpenNoise tempNoise;
+
+	private final long[] stageNanos = new long[STAGES];
+	private long totalNanos;
+
+	/**
+	 * Generates on calling thread only, the default
+	 */
+	public TerrainPipeline () {
+		this(null);
+	}
+
+	/**
+	 * Only pass a pool when there are spare cores, on one core parallel generation is slower than serial
+	 *
+	 * @param pool to generate in, null to generate on calling thread only
+	 */
+	public TerrainPipeline (ForkJoinPool pool) {
+		this.pool = pool;
+		blur = new SeparableBlur(pool);
+	}
+
+	public void generate (long seed, int width, int height) {
+		long start = System.nanoTime();
+		this.width = width;
+		this.height = height;
+		int size = width * height;
+		if (terrain.length < size) {
+			terrain = new float[size];
+			mountains = new float[size];
+			rain = new float[size];
+			temperature = new float[size];
+			scratch = new float[size];
+		}
+		if (rowMax.length < height) {
+			rowMax = new float[height];
+		}
+		blur.linesPerTask = rowsPerTask;
+		if (!seeded || this.seed != seed) {
+			this.seed = seed;
+			seeded = true;
+			terrainNoise = TerrainGen.noise(seed);
+			mountainNoise = MountainGen.noise(seed);
+			tempNoise = TempGen.noise(seed);
+		}
+
+		if (pool == null) {
+			terrainAndRain();
+			mountains();
+			temperature();
+		} else {
+			StageTask task = new StageTask(-1);
+			if (ForkJoinTask.inForkJoinPool()) {
+				task.invoke();
+			} else {
+				pool.invoke(task);
+			}
+		}
+		totalNanos = System.nanoTime() - start;
+	}
+
+	private void terrainAndRain () {
+		long start = System.nanoTime();
+		rows(new Rows() {
+			@Override public void rows (int from, int to) {
+				TerrainGen.generate(terrainNoise, terrain, width, height, from, to);
+				RainGen.init(terrain, rain, width, waterLevel, from, to);
+			}
+		});
+		long mid = System.nanoTime();
+		stageNanos[TERRAIN] = mid - start;
+
+		blur.tent(rain, scratch, width, height, rainDistance);
+		rows(new Rows() {
+			@Override public void rows (int from, int to) {
+				for (int y = from; y < to; y++) {
+					rowMax[y] = RainGen.max(rain, width, 1, y, y + 1);
+				}
+			}
+		});
+		float max = 1;
+		for (int y = 0; y < height; y++) {
+			if (rowMax[y] > max) max = rowMax[y];
+		}
+		final float maxRF = max;
+		rows(new Rows() {
+			@Override public void rows (int from, int to) {
+				RainGen.normalize(terrain, rain, width, waterLevel, maxRF, from, to);
+			}
+		});
+		stageNanos[RAIN] = System.nanoTime() - mid;
+	}
+
+	private void mountains () {
+		long start = System.nanoTime();
+		rows(new Rows() {
+			@Override public void rows (int from, int to) {
+				MountainGen.generate(mountainNoise, mountains, width, height, from, to);
+			}
+		});
+		stageNanos[MOUNTAINS] = System.nanoTime() - start;
+	}
+
+	private void temperature () {
+		long start = System.nanoTime();
+		rows(new Rows() {
+			@Override public void rows (int from, int to) {
+				TempGen.generate(tempNoise, temperature, width, height, from, to);
+			}
+		});
+		stageNanos[TEMPERATURE] = System.nanoTime() - start;
+	}
+
+	private void rows (Rows rows) {
+		if (pool == null || height <= rowsPerTask) {
+			rows.rows(0, height);
+		} else {
+			// we are always called from within a StageTask
+			new RowTask(rows, 0, height).invoke();
+		}
+	}
+
+	/**
+	 * @return flat terrain buffer, x + y * width, may be larger than width * height
+	 */
+	public float[] getTerrain () {
+		return terrain;
+	}
+
+	public float[] getMountains () {
+		return mountains;
+	}
+
+	public float[] getRain () {
+		return rain;
+	}
+
+	public float[] getTemperature () {
+		return temperature;
+	}
+
+	public int getWidth () {
+		return width;
+	}
+
+	public int getHeight () {
+		return height;
+	}
+
+	/**
+	 * @return wall time of given stage in last generation, stages may overlap
+	 */
+	public long getStageNanos (int stage) {
+		return stageNanos[stage];
+	}
+
+	public static String getStageName (int stage) {
+		return STAGE_NAMES[stage];
+	}
+
+	/**
+	 * @return wall time of last generation
+	 */
+	public long getTotalNanos () {
+		return totalNanos;
+	}
+
+	/**
+	 * @return readable stage timings of last generation
+	 */
+	public String getTimings () {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < STAGES; i++) {
+			sb.append(STAGE_NAMES[i]).append(": ").append(stageNanos[i] / 1000000).append("ms\n");
+		}
+		sb.append("total: ").append(totalNanos / 1000000).append("ms");
+		return sb.toString();
+	}
+
+	/**
+	 * @return copy of flat map as [x][y] grid
+	 */
+	public static float[][] toGrid (float[] data, int width, int height) {
+		float[][] grid = new float[width][height];
+		for (int y = 0; y < height; y++) {
+			int row = y * width;
+			for (int x = 0; x < width; x++) {
+				grid[x][y] = data[row + x];
+			}
+		}
+		return grid;
+	}
+
+	/**
+	 * @param out to copy to, new array is created if null or too small
+	 * @return flat copy of [x][y] grid
+	 */
+	public static float[] toFlat (float[][] grid, float[] out) {
+		int width = grid.length;
+		int height = grid[0].length;
+		if (out == null || out.length < width * height) {
+			out = new float[width * height];
+		}
+		for (int x = 0; x < width; x++) {
+			float[] column = grid[x];
+			for (int y = 0; y < height; y++) {
+				out[x + y * width] = column[y];
+			}
+		}
+		return out;
+	}
+
+	private interface Rows {
+		void rows (int from, int to);
+	}
+
+	@SuppressWarnings("serial")
+	private class RowTask extends RecursiveAction {
+		private final Rows rows;
+		private final int from;
+		private final int to;
+
+		RowTask (Rows rows, int from, int to) {
+			this.rows = rows;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override protected void compute () {
+			if (to - from <= rowsPerTask) {
+				rows.rows(from, to);
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new RowTask(rows, from, mid), new RowTask(rows, mid, to));
+		}
+	}
+
+	/**
+	 * Runs independent layers concurrently, -1 forks all of them
+	 */
+	@SuppressWarnings("serial")
+	private class StageTask extends RecursiveAction {
+		private final int stage;
+
+		StageTask (int stage) {
+			this.stage = stage;
+		}
+
+		@Override protected void compute () {
+			switch (stage) {
+			case TERRAIN:
+				terrainAndRain();
+				break;
+			case MOUNTAINS:
+				mountains();
+				break;
+			case TEMPERATURE:
+				temperature();
+				break;
+			default:
+				invokeAll(new StageTask(TERRAIN), new StageTask(MOUNTAINS), new StageTask(TEMPERATURE));
+			}
+		}
+	}
+}
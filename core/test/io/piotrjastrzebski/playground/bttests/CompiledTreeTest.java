@@ -0,0 +1,146 @@
+package io.piotrjastrzebski.playground.bttests;
+
+import com.badlogic.gdx.ai.btree.BehaviorTree;
+import com.badlogic.gdx.ai.btree.LeafTask;
+import com.badlogic.gdx.ai.btree.Task;
+import com.badlogic.gdx.ai.btree.annotation.TaskAttribute;
+import com.badlogic.gdx.ai.btree.branch.Parallel;
+import com.badlogic.gdx.ai.btree.branch.Selector;
+import com.badlogic.gdx.ai.btree.branch.Sequence;
+import com.badlogic.gdx.ai.btree.decorator.AlwaysFail;
+import com.badlogic.gdx.ai.btree.decorator.AlwaysSucceed;
+import com.badlogic.gdx.ai.btree.decorator.Invert;
+import com.badlogic.gdx.ai.btree.decorator.UntilFail;
+import com.badlogic.gdx.ai.btree.leaf.Wait;
+import com.badlogic.gdx.utils.Array;
+import io.piotrjastrzebski.playground.bttests.btedittest2.model.BTModel;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CompiledTreeTest {
+
+	public static class Agent {
+		final long seed;
+		final int[] calls = new int[64];
+		final StringBuilder log = new StringBuilder();
+
+		Agent (long seed) {
+			this.seed = seed;
+		}
+	}
+
+	/**
+	 * Returns status based on agents seed and number of calls, state is kept in the agent
+	 */
+	public static class ScriptLeaf extends LeafTask<Agent> {
+		@TaskAttribute public int id;
+
+		@Override public void start () {
+			getObject().log.append('s').append(id).append(' ');
+		}
+
+		@Override public Status execute () {
+			Agent agent = getObject();
+			int call = agent.calls[id]++;
+			agent.log.append('x').append(id).append(' ');
+			long hash = (agent.seed * 31 + id) * 31 + call;
+			hash ^= hash >>> 7;
+			hash *= 0x9E3779B97F4A7C15L;
+			switch ((int)((hash >>> 33) % 3)) {
+			case 0: return Status.RUNNING;
+			case 1: return Status.SUCCEEDED;
+			default: return Status.FAILED;
+			}
+		}
+
+		@Override public void end () {
+			getObject().log.append('e').append(id).append(' ');
+		}
+
+		@Override protected Task<Agent> copyTo (Task<Agent> task) {
+			((ScriptLeaf)task).id = id;
+			return task;
+		}
+	}
+
+	private int leaves;
+	private Task<Agent> random (Random random, int depth) {
+		int type = depth >= 4? 0 : random.nextInt(depth == 0? 4 : 8);
+		switch (type) {
+		case 0: case 1: {
+			ScriptLeaf leaf = new ScriptLeaf();
+			leaf.id = leaves++;
+			return leaf;
+		}
+		case 2: return branch(new Sequence<Agent>(), random, depth);
+		case 3: return branch(new Selector<Agent>(), random, depth);
+		case 4: return branch(new Parallel<Agent>(random.nextBoolean()? Parallel.Policy.Sequence : Parallel.Policy.Selector), random, depth);
+		case 5: return new Invert<>(random(random, depth + 1));
+		case 6: return new AlwaysSucceed<>(random(random, depth + 1));
+		default: return new AlwaysFail<>(random(random, depth + 1));
+		}
+	}
+
+	private Task<Agent> branch (Task<Agent> branch, Random random, int depth) {
+		int count = 1 + random.nextInt(3);
+		for (int i = 0; i < count; i++) {
+			branch.addChild(random(random, depth + 1));
+		}
+		return branch;
+	}
+
+	@Test public void matchesBehaviorTree () {
+		for (int seed = 0; seed < 200; seed++) {
+			leaves = 0;
+			Task<Agent> root = random(new Random(seed), 0);
+			CompiledTree<Agent> compiled = CompiledTree.compile(root);
+			// two agents sharing compiled tree, each against own behavior tree
+			Agent[] expected = {new Agent(seed), new Agent(seed + 1000)};
+			Agent[] actual = {new Agent(seed), new Agent(seed + 1000)};
+			Array<BehaviorTree<Agent>> trees = new Array<>();
+			int[][] states = new int[2][];
+			for (int i = 0; i < 2; i++) {
+				trees.add(new BehaviorTree<>(root.cloneTask(), expected[i]));
+				states[i] = compiled.newState();
+			}
+			for (int step = 0; step < 50; step++) {
+				for (int i = 0; i < 2; i++) {
+					trees.get(i).step();
+					Task.Status status = compiled.step(actual[i], states[i]);
+					assertEquals("seed " + seed + " step " + step, trees.get(i).getChild(0).getStatus(), status);
+				}
+			}
+			for (int i = 0; i < 2; i++) {
+				assertEquals("seed " + seed, expected[i].log.toString(), actual[i].log.toString());
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsUnsupported () {
+		CompiledTree.compile(new UntilFail<>(new ScriptLeaf()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsLeafWithState () {
+		// Wait keeps its timer in fields
+		Sequence<Agent> sequence = new Sequence<>();
+		sequence.addChild(new ScriptLeaf());
+		sequence.addChild(new Wait<Agent>(1));
+		CompiledTree.compile(sequence);
+	}
+
+	@Test public void compilesModel () {
+		BTModel<Agent> model = new BTModel<>();
+		Sequence<Agent> sequence = new Sequence<>();
+		sequence.addChild(new ScriptLeaf());
+		sequence.addChild(new Invert<>(new ScriptLeaf()));
+		model.init(new BehaviorTree<>(sequence));
+		CompiledTree<Agent> compiled = model.compile();
+		assertNotNull(compiled);
+		assertEquals(4, compiled.getNodeCount());
+	}
+}
@@ -0,0 +1,61 @@
+package io.piotrjastrzebski.playground.cellularautomata;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ActiveRegionsTest {
+
+	@Test public void wakeActivatesNeighbours () {
+		ActiveRegions regions = new ActiveRegions(10, 10, 1);
+		regions.wake(5, 5);
+		regions.wake(5, 6);
+		int count = regions.begin();
+		// 2 crosses overlapping in 2 cells
+		assertEquals(8, count);
+		for (int i = 1; i < count; i++) {
+			assertTrue(regions.getActive(i - 1) < regions.getActive(i));
+		}
+		assertTrue(regions.isActive(5 + 5 * 10));
+		assertTrue(regions.isActive(5 + 7 * 10));
+		assertFalse(regions.isActive(6 + 6 * 10 + 1));
+		assertEquals(8, regions.getActiveCells());
+		assertEquals(92, regions.getSkippedCells());
+	}
+
+	@Test public void sleepsWithoutChanges () {
+		ActiveRegions regions = new ActiveRegions(10, 10, 1);
+		regions.wake(0, 0);
+		assertEquals(3, regions.begin());
+		// corner and its 2 neighbours, plus their neighbours
+		assertEquals(6, regions.touch());
+		regions.markChanged(2);
+		regions.end();
+		assertEquals(4, regions.begin());
+		assertTrue(regions.isActive(2));
+		assertFalse(regions.isActive(0));
+		regions.touch();
+		regions.end();
+		assertEquals(0, regions.begin());
+		assertEquals(0, regions.touch());
+		assertEquals(100, regions.getSkippedCells());
+	}
+
+	@Test public void chunks () {
+		ActiveRegions regions = new ActiveRegions(20, 10, 8);
+		assertEquals(3, regions.getRegionsX());
+		assertEquals(2, regions.getRegionsY());
+		regions.wake(19, 9);
+		assertEquals(3, regions.begin());
+		// last chunk is 4x2 cells, its neighbours are 8x2 and 4x8
+		assertEquals(4 * 2 + 8 * 2 + 4 * 8, regions.getActiveCells());
+		assertEquals(16, regions.getStartX(5));
+		assertEquals(20, regions.getEndX(5));
+		assertEquals(10, regions.getEndY(5));
+		regions.wakeAll();
+		regions.touch();
+		regions.end();
+		assertEquals(6, regions.begin());
+		assertEquals(0, regions.getSkippedCells());
+	}
+}
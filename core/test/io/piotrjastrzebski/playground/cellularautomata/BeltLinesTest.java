@@ -0,0 +1,182 @@
+package io.piotrjastrzebski.playground.cellularautomata;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class BeltLinesTest {
+	static final int SIZE = 3;
+
+	/**
+	 * Belts 0 to count - 1, each moving items to the next one
+	 */
+	private static BeltLines line (int count, int slots, boolean loop) {
+		int[] beltSlots = new int[count];
+		int[] next = new int[count];
+		for (int i = 0; i < count; i++) {
+			beltSlots[i] = slots;
+			next[i] = i + 1;
+		}
+		next[count - 1] = loop? 0 : BeltLines.NONE;
+		BeltLines lines = new BeltLines(SIZE);
+		lines.setBelts(beltSlots, next);
+		return lines;
+	}
+
+	/**
+	 * @return center positions of items along the line, sorted
+	 */
+	private static int[] positions (BeltLines lines, final int slots) {
+		final IntArray out = new IntArray();
+		lines.visitItems(new BeltLines.ItemVisitor() {
+			@Override public void visit (int item, int belt, int slot) {
+				out.add(belt * slots + slot);
+			}
+		});
+		int[] positions = out.toArray();
+		Arrays.sort(positions);
+		return positions;
+	}
+
+	@Test public void itemsQueueAtEnd () {
+		BeltLines lines = line(5, 6, false);
+		assertEquals(1, lines.getSegmentCount());
+		assertFalse(lines.isLoop(0));
+		int added = 0;
+		for (int tick = 0; tick < 100; tick++) {
+			if (lines.addItem(0, added)) added++;
+			lines.tick();
+		}
+		// 30 slots fit 10 items, there is always space for one more on the first belt until then
+		assertEquals(10, added);
+		assertEquals(10, lines.getItemCount());
+		int[] positions = positions(lines, 6);
+		assertEquals(10, positions.length);
+		for (int i = 0; i < positions.length; i++) {
+			assertEquals(1 + i * SIZE, positions[i]);
+		}
+	}
+
+	@Test public void itemsMoveSlotPerTick () {
+		BeltLines lines = line(4, 9, false);
+		assertTrue(lines.addItem(0, 0));
+		assertArrayEquals(new int[] {1}, positions(lines, 9));
+		for (int tick = 1; tick <= 20; tick++) {
+			lines.tick();
+			assertArrayEquals(new int[] {1 + tick}, positions(lines, 9));
+		}
+	}
+
+	@Test public void loopKeepsSpacing () {
+		int belts = 8;
+		int slots = 6;
+		BeltLines lines = line(belts, slots, true);
+		assertTrue(lines.isLoop(0));
+		for (int i = 0; i < belts; i++) {
+			assertTrue(lines.addItem(i, i));
+		}
+		// second item on a belt fits, third doesn't
+		assertTrue(lines.addItem(0, 100));
+		assertFalse(lines.addItem(0, 101));
+		int length = belts * slots;
+		int[] start = positions(lines, slots);
+		for (int tick = 0; tick < length; tick++) {
+			lines.tick();
+			int[] positions = positions(lines, slots);
+			assertEquals(start.length, positions.length);
+			for (int i = 0; i < positions.length; i++) {
+				int next = i == positions.length - 1? positions[0] + length : positions[i + 1];
+				assertTrue("items overlap at tick " + tick, next - positions[i] >= SIZE);
+			}
+		}
+		// everything moved freely, so after a full lap items are back where they were
+		assertArrayEquals(start, positions(lines, slots));
+	}
+
+	@Test public void packedLoopStaysPacked () {
+		BeltLines lines = line(3, 6, true);
+		int added = 0;
+		while (true) {
+			boolean any = false;
+			for (int b = 0; b < 3; b++) {
+				if (lines.addItem(b, added)) {
+					added++;
+					any = true;
+				}
+			}
+			if (!any) break;
+		}
+		assertEquals(6, added);
+		// fully packed loop still rotates
+		int[] start = positions(lines, 6);
+		lines.tick();
+		assertFalse(Arrays.equals(start, positions(lines, 6)));
+		for (int tick = 1; tick < 18; tick++) {
+			lines.tick();
+		}
+		assertArrayEquals(start, positions(lines, 6));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void multipleInputs () {
+		BeltLines lines = new BeltLines(SIZE);
+		lines.setBelts(new int[] {6, 6, 6}, new int[] {2, 2, BeltLines.NONE});
+	}
+
+	@Test public void parallelEqualsSerial () {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			BeltLines serial = random(null);
+			BeltLines parallel = random(pool);
+			parallel.parallelThreshold = 1;
+			parallel.segmentsPerTask = 1;
+			for (int tick = 0; tick < 300; tick++) {
+				serial.tick();
+				parallel.tick();
+			}
+			assertArrayEquals(visit(serial), visit(parallel));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static BeltLines random (ForkJoinPool pool) {
+		Random random = new Random(7);
+		int count = 2000;
+		int[] slots = new int[count];
+		int[] next = new int[count];
+		int i = 0;
+		while (i < count) {
+			int length = Math.min(1 + random.nextInt(40), count - i);
+			boolean loop = random.nextBoolean();
+			for (int j = 0; j < length; j++) {
+				slots[i + j] = random.nextBoolean()? 6 : 9;
+				next[i + j] = j == length - 1? (loop? i : BeltLines.NONE) : i + j + 1;
+			}
+			i += length;
+		}
+		BeltLines lines = new BeltLines(SIZE, pool);
+		lines.setBelts(slots, next);
+		for (int item = 0; item < count; item++) {
+			lines.addItem(random.nextInt(count), item);
+		}
+		return lines;
+	}
+
+	private static int[] visit (BeltLines lines) {
+		final IntArray out = new IntArray();
+		lines.visitItems(new BeltLines.ItemVisitor() {
+			@Override public void visit (int item, int belt, int slot) {
+				out.add(item);
+				out.add(belt);
+				out.add(slot);
+			}
+		});
+		return out.toArray();
+	}
+}
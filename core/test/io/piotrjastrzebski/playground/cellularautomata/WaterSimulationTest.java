@@ -0,0 +1,80 @@
+package io.piotrjastrzebski.playground.cellularautomata;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class WaterSimulationTest {
+	static final int SIZE = 96;
+
+	private WaterSimulation create (ForkJoinPool pool) {
+		WaterSimulation sim = new WaterSimulation(SIZE, SIZE, 8, pool);
+		Random random = new Random(11);
+		for (int i = 0; i < SIZE; i++) {
+			// walls, so no water drains out
+			sim.setBlock(i, 0);
+			sim.setBlock(i, SIZE - 1);
+			sim.setBlock(0, i);
+			sim.setBlock(SIZE - 1, i);
+		}
+		for (int i = 0; i < 400; i++) {
+			sim.setBlock(1 + random.nextInt(SIZE - 2), 1 + random.nextInt(SIZE - 2));
+		}
+		for (int i = 0; i < 1500; i++) {
+			sim.addWater(1 + random.nextInt(SIZE - 2), SIZE / 2 + random.nextInt(SIZE / 2 - 1), 1);
+		}
+		return sim;
+	}
+
+	@Test public void conservesWater () {
+		WaterSimulation sim = create(null);
+		float total = sim.getTotal();
+		for (int i = 0; i < 200; i++) {
+			sim.step(1 / 60f);
+		}
+		assertEquals(total, sim.getTotal(), total * 0.0001f);
+	}
+
+	@Test public void parallelMatchesSerial () {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			WaterSimulation serial = create(null);
+			WaterSimulation parallel = create(pool);
+			parallel.parallelThreshold = 1;
+			for (int i = 0; i < 100; i++) {
+				serial.step(1 / 60f);
+				parallel.step(1 / 60f);
+			}
+			assertArrayEquals(serial.getValues(), parallel.getValues(), 0);
+			assertArrayEquals(serial.getTypes(), parallel.getTypes());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test public void settles () {
+		WaterSimulation sim = new WaterSimulation(SIZE, SIZE, 8, null);
+		for (int i = 0; i < SIZE; i++) {
+			sim.setBlock(i, 0);
+			sim.setBlock(0, i);
+			sim.setBlock(SIZE - 1, i);
+		}
+		sim.addWater(SIZE / 2, 10, 5);
+		int steps = 0;
+		do {
+			sim.step(1 / 60f);
+		} while (sim.getActiveChunks() > 0 && ++steps < 20000);
+		assertEquals(0, sim.getActiveChunks());
+		// nothing to do
+		sim.step(1 / 60f);
+		assertEquals(0, sim.getTouchedChunks());
+
+		sim.addWater(5, 5, 1);
+		sim.step(1 / 60f);
+		assertTrue(sim.getActiveChunks() > 0);
+		assertTrue(sim.getActiveChunks() < sim.getChunkCount());
+	}
+}
@@ -0,0 +1,75 @@
+package io.piotrjastrzebski.playground.clientserverv2;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LagNetworkTest {
+	long now;
+	LagNetwork<Integer> network;
+	IntArray received;
+	LagNetwork.Receiver<Integer> receiver = new LagNetwork.Receiver<Integer>() {
+		@Override public void receive (Integer data, long sent) {
+			received.add(data);
+		}
+	};
+
+	@Before public void setUp () throws Exception {
+		now = 1000;
+		network = new LagNetwork<>(new LagNetwork.Clock() {
+			@Override public long millis () {
+				return now;
+			}
+		});
+		received = new IntArray();
+	}
+
+	@Test public void deliversInTimeOrder () {
+		network.send(300, 3);
+		network.send(100, 1);
+		network.send(200, 2);
+		network.send(100, 11);
+		assertNull(network.receive());
+		assertEquals(0, network.drainUntil(1099, receiver));
+		assertEquals(2, network.drainUntil(1100, receiver));
+		assertEquals(1, network.drainUntil(1250, receiver));
+		now = 2000;
+		LagNetwork<Integer>.Message<Integer> message = network.receive();
+		assertEquals(3, (int)message.data);
+		assertEquals(1000, message.ts);
+		network.free(message);
+		assertEquals(0, network.size());
+		// same delivery time keeps send order
+		assertArrayEquals(new int[] {1, 11, 2}, received.toArray());
+	}
+
+	@Test public void manyMessages () {
+		for (int i = 0; i < 5000; i++) {
+			now = i;
+			network.send((i * 7919) % 500, i);
+		}
+		network.setJitter(50);
+		network.setSeed(7);
+		for (int i = 0; i < 1000; i++) {
+			network.send(0, -1);
+		}
+		long last = Long.MIN_VALUE;
+		while (network.size() > 0) {
+			now++;
+			int before = received.size;
+			network.drain(receiver);
+			for (int i = before; i < received.size; i++) {
+				int id = received.get(i);
+				if (id >= 0) {
+					long deliver = id + (id * 7919) % 500;
+					assertTrue(deliver <= now);
+					assertTrue(deliver >= last);
+					last = deliver;
+				}
+			}
+		}
+		assertEquals(6000, received.size);
+	}
+}
@@ -0,0 +1,77 @@
+package io.piotrjastrzebski.playground.clientserverv2;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SnapshotCodecTest {
+	Random random = new Random(3);
+
+	private WorldSnapshot randomSnapshot (int tick, WorldSnapshot previous) {
+		WorldSnapshot snapshot = new WorldSnapshot();
+		snapshot.tick = tick;
+		EntityState state = new EntityState();
+		for (int id = 0; id < 200; id++) {
+			// some entities leave and join
+			if (random.nextInt(10) == 0) continue;
+			int index = previous != null ? previous.indexOf(id) : -1;
+			if (index >= 0 && random.nextBoolean()) {
+				// unchanged
+				snapshot.add(previous.get(index, state));
+				continue;
+			}
+			state.id = id;
+			state.x = random.nextFloat() * 40 - 20;
+			state.velocity = random.nextFloat() * 10 - 5;
+			state.accel = random.nextInt(3) == 0 ? 0 : random.nextFloat() * 100 - 50;
+			state.lastSeqId = random.nextInt(1000);
+			snapshot.add(state);
+		}
+		return snapshot;
+	}
+
+	private void assertSame (WorldSnapshot expected, WorldSnapshot actual) {
+		assertEquals(expected.tick, actual.tick);
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.ids[i], actual.ids[i]);
+			assertEquals(expected.x[i], actual.x[i]);
+			assertEquals(expected.velocity[i], actual.velocity[i]);
+			assertEquals(expected.accel[i], actual.accel[i]);
+			assertEquals(expected.lastSeqId[i], actual.lastSeqId[i]);
+		}
+	}
+
+	@Test public void full () {
+		WorldSnapshot snapshot = randomSnapshot(1, null);
+		SnapshotPacket packet = SnapshotCodec.encode(null, snapshot, new SnapshotPacket());
+		assertEquals(-1, packet.baselineTick);
+		assertSame(snapshot, SnapshotCodec.decode(null, packet, new WorldSnapshot()));
+	}
+
+	@Test public void delta () {
+		WorldSnapshot baseline = randomSnapshot(1, null);
+		SnapshotPacket packet = new SnapshotPacket();
+		int fullSize = SnapshotCodec.encode(null, baseline, packet).size();
+		for (int tick = 2; tick < 20; tick++) {
+			WorldSnapshot current = randomSnapshot(tick, baseline);
+			SnapshotCodec.encode(baseline, current, packet);
+			assertEquals(baseline.tick, packet.baselineTick);
+			assertSame(current, SnapshotCodec.decode(baseline, packet, new WorldSnapshot()));
+			baseline = current;
+		}
+		// nothing changed, only header and counts
+		SnapshotCodec.encode(baseline, baseline, packet);
+		assertTrue(packet.size() < 8);
+		assertTrue(packet.size() < fullSize);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void missingBaseline () {
+		WorldSnapshot baseline = randomSnapshot(1, null);
+		SnapshotPacket packet = SnapshotCodec.encode(baseline, randomSnapshot(2, baseline), new SnapshotPacket());
+		SnapshotCodec.decode(null, packet, new WorldSnapshot());
+	}
+}
@@ -0,0 +1,114 @@
+package io.piotrjastrzebski.playground.ecs.aijobs;
+
+import com.badlogic.gdx.ai.btree.BehaviorTree;
+import com.badlogic.gdx.ai.btree.LeafTask;
+import com.badlogic.gdx.ai.btree.Task;
+import io.piotrjastrzebski.playground.ecs.aijobs.components.Worker;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class AISchedulerTest {
+
+	private static Worker[] workers (int count, final int[] steps, final AtomicInteger total, final long sleepNanos) {
+		Worker[] workers = new Worker[count];
+		for (int i = 0; i < count; i++) {
+			final Worker worker = new Worker();
+			worker.eid = i;
+			worker.ai = new BehaviorTree<>(new LeafTask<Worker>() {
+				@Override public Status execute () {
+					steps[getObject().eid]++;
+					total.incrementAndGet();
+					if (sleepNanos > 0) {
+						long end = System.nanoTime() + sleepNanos;
+						while (System.nanoTime() < end);
+					}
+					return Status.SUCCEEDED;
+				}
+
+				@Override protected Task<Worker> copyTo (Task<Worker> task) {
+					return task;
+				}
+			}, worker);
+			workers[i] = worker;
+		}
+		return workers;
+	}
+
+	@Test public void intervalsAreSpread () {
+		int[] steps = new int[100];
+		AtomicInteger total = new AtomicInteger();
+		AIScheduler scheduler = new AIScheduler(0);
+		for (Worker worker : workers(100, steps, total, 0)) {
+			scheduler.add(worker, 4);
+		}
+		for (int tick = 0; tick < 40; tick++) {
+			scheduler.tick(1);
+			assertEquals(25, scheduler.getStepped());
+			assertEquals(75, scheduler.getSkipped());
+			assertEquals(0, scheduler.getDeferred());
+		}
+		for (int i = 0; i < steps.length; i++) {
+			assertEquals(10, steps[i]);
+		}
+	}
+
+	@Test public void deltaAccumulatesBetweenSteps () {
+		int[] steps = new int[1];
+		AIScheduler scheduler = new AIScheduler(0);
+		Worker worker = workers(1, steps, new AtomicInteger(), 0)[0];
+		scheduler.add(worker, 3);
+		scheduler.tick(.5f);
+		assertEquals(1, steps[0]);
+		assertEquals(.5f, worker.aiDelta, .0001f);
+		scheduler.tick(.5f);
+		scheduler.tick(.5f);
+		scheduler.tick(.5f);
+		assertEquals(2, steps[0]);
+		assertEquals(1.5f, worker.aiDelta, .0001f);
+	}
+
+	@Test public void budgetDefersWorkers () {
+		int[] steps = new int[50];
+		AtomicInteger total = new AtomicInteger();
+		AIScheduler scheduler = new AIScheduler(0);
+		scheduler.budgetNanos = 1000000;
+		for (Worker worker : workers(50, steps, total, 100000)) {
+			scheduler.add(worker, 1);
+		}
+		scheduler.tick(1);
+		assertTrue(scheduler.getDeferred() > 0);
+		assertEquals(50, scheduler.getStepped() + scheduler.getDeferred());
+		// deferred workers go first, so everyone gets stepped eventually
+		for (int tick = 0; tick < 100; tick++) {
+			scheduler.tick(1);
+		}
+		for (int i = 0; i < steps.length; i++) {
+			assertTrue(steps[i] > 0);
+		}
+	}
+
+	@Test public void parallelStepsAll () {
+		int[] steps = new int[1000];
+		AtomicInteger total = new AtomicInteger();
+		AIScheduler scheduler = new AIScheduler(3);
+		scheduler.minParallel = 1;
+		try {
+			for (Worker worker : workers(1000, steps, total, 0)) {
+				scheduler.add(worker, 2);
+			}
+			for (int tick = 0; tick < 10; tick++) {
+				scheduler.tick(1);
+				assertEquals(500, scheduler.getStepped());
+			}
+			assertEquals(5000, total.get());
+			for (int i = 0; i < steps.length; i++) {
+				assertEquals(5, steps[i]);
+			}
+		} finally {
+			scheduler.dispose();
+		}
+	}
+}
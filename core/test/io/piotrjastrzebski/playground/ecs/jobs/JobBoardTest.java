@@ -0,0 +1,111 @@
+package io.piotrjastrzebski.playground.ecs.jobs;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class JobBoardTest {
+
+	@Test public void dependenciesUnlockOnFinish () {
+		JobBoard board = new JobBoard(4);
+		board.add(1, 0, 0, 0);
+		// 3 is not added yet, but still counts
+		board.require(2, 1);
+		board.require(2, 3);
+		board.add(2, 0, 0, 0);
+		assertEquals(2, board.getRemaining(2));
+		assertFalse(board.isReady(2));
+
+		board.finish(1);
+		assertEquals(1, board.getRemaining(2));
+		assertFalse(board.isReady(2));
+
+		board.add(3, 0, 0, 0);
+		board.remove(3);
+		assertEquals(0, board.getRemaining(2));
+		assertTrue(board.isReady(2));
+		assertEquals(1, board.getReadyCount());
+
+		// finished jobs are not waited for
+		board.require(4, 1);
+		board.add(4, 0, 0, 0);
+		assertTrue(board.isReady(4));
+	}
+
+	@Test public void removedIdCanBeReused () {
+		JobBoard board = new JobBoard(4);
+		board.add(1, 0, 0, 0);
+		board.require(2, 1);
+		board.add(2, 0, 0, 0);
+		// removed before its requirement finished, then id is reused by unrelated job
+		board.remove(2);
+		board.add(2, 0, 0, 0);
+		assertTrue(board.isReady(2));
+
+		board.finish(1);
+		assertEquals(0, board.getRemaining(2));
+		assertTrue(board.isReady(2));
+	}
+
+	@Test public void higherPriorityFirst () {
+		JobBoard board = new JobBoard(4);
+		board.add(1, 0, 0, 0);
+		board.add(2, 5, 100, 100);
+		board.add(3, 1, 50, 50);
+		assertEquals(2, board.claimNearest(0, 0));
+		assertEquals(3, board.claimNearest(0, 0));
+		assertEquals(1, board.claimNearest(0, 0));
+		assertEquals(JobBoard.NULL_ID, board.claimNearest(0, 0));
+
+		board.release(3);
+		assertEquals(3, board.claimNearest(0, 0));
+	}
+
+	@Test public void claimsNearest () {
+		JobBoard board = new JobBoard(4);
+		Random random = new Random(3);
+		int count = 500;
+		float[] xs = new float[count];
+		float[] ys = new float[count];
+		boolean[] claimed = new boolean[count];
+		for (int i = 0; i < count; i++) {
+			xs[i] = random.nextFloat() * 200 - 100;
+			ys[i] = random.nextFloat() * 200 - 100;
+			board.add(i, 0, xs[i], ys[i]);
+		}
+		for (int i = 0; i < count; i++) {
+			float x = random.nextFloat() * 240 - 120;
+			float y = random.nextFloat() * 240 - 120;
+			float best = Float.MAX_VALUE;
+			for (int j = 0; j < count; j++) {
+				if (claimed[j]) continue;
+				best = Math.min(best, dst2(xs[j], ys[j], x, y));
+			}
+			int id = board.claimNearest(x, y);
+			assertFalse(claimed[id]);
+			assertEquals(best, dst2(xs[id], ys[id], x, y), 0.0001f);
+			claimed[id] = true;
+		}
+		assertEquals(0, board.getReadyCount());
+	}
+
+	@Test(timeout = 1000)
+	public void sparseJobsFarApart () {
+		JobBoard board = new JobBoard(1);
+		board.add(0, 0, -100000, -100000);
+		board.add(1, 0, 100000, 100000);
+		board.add(2, 0, 5, 5);
+		// nearby job is gone, remaining ones are a lot of empty cells away
+		assertEquals(2, board.claimNearest(0, 0));
+		board.remove(2);
+		assertEquals(1, board.claimNearest(90000, 90000));
+		board.remove(1);
+		assertEquals(0, board.claimNearest(100000, 100000));
+	}
+
+	private static float dst2 (float x1, float y1, float x2, float y2) {
+		return (x1 - x2) * (x1 - x2) + (y1 - y2) * (y1 - y2);
+	}
+}
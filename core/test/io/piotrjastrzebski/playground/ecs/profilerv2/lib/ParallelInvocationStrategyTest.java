@@ -0,0 +1,122 @@
+package io.piotrjastrzebski.playground.ecs.profilerv2.lib;
+
+import com.artemis.*;
+import com.artemis.systems.IteratingSystem;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class ParallelInvocationStrategyTest {
+	ForkJoinPool pool;
+
+	@Before public void setUp () throws Exception {
+		pool = new ForkJoinPool(4);
+	}
+
+	@After public void tearDown () throws Exception {
+		pool.shutdown();
+	}
+
+	@Test public void batches () {
+		WorldConfiguration config = new WorldConfiguration();
+		config.setSystem(new MoveX());
+		config.setSystem(new MoveY());
+		config.setSystem(new Exclusive());
+		config.setSystem(new ReadX());
+		config.setSystem(new WriteX());
+		ParallelInvocationStrategy strategy = new ParallelInvocationStrategy(pool);
+		config.setInvocationStrategy(strategy);
+		World world = new World(config);
+
+		for (int i = 0; i < 1000; i++) {
+			EntityEdit edit = world.createEntity().edit();
+			edit.create(X.class);
+			edit.create(Y.class);
+		}
+		for (int i = 0; i < 3; i++) {
+			world.process();
+		}
+		// artemis managers come first, they are systems without declared access
+		int[] batches = strategy.getBatches();
+		int[] tail = new int[9];
+		System.arraycopy(batches, batches.length - tail.length, tail, 0, tail.length);
+		assertArrayEquals(new int[] {3, 4, -1, 5, -1, 6, -1, 7, -1}, tail);
+
+		ComponentMapper<X> mX = world.getMapper(X.class);
+		ComponentMapper<Y> mY = world.getMapper(Y.class);
+		for (int i = 0; i < 1000; i++) {
+			// WriteX doubles after MoveX
+			assertEquals(6, mX.get(i).value);
+			assertEquals(3, mY.get(i).value);
+		}
+		world.dispose();
+	}
+
+	public static class X extends Component {
+		public int value;
+	}
+
+	public static class Y extends Component {
+		public int value;
+	}
+
+	@ComponentAccess(write = X.class)
+	public static class MoveX extends IteratingSystem {
+		ComponentMapper<X> mX;
+
+		public MoveX () {
+			super(Aspect.all(X.class));
+		}
+
+		@Override protected void process (int e) {
+			mX.get(e).value++;
+		}
+	}
+
+	@ComponentAccess(write = Y.class)
+	public static class MoveY extends IteratingSystem {
+		ComponentMapper<Y> mY;
+
+		public MoveY () {
+			super(Aspect.all(Y.class));
+		}
+
+		@Override protected void process (int e) {
+			mY.get(e).value++;
+		}
+	}
+
+	public static class Exclusive extends BaseSystem {
+		@Override protected void processSystem () {}
+	}
+
+	@ComponentAccess(read = X.class)
+	public static class ReadX extends IteratingSystem {
+		ComponentMapper<X> mX;
+
+		public ReadX () {
+			super(Aspect.all(X.class));
+		}
+
+		@Override protected void process (int e) {
+			mX.get(e);
+		}
+	}
+
+	@ComponentAccess(write = X.class)
+	public static class WriteX extends IteratingSystem {
+		ComponentMapper<X> mX;
+
+		public WriteX () {
+			super(Aspect.all(X.class));
+		}
+
+		@Override protected void process (int e) {
+			if (mX.get(e).value % 2 == 1) mX.get(e).value++;
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package io.piotrjastrzebski.playground.ecs.profilerv2.lib;
+
+import com.badlogic.gdx.utils.LongArray;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class ProfilerReportTest {
+	SystemProfiler profiler;
+
+	@Before public void setUp () throws Exception {
+		SystemProfiler.resume();
+		SystemProfiler.startRecording();
+		profiler = SystemProfiler.create("Test");
+	}
+
+	@After public void tearDown () throws Exception {
+		SystemProfiler.stopRecording();
+		SystemProfiler.pause();
+		SystemProfiler.dispose();
+	}
+
+	@Test public void recorderDropsWhenFull () {
+		SampleRecorder recorder = new SampleRecorder(5);
+		assertEquals(8, recorder.capacity());
+		for (int i = 0; i < 10; i++) {
+			recorder.record(i);
+		}
+		assertEquals(2, recorder.getDropped());
+		LongArray out = new LongArray();
+		assertEquals(8, recorder.drain(out));
+		assertEquals(0, out.get(0));
+		assertEquals(7, out.get(7));
+		assertTrue(recorder.record(100));
+		out.clear();
+		recorder.drain(out);
+		assertEquals(100, out.get(0));
+	}
+
+	@Test public void summary () {
+		// 1..100 us
+		for (int i = 100; i >= 1; i--) {
+			profiler.sample(i * 1000);
+		}
+		ProfilerReport report = new ProfilerReport();
+		assertEquals(100, report.collect());
+		ProfilerReport.Summary summary = report.summarize(profiler, new ProfilerReport.Summary());
+		assertEquals(100, summary.count);
+		assertEquals(50000, summary.p50);
+		assertEquals(95000, summary.p95);
+		assertEquals(99000, summary.p99);
+		assertEquals(100000, summary.max);
+	}
+
+	@Test public void keepsLastWindow () {
+		ProfilerReport report = new ProfilerReport(10);
+		for (int i = 0; i < 100; i++) {
+			profiler.sample(i);
+			report.collect();
+		}
+		LongArray samples = report.getSamples(profiler);
+		assertEquals(10, samples.size);
+		assertEquals(90, samples.first());
+		assertEquals(99, samples.peek());
+		assertEquals(10, report.summarize(profiler, new ProfilerReport.Summary()).count);
+	}
+
+	@Test public void binaryRoundTrip () throws Exception {
+		for (int i = 0; i < 1000; i++) {
+			profiler.sample(i * 1234567L);
+		}
+		ProfilerReport report = new ProfilerReport();
+		report.collect();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		report.writeBinary(bytes);
+		ProfilerReport read = ProfilerReport.readBinary(new ByteArrayInputStream(bytes.toByteArray()));
+		assertEquals(1, read.getProfilers().size);
+		SystemProfiler readProfiler = read.getProfilers().first();
+		assertEquals("Test", readProfiler.getName());
+		LongArray samples = read.getSamples(readProfiler);
+		assertEquals(1000, samples.size);
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i * 1234567L, samples.get(i));
+		}
+
+		StringWriter writer = new StringWriter();
+		report.writeSummaryCsv(writer);
+		String[] lines = writer.toString().split("\n");
+		assertEquals(2, lines.length);
+		assertTrue(lines[1].startsWith("Test,1000,"));
+	}
+}
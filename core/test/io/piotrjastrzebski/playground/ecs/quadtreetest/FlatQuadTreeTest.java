@@ -0,0 +1,178 @@
+package io.piotrjastrzebski.playground.ecs.quadtreetest;
+
+import com.artemis.utils.IntBag;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class FlatQuadTreeTest {
+	static final int COUNT = 2000;
+	static final float SIZE = 1000;
+
+	FlatQuadTree tree;
+	float[] bounds;
+	boolean[] alive;
+	Random random;
+
+	@Before public void setUp () throws Exception {
+		random = new Random(42);
+		tree = new FlatQuadTree(0, 0, SIZE, SIZE, 8, 6, 16);
+		bounds = new float[COUNT * 4];
+		alive = new boolean[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			randomize(i);
+			tree.insert(i, bounds[i * 4], bounds[i * 4 + 1], bounds[i * 4 + 2], bounds[i * 4 + 3]);
+			alive[i] = true;
+		}
+	}
+
+	private void randomize (int id) {
+		bounds[id * 4] = random.nextFloat() * (SIZE - 20);
+		bounds[id * 4 + 1] = random.nextFloat() * (SIZE - 20);
+		bounds[id * 4 + 2] = 1 + random.nextFloat() * 19;
+		bounds[id * 4 + 3] = 1 + random.nextFloat() * 19;
+	}
+
+	@Test public void splits () {
+		assertTrue(tree.getNodeCount() > 1);
+		assertNotEquals(FlatQuadTree.NONE, tree.getNodeChildren(FlatQuadTree.ROOT));
+	}
+
+	@Test public void getExactRect () {
+		checkQueries();
+	}
+
+	@Test public void updateAndRemove () {
+		for (int i = 0; i < COUNT; i += 3) {
+			randomize(i);
+			tree.update(i, bounds[i * 4], bounds[i * 4 + 1], bounds[i * 4 + 2], bounds[i * 4 + 3]);
+		}
+		for (int i = 1; i < COUNT; i += 5) {
+			tree.remove(i);
+			alive[i] = false;
+			assertFalse(tree.contains(i));
+		}
+		checkQueries();
+	}
+
+	@Test public void rebuild () {
+		IntBag ids = new IntBag();
+		float[] packed = new float[COUNT * 4];
+		for (int i = 0; i < COUNT; i++) {
+			randomize(i);
+			if (i % 7 == 0) {
+				alive[i] = false;
+				continue;
+			}
+			packed[ids.size() * 4] = bounds[i * 4];
+			packed[ids.size() * 4 + 1] = bounds[i * 4 + 1];
+			packed[ids.size() * 4 + 2] = bounds[i * 4 + 2];
+			packed[ids.size() * 4 + 3] = bounds[i * 4 + 3];
+			ids.add(i);
+		}
+		tree.rebuild(ids, packed);
+		assertFalse(tree.contains(0));
+		assertTrue(tree.contains(1));
+		checkQueries();
+
+		// incremental updates must work on rebuilt tree
+		for (int i = 1; i < COUNT; i += 7) {
+			randomize(i);
+			tree.update(i, bounds[i * 4], bounds[i * 4 + 1], bounds[i * 4 + 2], bounds[i * 4 + 3]);
+		}
+		checkQueries();
+	}
+
+	@Test public void snapshot () {
+		QuadTreeSnapshot snapshot = tree.snapshot(new QuadTreeSnapshot());
+		assertEquals(COUNT, snapshot.size());
+		QuadTreeSnapshot.QueryBatch batch = new QuadTreeSnapshot.QueryBatch();
+		batch.queriesPerTask = 4;
+		for (int q = 0; q < 500; q++) {
+			batch.add(random.nextFloat() * SIZE, random.nextFloat() * SIZE, random.nextFloat() * 100, random.nextFloat() * 100);
+		}
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			snapshot.getExact(pool, batch);
+		} finally {
+			pool.shutdown();
+		}
+		IntBag fill = new IntBag();
+		for (int q = 0; q < batch.size(); q++) {
+			IntBag result = batch.getResult(q);
+			fill.setSize(0);
+			tree.getExact(fill, batch.rects[q * 4], batch.rects[q * 4 + 1], batch.rects[q * 4 + 2], batch.rects[q * 4 + 3]);
+			assertEquals(fill.size(), result.size());
+			for (int i = 0; i < result.size(); i++) {
+				assertTrue(fill.contains(result.get(i)));
+			}
+		}
+		float px = 500;
+		float py = 500;
+		assertEquals(tree.getExact(new IntBag(), px, py).size(), snapshot.getExact(new IntBag(), px, py).size());
+	}
+
+	@Test public void getPoint () {
+		IntBag fill = new IntBag();
+		for (int q = 0; q < 200; q++) {
+			float px = random.nextFloat() * SIZE;
+			float py = random.nextFloat() * SIZE;
+			fill.setSize(0);
+			tree.getExact(fill, px, py);
+			IntBag approx = tree.get(new IntBag(), px, py);
+			for (int i = 0; i < COUNT; i++) {
+				float x = bounds[i * 4];
+				float y = bounds[i * 4 + 1];
+				boolean hit = x <= px && x + bounds[i * 4 + 2] >= px && y <= py && y + bounds[i * 4 + 3] >= py;
+				assertEquals(hit, fill.contains(i));
+				if (hit) assertTrue(approx.contains(i));
+			}
+		}
+	}
+
+	@Test public void reset () {
+		tree.reset();
+		assertEquals(1, tree.getNodeCount());
+		assertEquals(0, tree.getExact(new IntBag(), 0, 0, SIZE, SIZE).size());
+		tree.insert(5, 10, 10, 5, 5);
+		assertEquals(1, tree.getExact(new IntBag(), 0, 0, SIZE, SIZE).size());
+	}
+
+	@Test public void independentTrees () {
+		FlatQuadTree other = new FlatQuadTree(0, 0, SIZE, SIZE);
+		other.insert(0, 500, 500, 10, 10);
+		assertEquals(1, other.getExact(new IntBag(), 0, 0, SIZE, SIZE).size());
+		assertEquals(COUNT, tree.getExact(new IntBag(), -1, -1, SIZE + 2, SIZE + 2).size());
+	}
+
+	private void checkQueries () {
+		IntBag fill = new IntBag();
+		for (int q = 0; q < 200; q++) {
+			float qx = random.nextFloat() * SIZE;
+			float qy = random.nextFloat() * SIZE;
+			float qw = random.nextFloat() * 100;
+			float qh = random.nextFloat() * 100;
+			fill.setSize(0);
+			tree.getExact(fill, qx, qy, qw, qh);
+			int expected = 0;
+			for (int i = 0; i < COUNT; i++) {
+				if (!alive[i]) {
+					assertFalse(fill.contains(i));
+					continue;
+				}
+				float x = bounds[i * 4];
+				float y = bounds[i * 4 + 1];
+				boolean hit = x < qx + qw && x + bounds[i * 4 + 2] > qx && y < qy + qh && y + bounds[i * 4 + 3] > qy;
+				if (hit) {
+					expected++;
+					assertTrue(fill.contains(i));
+				}
+			}
+			assertEquals(expected, fill.size());
+		}
+	}
+}
@@ -0,0 +1,294 @@
+package io.piotrjastrzebski.playground.ecs.sat.processors;
+
+import com.artemis.BaseSystem;
+import com.artemis.EntityEdit;
+import com.artemis.World;
+import com.artemis.WorldConfiguration;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.IntArray;
+import io.piotrjastrzebski.playground.ecs.sat.components.*;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class CollisionTest {
+
+	@Test public void sweepAndPruneFindsOverlappingPairs () {
+		Random random = new Random(3);
+		int count = 300;
+		Rectangle[] rects = new Rectangle[count];
+		SweepAndPrune sap = new SweepAndPrune();
+		for (int i = 0; i < count; i++) {
+			rects[i] = new Rectangle(random.nextFloat() * 100, random.nextFloat() * 100, 1 + random.nextFloat() * 5, 1 + random.nextFloat() * 5);
+			sap.add(i);
+		}
+		IntArray pairs = new IntArray();
+		for (int frame = 0; frame < 10; frame++) {
+			for (int i = 0; i < count; i++) {
+				rects[i].x += random.nextFloat() * 4 - 2;
+				rects[i].y += random.nextFloat() * 4 - 2;
+				sap.update(i, rects[i]);
+			}
+			pairs.clear();
+			sap.findPairs(pairs);
+			Set<Long> found = new HashSet<>();
+			for (int i = 0; i < pairs.size; i += 2) {
+				int a = Math.min(pairs.get(i), pairs.get(i + 1));
+				int b = Math.max(pairs.get(i), pairs.get(i + 1));
+				assertTrue(found.add((long)a << 32 | b));
+			}
+			int expected = 0;
+			for (int a = 0; a < count; a++) {
+				for (int b = a + 1; b < count; b++) {
+					if (!rects[a].overlaps(rects[b])) continue;
+					expected++;
+					assertTrue(found.contains((long)a << 32 | b));
+				}
+			}
+			assertEquals(expected, found.size());
+		}
+	}
+
+	@Test public void satTests () {
+		World world = world();
+		Collision collision = world.getSystem(Collision.class);
+		// overlapping circles
+		circle(world, 0, 0, 1);
+		circle(world, 1.5f, 0, 1);
+		// boxes with overlapping AABBs, but separated by diagonal axis
+		poly(world, 10, 0, 45, 2);
+		poly(world, 11.5f, 1.5f, 45, 2);
+		// circle touching box side
+		circle(world, 20, 0, 1);
+		poly(world, 21.5f, 0, 0, 2);
+		// circle in box corner, but not touching it
+		circle(world, 30, 0, 1);
+		poly(world, 31.8f, 1.8f, 0, 2);
+		// box inside box
+		poly(world, 40, 0, 0, 4);
+		poly(world, 40.5f, 0, 0, 1);
+		world.process();
+
+		assertEquals(5, collision.getPairsTested());
+		assertEquals(3, collision.getContacts().size);
+		Collision.CollisionResult contained = null;
+		for (Collision.CollisionResult result : collision.getContacts()) {
+			assertTrue(result.collided);
+			assertTrue(result.separation.len() > 0);
+			if (result.entityAContained || result.entityBContained) contained = result;
+		}
+		assertNotNull(contained);
+	}
+
+	@Test public void broadphaseMatchesAllPairs () {
+		World world = world();
+		Random random = new Random(5);
+		for (int i = 0; i < 200; i++) {
+			if (random.nextBoolean()) {
+				circle(world, random.nextFloat() * 30, random.nextFloat() * 30, .5f + random.nextFloat());
+			} else {
+				poly(world, random.nextFloat() * 30, random.nextFloat() * 30, random.nextFloat() * 360, 1 + random.nextFloat() * 2);
+			}
+		}
+		Collision collision = world.getSystem(Collision.class);
+		world.process();
+		int pairs = collision.getPairsTested();
+		int contacts = collision.getContacts().size;
+		assertTrue(contacts > 0);
+		collision.broadphase = false;
+		world.process();
+		assertEquals(pairs, collision.getPairsTested());
+		assertEquals(contacts, collision.getContacts().size);
+	}
+
+	@Test public void cachesPairsAndSendsEvents () {
+		World world = world();
+		Collision collision = world.getSystem(Collision.class);
+		final StringBuilder events = new StringBuilder();
+		collision.addContactListener(new Collision.ContactListener() {
+			@Override public void begin (Collision.CollisionResult contact) {
+				events.append("begin ");
+			}
+
+			@Override public void persist (Collision.CollisionResult contact) {
+				events.append("persist ");
+			}
+
+			@Override public void end (int entityA, int entityB) {
+				events.append("end ");
+			}
+		});
+		// AABBs overlap, boxes dont
+		Transform a = poly(world, 0, 0, 45, 2);
+		poly(world, 1.5f, 1.5f, 45, 2);
+		world.process();
+		assertEquals(1, collision.getSatTests());
+		world.process();
+		assertEquals(0, collision.getSatTests());
+		assertEquals(1, collision.getStaticHits());
+		// still separated by same axis
+		a.pos.x -= .1f;
+		world.process();
+		assertEquals(0, collision.getSatTests());
+		assertEquals(1, collision.getAxisHits());
+		assertEquals("", events.toString());
+
+		a.pos.set(.5f, .5f);
+		world.process();
+		world.process();
+		a.pos.set(-.2f, -.2f);
+		world.process();
+		assertEquals("begin persist end ", events.toString());
+
+		a.pos.set(.5f, .5f);
+		world.process();
+		a.pos.set(100, 100);
+		world.process();
+		assertEquals("begin persist end begin end ", events.toString());
+		assertEquals(0, collision.getCachedPairs());
+
+		a.pos.set(.5f, .5f);
+		world.process();
+		world.delete(0);
+		world.process();
+		assertEquals("begin persist end begin end begin end ", events.toString());
+		assertEquals(0, collision.getCachedPairs());
+	}
+
+	@Test public void pairCacheMatchesFullTests () {
+		World[] worlds = {world(), world()};
+		worlds[1].getSystem(Collision.class).pairCache = false;
+		Transform[][] transforms = new Transform[2][100];
+		for (int w = 0; w < 2; w++) {
+			Random random = new Random(9);
+			for (int i = 0; i < 100; i++) {
+				if (random.nextBoolean()) {
+					transforms[w][i] = circle(worlds[w], random.nextFloat() * 20, random.nextFloat() * 20, .5f + random.nextFloat());
+				} else {
+					transforms[w][i] = poly(worlds[w], random.nextFloat() * 20, random.nextFloat() * 20, random.nextFloat() * 360, 1 + random.nextFloat() * 2);
+				}
+			}
+		}
+		Random random = new Random(10);
+		int axisHits = 0;
+		for (int frame = 0; frame < 50; frame++) {
+			// only some move
+			for (int i = 0; i < 10; i++) {
+				int id = random.nextInt(100);
+				float dx = random.nextFloat() - .5f;
+				float dy = random.nextFloat() - .5f;
+				for (int w = 0; w < 2; w++) {
+					transforms[w][id].pos.add(dx, dy);
+				}
+			}
+			worlds[0].process();
+			worlds[1].process();
+			Collision cached = worlds[0].getSystem(Collision.class);
+			Collision full = worlds[1].getSystem(Collision.class);
+			assertEquals(full.getContacts().size, cached.getContacts().size);
+			if (frame > 0) assertTrue(cached.getSatTests() < full.getSatTests());
+			axisHits += cached.getAxisHits();
+		}
+		assertTrue(axisHits > 0);
+	}
+
+	@Test public void contactsValidAfterRemoval () {
+		WorldConfiguration config = new WorldConfiguration();
+		config.setSystem(new PolygonUpdater());
+		config.setSystem(new CircleUpdater());
+		final Collision collision = new Collision();
+		collision.debug = false;
+		config.setSystem(collision);
+		final Collision.CollisionResult[] seen = new Collision.CollisionResult[1];
+		config.setSystem(new BaseSystem() {
+			@Override protected void processSystem () {
+				if (collision.getContacts().size > 0) world.delete(collision.getContacts().first().entityA);
+			}
+		});
+		config.setSystem(new BaseSystem() {
+			@Override protected void processSystem () {
+				if (collision.getContacts().size > 0) seen[0] = collision.getContacts().first();
+			}
+		});
+		World world = new World(config);
+		circle(world, 0, 0, 1);
+		circle(world, 1.5f, 0, 1);
+		world.process();
+		assertNotNull(seen[0]);
+		assertTrue(seen[0].collided);
+		assertEquals(0, seen[0].entityA);
+		assertEquals(1, seen[0].entityB);
+		world.process();
+		assertEquals(0, collision.getContacts().size);
+	}
+
+	@Test public void removingEntitiesEndsOnlyTheirPairs () {
+		World world = world();
+		Collision collision = world.getSystem(Collision.class);
+		final IntArray ended = new IntArray();
+		collision.addContactListener(new Collision.ContactListener() {
+			@Override public void begin (Collision.CollisionResult contact) {
+			}
+
+			@Override public void persist (Collision.CollisionResult contact) {
+			}
+
+			@Override public void end (int entityA, int entityB) {
+				ended.add(entityA, entityB);
+			}
+		});
+		// chain of circles, each touches its neighbours
+		for (int i = 0; i < 10; i++) {
+			circle(world, i * 1.5f, 0, 1);
+		}
+		world.process();
+		assertEquals(9, collision.getContacts().size);
+		world.delete(3);
+		world.delete(4);
+		world.process();
+		// 2-3, 3-4 and 4-5
+		assertEquals(6, ended.size);
+		assertEquals(6, collision.getContacts().size);
+		assertEquals(6, collision.getCachedPairs());
+		// reused id starts without old pairs
+		circle(world, 100, 100, 1);
+		world.process();
+		assertEquals(6, collision.getCachedPairs());
+	}
+
+	private static World world () {
+		WorldConfiguration config = new WorldConfiguration();
+		config.setSystem(new PolygonUpdater());
+		config.setSystem(new CircleUpdater());
+		Collision collision = new Collision();
+		collision.debug = false;
+		config.setSystem(collision);
+		return new World(config);
+	}
+
+	private static Transform circle (World world, float x, float y, float radius) {
+		EntityEdit ee = world.createEntity().edit();
+		ee.create(Circle.class).radius = radius;
+		Transform transform = ee.create(Transform.class);
+		transform.pos.set(x, y);
+		ee.create(Collider.class);
+		ee.create(AABB.class);
+		return transform;
+	}
+
+	private static Transform poly (World world, float x, float y, float rotation, float size) {
+		float h = size / 2;
+		EntityEdit ee = world.createEntity().edit();
+		ee.create(Polygon.class).polygon.setVertices(new float[] {-h, -h, h, -h, h, h, -h, h});
+		Transform transform = ee.create(Transform.class);
+		transform.pos.set(x, y);
+		transform.rot = rotation;
+		ee.create(Collider.class);
+		ee.create(AABB.class);
+		return transform;
+	}
+}
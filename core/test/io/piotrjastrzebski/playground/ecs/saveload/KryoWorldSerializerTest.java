@@ -0,0 +1,127 @@
+package io.piotrjastrzebski.playground.ecs.saveload;
+
+import com.artemis.*;
+import com.artemis.annotations.EntityId;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.files.FileHandle;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class KryoWorldSerializerTest {
+	World world;
+	KryoWorldSerializer serializer;
+	DirtyEntityTracker tracker;
+
+	@Before public void setUp () throws Exception {
+		world = createWorld();
+		tracker = world.getSystem(DirtyEntityTracker.class);
+		serializer = new KryoWorldSerializer(world);
+	}
+
+	private World createWorld () {
+		WorldConfiguration config = new WorldConfiguration();
+		config.setSystem(new DirtyEntityTracker());
+		return new World(config);
+	}
+
+	private int create (String text) {
+		int e = world.create();
+		world.edit(e).create(Text.class).text = text;
+		return e;
+	}
+
+	@Test public void roundTrip () {
+		int a = create("a");
+		int b = create("b");
+		Shared shared = new Shared();
+		Ref ref = world.edit(a).create(Ref.class);
+		ref.id = b;
+		ref.entity = world.getEntity(b);
+		ref.ids = new IntBag();
+		ref.ids.add(a);
+		ref.ids.add(b);
+		world.edit(a).add(shared);
+		world.edit(b).add(shared);
+		world.process();
+
+		IntBag entities = new IntBag();
+		entities.add(a);
+		entities.add(b);
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		serializer.save(entities, baos);
+
+		World other = createWorld();
+		// offset ids, so remapping is tested
+		for (int i = 0; i < 5; i++) other.create();
+		IntBag loaded = new KryoWorldSerializer(other).load(new ByteArrayInputStream(baos.toByteArray()));
+		other.process();
+		assertEquals(2, loaded.size());
+		int la = loaded.get(0);
+		int lb = loaded.get(1);
+		assertEquals("a", other.getMapper(Text.class).get(la).text);
+		assertEquals("b", other.getMapper(Text.class).get(lb).text);
+		Ref loadedRef = other.getMapper(Ref.class).get(la);
+		assertEquals(lb, loadedRef.id);
+		assertEquals(lb, loadedRef.entity.getId());
+		assertEquals(la, loadedRef.ids.get(0));
+		assertEquals(lb, loadedRef.ids.get(1));
+		assertSame(other.getMapper(Shared.class).get(la), other.getMapper(Shared.class).get(lb));
+		// transient fields are not saved
+		assertNotSame(ref.cache, loadedRef.cache);
+	}
+
+	@Test public void incremental () throws Exception {
+		File tmp = File.createTempFile("world", ".bin");
+		tmp.deleteOnExit();
+		FileHandle file = new FileHandle(tmp);
+		int a = create("a");
+		int b = create("b");
+		int c = create("c");
+		world.process();
+		tracker.saveFull(serializer, file);
+		long fullSize = file.length();
+
+		world.getMapper(Text.class).get(a).text = "a2";
+		tracker.markDirty(a);
+		world.delete(b);
+		int d = create("d");
+		world.process();
+		assertEquals(2 + 1, tracker.saveDirty(serializer, file));
+		assertEquals(0, tracker.saveDirty(serializer, file));
+		assertTrue(file.length() - fullSize < fullSize);
+
+		World other = createWorld();
+		IntBag loaded = new KryoWorldSerializer(other).load(file);
+		other.process();
+		assertEquals(3, loaded.size());
+		ComponentMapper<Text> mText = other.getMapper(Text.class);
+		IntBag all = other.getAspectSubscriptionManager().get(Aspect.all(Text.class)).getEntities();
+		assertEquals(3, all.size());
+		StringBuilder texts = new StringBuilder();
+		for (int i = 0; i < loaded.size(); i++) {
+			texts.append(mText.get(loaded.get(i)).text).append(',');
+		}
+		assertEquals("c,a2,d,", texts.toString());
+	}
+
+	public static class Text extends Component {
+		public String text;
+	}
+
+	public static class Shared extends Component {
+		public int value = 5;
+	}
+
+	public static class Ref extends Component {
+		@EntityId public int id;
+		@EntityId public IntBag ids;
+		public Entity entity;
+		public transient Object cache = new Object();
+	}
+}
@@ -0,0 +1,95 @@
+package io.piotrjastrzebski.playground.isotiled.partitions;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FloodFillerTest {
+	static final int WIDTH = 41;
+	static final int HEIGHT = 29;
+
+	@Test public void matchesFourWayFill () {
+		Random random = new Random(3);
+		FloodFiller filler = new FloodFiller();
+		IntArray out = new IntArray();
+		for (int run = 0; run < 50; run++) {
+			int[] types = new int[WIDTH * HEIGHT];
+			float walls = random.nextFloat() * .6f;
+			for (int i = 0; i < types.length; i++) {
+				types[i] = random.nextFloat() < walls? 1 : 0;
+			}
+			int x = random.nextInt(WIDTH);
+			int y = random.nextInt(HEIGHT);
+			int sx = random.nextInt(x + 1);
+			int sy = random.nextInt(y + 1);
+			int ex = x + random.nextInt(WIDTH - x);
+			int ey = y + random.nextInt(HEIGHT - y);
+			filler.floodFill(types, WIDTH, HEIGHT, x, y, sx, sy, ex, ey, out);
+			int[] expected = fill(types, x, y, sx, sy, ex, ey);
+			int[] actual = out.toArray();
+			Arrays.sort(actual);
+			assertArrayEquals("run " + run, expected, actual);
+		}
+	}
+
+	@Test public void openMap () {
+		int[] types = new int[WIDTH * HEIGHT];
+		IntArray out = new IntArray();
+		FloodFiller filler = new FloodFiller();
+		filler.floodFill(types, WIDTH, HEIGHT, 5, 5, 0, 0, WIDTH - 1, HEIGHT - 1, out);
+		assertEquals(WIDTH * HEIGHT, out.size);
+		// visited mask is clear for the next fill
+		filler.floodFill(types, WIDTH, HEIGHT, 0, 0, 0, 0, 9, 9, out);
+		assertEquals(100, out.size);
+	}
+
+	@Test public void tileMapRegion () {
+		int size = 16;
+		int[] map = new int[size * size];
+		// wall column splitting the map, rows in map are flipped
+		for (int y = 0; y < size; y++) {
+			map[4 + y * size] = 1;
+		}
+		TileMap tileMap = new TileMap(map, size, size, 8);
+		IntArray out = new IntArray();
+		tileMap.floodFiller.floodFill(0, 0, tileMap, out);
+		assertEquals(4 * size, out.size);
+		MapRegion region = tileMap.getRegionAt(9, 9);
+		tileMap.floodFiller.floodFill(9, 9, region, tileMap, out);
+		assertEquals(64, out.size);
+		for (int i = 0; i < out.size; i++) {
+			assertSame(region, tileMap.getTile(out.get(i)).region);
+		}
+	}
+
+	private static int[] fill (int[] types, int x, int y, int sx, int sy, int ex, int ey) {
+		boolean[] visited = new boolean[types.length];
+		int target = types[x + y * WIDTH];
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		queue.add(x + y * WIDTH);
+		visited[x + y * WIDTH] = true;
+		IntArray out = new IntArray();
+		int[][] offsets = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+		while (!queue.isEmpty()) {
+			int id = queue.poll();
+			out.add(id);
+			for (int[] offset : offsets) {
+				int nx = id % WIDTH + offset[0];
+				int ny = id / WIDTH + offset[1];
+				if (nx < sx || nx > ex || ny < sy || ny > ey) continue;
+				int next = nx + ny * WIDTH;
+				if (visited[next] || types[next] != target) continue;
+				visited[next] = true;
+				queue.add(next);
+			}
+		}
+		int[] result = out.toArray();
+		Arrays.sort(result);
+		return result;
+	}
+}
@@ -0,0 +1,119 @@
+package io.piotrjastrzebski.playground.isotiled.partitions;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import io.piotrjastrzebski.playground.isotiled.partitions.MapRegion.SubRegion;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RegionPathFinderTest {
+	static final int SIZE = 48;
+	static final int REGION_SIZE = 8;
+
+	private static TileMap random (long seed) {
+		Random random = new Random(seed);
+		int[] map = new int[SIZE * SIZE];
+		for (int i = 0; i < map.length; i++) {
+			float r = random.nextFloat();
+			map[i] = r < .3f? 1 : r < .35f? 2 : 0;
+		}
+		TileMap tileMap = new TileMap(map, SIZE, SIZE, REGION_SIZE);
+		tileMap.rebuild();
+		return tileMap;
+	}
+
+	@Test public void findsPathWhenTilePathExists () {
+		for (int seed = 0; seed < 5; seed++) {
+			TileMap tileMap = random(seed);
+			RegionPathFinder finder = new RegionPathFinder(tileMap);
+			Random random = new Random(seed);
+			IntArray path = new IntArray();
+			IntArray expected = new IntArray();
+			for (int i = 0; i < 200; i++) {
+				int sx = random.nextInt(SIZE), sy = random.nextInt(SIZE);
+				int ex = random.nextInt(SIZE), ey = random.nextInt(SIZE);
+				boolean found = finder.findPath(sx, sy, ex, ey, path);
+				assertEquals(finder.findTilePath(sx, sy, ex, ey, expected), found);
+				if (!found) continue;
+				assertValid(tileMap, path, sx, sy, ex, ey);
+				assertTrue(path.size >= expected.size);
+			}
+		}
+	}
+
+	@Test public void corridorIsCachedUntilRebuild () {
+		TileMap tileMap = random(7);
+		RegionPathFinder finder = new RegionPathFinder(tileMap);
+		int sx = -1, sy = -1;
+		for (Tile tile : tileMap.tiles) {
+			if (tile.type != RegionPathFinder.WALL) {
+				sx = tile.x;
+				sy = tile.y;
+				break;
+			}
+		}
+		IntArray path = new IntArray();
+		finder.findPath(sx, sy, sx, sy, path);
+		finder.findPath(sx, sy, sx, sy, path);
+		assertEquals(1, finder.getCacheMisses());
+		assertEquals(1, finder.getCacheHits());
+		assertEquals(1, path.size);
+
+		tileMap.rebuild(sx, sy);
+		finder.findPath(sx, sy, sx, sy, path);
+		assertEquals(2, finder.getCacheMisses());
+		assertEquals(1, finder.getCacheSize());
+	}
+
+	@Test public void corridorCopyDoesNotChangeCache () {
+		TileMap tileMap = random(9);
+		RegionPathFinder finder = new RegionPathFinder(tileMap);
+		Array<SubRegion> corridor = new Array<>();
+		int sx = -1, sy = -1;
+		for (Tile tile : tileMap.tiles) {
+			if (tile.type != RegionPathFinder.WALL) {
+				sx = tile.x;
+				sy = tile.y;
+				break;
+			}
+		}
+		assertTrue(finder.findCorridor(sx, sy, sx, sy, corridor));
+		assertEquals(1, corridor.size);
+		corridor.clear();
+		assertTrue(finder.findCorridor(sx, sy, sx, sy, corridor));
+		assertEquals(1, finder.getCacheHits());
+		assertEquals(1, corridor.size);
+	}
+
+	@Test public void wallsBlockPath () {
+		TileMap tileMap = random(8);
+		// wall off the middle column, no doors
+		for (int y = 0; y < SIZE; y++) {
+			tileMap.getTileAt(SIZE / 2, y).setType(RegionPathFinder.WALL);
+			tileMap.scheduleRebuild(SIZE / 2, y);
+		}
+		tileMap.getTileAt(0, 0).setType(0);
+		tileMap.getTileAt(SIZE - 1, 0).setType(0);
+		tileMap.rebuild(0, 0);
+		tileMap.rebuild(SIZE - 1, 0);
+		RegionPathFinder finder = new RegionPathFinder(tileMap);
+		IntArray path = new IntArray();
+		assertFalse(finder.findPath(0, 0, SIZE - 1, 0, path));
+		assertEquals(0, path.size);
+	}
+
+	private static void assertValid (TileMap tileMap, IntArray path, int sx, int sy, int ex, int ey) {
+		assertEquals(sx + sy * SIZE, path.first());
+		assertEquals(ex + ey * SIZE, path.peek());
+		for (int i = 0; i < path.size; i++) {
+			Tile tile = tileMap.getTile(path.get(i));
+			assertNotEquals(RegionPathFinder.WALL, tile.type);
+			if (i == 0) continue;
+			Tile last = tileMap.getTile(path.get(i - 1));
+			assertEquals(1, Math.abs(tile.x - last.x) + Math.abs(tile.y - last.y));
+		}
+	}
+}
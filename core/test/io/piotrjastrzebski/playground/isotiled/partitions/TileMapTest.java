@@ -0,0 +1,111 @@
+package io.piotrjastrzebski.playground.isotiled.partitions;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class TileMapTest {
+	static final int SIZE = 32;
+	static final int REGION_SIZE = 8;
+
+	private static int[] random (long seed) {
+		Random random = new Random(seed);
+		int[] map = new int[SIZE * SIZE];
+		for (int i = 0; i < map.length; i++) {
+			float r = random.nextFloat();
+			map[i] = r < .3f? 1 : r < .35f? 2 : 0;
+		}
+		return map;
+	}
+
+	@Test public void backgroundRebuildMatchesFull () throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			TileMap tileMap = new TileMap(random(1), SIZE, SIZE, REGION_SIZE, executor);
+			tileMap.rebuild();
+			Random random = new Random(2);
+			for (int frame = 0; frame < 50; frame++) {
+				for (int i = 0; i < 5; i++) {
+					Tile tile = tileMap.getTile(random.nextInt(SIZE * SIZE));
+					tile.setType(random.nextInt(3));
+					tileMap.scheduleRebuild(tile.x, tile.y);
+				}
+				tileMap.update();
+			}
+			tileMap.finishRebuild();
+			assertFalse(tileMap.isRebuilding());
+
+			TileMap expected = new TileMap(toMap(tileMap), SIZE, SIZE, REGION_SIZE);
+			expected.rebuild();
+			assertEquals(describe(expected), describe(tileMap));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test public void editsAreCoalesced () {
+		TileMap tileMap = new TileMap(random(3), SIZE, SIZE, REGION_SIZE);
+		tileMap.rebuild();
+		// all in the middle of single region, so we get it and 4 neighbours once
+		for (int x = 10; x < 14; x++) {
+			for (int y = 10; y < 14; y++) {
+				tileMap.scheduleRebuild(x, y);
+			}
+		}
+		assertEquals(5, tileMap.getScheduledCount());
+		assertTrue(tileMap.update());
+		assertEquals(0, tileMap.getScheduledCount());
+		assertFalse(tileMap.update());
+	}
+
+	@Test public void snapshotIgnoresLaterEdits () {
+		TileMap tileMap = new TileMap(random(4), SIZE, SIZE, REGION_SIZE);
+		tileMap.rebuild();
+		Tile tile = tileMap.getTileAt(12, 12);
+		tile.setType(tile.type == 0? 1 : 0);
+		tileMap.scheduleRebuild(12, 12);
+		tileMap.update();
+		int type = tile.type;
+		// not scheduled, so map still reflects previous rebuild
+		tile.setType(type == 0? 1 : 0);
+		assertEquals(type, tileMap.types[tile.id]);
+		assertEquals(type, tile.subRegion.tileType);
+	}
+
+	private static int[] toMap (TileMap tileMap) {
+		int[] map = new int[SIZE * SIZE];
+		for (Tile tile : tileMap.tiles) {
+			map[tile.x + (SIZE - 1 - tile.y) * SIZE] = tile.type;
+		}
+		return map;
+	}
+
+	/**
+	 * Sub regions with their tiles and edges, rooms are left out as they are not split on rebuild
+	 */
+	private static String describe (TileMap tileMap) {
+		StringBuilder sb = new StringBuilder();
+		for (MapRegion region : tileMap.regions) {
+			sb.append("region ").append(region.id).append('\n');
+			for (MapRegion.SubRegion sub : region.subs) {
+				sb.append(" sub ").append(sub.id).append(" type ").append(sub.tileType).append(" tiles");
+				for (Tile tile : sub.tiles) {
+					sb.append(' ').append(tile.id);
+				}
+				IntArray ids = new IntArray(sub.edgeIds);
+				ids.sort();
+				sb.append(" edges ").append(Arrays.toString(ids.toArray())).append('\n');
+			}
+		}
+		int[] edges = tileMap.idToEdge.keys().toArray().toArray();
+		Arrays.sort(edges);
+		sb.append("edges ").append(Arrays.toString(edges));
+		return sb.toString();
+	}
+}
@@ -0,0 +1,101 @@
+package io.piotrjastrzebski.playground.tiledgentest.generators;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class SeparableBlurTest {
+	static final int WIDTH = 53;
+	static final int HEIGHT = 31;
+
+	private static float[] random (long seed) {
+		Random random = new Random(seed);
+		float[] data = new float[WIDTH * HEIGHT];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = random.nextFloat();
+		}
+		return data;
+	}
+
+	@Test public void tentMatchesWindow () {
+		for (int radius : new int[] {0, 1, 5, 30, 97}) {
+			float[] data = random(radius);
+			float[] expected = data.clone();
+			windowTent(expected, WIDTH, HEIGHT, radius);
+			new SeparableBlur().tent(data, new float[data.length], WIDTH, HEIGHT, radius);
+			assertArrayEquals("radius " + radius, expected, data, 0.0001f * Math.max(radius * radius, 1));
+		}
+	}
+
+	@Test public void boxMatchesWindow () {
+		for (int radius : new int[] {0, 1, 4, 40}) {
+			float[] data = random(radius);
+			float[] expected = data.clone();
+			windowBox(expected, WIDTH, HEIGHT, radius);
+			new SeparableBlur().box(data, new float[data.length], WIDTH, HEIGHT, radius);
+			assertArrayEquals("radius " + radius, expected, data, 0.00001f);
+		}
+	}
+
+	@Test public void parallelEqualsSerial () {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			SeparableBlur parallel = new SeparableBlur(pool);
+			parallel.linesPerTask = 2;
+			float[] serialData = random(3);
+			float[] parallelData = random(3);
+			new SeparableBlur().tent(serialData, new float[serialData.length], WIDTH, HEIGHT, 7);
+			parallel.tent(parallelData, new float[parallelData.length], WIDTH, HEIGHT, 7);
+			assertArrayEquals(serialData, parallelData, 0);
+			new SeparableBlur().gaussian(serialData, new float[serialData.length], WIDTH, HEIGHT, 3.5f);
+			parallel.gaussian(parallelData, new float[parallelData.length], WIDTH, HEIGHT, 3.5f);
+			assertArrayEquals(serialData, parallelData, 0);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static void windowTent (float[] data, int width, int height, int radius) {
+		float[] tmp = new float[data.length];
+		for (int pass = 0; pass < 2; pass++) {
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					double sum = data[x + y * width];
+					for (int d = -radius; d <= radius; d++) {
+						if (d == 0) continue;
+						int mx = pass == 0? x + d : x;
+						int my = pass == 0? y : y + d;
+						if (mx < 0 || mx >= width || my < 0 || my >= height) continue;
+						sum += data[mx + my * width] * (1 - Math.abs(d) / (1.1 * radius));
+					}
+					tmp[x + y * width] = (float)sum;
+				}
+			}
+			System.arraycopy(tmp, 0, data, 0, data.length);
+		}
+	}
+
+	private static void windowBox (float[] data, int width, int height, int radius) {
+		float[] tmp = new float[data.length];
+		for (int pass = 0; pass < 2; pass++) {
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					double sum = 0;
+					int count = 0;
+					for (int d = -radius; d <= radius; d++) {
+						int mx = pass == 0? x + d : x;
+						int my = pass == 0? y : y + d;
+						if (mx < 0 || mx >= width || my < 0 || my >= height) continue;
+						sum += data[mx + my * width];
+						count++;
+					}
+					tmp[x + y * width] = (float)(sum / count);
+				}
+			}
+			System.arraycopy(tmp, 0, data, 0, data.length);
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package io.piotrjastrzebski.playground.tiledgentest.generators;
+
+import com.badlogic.gdx.utils.Disposable;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TerrainChunksTest {
+	static final int SIZE = 16;
+	static final long SEED = 42;
+
+	@Test public void chunksMatchFullMap () {
+		TerrainChunks chunks = new TerrainChunks(SIZE, Long.MAX_VALUE, 0);
+		chunks.setSeed(SEED);
+		float[][] terrain = TerrainGen.generate(SEED, SIZE * 3, SIZE * 2);
+		chunks.beginFrame();
+		for (int cy = 0; cy < 2; cy++) {
+			for (int cx = 0; cx < 3; cx++) {
+				TerrainChunks.Chunk chunk = chunks.get(cx, cy);
+				for (int y = 0; y < SIZE; y++) {
+					for (int x = 0; x < SIZE; x++) {
+						assertEquals(terrain[cx * SIZE + x][cy * SIZE + y], chunk.values[x + y * SIZE], 0);
+					}
+				}
+			}
+		}
+		// negative coordinates work as well
+		assertNotNull(chunks.get(-5, -7));
+	}
+
+	@Test public void evictsLeastRecentlyUsed () {
+		long chunkBytes = SIZE * SIZE * 4;
+		TerrainChunks chunks = new TerrainChunks(SIZE, chunkBytes * 3, 0);
+		chunks.setSeed(SEED);
+		chunks.beginFrame();
+		TerrainChunks.Chunk first = chunks.get(0, 0);
+		chunks.get(1, 0);
+		chunks.get(2, 0);
+		chunks.beginFrame();
+		// touch first, so second is the oldest
+		assertSame(first, chunks.get(0, 0));
+		chunks.get(3, 0);
+		assertEquals(3, chunks.getCachedCount());
+		assertEquals(1, chunks.getEvictedCount());
+		assertSame(first, chunks.get(0, 0));
+		assertEquals(chunkBytes * 3, chunks.getUsedBytes());
+
+		// render data counts towards budget and is disposed on eviction
+		final boolean[] disposed = new boolean[1];
+		chunks.setRenderData(first, new Disposable() {
+			@Override public void dispose () {
+				disposed[0] = true;
+			}
+		}, (int)chunkBytes);
+		// (2, 0) wasn't used this frame
+		assertEquals(2, chunks.getCachedCount());
+		assertEquals(chunkBytes * 3, chunks.getUsedBytes());
+		chunks.beginFrame();
+		chunks.get(5, 5);
+		chunks.get(6, 5);
+		// first is the oldest now
+		assertTrue(disposed[0]);
+		assertEquals(2, chunks.getCachedCount());
+		assertEquals(chunkBytes * 2, chunks.getUsedBytes());
+	}
+
+	@Test public void generatesInBackground () throws InterruptedException {
+		TerrainChunks chunks = new TerrainChunks(SIZE, Long.MAX_VALUE, 2);
+		try {
+			chunks.setSeed(SEED);
+			chunks.beginFrame();
+			assertNull(chunks.get(1, 1));
+			assertEquals(1, chunks.getPendingCount());
+			TerrainChunks.Chunk chunk = null;
+			for (int i = 0; i < 500 && chunk == null; i++) {
+				Thread.sleep(10);
+				chunks.beginFrame();
+				chunk = chunks.get(1, 1);
+			}
+			assertNotNull(chunk);
+			assertEquals(0, chunks.getPendingCount());
+			// reseed drops everything
+			chunks.setSeed(SEED + 1);
+			assertEquals(0, chunks.getCachedCount());
+		} finally {
+			chunks.dispose();
+		}
+	}
+
+	@Test public void reseedDropsOldChunks () {
+		ManualExecutor executor = new ManualExecutor();
+		TerrainChunks chunks = new TerrainChunks(SIZE, Long.MAX_VALUE, executor, 4);
+		chunks.setSeed(SEED);
+		chunks.beginFrame();
+		for (int i = 0; i < 4; i++) {
+			assertNull(chunks.get(i, 0));
+		}
+		// first one is done, but not picked up yet
+		executor.runNext();
+		chunks.setSeed(SEED + 1);
+		assertEquals(1, chunks.getPendingCount());
+		// done chunk still counts towards the cap until it is dropped
+		for (int i = 0; i < 4; i++) {
+			chunks.get(i, 0);
+		}
+		assertEquals(4, chunks.getPendingCount());
+		// cancelled chunks do nothing
+		for (int i = 0; i < 3; i++) {
+			executor.runNext();
+		}
+		chunks.beginFrame();
+		assertEquals(3, chunks.getPendingCount());
+		assertEquals(0, chunks.getCachedCount());
+
+		float[][] terrain = TerrainGen.generate(SEED + 1, SIZE, SIZE);
+		while (executor.runNext());
+		chunks.beginFrame();
+		assertEquals(0, chunks.getPendingCount());
+		assertEquals(3, chunks.getCachedCount());
+		TerrainChunks.Chunk chunk = chunks.get(0, 0);
+		for (int y = 0; y < SIZE; y++) {
+			for (int x = 0; x < SIZE; x++) {
+				assertEquals(terrain[x][y], chunk.values[x + y * SIZE], 0);
+			}
+		}
+	}
+
+	/**
+	 * Runs tasks only when asked to
+	 */
+	static class ManualExecutor extends AbstractExecutorService {
+		final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+		boolean runNext () {
+			Runnable task = tasks.poll();
+			if (task == null) return false;
+			task.run();
+			return true;
+		}
+
+		@Override public void execute (Runnable command) {
+			tasks.add(command);
+		}
+
+		@Override public void shutdown () {
+		}
+
+		@Override public List<Runnable> shutdownNow () {
+			List<Runnable> left = new ArrayList<>(tasks);
+			tasks.clear();
+			return left;
+		}
+
+		@Override public boolean isShutdown () {
+			return false;
+		}
+
+		@Override public boolean isTerminated () {
+			return false;
+		}
+
+		@Override public boolean awaitTermination (long timeout, TimeUnit unit) {
+			return true;
+		}
+	}
+}
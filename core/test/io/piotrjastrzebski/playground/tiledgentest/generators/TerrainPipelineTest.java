@@ -0,0 +1,103 @@
+package io.piotrjastrzebski.playground.tiledgentest.generators;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class TerrainPipelineTest {
+	static final int WIDTH = 120;
+	static final int HEIGHT = 70;
+	static final long SEED = 1337;
+
+	@Test public void parallelEqualsSerial () {
+		TerrainPipeline serial = new TerrainPipeline();
+		serial.generate(SEED, WIDTH, HEIGHT);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			TerrainPipeline parallel = new TerrainPipeline(pool);
+			parallel.rowsPerTask = 3;
+			parallel.generate(SEED, WIDTH, HEIGHT);
+			assertTrue(Arrays.equals(serial.getTerrain(), parallel.getTerrain()));
+			assertTrue(Arrays.equals(serial.getMountains(), parallel.getMountains()));
+			assertTrue(Arrays.equals(serial.getRain(), parallel.getRain()));
+			assertTrue(Arrays.equals(serial.getTemperature(), parallel.getTemperature()));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test public void buffersReused () {
+		TerrainPipeline pipeline = new TerrainPipeline();
+		pipeline.generate(SEED, WIDTH, HEIGHT);
+		float[] terrain = pipeline.getTerrain();
+		float[] first = Arrays.copyOf(terrain, WIDTH * HEIGHT);
+		pipeline.generate(SEED + 1, WIDTH, HEIGHT);
+		assertSame(terrain, pipeline.getTerrain());
+		pipeline.generate(SEED, WIDTH / 2, HEIGHT);
+		assertSame(terrain, pipeline.getTerrain());
+		pipeline.generate(SEED, WIDTH, HEIGHT);
+		assertArrayEquals(first, Arrays.copyOf(pipeline.getTerrain(), WIDTH * HEIGHT), 0);
+	}
+
+	@Test public void rainMatchesScatterBlur () {
+		int dst = 23;
+		float water = 0.4f;
+		float[][] terrain = TerrainGen.generate(SEED, WIDTH, HEIGHT);
+		float[][] rain = RainGen.generate(terrain, dst, water);
+		float[][] expected = scatterRain(terrain, dst, water);
+		for (int x = 0; x < WIDTH; x++) {
+			assertArrayEquals(expected[x], rain[x], 0.0001f);
+		}
+	}
+
+	/**
+	 * Original per tile scatter version of {@link RainGen#generate(float[][], int, float)}
+	 */
+	private static float[][] scatterRain (float[][] terrain, int dst, float water) {
+		int width = terrain.length;
+		int height = terrain[0].length;
+		float[][] rain = new float[width][height];
+		float[][] blur = new float[width][height];
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				rain[x][y] = terrain[x][y] <= water? 1 : 0;
+			}
+		}
+		for (int pass = 0; pass < 2; pass++) {
+			for (int x = 0; x < width; x++) {
+				for (int y = 0; y < height; y++) {
+					for (int o = -dst; o <= dst; o++) {
+						if (o == 0) continue;
+						int mx = pass == 0? x + o : x;
+						int my = pass == 0? y : y + o;
+						if (mx < 0 || mx >= width || my < 0 || my >= height) continue;
+						blur[mx][my] += rain[x][y] * (1 - (Math.abs(o) / (1.1f * dst)));
+					}
+				}
+			}
+			for (int x = 0; x < width; x++) {
+				for (int y = 0; y < height; y++) {
+					rain[x][y] += blur[x][y];
+					blur[x][y] = 0;
+				}
+			}
+		}
+		float max = 1;
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				max = Math.max(max, rain[x][y]);
+			}
+		}
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				float val = (terrain[x][y] - water) / (1 - water);
+				rain[x][y] = rain[x][y] / max - (float)Math.pow(val, 5) / 5;
+				rain[x][y] = Math.max(0, Math.min(1, rain[x][y]));
+			}
+		}
+		return rain;
+	}
+}